@@ -1,3 +1,4 @@
+import codegen.analysis.SemanticAnalyzer;
 import codegen.analysis.dataflow.DataFlowGraph;
 import codegen.analysis.liveness.LivenessAnalysis;
 import codegen.flowgraph.FlowGraph;
@@ -5,11 +6,13 @@ import codegen.flowgraph.FlowGraphGenerator;
 import lexer.StupsLexer;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.Lexer;
+import parser.StupsDescentParser;
 import parser.StupsParser;
+import parser.StupsRecognizer;
 import parser.ast.SyntaxTree;
-import parser.ast.SyntaxTreeNode;
+import parser.ast.SyntaxTreeArena;
+import parser.ast.SyntaxTreeImage;
 import parser.grammar.Grammar;
-import typechecker.TypeChecker;
 import util.Logger;
 
 import java.io.IOException;
@@ -17,16 +20,18 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
-import java.util.Map;
 
 public final class StupsCompiler {
 
+    private static final String IMAGE_EXTENSION = ".ast";
+
     private StupsCompiler() {}
 
     public static void main(String[] args) {
         System.out.println("StupsCompiler: " + Arrays.toString(args) + "\n");
 
-        if (args.length != 2) {
+        // Nur -check nimmt mehrere Dateien
+        if (args.length < 2 || (args.length != 2 && !"-check".equals(args[0]))) {
             System.out.println("Falsche Argumente.");
             return;
         }
@@ -34,6 +39,8 @@ public final class StupsCompiler {
         switch (args[0]) {
             case "-compile" -> compile(args[1]);
             case "-liveness" -> liveness(args[1]);
+            case "-ast" -> ast(args[1]);
+            case "-check" -> check(Arrays.copyOfRange(args, 1, args.length));
             default -> System.out.println("Falsche Argumente.");
         }
     }
@@ -92,7 +99,101 @@ public final class StupsCompiler {
         System.out.println("Registers: " + registers);
     }
 
+    /**
+     * Prüft Syntax und Typen, ohne Syntaxbaum und Code zu erzeugen.
+     * Für jede Datei wird nur der erste Fehler ausgegeben.
+     */
+    private static void check(String[] filenames) {
+        final StupsRecognizer recognizer = StupsRecognizer.fromGrammar(getGrammar());
+
+        for (String filename : filenames) {
+            try {
+                final Lexer lexer = getLexer(filename);
+                recognizer.recognize(lexer.getAllTokens(), lexer.getVocabulary());
+
+                System.out.println(filename + ": OK");
+            } catch (RuntimeException e) {
+                System.out.println(filename + ": " + e.getClass().getSimpleName() + ": " + String.valueOf(e.getMessage()).strip());
+            }
+        }
+    }
+
+    /**
+     * Schreibt den geprüften Abstrakten Syntaxbaum als Abbild, -compile und -liveness können dieses statt
+     * des Quellprogramms lesen.
+     */
+    private static void ast(String filename) {
+        System.out.println("Schreibe Syntaxbaum für " + filename);
+
+        final SyntaxTreeArena abstractSyntaxTree = getAbstractSyntaxTree(filename);
+        final SemanticAnalyzer analysis = SemanticAnalyzer.fromArena(abstractSyntaxTree);
+
+        final String fileExtension = filename.substring(filename.lastIndexOf('.') + 1);
+        final String outputName = filename.replaceFirst("\\." + fileExtension, IMAGE_EXTENSION);
+        try {
+            final Path outputFile = Paths.get(System.getProperty("user.dir") + "/" + outputName);
+            SyntaxTreeImage.write(outputFile, abstractSyntaxTree, analysis.getNodeTypes(), filename);
+        } catch (IOException e) {
+            System.out.println("Datei konnte nicht geschrieben werden.");
+            return;
+        }
+
+        System.out.println("Syntaxbaum geschrieben: " + outputName);
+    }
+
     private static FlowGraphGenerator getFlowGraphGen(String filename) {
+        if (filename.endsWith(IMAGE_EXTENSION)) {
+            // Lexer, Parser und TypeChecker überspringen
+
+            final SyntaxTreeImage image = getImage(filename);
+
+            return FlowGraphGenerator.fromArena(image.getTree(), image.getNodeTypes(), image.getSource());
+        }
+
+        final SyntaxTreeArena abstractSyntaxTree = getAbstractSyntaxTree(filename);
+
+        // Symbole, Typen, Slots und Stacktiefe in einem Durchlauf
+        final SemanticAnalyzer analysis = SemanticAnalyzer.fromArena(abstractSyntaxTree);
+
+        return FlowGraphGenerator.fromAnalysis(abstractSyntaxTree, analysis, filename);
+    }
+
+    private static SyntaxTreeArena getAbstractSyntaxTree(String filename) {
+        final Lexer lexer = getLexer(filename);
+        final Grammar grammar = getGrammar();
+
+        // Parsing + Typechecking of program
+        // Für stups.grammar gibt es einen generierten Parser, geänderte Grammatiken verwenden den Tabellen-Parser.
+        // Dieser berechnet nur die benötigten Zellen, da nur ein Programm geparst wird.
+        final SyntaxTree parseTree;
+        if (StupsDescentParser.isGeneratedFrom(grammar)) {
+            parseTree = StupsDescentParser.parse(lexer.getAllTokens(), lexer.getVocabulary());
+        } else {
+            final StupsParser stupsParser = StupsParser.fromGrammarLazy(grammar);
+            parseTree = stupsParser.parse(lexer.getAllTokens(), lexer.getVocabulary());
+        }
+
+        Logger.logDebugSupplier(() -> parseTree.printToImage("ParseTree"), StupsCompiler.class);
+
+        return SyntaxTreeArena.toAbstractSyntaxTree(parseTree, grammar);
+    }
+
+    private static SyntaxTreeImage getImage(String filename) {
+        // Wie beim Lexer erst relativ, dann absolut
+        try {
+            return SyntaxTreeImage.read(Paths.get(System.getProperty("user.dir") + "/" + filename));
+        } catch (IOException e) {
+
+            try {
+                return SyntaxTreeImage.read(Paths.get(filename));
+            } catch (IOException ee) {
+                System.out.println("Der Syntaxbaum konnte nicht gelesen werden: " + ee.getMessage());
+                throw new IllegalStateException("Der Syntaxbaum konnte nicht gelesen werden.");
+            }
+        }
+    }
+
+    private static Lexer getLexer(String filename) {
         // File opening + Lexing
         Lexer lexer;
         try {
@@ -113,28 +214,17 @@ public final class StupsCompiler {
             }
         }
 
+        return lexer;
+    }
+
+    private static Grammar getGrammar() {
         // Grammar parsing from file
-        final Grammar grammar;
         try {
             final Path grammarFile = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
-            grammar = Grammar.fromFile(grammarFile);
+            return Grammar.fromFile(grammarFile);
         } catch (IOException e) {
             System.out.println("Die Grammatik konnte nicht geöffnet werden.");
             throw new IllegalStateException("Die Grammatik konnte nicht geöffnet werden.");
         }
-
-        // Parser from Grammar
-        final StupsParser stupsParser = StupsParser.fromGrammar(grammar);
-
-        // Parsing + Typechecking of program
-        final SyntaxTree parseTree = stupsParser.parse(lexer.getAllTokens(), lexer.getVocabulary());
-
-        Logger.logDebugSupplier(() -> parseTree.printToImage("ParseTree"), StupsCompiler.class);
-
-        final SyntaxTree abstractSyntaxTree = SyntaxTree.toAbstractSyntaxTree(parseTree, grammar);
-
-        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(abstractSyntaxTree);
-
-        return FlowGraphGenerator.fromAST(abstractSyntaxTree, nodeTable, filename);
     }
 }
@@ -0,0 +1,205 @@
+package codegen.analysis;
+
+import parser.ast.NodeKind;
+import parser.ast.SyntaxTreeArena;
+import parser.ast.SyntaxTreeVisitor;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weist jeder deklarierten Variable eine Position in der JVM-Locals-Tabelle zu, Slot 0 gehört args.
+ *
+ * <p>Variablen gelten in ihrem Block (siehe {@link SyntaxTreeArena#isBlock(int)}). Die Slots eines Blocks liegen
+ * direkt über denen des umschließenden Blocks, getrennte Blöcke verwenden also dieselben Slots wieder.
+ * Innerhalb eines Blocks werden die Slots von hinten vergeben: Die letzte Deklaration in Postorder bekommt
+ * den niedrigsten Slot.</p>
+ */
+public final class LocalSlotAllocator implements SyntaxTreeVisitor {
+
+    private static final int NONE = -1;
+
+    private final SyntaxTreeArena tree;
+
+    /**
+     * Der umschließende Bereich je Bereich, Bereich 0 ist der äußerste.
+     */
+    private final List<Integer> parents;
+    private final List<Integer> openScopes;
+
+    /**
+     * Die deklarierten Variablen in Postorder und ihr Bereich.
+     */
+    private final List<String> declarations;
+    private final List<String> types;
+    private final List<Integer> declarationScopes;
+
+    /**
+     * Die Knoten, die eine Variable verwenden (Identifier und Zuweisungen), und ihr Bereich.
+     */
+    private int[] useNodes;
+    private int[] useScopes;
+    private int useCount;
+
+    // Ergebnis, wird beim ersten Zugriff berechnet
+    private int[] slots;
+    private Map<String, Integer> varMap;
+    private int localCount;
+
+    public LocalSlotAllocator(SyntaxTreeArena tree) {
+        this.tree = tree;
+        this.parents = new ArrayList<>();
+        this.parents.add(NONE);
+        this.openScopes = new ArrayList<>();
+        this.openScopes.add(0);
+        this.declarations = new ArrayList<>();
+        this.types = new ArrayList<>();
+        this.declarationScopes = new ArrayList<>();
+        this.useNodes = new int[16];
+        this.useScopes = new int[16];
+    }
+
+    @Override
+    public void enter(SyntaxTreeArena tree, int node) {
+        if (tree.isBlock(node)) {
+            this.parents.add(this.currentScope());
+            this.openScopes.add(this.parents.size() - 1);
+        }
+
+        final NodeKind kind = tree.getKind(node);
+        if (kind == NodeKind.IDENTIFIER || kind == NodeKind.ASSIGNMENT) {
+            if (this.useCount == this.useNodes.length) {
+                this.useNodes = Arrays.copyOf(this.useNodes, 2 * this.useCount);
+                this.useScopes = Arrays.copyOf(this.useScopes, 2 * this.useCount);
+            }
+
+            this.useNodes[this.useCount] = node;
+            this.useScopes[this.useCount] = this.currentScope();
+            this.useCount++;
+        }
+    }
+
+    @Override
+    public void exit(SyntaxTreeArena tree, int node) {
+        if (tree.getKind(node) == NodeKind.DECLARATION) {
+            // New variables only come from declarations
+
+            this.declarations.add(tree.getValue(tree.getChild(node, 0)));
+            this.types.add(tree.getValue(node));
+            this.declarationScopes.add(this.currentScope());
+        }
+
+        if (tree.isBlock(node)) {
+            this.openScopes.remove(this.openScopes.size() - 1);
+        }
+    }
+
+    private int currentScope() {
+        return this.openScopes.get(this.openScopes.size() - 1);
+    }
+
+    private void allocate() {
+        if (this.slots != null) {
+            return;
+        }
+
+        Logger.logDebug("Initializing variable-map", LocalSlotAllocator.class);
+
+        final int scopeCount = this.parents.size();
+
+        // Die Bereiche sind in Preorder nummeriert, der umschließende Bereich kommt also immer zuerst
+        final int[] counts = new int[scopeCount];
+        for (int scope : this.declarationScopes) {
+            counts[scope]++;
+        }
+
+        final int[] next = new int[scopeCount];
+        this.localCount = 1;
+        for (int scope = 0; scope < scopeCount; scope++) {
+            final int parent = this.parents.get(scope);
+            next[scope] = parent == NONE ? 1 : next[parent] + counts[parent];
+            this.localCount = Math.max(this.localCount, next[scope] + counts[scope]);
+        }
+
+        final List<Map<String, Integer>> scopeSlots = new ArrayList<>(scopeCount);
+        for (int scope = 0; scope < scopeCount; scope++) {
+            scopeSlots.add(new HashMap<>());
+        }
+
+        // Bei doppelten Deklarationen gewinnt die erste, gleiche Namen in getrennten Blöcken bekommen ein #n
+        final Map<String, Integer> varMap = new HashMap<>();
+        final Map<String, Integer> occurrences = new HashMap<>();
+        final int[] declarationSlots = new int[this.declarations.size()];
+        for (int i = this.declarations.size() - 1; i >= 0; i--) {
+            final int scope = this.declarationScopes.get(i);
+            declarationSlots[i] = next[scope]++;
+        }
+
+        for (int i = 0; i < this.declarations.size(); i++) {
+            final String name = this.declarations.get(i);
+            final int slot = declarationSlots[i];
+
+            scopeSlots.get(this.declarationScopes.get(i)).putIfAbsent(name, slot);
+
+            final int occurrence = occurrences.merge(name, 1, Integer::sum);
+            varMap.putIfAbsent(occurrence == 1 ? name : name + "#" + occurrence, slot);
+
+            Logger.logInfo("Assign local variable \"" + name + "\" -> \"" + this.types.get(i) + "\" to slot " + slot,
+                           LocalSlotAllocator.class);
+        }
+
+        this.slots = new int[this.tree.size()];
+        Arrays.fill(this.slots, NONE);
+        for (int i = 0; i < this.useCount; i++) {
+            this.slots[this.useNodes[i]] = this.resolve(scopeSlots, this.useScopes[i], this.tree.getValue(this.useNodes[i]));
+        }
+
+        this.varMap = Collections.unmodifiableMap(varMap);
+
+        Logger.logDebug("Successfully initialized variable-map", LocalSlotAllocator.class);
+    }
+
+    private int resolve(List<Map<String, Integer>> scopeSlots, int scope, String name) {
+        for (int current = scope; current != NONE; current = this.parents.get(current)) {
+            final Integer slot = scopeSlots.get(current).get(name);
+            if (slot != null) {
+                return slot;
+            }
+        }
+
+        return NONE;
+    }
+
+    /**
+     * @return Symbol -> jasminLocalVarNr. Wird ein Name in getrennten Blöcken mehrfach deklariert,
+     *     heißen die weiteren Einträge name#2, name#3, ...
+     */
+    public Map<String, Integer> getVarMap() {
+        this.allocate();
+
+        return this.varMap;
+    }
+
+    /**
+     * @return Der Slot der Variable, die ein Identifier- oder Zuweisungsknoten verwendet, -1 für andere Knoten.
+     */
+    public int getSlot(int node) {
+        this.allocate();
+
+        return this.slots[node];
+    }
+
+    /**
+     * @return Die Größe der Locals-Tabelle inklusive args.
+     */
+    public int getLocalCount() {
+        this.allocate();
+
+        return this.localCount;
+    }
+}
@@ -0,0 +1,104 @@
+package codegen.analysis;
+
+import parser.ast.ExpressionDag;
+import parser.ast.SyntaxTreeArena;
+import parser.ast.SyntaxTreeWalker;
+import typechecker.SymbolCollector;
+import typechecker.Type;
+import typechecker.TypeChecker;
+import typechecker.TypeTable;
+import util.Logger;
+
+import java.util.Map;
+
+/**
+ * Führt alle Analysen vor der Codeerzeugung in einem gemeinsamen Durchlauf über den Abstrakten Syntaxbaum aus:
+ *
+ * <ul>
+ *     <li>Symbole sammeln ({@link SymbolCollector})</li>
+ *     <li>Gleiche Ausdrücke zusammenfassen ({@link ExpressionDag})</li>
+ *     <li>Typen prüfen ({@link TypeChecker}), jeden verschiedenen Ausdruck nur einmal</li>
+ *     <li>Variablen auf Slots verteilen ({@link LocalSlotAllocator})</li>
+ * </ul>
+ *
+ * <p>Die Stacktiefe hängt von den erzeugten Instruktionen ab, sie bestimmt {@link StackHeightAnalysis}.</p>
+ *
+ * <p>Ab {@link #PARALLEL_THRESHOLD} Knoten werden die Typen erst nach dem Durchlauf mit der vollständigen Tabelle
+ * parallel geprüft ({@link TypeChecker#validateParallel(SyntaxTreeArena, TypeTable)}).</p>
+ */
+public final class SemanticAnalyzer {
+
+    /**
+     * Darunter lohnt sich das Verteilen der Typprüfung auf mehrere Threads nicht.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Der Typ jedes Knotens, der Index ist der Knoten in der Arena.
+     */
+    private final Type[] nodeTypes;
+
+    private final ExpressionDag expressions;
+
+    private final LocalSlotAllocator slots;
+
+    private SemanticAnalyzer(Type[] nodeTypes, ExpressionDag expressions, LocalSlotAllocator slots) {
+        this.nodeTypes = nodeTypes;
+        this.expressions = expressions;
+        this.slots = slots;
+    }
+
+    /**
+     * @throws RuntimeException Die Fehler des {@link TypeChecker}.
+     */
+    public static SemanticAnalyzer fromArena(SyntaxTreeArena tree) {
+        Logger.logDebug("Beginning semantic analysis of abstract-syntax-tree", SemanticAnalyzer.class);
+
+        final SymbolCollector symbols = new SymbolCollector(tree);
+        final ExpressionDag expressions = new ExpressionDag(tree);
+        final LocalSlotAllocator slots = new LocalSlotAllocator(tree);
+
+        final Type[] nodeTypes;
+        if (tree.size() < PARALLEL_THRESHOLD) {
+            final TypeChecker types = TypeChecker.fromCollector(tree, symbols, expressions);
+
+            SyntaxTreeWalker.walk(tree, symbols, expressions, types, slots);
+            nodeTypes = types.verify();
+        } else {
+            SyntaxTreeWalker.walk(tree, symbols, expressions, slots);
+            nodeTypes = TypeChecker.validateParallel(tree, symbols.getTable());
+        }
+
+        final SemanticAnalyzer analysis = new SemanticAnalyzer(nodeTypes, expressions, slots);
+
+        Logger.logInfo("Shared " + expressions.getOccurrences() + " expression nodes as " + expressions.size()
+                       + " distinct expressions", SemanticAnalyzer.class);
+        Logger.logDebug("Successfully analysed the abstract-syntax-tree", SemanticAnalyzer.class);
+
+        return analysis;
+    }
+
+    // Getters
+
+    public Type[] getNodeTypes() {
+        return this.nodeTypes;
+    }
+
+    /**
+     * Die gleichen Ausdrücke des Programms, Grundlage für die Erkennung gemeinsamer Teilausdrücke.
+     */
+    public ExpressionDag getExpressions() {
+        return this.expressions;
+    }
+
+    /**
+     * Die Slots der Variablen, getrennte Blöcke teilen sich Slots.
+     */
+    public LocalSlotAllocator getSlots() {
+        return this.slots;
+    }
+
+    public Map<String, Integer> getVarMap() {
+        return this.slots.getVarMap();
+    }
+}
@@ -0,0 +1,108 @@
+package codegen.analysis;
+
+import codegen.CodeGenerationException;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.Opcode;
+import util.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Bestimmt die Höhe des Operandenstacks für jede Instruction des erzeugten {@link FlowGraph}.
+ * Jeder Block wird genau einmal mit seiner Eingangshöhe durchlaufen, die Effekte der Befehle kommen aus {@link Opcode}.
+ *
+ * <p>An Stellen, wo mehrere Blöcke zusammenlaufen, muss die Höhe auf allen Wegen gleich sein.
+ * Das gilt auch für Rücksprünge, der Zielblock wurde dann schon mit seiner Höhe durchlaufen.</p>
+ */
+public final class StackHeightAnalysis {
+
+    /**
+     * Der Block ist vom Anfang der Methode nicht erreichbar.
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * Die Stackhöhe beim Betreten jedes Blocks, der Index ist {@link FlowBasicBlock#getIndex()}.
+     */
+    private final int[] entryHeights;
+
+    private final int maxHeight;
+
+    private StackHeightAnalysis(int[] entryHeights, int maxHeight) {
+        this.entryHeights = entryHeights;
+        this.maxHeight = maxHeight;
+    }
+
+    /**
+     * @throws CodeGenerationException Wenn ein Befehl vom leeren Stack liest
+     *                                 oder ein Block auf verschiedenen Wegen mit verschiedener Höhe erreicht wird.
+     */
+    public static StackHeightAnalysis fromFlowGraph(FlowGraph graph) {
+        Logger.logDebug("Determining stack-heights of flow-graph", StackHeightAnalysis.class);
+
+        final int[] entryHeights = new int[graph.getBlockCount()];
+        Arrays.fill(entryHeights, UNREACHABLE);
+
+        if (entryHeights.length == 0) {
+            return new StackHeightAnalysis(entryHeights, 0);
+        }
+
+        // Blöcke mit bekannter Eingangshöhe, die noch durchlaufen werden müssen
+        final int[] worklist = new int[entryHeights.length];
+        int pending = 0;
+
+        entryHeights[0] = 0;
+        worklist[pending++] = 0;
+
+        int maxHeight = 0;
+        while (pending > 0) {
+            final FlowBasicBlock block = graph.getBlock(worklist[--pending]);
+
+            int height = entryHeights[block.getIndex()];
+            for (int position = 0; position < block.size(); position++) {
+                final Opcode opcode = block.getOpcode(position);
+
+                if (height < opcode.getPops()) {
+                    throw new CodeGenerationException("Stack underflow at \"" + opcode.getMnemonic()
+                                                      + "\" in block nr. " + block.getIndex());
+                }
+
+                height += opcode.getStackEffect();
+                maxHeight = Math.max(maxHeight, height);
+            }
+
+            for (FlowBasicBlock successor : block.getBlockSuccessorSet()) {
+                final int successorHeight = entryHeights[successor.getIndex()];
+
+                if (successorHeight == UNREACHABLE) {
+                    entryHeights[successor.getIndex()] = height;
+                    worklist[pending++] = successor.getIndex();
+                } else if (successorHeight != height) {
+                    throw new CodeGenerationException("Stack-height mismatch at block nr. " + successor.getIndex()
+                                                      + ": " + successorHeight + " and " + height);
+                }
+            }
+        }
+
+        final int max = maxHeight;
+        Logger.logInfoSupplier(() -> " :: Maximum stack-height: " + max, StackHeightAnalysis.class);
+        Logger.logDebug("Successfully determined stack-heights", StackHeightAnalysis.class);
+
+        return new StackHeightAnalysis(entryHeights, maxHeight);
+    }
+
+    /**
+     * @return Die Stackhöhe beim Betreten des Blocks oder {@link #UNREACHABLE}.
+     */
+    public int getEntryHeight(FlowBasicBlock block) {
+        return this.entryHeights[block.getIndex()];
+    }
+
+    /**
+     * @return Die maximale Stackhöhe, der Wert für ".limit stack".
+     */
+    public int getMaxHeight() {
+        return this.maxHeight;
+    }
+}
@@ -0,0 +1,218 @@
+package codegen.analysis;
+
+import codegen.CodeGenerationException;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.Opcode;
+import util.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bestimmt die Typen der lokalen Variablen und des Operandenstacks am Anfang jedes Blocks im {@link FlowGraph}.
+ * Daraus entstehen die StackMapTable-Frames, die der Verifier ab Classfile-Version 50 an jedem Sprungziel erwartet.
+ *
+ * <p>Die Typen der Slots ergeben sich aus den Store-Befehlen, nicht aus der {@link typechecker.TypeTable}:
+ * Getrennte Blöcke teilen sich Slots ({@link LocalSlotAllocator}), ein Slot kann also verschiedene Typen haben.
+ * Laufen Wege mit verschiedenen Typen zusammen, ist der Slot dort "Top" und darf nicht gelesen werden.</p>
+ */
+public final class StackMapAnalysis {
+
+    // Die Verification-Types so, wie sie im Jasmin-Assembler stehen
+    private static final String TOP = "Top";
+    private static final String INTEGER = "Integer";
+    private static final String STRING = "Object java/lang/String";
+    private static final String ARGS = "Object [Ljava/lang/String;";
+
+    /**
+     * Die Typen am Anfang jedes Blocks, der Index ist {@link FlowBasicBlock#getIndex()}.
+     * Null für Blöcke, die nicht erreichbar sind.
+     */
+    private final String[][] entryLocals;
+    private final String[][] entryStacks;
+
+    private StackMapAnalysis(String[][] entryLocals, String[][] entryStacks) {
+        this.entryLocals = entryLocals;
+        this.entryStacks = entryStacks;
+    }
+
+    /**
+     * Die Blöcke werden so lange durchlaufen, bis sich die Typen an keinem Blockanfang mehr ändern.
+     * Ein Slot wird dabei höchstens einmal zu "Top", deshalb endet das nach wenigen Durchläufen.
+     *
+     * @throws CodeGenerationException Wenn der Stack an einem Sprungziel auf verschiedenen Wegen verschiedene Typen hat.
+     */
+    public static StackMapAnalysis fromFlowGraph(FlowGraph graph) {
+        Logger.logDebug("Determining stack-map frames of flow-graph", StackMapAnalysis.class);
+
+        final int blockCount = graph.getBlockCount();
+        final String[][] entryLocals = new String[blockCount][];
+        final String[][] entryStacks = new String[blockCount][];
+
+        if (blockCount == 0) {
+            return new StackMapAnalysis(entryLocals, entryStacks);
+        }
+
+        // Slot 0 sind die Argumente der main-Methode, alle anderen sind am Anfang nicht belegt
+        entryLocals[0] = new String[localCount(graph)];
+        Arrays.fill(entryLocals[0], TOP);
+        entryLocals[0][0] = ARGS;
+        entryStacks[0] = new String[0];
+
+        final Deque<Integer> worklist = new ArrayDeque<>();
+        final boolean[] queued = new boolean[blockCount];
+        worklist.push(0);
+        queued[0] = true;
+
+        while (!worklist.isEmpty()) {
+            final FlowBasicBlock block = graph.getBlock(worklist.pop());
+            queued[block.getIndex()] = false;
+
+            final String[] locals = entryLocals[block.getIndex()].clone();
+            final List<String> stack = new ArrayList<>(Arrays.asList(entryStacks[block.getIndex()]));
+            simulateBlock(graph, block, locals, stack);
+
+            final String[] exitStack = stack.toArray(new String[0]);
+            for (FlowBasicBlock successor : block.getBlockSuccessorSet()) {
+                if (merge(successor, locals, exitStack, entryLocals, entryStacks) && !queued[successor.getIndex()]) {
+                    worklist.push(successor.getIndex());
+                    queued[successor.getIndex()] = true;
+                }
+            }
+        }
+
+        Logger.logDebug("Successfully determined stack-map frames", StackMapAnalysis.class);
+
+        return new StackMapAnalysis(entryLocals, entryStacks);
+    }
+
+    /**
+     * Die Anzahl der Slots ist der größte Slot der Load- und Store-Befehle + 1, mindestens aber 1 für die Argumente.
+     */
+    private static int localCount(FlowGraph graph) {
+        int localCount = 1;
+        for (FlowBasicBlock block : graph) {
+            for (int position = 0; position < block.size(); position++) {
+                if (block.getOpcode(position).getLocal() != Opcode.Local.NONE) {
+                    localCount = Math.max(localCount, block.getOperand(position) + 1);
+                }
+            }
+        }
+
+        return localCount;
+    }
+
+    private static void simulateBlock(FlowGraph graph, FlowBasicBlock block, String[] locals, List<String> stack) {
+        for (int position = 0; position < block.size(); position++) {
+            final Opcode opcode = block.getOpcode(position);
+            final int operand = block.getOperand(position);
+
+            final String pushed = switch (opcode) {
+                case LDC_CONSTANT -> STRING;
+                case ALOAD -> locals[operand];
+                case GETSTATIC -> fieldType(graph.getConstant(operand));
+                default -> INTEGER;
+            };
+
+            String popped = TOP;
+            for (int pop = 0; pop < opcode.getPops(); pop++) {
+                popped = stack.remove(stack.size() - 1);
+            }
+
+            if (opcode.getLocal() == Opcode.Local.DEF) {
+                locals[operand] = popped;
+            }
+
+            if (opcode.getPushes() == 1) {
+                stack.add(pushed);
+            }
+        }
+    }
+
+    /**
+     * @param field Die Feldreferenz wie bei getstatic, z.B. "java/lang/System/out Ljava/io/PrintStream;"
+     */
+    private static String fieldType(String field) {
+        final String descriptor = field.substring(field.lastIndexOf(' ') + 1);
+
+        return descriptor.charAt(0) == 'L' ? "Object " + descriptor.substring(1, descriptor.length() - 1) : INTEGER;
+    }
+
+    /**
+     * Vereinigt die Typen am Ende eines Predecessors mit denen am Anfang des Successors.
+     *
+     * @return Ob sich die Typen am Anfang des Successors geändert haben.
+     */
+    private static boolean merge(FlowBasicBlock successor, String[] locals, String[] stack,
+                                 String[][] entryLocals, String[][] entryStacks) {
+        final int index = successor.getIndex();
+
+        if (entryLocals[index] == null) {
+            entryLocals[index] = locals.clone();
+            entryStacks[index] = stack;
+
+            return true;
+        }
+
+        if (!Arrays.equals(entryStacks[index], stack)) {
+            throw new CodeGenerationException("Stack-map mismatch at block nr. " + index + ": "
+                                              + Arrays.toString(entryStacks[index]) + " and " + Arrays.toString(stack));
+        }
+
+        boolean change = false;
+        for (int slot = 0; slot < locals.length; slot++) {
+            if (!entryLocals[index][slot].equals(locals[slot]) && !TOP.equals(entryLocals[index][slot])) {
+                entryLocals[index][slot] = TOP;
+                change = true;
+            }
+        }
+
+        return change;
+    }
+
+    /**
+     * Ein Frame wird an jedem erreichbaren Label gebraucht, an dem eine Instruction beginnt.
+     * Folgen mehrere Labels ohne Instructions aufeinander, bekommt nur das letzte den Frame,
+     * der Verifier erlaubt nur einen Frame pro Position.
+     * Hinter dem letzten Block steht noch das return der Methode.
+     */
+    public boolean needsFrame(FlowBasicBlock block) {
+        if (block.getLabelId() == FlowBasicBlock.NO_LABEL || this.entryLocals[block.getIndex()] == null) {
+            return false;
+        }
+
+        if (block.getIndex() == 0 && block.getBlockPredecessorSet().isEmpty()) {
+            // Der Anfang der Methode hat den impliziten Frame aus der Signatur
+
+            return false;
+        }
+
+        return block.size() > 0 || block.getIndex() == this.entryLocals.length - 1;
+    }
+
+    /**
+     * @return Der Frame als Jasmin-Direktive ".stack", abschließende "Top"-Slots werden weggelassen.
+     */
+    public String getFrame(FlowBasicBlock block) {
+        final String[] locals = this.entryLocals[block.getIndex()];
+
+        int localCount = locals.length;
+        while (localCount > 0 && TOP.equals(locals[localCount - 1])) {
+            localCount--;
+        }
+
+        final StringBuilder frame = new StringBuilder("\t.stack\n");
+        for (int slot = 0; slot < localCount; slot++) {
+            frame.append("\t\tlocals ").append(locals[slot]).append('\n');
+        }
+        for (String entry : this.entryStacks[block.getIndex()]) {
+            frame.append("\t\tstack ").append(entry).append('\n');
+        }
+
+        return frame.append("\t.end stack\n").toString();
+    }
+}
@@ -10,80 +10,160 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
  * Die Instruktionen repräsentiert durch einen Graphen.
+ *
+ * <p>Die Knoten sind nach {@link FlowInstruction#getIndex()} nummeriert. Die Kanten liegen als
+ * Compressed-Sparse-Row in int-Arrays: Die Successors von Knoten n stehen in
+ * {@code successors[successorOffsets[n] .. successorOffsets[n + 1]]}, die Predecessors ebenso.</p>
  */
 public final class DataFlowGraph implements Iterable<DataFlowNode> {
 
     // List for easy indexing
     private final List<DataFlowNode> dataFlowNodes;
 
-    private DataFlowGraph(List<DataFlowNode> dataFlowNodes) {
+    private final int[] successorOffsets;
+    private final int[] successors;
+    private final int[] predecessorOffsets;
+    private final int[] predecessors;
+
+    private DataFlowGraph(List<DataFlowNode> dataFlowNodes, int[] successorOffsets, int[] successors,
+                          int[] predecessorOffsets, int[] predecessors) {
         this.dataFlowNodes = Collections.unmodifiableList(dataFlowNodes);
+        this.successorOffsets = successorOffsets;
+        this.successors = successors;
+        this.predecessorOffsets = predecessorOffsets;
+        this.predecessors = predecessors;
     }
 
+    /**
+     * Erzeugt den Graphen in zwei Durchläufen über den {@link FlowGraph}: Erst werden die Kanten je Knoten gezählt,
+     * dann eingetragen. Die Laufzeit ist linear in Instruktionen und Kanten.
+     */
     public static DataFlowGraph fromFlowGraph(FlowGraph flowGraph) {
         Logger.logDebug("Beginning data-flow-graph generation", DataFlowGraph.class);
 
-        final List<DataFlowNode> dataFlowNodes = new ArrayList<>();
+        final int size = flowGraph.getInstructionCount();
+        final List<DataFlowNode> dataFlowNodes = new ArrayList<>(size);
 
-        // Initialize all DataFlowNodes
+        // Initialize all DataFlowNodes, die Blöcke liefern die Instruktionen in Indexreihenfolge
+        final int[] successorOffsets = new int[size + 1];
+        final int[] predecessorOffsets = new int[size + 1];
         for (FlowBasicBlock basicBlock : flowGraph) {
             for (FlowInstruction instruction : basicBlock) {
                 dataFlowNodes.add(DataFlowNode.fromFlowNode(instruction));
+                successorOffsets[instruction.getIndex() + 1] = 1;
+                predecessorOffsets[instruction.getIndex() + 1] = 1;
+            }
+
+            // Nur die Ränder eines Blocks haben Kanten in andere Blöcke
+            if (basicBlock.size() > 0) {
+                predecessorOffsets[basicBlock.getFirstIndex() + 1] = countInstructions(basicBlock.getBlockPredecessorSet());
+                successorOffsets[basicBlock.getFirstIndex() + basicBlock.size()] = countInstructions(basicBlock.getBlockSuccessorSet());
             }
         }
 
-        final DataFlowGraph dataFlowGraph = new DataFlowGraph(dataFlowNodes);
-        initNodePosition(flowGraph, dataFlowGraph);
+        for (int node = 0; node < size; node++) {
+            successorOffsets[node + 1] += successorOffsets[node];
+            predecessorOffsets[node + 1] += predecessorOffsets[node];
+        }
+
+        final int[] successors = new int[successorOffsets[size]];
+        final int[] predecessors = new int[predecessorOffsets[size]];
+        initNodePosition(flowGraph, successorOffsets, successors, predecessorOffsets, predecessors);
+
+        final DataFlowGraph dataFlowGraph = new DataFlowGraph(dataFlowNodes, successorOffsets, successors,
+                                                              predecessorOffsets, predecessors);
 
         Logger.logDebug("Successfully generated data-flow-graph", DataFlowGraph.class);
 
         return dataFlowGraph;
     }
 
+    private static int countInstructions(Iterable<FlowBasicBlock> blocks) {
+        int count = 0;
+        for (FlowBasicBlock block : blocks) {
+            if (block.size() > 0) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
     /**
      * Jeder {@link DataFlowNode} im {@link DataFlowGraph} wird anhand des {@link FlowGraph} positioniert.
      * Dabei werden für den Node die Predecessors und Successors gesetzt.
+     * Innerhalb eines Blocks folgen die Instruktionen aufeinander, am Anfang und Ende eines Blocks
+     * sind es die letzten und ersten Instruktionen der benachbarten Blöcke.
      */
-    private static void initNodePosition(FlowGraph flowGraph, DataFlowGraph dataFlowGraph) {
+    private static void initNodePosition(FlowGraph flowGraph, int[] successorOffsets, int[] successors,
+                                         int[] predecessorOffsets, int[] predecessors) {
         for (FlowBasicBlock basicBlock : flowGraph) {
-            for (FlowInstruction instruction : basicBlock) {
+            if (basicBlock.size() == 0) {
+                continue;
+            }
 
-                final Optional<DataFlowNode> currentNode = getNodeByInstructionId(instruction, dataFlowGraph);
+            final int begin = basicBlock.getFirstIndex();
+            final int end = begin + basicBlock.size() - 1;
 
-                if (currentNode.isEmpty()) {
-                    continue;
-                }
+            for (int node = begin; node < end; node++) {
+                successors[successorOffsets[node]] = node + 1;
+                predecessors[predecessorOffsets[node + 1]] = node;
+            }
 
-                for (FlowInstruction predecessor : basicBlock.getInstructionPredecessorSet(instruction)) {
-                    final Optional<DataFlowNode> currentPredecessor = getNodeByInstructionId(predecessor, dataFlowGraph);
-                    currentPredecessor.ifPresent(dataFlowNode -> currentNode.get().addPredecessor(dataFlowNode));
+            int predecessor = predecessorOffsets[begin];
+            for (FlowBasicBlock block : basicBlock.getBlockPredecessorSet()) {
+                if (block.size() > 0) {
+                    predecessors[predecessor++] = block.getFirstIndex() + block.size() - 1;
                 }
+            }
 
-                for (FlowInstruction successor : basicBlock.getInstructionSuccessorSet(instruction)) {
-                    final Optional<DataFlowNode> currentSuccessor = getNodeByInstructionId(successor, dataFlowGraph);
-                    currentSuccessor.ifPresent(dataFlowNode -> currentNode.get().addSuccessor(dataFlowNode));
+            int successor = successorOffsets[end];
+            for (FlowBasicBlock block : basicBlock.getBlockSuccessorSet()) {
+                if (block.size() > 0) {
+                    successors[successor++] = block.getFirstIndex();
                 }
             }
         }
     }
 
-    private static Optional<DataFlowNode> getNodeByInstructionId(FlowInstruction instruction, DataFlowGraph dataFlowGraph) {
-        return dataFlowGraph.stream()
-                            .filter(node -> node.getId().equals(instruction.getId()))
-                            .findFirst();
-    }
-
     public static DataFlowGraph copy(DataFlowGraph dataFlowGraph) {
-        return new DataFlowGraph(new ArrayList<>(dataFlowGraph.dataFlowNodes));
+        return new DataFlowGraph(new ArrayList<>(dataFlowGraph.dataFlowNodes),
+                                 dataFlowGraph.successorOffsets, dataFlowGraph.successors,
+                                 dataFlowGraph.predecessorOffsets, dataFlowGraph.predecessors);
     }
 
     public int indexOf(DataFlowNode node) {
-        return this.dataFlowNodes.indexOf(node);
+        return node.getIndex();
+    }
+
+    public DataFlowNode get(int node) {
+        return this.dataFlowNodes.get(node);
+    }
+
+    public int getSuccessorCount(int node) {
+        return this.successorOffsets[node + 1] - this.successorOffsets[node];
+    }
+
+    /**
+     * @return Der Index des i-ten Successors von Knoten node.
+     */
+    public int getSuccessor(int node, int i) {
+        return this.successors[this.successorOffsets[node] + i];
+    }
+
+    public int getPredecessorCount(int node) {
+        return this.predecessorOffsets[node + 1] - this.predecessorOffsets[node];
+    }
+
+    /**
+     * @return Der Index des i-ten Predecessors von Knoten node.
+     */
+    public int getPredecessor(int node, int i) {
+        return this.predecessors[this.predecessorOffsets[node] + i];
     }
 
     public int size() {
@@ -108,9 +188,9 @@ public final class DataFlowGraph implements Iterable<DataFlowNode> {
 
         for (DataFlowNode node : this.dataFlowNodes) {
             dot.append("\"")
-               .append(node.getId())
+               .append(node.getIndex())
                .append("\" [label=\"{<f0> ")
-               .append(this.dataFlowNodes.indexOf(node))
+               .append(node.getIndex())
                .append("|<f1> ")
                .append(node.getInst())
                .append("}\"];\n");
@@ -119,21 +199,23 @@ public final class DataFlowGraph implements Iterable<DataFlowNode> {
         dot.append("START[label=\"START\" shape=box];\n")
            .append("END[label=\"END\" shape=box];\n");
 
-        dot.append("START -> \"").append(this.dataFlowNodes.get(0).getId()).append("\";\n");
-        dot.append("\"").append(this.dataFlowNodes.get(this.dataFlowNodes.size() - 1).getId()).append("\" -> END;\n");
+        dot.append("START -> \"").append(this.dataFlowNodes.get(0).getIndex()).append("\";\n");
+        dot.append("\"").append(this.dataFlowNodes.get(this.dataFlowNodes.size() - 1).getIndex()).append("\" -> END;\n");
 
         for (DataFlowNode node : this.dataFlowNodes) {
-            for (DataFlowNode successor : node.getSuccessorSet()) {
+            for (int i = 0; i < this.getSuccessorCount(node.getIndex()); i++) {
+                final DataFlowNode successor = this.get(this.getSuccessor(node.getIndex(), i));
 
-                dot.append("\"").append(node.getId()).append("\" -> \"").append(successor.getId()).append("\";\n");
+                dot.append("\"").append(node.getIndex()).append("\" -> \"").append(successor.getIndex()).append("\";\n");
             }
         }
 
         for (DataFlowNode node : this.dataFlowNodes) {
             dot.append("{ rank=same; ");
-            for (DataFlowNode successor : node.getSuccessorSet()) {
+            for (int i = 0; i < this.getSuccessorCount(node.getIndex()); i++) {
+                final DataFlowNode successor = this.get(this.getSuccessor(node.getIndex(), i));
 
-                dot.append("\"").append(successor.getId()).append("\", ");
+                dot.append("\"").append(successor.getIndex()).append("\", ");
             }
             dot.deleteCharAt(dot.lastIndexOf(","));
             dot.append("}\n");
@@ -1,13 +1,13 @@
 package codegen.analysis.dataflow;
 
 import codegen.flowgraph.FlowInstruction;
+import codegen.flowgraph.Opcode;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -15,10 +15,11 @@ import java.util.stream.Collectors;
  */
 public final class DataFlowNode {
 
-    // General graph structure information
-    private final UUID id;
-    private final Set<DataFlowNode> predecessors;
-    private final Set<DataFlowNode> successors;
+    /**
+     * Die Position im {@link DataFlowGraph}, gleich dem Index der {@link FlowInstruction}.
+     * Die Kanten liegen im Graph, siehe {@link DataFlowGraph#getSuccessor(int, int)}.
+     */
+    private final int index;
 
     /**
      * Die Instruction, welche auch die zugehörige {@link FlowInstruction} enthält.
@@ -47,62 +48,37 @@ public final class DataFlowNode {
      */
     private final Set<String> out;
 
-    private DataFlowNode(UUID id, String inst, String use, String def) {
-        this.id = id;
+    private DataFlowNode(int index, String inst, String use, String def) {
+        this.index = index;
         this.inst = inst;
         this.use = use;
         this.def = def;
         this.in = new HashSet<>();
         this.out = new HashSet<>();
-        this.predecessors = new HashSet<>();
-        this.successors = new HashSet<>();
     }
 
     public static DataFlowNode fromFlowNode(FlowInstruction srcInst) {
-        final String instType = switch (srcInst.getInstruction()) {
-            case "aload", "iload" -> "use";
-            case "astore", "istore" -> "def";
-            case "goto", "ifeq",
-                    "if_icmpeq", "if_acmpeq", "if_icmpne", "if_acmpne",
-                    "if_icmplt", "if_icmple", "if_icmpgt", "if_icmpge" -> "jmp";
-            default -> "";
-        };
+        final Opcode opcode = srcInst.getOpcode();
 
         String use = "";
         String def = "";
-        if ("use".equals(instType)) {
-            use = srcInst.getArgs()[0];
-        } else if ("def".equals(instType)) {
-            def = srcInst.getArgs()[0];
+        if (opcode.getLocal() == Opcode.Local.USE) {
+            use = Integer.toString(srcInst.getOperand());
+        } else if (opcode.getLocal() == Opcode.Local.DEF) {
+            def = Integer.toString(srcInst.getOperand());
         }
 
-        return new DataFlowNode(srcInst.getId(), srcInst.getInstruction(), use, def);
+        return new DataFlowNode(srcInst.getIndex(), opcode.getMnemonic(), use, def);
     }
 
     // Getters, Setters
 
-    public UUID getId() {
-        return this.id;
-    }
-
     public String getInst() {
         return this.inst;
     }
 
-    public Set<DataFlowNode> getPredecessorSet() {
-        return Collections.unmodifiableSet(this.predecessors);
-    }
-
-    public boolean addPredecessor(DataFlowNode node) {
-        return this.predecessors.add(node);
-    }
-
-    public Set<DataFlowNode> getSuccessorSet() {
-        return Collections.unmodifiableSet(this.successors);
-    }
-
-    public boolean addSuccessor(DataFlowNode node) {
-        return this.successors.add(node);
+    public int getIndex() {
+        return this.index;
     }
 
     public Set<String> getUseSet() {
@@ -153,7 +129,7 @@ public final class DataFlowNode {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.id, this.inst);
+        return Objects.hash(this.index, this.inst);
     }
 
     @Override
@@ -165,6 +141,6 @@ public final class DataFlowNode {
             return false;
         }
         final DataFlowNode that = (DataFlowNode) o;
-        return this.id.equals(that.id) && this.inst.equals(that.inst);
+        return this.index == that.index && this.inst.equals(that.inst);
     }
 }
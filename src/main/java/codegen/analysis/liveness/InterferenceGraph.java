@@ -7,6 +7,7 @@ import util.Logger;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,8 +26,8 @@ public final class InterferenceGraph implements Iterable<InterferenceNode> {
 
         final List<InterferenceNode> interferenceNodes = new ArrayList<>();
 
-        // Init graph
-        for (int symbol : varMap.values()) {
+        // Init graph, getrennte Blöcke können sich einen Slot teilen
+        for (int symbol : new LinkedHashSet<>(varMap.values())) {
             interferenceNodes.add(new InterferenceNode(symbol));
         }
 
@@ -38,26 +38,26 @@ public final class LivenessAnalysis {
             change = false;
 
             for (DataFlowNode node : dataFlowGraph) {
-                if (dataFlowGraph.indexOf(node) == dataFlowGraph.size() - 1) {
+                if (node.getIndex() == dataFlowGraph.size() - 1) {
                     // Skip END
 
                     continue;
                 }
 
-                change = change || calculateLivenessInOutNode(node);
+                change = change || calculateLivenessInOutNode(dataFlowGraph, node);
             }
         } while (change);
 
         Logger.logDebug("Successfully calculated in/out-sets", LivenessAnalysis.class);
     }
 
-    private static boolean calculateLivenessInOutNode(DataFlowNode dataFlowNode) {
+    private static boolean calculateLivenessInOutNode(DataFlowGraph dataFlowGraph, DataFlowNode dataFlowNode) {
         boolean change;
 
-        for (DataFlowNode succ : dataFlowNode.getSuccessorSet()) {
+        for (int i = 0; i < dataFlowGraph.getSuccessorCount(dataFlowNode.getIndex()); i++) {
             // A variable going live into the successor implies it going live out of the predecessor
 
-            dataFlowNode.addOut(succ.getInSet());
+            dataFlowNode.addOut(dataFlowGraph.get(dataFlowGraph.getSuccessor(dataFlowNode.getIndex(), i)).getInSet());
         }
 
         final Collection<String> addIN = new HashSet<>(dataFlowNode.getOutSet());
@@ -1,49 +1,74 @@
 package codegen.flowgraph;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * Die Instructions eines Blocks liegen in zwei Arrays: {@link Opcode#ordinal()} und der int-Operand.
+ * Eine {@link FlowInstruction} ist nur eine Sicht auf eine Position im Block.
+ */
 public class FlowBasicBlock implements Iterable<FlowInstruction> {
 
+    /**
+     * Kein Label, der Block kann nicht angesprungen werden.
+     */
+    public static final int NO_LABEL = -1;
+
     // Graph structure information
     private final UUID id;
     private final Set<FlowBasicBlock> predecessors;
     private final Set<FlowBasicBlock> successors;
 
+    /**
+     * Der Graph verwaltet Labelnamen und Konstanten, der Block kennt nur deren Ids.
+     */
+    private final FlowGraph graph;
+
     /**
      * Das Label ist das Jump-Label, über welches ein Block angesprungen werden kann.
      */
-    private final String label;
+    private final int label;
 
     /**
      * Alle Instructions, welche zu einem Block gehören.
      * Diese werden immer sequentiell ohne Verzweigungen ausgeführt.
      */
-    private final List<FlowInstruction> instructions;
+    private byte[] opcodes;
+    private int[] operands;
+    private int size;
+
+    /**
+     * Der Index der ersten Instruction im ganzen {@link FlowGraph}, die weiteren folgen fortlaufend.
+     */
+    private int firstIndex;
 
     /**
-     * Wird intern benutzt um die ID für eine hinzugefügte {@link FlowInstruction} zu ermitteln.
+     * Die Position im {@link FlowGraph}, wird vom Graph vergeben und nach dem Entfernen leerer Blöcke neu gesetzt.
      */
-    private int instNr;
+    private int index;
 
-    public FlowBasicBlock(String label) {
+    /**
+     * Der StackMapTable-Frame am Anfang des Blocks als Jasmin-Direktive, leer wenn keiner gebraucht wird.
+     */
+    private String frame;
+
+    FlowBasicBlock(FlowGraph graph, int label) {
+        this.graph = graph;
         this.label = label;
         this.id = UUID.randomUUID();
-        this.instructions = new ArrayList<>();
+        this.opcodes = new byte[4];
+        this.operands = new int[4];
         this.predecessors = new HashSet<>();
         this.successors = new HashSet<>();
-    }
-
-    public FlowBasicBlock() {
-        this("");
+        this.frame = "";
     }
 
     /**
@@ -51,7 +76,7 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
      * Der Block darf kein Label haben, damit keine Sprünge ins Leere passieren.
      */
     public boolean isEmpty() {
-        return this.instructions.isEmpty() && this.label.isBlank();
+        return this.size == 0 && this.label == NO_LABEL;
     }
 
     // Geteter, Setter
@@ -61,12 +86,61 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
     }
 
     public String getLabel() {
+        return this.label == NO_LABEL ? "" : this.graph.getLabelName(this.label);
+    }
+
+    public int getLabelId() {
         return this.label;
     }
 
-    public void addInstruction(String instruction, String... args) {
-        this.instNr++;
-        this.instructions.add(new FlowInstruction(instruction, args));
+    public int getIndex() {
+        return this.index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    public void setFrame(String frame) {
+        this.frame = frame;
+    }
+
+    FlowGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * @param index Die Position der Instruction im ganzen {@link FlowGraph}.
+     */
+    void addInstruction(int index, Opcode opcode, int operand) {
+        if (this.size == 0) {
+            this.firstIndex = index;
+        }
+
+        if (this.size == this.opcodes.length) {
+            this.opcodes = Arrays.copyOf(this.opcodes, 2 * this.size);
+            this.operands = Arrays.copyOf(this.operands, 2 * this.size);
+        }
+
+        this.opcodes[this.size] = (byte) opcode.ordinal();
+        this.operands[this.size] = operand;
+        this.size++;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int getFirstIndex() {
+        return this.firstIndex;
+    }
+
+    public Opcode getOpcode(int position) {
+        return Opcode.fromOrdinal(this.opcodes[position]);
+    }
+
+    public int getOperand(int position) {
+        return this.operands[position];
     }
 
     public Set<FlowBasicBlock> getBlockSuccessorSet() {
@@ -78,16 +152,16 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
      * Befindet sich die Instruction am Ende des Blockes, werden Instructions aus Successor-Blöcken gesucht.
      */
     public Set<FlowInstruction> getInstructionSuccessorSet(FlowInstruction inst) {
-        final int index = this.instructions.indexOf(inst);
+        final int index = this.positionOf(inst);
 
         if (index == -1) {
             return Collections.emptySet();
         }
 
-        if (index >= 0 && index < this.instructions.size() - 1) {
+        if (index < this.size - 1) {
             // Instruction is in the beginning or in the middle
 
-            return Set.of(this.instructions.get(index + 1));
+            return Set.of(new FlowInstruction(this, index + 1));
         }
 
         // Instruction is at the end
@@ -115,16 +189,16 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
      * Befindet sich die Instruction am Anfang des Blockes, werden Instructions aus Predecessor-Blöcken gesucht.
      */
     public Set<FlowInstruction> getInstructionPredecessorSet(FlowInstruction inst) {
-        final int index = this.instructions.indexOf(inst);
+        final int index = this.positionOf(inst);
 
         if (index == -1) {
             return Collections.emptySet();
         }
 
-        if (index > 0 && index <= this.instructions.size() - 1) {
+        if (index > 0) {
             // Instruction is in the middle or at the end
 
-            return Set.of(this.instructions.get(index - 1));
+            return Set.of(new FlowInstruction(this, index - 1));
         }
 
         // Instruction is at the beginning
@@ -143,20 +217,35 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
         return this.predecessors.remove(predecessor);
     }
 
+    /**
+     * Die Instructions eines Blocks sind im Graph fortlaufend nummeriert,
+     * die Position im Block ergibt sich deshalb direkt aus dem Index.
+     *
+     * @return Die Position im Block oder -1, wenn die Instruction nicht zum Block gehört.
+     */
+    private int positionOf(FlowInstruction inst) {
+        final int position = inst.getIndex() - this.firstIndex;
+        if (this.size == 0 || position < 0 || position >= this.size || inst.getBlock() != this) {
+            return -1;
+        }
+
+        return position;
+    }
+
     public Optional<FlowInstruction> getFirstInstruction() {
-        if (this.instructions.isEmpty()) {
+        if (this.size == 0) {
             return Optional.empty();
         }
 
-        return Optional.of(this.instructions.get(0));
+        return Optional.of(new FlowInstruction(this, 0));
     }
 
     public Optional<FlowInstruction> getLastInstruction() {
-        if (this.instructions.isEmpty()) {
+        if (this.size == 0) {
             return Optional.empty();
         }
 
-        return Optional.of(this.instructions.get(this.instructions.size() - 1));
+        return Optional.of(new FlowInstruction(this, this.size - 1));
     }
 
     // Printing
@@ -165,12 +254,31 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
      * Diese Methode ist für das Printen mit Graphviz, {@link #toString()} für den Rest.
      */
     public String printInst() {
-        return this.instructions.stream()
-                                .map(inst -> inst.toString().trim() + "\\n")
-                                .map(inst -> inst.replace("\"", "\\\""))
-                                .map(inst -> inst.replace("<", "less"))
-                                .map(inst -> inst.replace(">", "greater"))
-                                .collect(Collectors.joining());
+        final StringBuilder inst = new StringBuilder();
+        for (FlowInstruction instruction : this) {
+            inst.append(instruction.toString().trim()
+                                   .replace("\"", "\\\"")
+                                   .replace("<", "less")
+                                   .replace(">", "greater"))
+                .append("\\n");
+        }
+
+        return inst.toString();
+    }
+
+    /**
+     * Hängt den Jasmin-Code des Blocks an, erst hier werden Labels und Operanden zu Text.
+     */
+    void appendTo(StringBuilder jasmin) {
+        if (this.label != NO_LABEL) {
+            jasmin.append(this.getLabel()).append(":\n");
+        }
+        jasmin.append(this.frame);
+
+        for (int position = 0; position < this.size; position++) {
+            FlowInstruction.appendTo(jasmin, this.graph, this.getOpcode(position), this.operands[position]);
+            jasmin.append('\n');
+        }
     }
 
     // Overrides
@@ -189,26 +297,35 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
             return false;
         }
         final FlowBasicBlock that = (FlowBasicBlock) o;
-        return this.id.equals(that.id) && this.label.equals(that.label);
+        return this.id.equals(that.id) && this.label == that.label;
     }
 
     @Override
     public String toString() {
-        final String linesString = this.instructions.stream()
-                                                    .map(FlowInstruction::toString)
-                                                    .map(line -> line + "\n")
-                                                    .collect(Collectors.joining());
-
-        if (this.label.isBlank()) {
-            return linesString;
-        }
+        final StringBuilder jasmin = new StringBuilder();
+        this.appendTo(jasmin);
 
-        return this.label + ":\n"
-               + linesString;
+        return jasmin.toString();
     }
 
     @Override
     public Iterator<FlowInstruction> iterator() {
-        return this.instructions.iterator();
+        return new Iterator<>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return this.position < FlowBasicBlock.this.size;
+            }
+
+            @Override
+            public FlowInstruction next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return new FlowInstruction(FlowBasicBlock.this, this.position++);
+            }
+        };
     }
 }
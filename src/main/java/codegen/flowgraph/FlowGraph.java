@@ -5,14 +5,12 @@ import util.GraphvizCaller;
 import util.Logger;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Die Graph-Repräsentation des Programm, erzeugt aus einem {@link SyntaxTree}.
@@ -20,6 +18,9 @@ import java.util.stream.Collectors;
  */
 public class FlowGraph implements Iterable<FlowBasicBlock> {
 
+    /**
+     * Die Blöcke in Programmreihenfolge, der Index eines Blocks ist {@link FlowBasicBlock#getIndex()}.
+     */
     private final List<FlowBasicBlock> basicBlocks;
 
     // Only for Export to Jasmin-Assembler
@@ -27,19 +28,99 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
     private final FlowGraphTail exportTail;
 
     /**
-     * Wenn ein neuer Block ein Label bekommt, welches in der Predecessor-Map vorhanden ist,
-     * dann ist der hier gespeicherte Block ein Predecessor des neuen Blockes.
+     * Label-Id -> Block, damit Sprünge ihr Ziel nicht im ganzen Graph suchen müssen.
+     */
+    private final List<FlowBasicBlock> labelBlocks;
+
+    /**
+     * Wenn ein neuer Block ein Label bekommt, für das hier Blöcke eingetragen sind,
+     * dann sind die hier gespeicherten Blöcke Predecessors des neuen Blockes.
      * <p>
      * Einträge werden hier hinzugefügt, wenn ein Jump nach vorne passiert.
      * In diesem Fall ist der Jump-Successor noch nicht im Graph präsent.
+     * Mehrere Sprünge auf dasselbe Label sammeln sich in der Liste.
+     */
+    private final List<List<FlowBasicBlock>> predecessorMap;
+
+    /**
+     * Die Namen der Labels, bestehend aus einem Präfix im Konstantenpool und einer Nummer (-1 für keine).
+     * Der Name wird erst bei der Ausgabe zusammengesetzt.
+     */
+    private int[] labelPrefixes;
+    private int[] labelNumbers;
+
+    /**
+     * Strings, Feld- und Methodenreferenzen der Instructions und die Präfixe der Labels.
+     */
+    private final List<String> constants;
+    private final Map<String, Integer> constantIds;
+
+    /**
+     * Die Anzahl der Instructions, die nächste Instruction bekommt diesen Index.
      */
-    private final Map<String, FlowBasicBlock> predecessorMap;
+    private int instructionCount;
 
     public FlowGraph(String bytecodeVersion, String source, String clazz, int stackSize, int localCount) {
         this.exportHead = new FlowGraphHead(bytecodeVersion, source, clazz, stackSize, localCount);
         this.basicBlocks = new ArrayList<>();
         this.exportTail = new FlowGraphTail();
-        this.predecessorMap = new HashMap<>();
+        this.labelBlocks = new ArrayList<>();
+        this.predecessorMap = new ArrayList<>();
+        this.labelPrefixes = new int[16];
+        this.labelNumbers = new int[16];
+        this.constants = new ArrayList<>();
+        this.constantIds = new HashMap<>();
+    }
+
+    /**
+     * Legt ein neues Label an, das mit {@link #addLabel(int)} gesetzt und mit {@link #addJump(Opcode, int)}
+     * angesprungen werden kann.
+     *
+     * @param number Wird an den Präfix angehängt, -1 für ein Label ohne Nummer.
+     * @return Die Label-Id
+     */
+    public int newLabel(String prefix, int number) {
+        final int label = this.labelBlocks.size();
+        if (label == this.labelPrefixes.length) {
+            this.labelPrefixes = Arrays.copyOf(this.labelPrefixes, 2 * label);
+            this.labelNumbers = Arrays.copyOf(this.labelNumbers, 2 * label);
+        }
+
+        this.labelPrefixes[label] = this.addConstant(prefix);
+        this.labelNumbers[label] = number;
+        this.labelBlocks.add(null);
+        this.predecessorMap.add(null);
+
+        return label;
+    }
+
+    public int newLabel(String name) {
+        return this.newLabel(name, -1);
+    }
+
+    /**
+     * @return Der Index des Strings im Konstantenpool, gleiche Strings werden nur einmal gespeichert.
+     */
+    public int addConstant(String constant) {
+        final Integer id = this.constantIds.get(constant);
+        if (id != null) {
+            return id;
+        }
+
+        this.constants.add(constant);
+        this.constantIds.put(constant, this.constants.size() - 1);
+
+        return this.constants.size() - 1;
+    }
+
+    public String getConstant(int constant) {
+        return this.constants.get(constant);
+    }
+
+    public String getLabelName(int label) {
+        final String prefix = this.constants.get(this.labelPrefixes[label]);
+
+        return this.labelNumbers[label] < 0 ? prefix : prefix + this.labelNumbers[label];
     }
 
     /**
@@ -47,20 +128,23 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
      * Es werden Predecessor/Successor-Verbindungen zum letzten Block
      * und zu Blöcken aus der {@link #predecessorMap} hergestellt.
      */
-    public void addLabel(String label) {
-        Logger.logInfo(" :: Adding label: \"" + label + "\"", FlowGraph.class);
+    public void addLabel(int label) {
+        Logger.logInfoSupplier(() -> " :: Adding label: \"" + this.getLabelName(label) + "\"", FlowGraph.class);
 
-        final FlowBasicBlock newBlock = new FlowBasicBlock(label);
+        final FlowBasicBlock newBlock = new FlowBasicBlock(this, label);
 
         // Resolve missing successors/predecessors from jumps
-        if (this.predecessorMap.containsKey(label)) {
-            Logger.logInfo(" :: Handling predecessor-map entry:\n\t\t\t"
-                           + this.predecessorMap.get(label).getLabel()
-                           + "\n\t\t\t[...]\n\t\t\t"
-                           + this.predecessorMap.get(label).getLastInstruction(), FlowGraph.class);
-
-            this.predecessorMap.get(label).addSuccessorBlock(newBlock);
-            newBlock.addPredecessorBlock(this.predecessorMap.get(label));
+        final List<FlowBasicBlock> jumpPredecessors = this.predecessorMap.set(label, null);
+        if (jumpPredecessors != null) {
+            for (FlowBasicBlock predecessor : jumpPredecessors) {
+                Logger.logInfoSupplier(() -> " :: Handling predecessor-map entry:\n\t\t\t"
+                                             + predecessor.getLabel()
+                                             + "\n\t\t\t[...]\n\t\t\t"
+                                             + predecessor.getLastInstruction(), FlowGraph.class);
+
+                predecessor.addSuccessorBlock(newBlock);
+                newBlock.addPredecessorBlock(predecessor);
+            }
         }
 
         final Optional<FlowBasicBlock> currentBlock = this.getCurrentBlock();
@@ -69,7 +153,7 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
             currentBlock.get().addSuccessorBlock(newBlock); // Obvious successor of current block
         }
 
-        this.basicBlocks.add(newBlock);
+        this.addBlock(newBlock);
     }
 
     /**
@@ -80,15 +164,16 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
      * Da GoTo immer springt, wird diese Sprunganweisung gesondert betrachtet.
      *
      * @param jumpInstruction Der verwendete Sprungbefehl.
+     * @param label           Die Label-Id aus {@link #newLabel(String, int)}.
      */
-    public void addJump(String jumpInstruction, String label) {
-        Logger.logInfo(" :: Adding jump to label \"" + label + "\"", FlowGraph.class);
+    public void addJump(Opcode jumpInstruction, int label) {
+        Logger.logInfoSupplier(() -> " :: Adding jump to label \"" + this.getLabelName(label) + "\"", FlowGraph.class);
 
         this.addInstruction(jumpInstruction, label);
 
-        final FlowBasicBlock newBlock = new FlowBasicBlock();
+        final FlowBasicBlock newBlock = new FlowBasicBlock(this, FlowBasicBlock.NO_LABEL);
 
-        if (!"goto".equals(jumpInstruction)) {
+        if (jumpInstruction.getBranch() != Opcode.Branch.UNCONDITIONAL) {
             // Goto always jumps, so we don't have a direct relation in order of the code
 
             final Optional<FlowBasicBlock> currentBlock = this.getCurrentBlock();
@@ -100,68 +185,83 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
         }
 
         // Jumped successor
-        final Optional<FlowBasicBlock> labelBlock = this.getBlockByLabel(label);
+        final FlowBasicBlock labelBlock = this.labelBlocks.get(label);
         final Optional<FlowBasicBlock> currentBlock = this.getCurrentBlock();
 
-        if (labelBlock.isPresent()) {
+        if (labelBlock != null) {
             // Successor exists
 
             if (currentBlock.isPresent()) {
-                currentBlock.get().addSuccessorBlock(labelBlock.get());
-                labelBlock.get().addPredecessorBlock(currentBlock.get());
+                currentBlock.get().addSuccessorBlock(labelBlock);
+                labelBlock.addPredecessorBlock(currentBlock.get());
             }
-        } else {
+        } else if (currentBlock.isPresent()) {
             // Successor doesn't exist, so wait until it does
 
             // Current node is predecessor of label-block
-            currentBlock.ifPresent(flowBasicBlock -> Logger.logInfo(" :: Adding entry to predecessor-map: \n\t\t\t"
-                                                                    + flowBasicBlock.getLabel() + "\n\t\t\t[...]\n\t\t\t"
-                                                                    + flowBasicBlock.getLastInstruction(), FlowGraph.class));
-            currentBlock.ifPresent(flowBasicBlock -> this.predecessorMap.put(label, flowBasicBlock));
+            Logger.logInfoSupplier(() -> " :: Adding entry to predecessor-map: \n\t\t\t"
+                                         + currentBlock.get().getLabel() + "\n\t\t\t[...]\n\t\t\t"
+                                         + currentBlock.get().getLastInstruction(), FlowGraph.class);
+            if (this.predecessorMap.get(label) == null) {
+                this.predecessorMap.set(label, new ArrayList<>());
+            }
+            this.predecessorMap.get(label).add(currentBlock.get());
         }
 
-        this.basicBlocks.add(newBlock);
+        this.addBlock(newBlock);
     }
 
-    public void addInstruction(String instruction, String... args) {
-        Logger.logInfo(" :: Adding instruction \"" + instruction + "\"", FlowGraph.class);
+    public void addInstruction(Opcode instruction) {
+        this.addInstruction(instruction, 0);
+    }
+
+    /**
+     * @param operand Eine Zahl, ein Slot, eine Label-Id oder ein Konstantenindex, siehe {@link Opcode#getOperand()}.
+     */
+    public void addInstruction(Opcode instruction, int operand) {
+        Logger.logInfoSupplier(() -> " :: Adding instruction \"" + instruction.getMnemonic() + "\"", FlowGraph.class);
 
         if (this.basicBlocks.isEmpty()) {
-            this.basicBlocks.add(new FlowBasicBlock("START")); // First block doesn't exist
+            this.addBlock(new FlowBasicBlock(this, this.newLabel("START"))); // First block doesn't exist
         }
 
-        final Optional<FlowBasicBlock> currentBlock = this.getCurrentBlock();
-
         // Add to last block
-        currentBlock.ifPresent(flowBasicBlock -> flowBasicBlock.addInstruction(instruction, args));
+        this.basicBlocks.get(this.basicBlocks.size() - 1).addInstruction(this.instructionCount++, instruction, operand);
+    }
+
+    /**
+     * Für Befehle mit einem String als Operand, dieser kommt in den Konstantenpool.
+     */
+    public void addInstruction(Opcode instruction, String constant) {
+        this.addInstruction(instruction, this.addConstant(constant));
     }
 
     /**
      * Entfernt leere Blöcke.
      * Ein Block ist "leer", wenn er kein Label und keine Instructions hat.
+     * <p>
+     * Die übrigen Blöcke werden in einem Durchlauf nach vorne geschoben und neu nummeriert.
      */
     public void purgeEmptyBlocks() {
         Logger.logDebug("Purging empty blocks", FlowGraph.class);
 
-        final Collection<FlowBasicBlock> toRemove = new HashSet<>();
-
-        // Collect removable blocks
+        int kept = 0;
         for (FlowBasicBlock block : this.basicBlocks) {
-            if (block.isEmpty()) {
-                Logger.logInfo(" :: Marking block nr. " + this.basicBlocks.indexOf(block) + " as removable.", FlowGraph.class);
-                toRemove.add(block);
+            if (!block.isEmpty()) {
+                block.setIndex(kept);
+                this.basicBlocks.set(kept, block);
+                kept++;
+                continue;
             }
-        }
 
-        // Remove blocks + reroute predecessors/successors
-        for (FlowBasicBlock block : toRemove) {
+            Logger.logInfo(" :: Removing block nr. " + block.getIndex(), FlowGraph.class);
 
             // Reroute
             for (FlowBasicBlock predecessor : block.getBlockPredecessorSet()) {
                 for (FlowBasicBlock successor : block.getBlockSuccessorSet()) {
 
-                    Logger.logInfo(" :: Rerouting block nr. " + this.basicBlocks.indexOf(predecessor)
-                                   + " to block nr. " + this.basicBlocks.indexOf(successor), FlowGraph.class);
+                    Logger.logInfoSupplier(() -> " :: Rerouting block nr. " + predecessor.getIndex()
+                                                 + " to block nr. " + successor.getIndex(), FlowGraph.class);
                     predecessor.addSuccessorBlock(successor);
                     successor.addPredecessorBlock(predecessor);
                 }
@@ -177,15 +277,43 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
             }
         }
 
-        this.basicBlocks.removeAll(toRemove);
+        this.basicBlocks.subList(kept, this.basicBlocks.size()).clear();
 
         Logger.logDebug("Successfully removed all empty blocks and rerouted graph", FlowGraph.class);
     }
 
-    private Optional<FlowBasicBlock> getBlockByLabel(String label) {
-        return this.basicBlocks.stream()
-                               .filter(block -> block.getLabel().equals(label))
-                               .findFirst();
+    /**
+     * Die Instructions sind fortlaufend über alle Blöcke nummeriert, siehe {@link FlowInstruction#getIndex()}.
+     */
+    public int getInstructionCount() {
+        return this.instructionCount;
+    }
+
+    public int getBlockCount() {
+        return this.basicBlocks.size();
+    }
+
+    /**
+     * @param index Die Position aus {@link FlowBasicBlock#getIndex()}.
+     */
+    public FlowBasicBlock getBlock(int index) {
+        return this.basicBlocks.get(index);
+    }
+
+    /**
+     * Die Stackhöhe ist erst bekannt, wenn alle Instructions erzeugt sind.
+     */
+    public void setStackSize(int stackSize) {
+        this.exportHead.setStackSize(stackSize);
+    }
+
+    private void addBlock(FlowBasicBlock block) {
+        block.setIndex(this.basicBlocks.size());
+        this.basicBlocks.add(block);
+
+        if (block.getLabelId() != FlowBasicBlock.NO_LABEL && this.labelBlocks.get(block.getLabelId()) == null) {
+            this.labelBlocks.set(block.getLabelId(), block);
+        }
     }
 
     /**
@@ -213,7 +341,7 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
             dot.append("\"")
                .append(block.getId())
                .append("\" [label=\"{<f0> ")
-               .append(this.basicBlocks.indexOf(block))
+               .append(block.getIndex())
                .append(": ")
                .append(block.getLabel())
                .append("|<f1> ")
@@ -264,13 +392,12 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
 
     @Override
     public String toString() {
-        final String blocksString = this.basicBlocks.stream()
-                                                    .map(FlowBasicBlock::toString)
-                                                    .collect(Collectors.joining());
+        final StringBuilder jasmin = new StringBuilder(this.exportHead.toString());
+        for (FlowBasicBlock block : this.basicBlocks) {
+            block.appendTo(jasmin);
+        }
 
-        return this.exportHead
-               + blocksString
-               + this.exportTail;
+        return jasmin.append(this.exportTail).toString();
     }
 
     @Override
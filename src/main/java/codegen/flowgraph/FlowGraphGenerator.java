@@ -1,16 +1,21 @@
 package codegen.flowgraph;
 
 import codegen.CodeGenerationException;
-import codegen.analysis.StackSizeAnalyzer;
+import codegen.analysis.LocalSlotAllocator;
+import codegen.analysis.SemanticAnalyzer;
+import codegen.analysis.StackHeightAnalysis;
+import codegen.analysis.StackMapAnalysis;
+import parser.ast.Operator;
 import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeArena;
 import parser.ast.SyntaxTreeNode;
+import parser.ast.SyntaxTreeWalker;
+import typechecker.Type;
 import typechecker.TypeChecker;
 import util.Logger;
 
-import java.util.ArrayDeque;
-import java.util.Collections;
-import java.util.Deque;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,101 +23,157 @@ import java.util.Map;
  */
 public final class FlowGraphGenerator {
 
-    private final SyntaxTree tree;
+    // Instruktionen und println-Methoden je Typ, der Index ist Type#ordinal()
+    private static final Opcode[] loadInstructions;
+    private static final Opcode[] storeInstructions;
+    private static final Opcode[] equalInstructions;
+    private static final Opcode[] notEqualInstructions;
+    private static final String[] printlnMethods;
+
+    private static final String SYSTEM_OUT = "java/lang/System/out Ljava/io/PrintStream;";
+
+    static {
+        loadInstructions = new Opcode[Type.values().length];
+        storeInstructions = new Opcode[Type.values().length];
+        equalInstructions = new Opcode[Type.values().length];
+        notEqualInstructions = new Opcode[Type.values().length];
+        printlnMethods = new String[Type.values().length];
+
+        for (Type type : Type.values()) {
+            final boolean reference = type == Type.STRING_TYPE;
+
+            loadInstructions[type.ordinal()] = reference ? Opcode.ALOAD : Opcode.ILOAD;
+            storeInstructions[type.ordinal()] = reference ? Opcode.ASTORE : Opcode.ISTORE;
+            equalInstructions[type.ordinal()] = reference ? Opcode.IF_ACMPEQ : Opcode.IF_ICMPEQ;
+            notEqualInstructions[type.ordinal()] = reference ? Opcode.IF_ACMPNE : Opcode.IF_ICMPNE;
+
+            final String descriptor = switch (type) {
+                case INTEGER_TYPE -> "I";
+                case BOOLEAN_TYPE -> "Z";
+                case STRING_TYPE -> "Ljava/lang/String;";
+            };
+            printlnMethods[type.ordinal()] = "java/io/PrintStream/println(" + descriptor + ")V";
+        }
+    }
+
+    private final SyntaxTreeArena tree;
 
     /**
-     * Enthält den Rückgabetypen von jedem Expression-Node.
+     * Enthält den Rückgabetypen von jedem Expression-Node, der Index ist der Knoten in der Arena.
      * Wird erstellt im {@link TypeChecker}.
      */
-    private final Map<SyntaxTreeNode, String> nodeTypeMap;
+    private final Type[] nodeTypes;
 
     /**
-     * Enthält die Mappings vom Symbol/Variablennamen auf die Position in der JVM-Locals-Tabelle.
+     * Enthält die Position in der JVM-Locals-Tabelle für jeden Identifier- und Zuweisungsknoten.
      */
-    private final Map<String, Integer> varMap;
+    private final LocalSlotAllocator slots;
 
     private final FlowGraph graph;
 
     private int labelCounter;
 
-    private FlowGraphGenerator(Map<String, Integer> varMap, SyntaxTree tree, Map<SyntaxTreeNode, String> nodeTypeMap, FlowGraph graph) {
-        this.varMap = varMap;
+    private FlowGraphGenerator(LocalSlotAllocator slots, SyntaxTreeArena tree, Type[] nodeTypes, FlowGraph graph) {
+        this.slots = slots;
         this.tree = tree;
-        this.nodeTypeMap = nodeTypeMap;
+        this.nodeTypes = nodeTypes;
         this.graph = graph;
     }
 
     /**
      * @param source Das Source-File, welches compiliert wird (Optionaler Jasmin-Parameter)
      */
-    public static FlowGraphGenerator fromAST(SyntaxTree tree, Map<SyntaxTreeNode, String> nodeTypeMap, String source) {
+    public static FlowGraphGenerator fromAST(SyntaxTree tree, Map<SyntaxTreeNode, Type> nodeTypeMap, String source) {
         if (tree.isEmpty()) {
             throw new CodeGenerationException("Empty File can't be compiled");
         }
 
-        final Map<String, Integer> varMap = initVarMap(tree);
-        final FlowGraph graph = initFlowGraph(tree, varMap, source);
-
-        return new FlowGraphGenerator(varMap, tree, nodeTypeMap, graph);
-    }
-
-    private static Map<String, Integer> initVarMap(SyntaxTree tree) {
-        Logger.logDebug("Initializing variable-map", FlowGraphGenerator.class);
-
-        final Map<String, Integer> varMap = new HashMap<>();
+        final List<SyntaxTreeNode> nodes = new ArrayList<>();
+        final SyntaxTreeArena arena = SyntaxTreeArena.fromTree(tree, nodes);
 
-        final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
-        stack.push(tree.getRoot());
+        // Die Map vergleicht ganze Teilbäume, deshalb nur für Knoten nachschlagen, die einen Typ haben können
+        final Type[] nodeTypes = new Type[nodes.size()];
+        for (int node = 0; node < nodeTypes.length; node++) {
+            if (arena.getKind(node).isTyped()) {
+                nodeTypes[node] = nodeTypeMap.get(nodes.get(node));
+            }
+        }
 
-        int currentVarNumber = 0;
+        return fromArena(arena, nodeTypes, source);
+    }
 
-        // Assign variables to map: Symbol -> jasminLocalVarNr.
-        while (!stack.isEmpty()) {
-            final SyntaxTreeNode current = stack.pop();
+    /**
+     * @param nodeTypes Die Knotentypen aus {@link TypeChecker#validate(SyntaxTreeArena)}
+     * @param source    Das Source-File, welches compiliert wird (Optionaler Jasmin-Parameter)
+     */
+    public static FlowGraphGenerator fromArena(SyntaxTreeArena tree, Type[] nodeTypes, String source) {
+        if (tree.isEmpty(tree.getRoot())) {
+            throw new CodeGenerationException("Empty File can't be compiled");
+        }
 
-            if ("declaration".equals(current.getName())) {
-                // New variables only come from declarations
+        final LocalSlotAllocator slots = new LocalSlotAllocator(tree);
+        SyntaxTreeWalker.walk(tree, slots);
 
-                currentVarNumber++;
-                varMap.put(current.getChildren().get(0).getValue(), currentVarNumber);
-                Logger.logInfo("Assign local variable \"" + current.getChildren().get(0).getValue() + "\" -> \""
-                               + current.getValue() + "\" to slot " + currentVarNumber, FlowGraphGenerator.class);
-            }
+        return fromAnalysis(tree, nodeTypes, slots, source);
+    }
 
-            current.getChildren().forEach(stack::push);
+    /**
+     * @param analysis Typen und Slots aus einem gemeinsamen Durchlauf
+     * @param source   Das Source-File, welches compiliert wird (Optionaler Jasmin-Parameter)
+     */
+    public static FlowGraphGenerator fromAnalysis(SyntaxTreeArena tree, SemanticAnalyzer analysis, String source) {
+        if (tree.isEmpty(tree.getRoot())) {
+            throw new CodeGenerationException("Empty File can't be compiled");
         }
 
-        Logger.logDebug("Successfully initialized variable-map", FlowGraphGenerator.class);
+        return fromAnalysis(tree, analysis.getNodeTypes(), analysis.getSlots(), source);
+    }
+
+    private static FlowGraphGenerator fromAnalysis(SyntaxTreeArena tree, Type[] nodeTypes,
+                                                   LocalSlotAllocator slots, String source) {
+        final FlowGraph graph = initFlowGraph(tree, slots, source);
 
-        return Collections.unmodifiableMap(varMap);
+        return new FlowGraphGenerator(slots, tree, nodeTypes, graph);
     }
 
-    private static FlowGraph initFlowGraph(SyntaxTree tree, Map<String, Integer> varMap, String source) {
-        final String bytecodeVersion = "49.0";
-        final String clazz = tree.getRoot().getChildren().get(0).getValue();
-        final int stackSize = StackSizeAnalyzer.runStackModel(tree);
-        final int localCount = varMap.size() + 1;
+    /**
+     * Die Stackhöhe wird erst nach der Erzeugung aus den Instructions bestimmt ({@link StackHeightAnalysis}).
+     */
+    private static FlowGraph initFlowGraph(SyntaxTreeArena tree, LocalSlotAllocator slots, String source) {
+        // Ab Version 50 prüft der Verifier anhand der StackMapTable, ab 52 ohne Rückfall auf die Typinferenz
+        final String bytecodeVersion = "52.0";
+        final String clazz = tree.getValue(tree.getChild(tree.getRoot(), 0));
+        final int localCount = slots.getLocalCount();
 
-        return new FlowGraph(bytecodeVersion, source, clazz, stackSize, localCount);
+        return new FlowGraph(bytecodeVersion, source, clazz, 0, localCount);
     }
 
     /**
      * Erzeugt den Flussgraphen für den gespeicherten AST.
      * Der Flussgraph ist dabei die Graphenform des generierten SourceCodes:
      * Die Instruktionen sind unterteilt in BasicBlocks, welche über Kanten verbunden sind.
+     * Die Stackhöhe und die StackMapTable-Frames werden anschließend aus den erzeugten Instruktionen bestimmt.
      */
     public FlowGraph generateGraph() {
         Logger.logDebug("Beginning generation of source-graph", FlowGraphGenerator.class);
 
-        if (this.tree.getRoot().getChildren().size() == 1) {
+        if (this.tree.getChildCount(this.tree.getRoot()) == 1) {
             // Empty main-method
 
             return this.graph;
         }
 
         // Skip the first 2 identifiers: ClassName, MainArgs
-        this.generateNode(this.tree.getRoot().getChildren().get(1));
+        this.generateNode(this.tree.getChild(this.tree.getRoot(), 1));
         this.graph.purgeEmptyBlocks();
+        this.graph.setStackSize(StackHeightAnalysis.fromFlowGraph(this.graph).getMaxHeight());
+
+        final StackMapAnalysis frames = StackMapAnalysis.fromFlowGraph(this.graph);
+        for (FlowBasicBlock block : this.graph) {
+            if (frames.needsFrame(block)) {
+                block.setFrame(frames.getFrame(block));
+            }
+        }
 
         Logger.logDebug("Source-graph generation complete", FlowGraphGenerator.class);
 
@@ -124,105 +185,109 @@ public final class FlowGraphGenerator {
      * Der Wurzelname wird einer Methode zugewiesen.
      * Diese wird aufgerufen und erzeugt den entsprechenden Teilbaum.
      */
-    private void generateNode(SyntaxTreeNode root) {
-        switch (root.getName()) {
-            case "cond" -> this.condNode(root);
-            case "loop" -> this.loopNode(root);
-            case "assignment" -> this.assignNode(root);
-            case "expr" -> this.exprNode(root);
-            case "INTEGER_LIT", "STRING_LIT" -> this.intStringLiteralNode(root);
-            case "BOOLEAN_LIT" -> this.boolLiteralNode(root);
-            case "IDENTIFIER" -> this.identifierNode(root);
-            case "print" -> this.printlnNode(root);
-            default -> root.getChildren().forEach(this::generateNode);
+    private void generateNode(int root) {
+        switch (this.tree.getKind(root)) {
+            case COND -> this.condNode(root);
+            case LOOP -> this.loopNode(root);
+            case ASSIGNMENT -> this.assignNode(root);
+            case EXPR -> this.exprNode(root);
+            case INTEGER_LIT -> this.intLiteralNode(root);
+            case STRING_LIT -> this.stringLiteralNode(root);
+            case BOOLEAN_LIT -> this.boolLiteralNode(root);
+            case IDENTIFIER -> this.identifierNode(root);
+            case PRINT -> this.printlnNode(root);
+            default -> {
+                for (int child = this.tree.getFirstChild(root); child != SyntaxTreeArena.NONE; child = this.tree.getNextSibling(child)) {
+                    this.generateNode(child);
+                }
+            }
         }
     }
 
     /**
      * Erzeugt den Teilbaum für einen If-Knoten.
      */
-    private void condNode(SyntaxTreeNode root) {
+    private void condNode(int root) {
         Logger.logInfo("Generating conditional node", FlowGraphGenerator.class);
 
         final int currentLabel = this.labelCounter;
         this.labelCounter++;
+        final int ifFalse = this.graph.newLabel("IFfalse", currentLabel);
+        final int ifEnd = this.graph.newLabel("IFend", currentLabel);
 
         // Condition If ( ... ) {
-        this.generateNode(root.getChildren().get(0));
+        this.generateNode(this.tree.getChild(root, 0));
 
         // Jump if condition false
-        this.graph.addJump("ifeq", "IFfalse" + currentLabel);
+        this.graph.addJump(Opcode.IFEQ, ifFalse);
 
         // IFtrue branch (gets executed without jump)
-        this.generateNode(root.getChildren().get(1));
-        this.graph.addJump("goto", "IFend" + currentLabel); // Skip IFfalse branch
+        this.generateNode(this.tree.getChild(root, 1));
+        this.graph.addJump(Opcode.GOTO, ifEnd); // Skip IFfalse branch
 
         // IFfalse branch (gets executed after jump)
-        this.graph.addLabel("IFfalse" + currentLabel);
-        if (root.getChildren().size() == 3) {
+        this.graph.addLabel(ifFalse);
+        if (this.tree.getChildCount(root) == 3) {
             // Else exists
 
-            this.generateNode(root.getChildren().get(2));
+            this.generateNode(this.tree.getChild(root, 2));
         }
 
         // IFend branch
-        this.graph.addLabel("IFend" + currentLabel);
+        this.graph.addLabel(ifEnd);
     }
 
     /**
      * Erzeugt den Teilbaum für einen While-Knoten.
      */
-    private void loopNode(SyntaxTreeNode root) {
+    private void loopNode(int root) {
         Logger.logInfo("Generating loop node", FlowGraphGenerator.class);
 
         final int currentLabel = this.labelCounter;
         this.labelCounter++;
+        final int loopStart = this.graph.newLabel("LOOPstart", currentLabel);
+        final int loopEnd = this.graph.newLabel("LOOPend", currentLabel);
 
         // LOOPstart label for loop repetition
-        this.graph.addLabel("LOOPstart" + currentLabel);
+        this.graph.addLabel(loopStart);
 
         // Condition while ( ... ) {
-        this.generateNode(root.getChildren().get(0).getChildren().get(0));
+        this.generateNode(this.tree.getChild(this.tree.getChild(root, 0), 0));
 
         // Jump out of loop if condition is false
-        this.graph.addJump("ifeq", "LOOPend" + currentLabel);
+        this.graph.addJump(Opcode.IFEQ, loopEnd);
 
         // Loop body (gets executed without jump)
-        this.generateNode(root.getChildren().get(1));
-        this.graph.addJump("goto", "LOOPstart" + currentLabel); // Repeat loop
+        this.generateNode(this.tree.getChild(root, 1));
+        this.graph.addJump(Opcode.GOTO, loopStart); // Repeat loop
 
         // Loop end
-        this.graph.addLabel("LOOPend" + currentLabel);
+        this.graph.addLabel(loopEnd);
     }
 
     /**
      * Erzeugt den Teilbaum für Assignment-Knoten.
      * Die JVM-Stacksize wird dabei um 1 verringert, da istore/astore 1 Argument konsumieren.
      */
-    private void assignNode(SyntaxTreeNode root) { //! Stack - 1
+    private void assignNode(int root) { //! Stack - 1
         Logger.logInfo("Generating assignment node", FlowGraphGenerator.class);
 
-        this.generateNode(root.getChildren().get(0));
+        this.generateNode(this.tree.getChild(root, 0));
 
-        final String type = this.nodeTypeMap.get(root.getChildren().get(0));
-        final String inst = switch (type) {
-            case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "istore";
-            case "STRING_TYPE" -> "astore";
-            default -> throw new CodeGenerationException("Unexpected value: " + type);
-        };
+        final Opcode inst = storeInstructions[this.getType(this.tree.getChild(root, 0)).ordinal()];
 
-        Logger.logInfo("assign(): Node \"" + root.getName() + ": " + root.getValue() + "\" => " + inst, FlowGraphGenerator.class);
+        Logger.logInfoSupplier(() -> "assign(): Node \"" + this.tree.getName(root) + ": " + this.tree.getValue(root) + "\" => " + inst.getMnemonic(), FlowGraphGenerator.class);
 
-        this.graph.addInstruction(inst, this.varMap.get(root.getValue()).toString());
+        this.graph.addInstruction(inst, this.slots.getSlot(root));
     }
 
     /**
      * Wählt die entsprechende Methode für mathematische oder logische Ausdrücke.
      */
-    private void exprNode(SyntaxTreeNode root) {
-        if ("INTEGER_TYPE".equals(this.nodeTypeMap.get(root))) {
+    private void exprNode(int root) {
+        if (this.nodeTypes[root] == Type.INTEGER_TYPE) {
             this.intExpr(root);
-        } else if ("BOOLEAN_TYPE".equals(this.nodeTypeMap.get(root))) {
+        } else if (this.nodeTypes[root] == Type.BOOLEAN_TYPE) {
             this.boolExpr(root);
         }
     }
@@ -232,38 +297,43 @@ public final class FlowGraphGenerator {
      * Bei unären Operatoren bleibt die Stackgröße konstant (1 konsumiert, 1 Ergebnis),
      * bei binären Operatoren sinkt die Stackgröße um 1 (2 konsumiert, 1 Ergebnis).
      */
-    private void intExpr(SyntaxTreeNode root) {
-        Logger.logInfo("Generating integer expression node: \"" + root.getName() + ": " + root.getValue() + "\"", FlowGraphGenerator.class);
+    private void intExpr(int root) {
+        Logger.logInfoSupplier(() -> "Generating integer expression node: \"" + this.tree.getName(root) + ": " + this.tree.getValue(root) + "\"", FlowGraphGenerator.class);
 
-        String inst = "";
+        Opcode inst = null;
 
-        if (root.getChildren().size() == 1) { //! Stack + 0
-            // Unary operator
+        if (this.tree.getChildCount(root) == 1) { //! Stack + 0
+            // Unary operator, unäres Plus braucht keine Instruktion
 
-            this.generateNode(root.getChildren().get(0));
+            this.generateNode(this.tree.getChild(root, 0));
 
-            inst = switch (root.getValue()) {
-                case "ADD" -> "";
-                case "SUB" -> "ineg";
-                default -> throw new CodeGenerationException("Unexpected value: " + root.getValue());
+            inst = switch (this.tree.getOperator(root)) {
+                case ADD -> null;
+                case SUB -> Opcode.INEG;
+                default -> throw new CodeGenerationException("Unexpected value: " + this.tree.getValue(root));
             };
-        } else if (root.getChildren().size() == 2) { //! Stack - 1
+        } else if (this.tree.getChildCount(root) == 2) { //! Stack - 1
             // Binary operator
 
-            this.generateNode(root.getChildren().get(0));
-            this.generateNode(root.getChildren().get(1));
+            this.generateNode(this.tree.getChild(root, 0));
+            this.generateNode(this.tree.getChild(root, 1));
 
-            inst = switch (root.getValue()) {
-                case "ADD" -> "iadd"; // Integer
-                case "SUB" -> "isub";
-                case "MUL" -> "imul";
-                case "DIV" -> "idiv";
-                case "MOD" -> "irem"; // Remainder operator
-                default -> throw new CodeGenerationException("Unexpected value: " + root.getValue());
+            inst = switch (this.tree.getOperator(root)) {
+                case ADD -> Opcode.IADD; // Integer
+                case SUB -> Opcode.ISUB;
+                case MUL -> Opcode.IMUL;
+                case DIV -> Opcode.IDIV;
+                case MOD -> Opcode.IREM; // Remainder operator
+                default -> throw new CodeGenerationException("Unexpected value: " + this.tree.getValue(root));
             };
         }
 
-        Logger.logInfo("intExpr(): Node \"" + root.getName() + ": " + root.getValue() + "\" => " + inst, FlowGraphGenerator.class);
+        if (inst == null) {
+            return;
+        }
+
+        final Opcode op = inst;
+        Logger.logInfoSupplier(() -> "intExpr(): Node \"" + this.tree.getName(root) + ": " + this.tree.getValue(root) + "\" => " + op.getMnemonic(), FlowGraphGenerator.class);
 
         this.graph.addInstruction(inst);
     }
@@ -273,56 +343,48 @@ public final class FlowGraphGenerator {
      * Bei unären Operatoren wächst der Stack temporär um 1 (NOT pusht eine 1 für xor),
      * bei binären Operatoren sinkt die Stackgröße um 1 (2 konsumiert, 1 Ergebnis).
      */
-    private void boolExpr(SyntaxTreeNode node) {
+    private void boolExpr(int node) {
         Logger.logInfo("Generating boolean expression", FlowGraphGenerator.class);
 
-        if (node.getChildren().size() == 1) { //! Stack + 1
+        if (this.tree.getChildCount(node) == 1) { //! Stack + 1
             // Unary operator
 
-            if (!"NOT".equals(node.getValue())) {
+            if (this.tree.getOperator(node) != Operator.NOT) {
                 // Possibility doesn't exist, would be frontend-error
 
-                throw new CodeGenerationException("Unexpected value: " + node.getValue());
+                throw new CodeGenerationException("Unexpected value: " + this.tree.getValue(node));
             }
 
-            this.generateNode(node.getChildren().get(0));
+            this.generateNode(this.tree.getChild(node, 0));
 
             // 0 xor 1 = 1, 1 xor 1 = 0 => not
-            this.graph.addInstruction("ldc", "1");
-            this.graph.addInstruction("ixor");
+            this.graph.addInstruction(Opcode.LDC, 1);
+            this.graph.addInstruction(Opcode.IXOR);
 
-        } else if (node.getChildren().size() == 2) { //! Stack - 1
+        } else if (this.tree.getChildCount(node) == 2) { //! Stack - 1
             // Binary operator
 
             final int currentLabel = this.labelCounter;
             this.labelCounter++;
 
-            this.generateNode(node.getChildren().get(0));
-            this.generateNode(node.getChildren().get(1));
+            this.generateNode(this.tree.getChild(node, 0));
+            this.generateNode(this.tree.getChild(node, 1));
 
-            final String type = this.nodeTypeMap.get(node.getChildren().get(0));
-            final String cmpeq = switch (type) {
-                case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "if_icmpeq";
-                case "STRING_TYPE" -> "if_accmpeq";
-                default -> throw new CodeGenerationException("Unexpected value: " + type);
-            };
-            final String cmpne = switch (type) {
-                case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "if_icmpne";
-                case "STRING_TYPE" -> "if_accmpne";
-                default -> throw new CodeGenerationException("Unexpected value: " + type);
-            };
+            final Type type = this.getType(this.tree.getChild(node, 0));
+            final Opcode cmpeq = equalInstructions[type.ordinal()];
+            final Opcode cmpne = notEqualInstructions[type.ordinal()];
 
             // The comparison operations need to jump
-            switch (node.getValue()) {
-                case "AND" -> this.graph.addInstruction("iand"); // Boolean
-                case "OR" -> this.graph.addInstruction("ior");
-                case "EQUAL" -> this.genComparisonInst(cmpeq, "EQ", currentLabel);
-                case "NOT_EQUAL" -> this.genComparisonInst(cmpne, "NE", currentLabel);
-                case "LESS" -> this.genComparisonInst("if_icmplt", "LT", currentLabel);
-                case "LESS_EQUAL" -> this.genComparisonInst("if_icmple", "LE", currentLabel);
-                case "GREATER" -> this.genComparisonInst("if_icmpgt", "GT", currentLabel);
-                case "GREATER_EQUAL" -> this.genComparisonInst("if_icmpge", "GE", currentLabel);
-                default -> throw new CodeGenerationException("Unexpected value: " + node.getValue());
+            switch (this.tree.getOperator(node)) {
+                case AND -> this.graph.addInstruction(Opcode.IAND); // Boolean
+                case OR -> this.graph.addInstruction(Opcode.IOR);
+                case EQUAL -> this.genComparisonInst(cmpeq, "EQ", currentLabel);
+                case NOT_EQUAL -> this.genComparisonInst(cmpne, "NE", currentLabel);
+                case LESS -> this.genComparisonInst(Opcode.IF_ICMPLT, "LT", currentLabel);
+                case LESS_EQUAL -> this.genComparisonInst(Opcode.IF_ICMPLE, "LE", currentLabel);
+                case GREATER -> this.genComparisonInst(Opcode.IF_ICMPGT, "GT", currentLabel);
+                case GREATER_EQUAL -> this.genComparisonInst(Opcode.IF_ICMPGE, "GE", currentLabel);
+                default -> throw new CodeGenerationException("Unexpected value: " + this.tree.getValue(node));
             }
         }
     }
@@ -334,66 +396,76 @@ public final class FlowGraphGenerator {
      * @param labelPre     Das Labelpräfix, abhängig von der Art des Vergleichs
      * @param currentLabel Der aktuelle Labelcounter
      */
-    private void genComparisonInst(String cmpInst, String labelPre, int currentLabel) {
-        this.graph.addJump(cmpInst, labelPre + "true" + currentLabel); // If not equal jump to NEtrue
-        this.graph.addInstruction("ldc", "0"); // If false load 0
-        this.graph.addJump("goto", labelPre + "end" + currentLabel); // If false skip to true
-        this.graph.addLabel(labelPre + "true" + currentLabel);
-        this.graph.addInstruction("ldc", "1"); // If true load 1
-        this.graph.addLabel(labelPre + "end" + currentLabel);
+    private void genComparisonInst(Opcode cmpInst, String labelPre, int currentLabel) {
+        final int trueLabel = this.graph.newLabel(labelPre + "true", currentLabel);
+        final int endLabel = this.graph.newLabel(labelPre + "end", currentLabel);
+
+        this.graph.addJump(cmpInst, trueLabel); // If not equal jump to NEtrue
+        this.graph.addInstruction(Opcode.LDC, 0); // If false load 0
+        this.graph.addJump(Opcode.GOTO, endLabel); // If false skip to true
+        this.graph.addLabel(trueLabel);
+        this.graph.addInstruction(Opcode.LDC, 1); // If true load 1
+        this.graph.addLabel(endLabel);
     }
 
     // Leafs
 
-    private void intStringLiteralNode(SyntaxTreeNode node) { //! Stack + 1
-        Logger.logInfo("intStringLiteral(): Node \"" + node.getName() + ": " + node.getValue() + "\" => ldc", FlowGraphGenerator.class);
+    private void intLiteralNode(int node) { //! Stack + 1
+        Logger.logInfoSupplier(() -> "intLiteral(): Node \"" + this.tree.getName(node) + ": " + this.tree.getValue(node) + "\" => ldc", FlowGraphGenerator.class);
 
         // bipush only pushes 1 byte as int
-        this.graph.addInstruction("ldc", node.getValue());
+        try {
+            this.graph.addInstruction(Opcode.LDC, Integer.parseInt(this.tree.getValue(node)));
+        } catch (NumberFormatException e) {
+            throw new CodeGenerationException("Integer literal out of range: " + this.tree.getValue(node));
+        }
     }
 
-    private void boolLiteralNode(SyntaxTreeNode node) { //! Stack + 1
-        Logger.logInfo("booleanLiteral(): Node \"" + node.getName() + ": " + node.getValue() + "\" => ldc", FlowGraphGenerator.class);
+    private void stringLiteralNode(int node) { //! Stack + 1
+        Logger.logInfoSupplier(() -> "stringLiteral(): Node \"" + this.tree.getName(node) + ": " + this.tree.getValue(node) + "\" => ldc", FlowGraphGenerator.class);
+
+        this.graph.addInstruction(Opcode.LDC_CONSTANT, this.tree.getValue(node));
+    }
 
-        final String val = "true".equals(node.getValue()) ? "1" : "0";
+    private void boolLiteralNode(int node) { //! Stack + 1
+        Logger.logInfoSupplier(() -> "booleanLiteral(): Node \"" + this.tree.getName(node) + ": " + this.tree.getValue(node) + "\" => ldc", FlowGraphGenerator.class);
 
-        this.graph.addInstruction("ldc", val);
+        this.graph.addInstruction(Opcode.LDC, "true".equals(this.tree.getValue(node)) ? 1 : 0);
     }
 
-    private void identifierNode(SyntaxTreeNode node) { //! Stack + 1
-        final String type = this.nodeTypeMap.get(node);
-        final String inst = switch (type) {
-            case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "iload";
-            case "STRING_TYPE" -> "aload";
-            default -> throw new CodeGenerationException("Unexpected value: " + type);
-        };
+    private void identifierNode(int node) { //! Stack + 1
+        final Opcode inst = loadInstructions[this.getType(node).ordinal()];
 
-        Logger.logInfo("identifier(): Node \"" + node.getName() + ": " + node.getValue() + "\" => " + inst, FlowGraphGenerator.class);
+        Logger.logInfoSupplier(() -> "identifier(): Node \"" + this.tree.getName(node) + ": " + this.tree.getValue(node) + "\" => " + inst.getMnemonic(), FlowGraphGenerator.class);
 
-        this.graph.addInstruction(inst, this.varMap.get(node.getValue()).toString());
+        this.graph.addInstruction(inst, this.slots.getSlot(node));
     }
 
-    private void printlnNode(SyntaxTreeNode node) { //! Stack + 1
-        this.graph.addInstruction("getstatic", "java/lang/System/out", "Ljava/io/PrintStream;");
+    private void printlnNode(int node) { //! Stack + 1
+        this.graph.addInstruction(Opcode.GETSTATIC, SYSTEM_OUT);
 
-        final SyntaxTreeNode expr = node.getChildren().get(0).getChildren().get(0);
-        final String type = switch (this.nodeTypeMap.get(expr)) {
-            case "BOOLEAN_TYPE" -> "Z";
-            case "INTEGER_TYPE" -> "I";
-            case "STRING_TYPE" -> "Ljava/lang/String;";
-            default -> throw new CodeGenerationException("Unexpected value: " + this.nodeTypeMap.get(expr));
-        };
+        final int expr = this.tree.getChild(this.tree.getChild(node, 0), 0);
+        final String method = printlnMethods[this.getType(expr).ordinal()];
 
         this.generateNode(expr);
 
-        Logger.logInfo("println(): Node \"" + expr.getName() + ": " + expr.getValue() + "\" => " + type, FlowGraphGenerator.class);
+        Logger.logInfoSupplier(() -> "println(): Node \"" + this.tree.getName(expr) + ": " + this.tree.getValue(expr) + "\" => " + method, FlowGraphGenerator.class);
+
+        this.graph.addInstruction(Opcode.INVOKEVIRTUAL, method);
+    }
+
+    private Type getType(int node) {
+        final Type type = this.nodeTypes[node];
+        if (type == null) {
+            throw new CodeGenerationException("Unexpected value: " + this.tree.getValue(node));
+        }
 
-        this.graph.addInstruction("invokevirtual", "java/io/PrintStream/println(" + type + ")V");
+        return type;
     }
 
     // Getters, Setters
 
     public Map<String, Integer> getVarMap() {
-        return Collections.unmodifiableMap(this.varMap);
+        return this.slots.getVarMap();
     }
 }
@@ -5,7 +5,7 @@ public class FlowGraphHead {
     private final String bytecodeVersion;
     private final String source;
     private final String clazz;
-    private final int stackSize;
+    private int stackSize;
     private final int localCount;
 
     public FlowGraphHead(String bytecodeVersion, String source, String clazz, int stackSize, int localCount) {
@@ -16,6 +16,10 @@ public class FlowGraphHead {
         this.localCount = localCount;
     }
 
+    public void setStackSize(int stackSize) {
+        this.stackSize = stackSize;
+    }
+
     @Override
     public String toString() {
         return ".bytecode " + this.bytecodeVersion + "\n"
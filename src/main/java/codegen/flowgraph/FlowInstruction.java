@@ -1,44 +1,98 @@
 package codegen.flowgraph;
 
-import java.util.UUID;
+import java.util.Objects;
 
 /**
  * Repräsentiert eine Instruction im {@link FlowGraph}.
+ * Gespeichert wird die Instruction im {@link FlowBasicBlock}, das hier ist nur eine Sicht auf ihre Position.
  */
 public class FlowInstruction {
 
-    private final UUID id;
+    private final FlowBasicBlock block;
+    private final int position;
+
+    FlowInstruction(FlowBasicBlock block, int position) {
+        this.block = block;
+        this.position = position;
+    }
+
+    FlowBasicBlock getBlock() {
+        return this.block;
+    }
 
     /**
-     * Die Instruction ist der Jasmin-Assembler Befehl.
+     * @return Die Position der Instruction im ganzen {@link FlowGraph}, fortlaufend in Programmreihenfolge.
      */
-    private final String instruction;
-    private final String[] args;
+    public int getIndex() {
+        return this.block.getFirstIndex() + this.position;
+    }
 
-    public FlowInstruction(String instruction, String... args) {
-        this.id = UUID.randomUUID();
-        this.instruction = instruction;
-        this.args = args;
+    public Opcode getOpcode() {
+        return this.block.getOpcode(this.position);
     }
 
-    public UUID getId() {
-        return this.id;
+    /**
+     * @return Der Operand, je nach {@link Opcode#getOperand()} eine Zahl, ein Slot, eine Label-Id oder ein Konstantenindex.
+     */
+    public int getOperand() {
+        return this.block.getOperand(this.position);
     }
 
+    /**
+     * @return Der Jasmin-Assembler Befehl.
+     */
     public String getInstruction() {
-        return this.instruction;
+        return this.getOpcode().getMnemonic();
     }
 
+    /**
+     * @return Die Argumente als Text, wie sie im Jasmin-Assembler stehen.
+     */
     public String[] getArgs() {
-        return this.args;
+        if (this.getOpcode().getOperand() == Opcode.Operand.NONE) {
+            return new String[0];
+        }
+
+        return new String[]{formatOperand(this.block.getGraph(), this.getOpcode(), this.getOperand())};
+    }
+
+    static String formatOperand(FlowGraph graph, Opcode opcode, int operand) {
+        return switch (opcode.getOperand()) {
+            case NONE -> "";
+            case INTEGER, LOCAL -> Integer.toString(operand);
+            case LABEL -> graph.getLabelName(operand);
+            case CONSTANT -> graph.getConstant(operand);
+        };
+    }
+
+    static void appendTo(StringBuilder jasmin, FlowGraph graph, Opcode opcode, int operand) {
+        jasmin.append("\t\t").append(opcode.getMnemonic()).append(' ').append(formatOperand(graph, opcode, operand));
     }
 
     // Overrides
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.block, this.position);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        final FlowInstruction that = (FlowInstruction) o;
+        return this.position == that.position && this.block.equals(that.block);
+    }
+
     @Override
     public String toString() {
-        final String argsString = String.join(" ", this.args);
+        final StringBuilder jasmin = new StringBuilder();
+        appendTo(jasmin, this.block.getGraph(), this.getOpcode(), this.getOperand());
 
-        return "\t\t" + this.instruction + " " + argsString;
+        return jasmin.toString();
     }
 }
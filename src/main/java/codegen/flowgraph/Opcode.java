@@ -0,0 +1,139 @@
+package codegen.flowgraph;
+
+/**
+ * Die Jasmin-Befehle, die der {@link FlowGraphGenerator} erzeugt, mit ihren Eigenschaften für die Analysen.
+ * Im {@link FlowBasicBlock} wird nur {@link #ordinal()} und ein int-Operand gespeichert,
+ * der Text entsteht erst bei der Ausgabe.
+ */
+public enum Opcode {
+
+    // Konstanten, LDC lädt einen int direkt, LDC_CONSTANT einen String aus dem Konstantenpool des Graphen
+    LDC("ldc", 0, 1, Operand.INTEGER, Branch.NONE, Local.NONE),
+    LDC_CONSTANT("ldc", 0, 1, Operand.CONSTANT, Branch.NONE, Local.NONE),
+
+    // Lokale Variablen
+    ILOAD("iload", 0, 1, Operand.LOCAL, Branch.NONE, Local.USE),
+    ALOAD("aload", 0, 1, Operand.LOCAL, Branch.NONE, Local.USE),
+    ISTORE("istore", 1, 0, Operand.LOCAL, Branch.NONE, Local.DEF),
+    ASTORE("astore", 1, 0, Operand.LOCAL, Branch.NONE, Local.DEF),
+
+    // Arithmetik und Logik
+    IADD("iadd", 2, 1, Operand.NONE, Branch.NONE, Local.NONE),
+    ISUB("isub", 2, 1, Operand.NONE, Branch.NONE, Local.NONE),
+    IMUL("imul", 2, 1, Operand.NONE, Branch.NONE, Local.NONE),
+    IDIV("idiv", 2, 1, Operand.NONE, Branch.NONE, Local.NONE),
+    IREM("irem", 2, 1, Operand.NONE, Branch.NONE, Local.NONE),
+    INEG("ineg", 1, 1, Operand.NONE, Branch.NONE, Local.NONE),
+    IAND("iand", 2, 1, Operand.NONE, Branch.NONE, Local.NONE),
+    IOR("ior", 2, 1, Operand.NONE, Branch.NONE, Local.NONE),
+    IXOR("ixor", 2, 1, Operand.NONE, Branch.NONE, Local.NONE),
+
+    // Sprünge, der Operand ist die Label-Id im Graph
+    GOTO("goto", 0, 0, Operand.LABEL, Branch.UNCONDITIONAL, Local.NONE),
+    IFEQ("ifeq", 1, 0, Operand.LABEL, Branch.CONDITIONAL, Local.NONE),
+    IF_ICMPEQ("if_icmpeq", 2, 0, Operand.LABEL, Branch.CONDITIONAL, Local.NONE),
+    IF_ICMPNE("if_icmpne", 2, 0, Operand.LABEL, Branch.CONDITIONAL, Local.NONE),
+    IF_ICMPLT("if_icmplt", 2, 0, Operand.LABEL, Branch.CONDITIONAL, Local.NONE),
+    IF_ICMPLE("if_icmple", 2, 0, Operand.LABEL, Branch.CONDITIONAL, Local.NONE),
+    IF_ICMPGT("if_icmpgt", 2, 0, Operand.LABEL, Branch.CONDITIONAL, Local.NONE),
+    IF_ICMPGE("if_icmpge", 2, 0, Operand.LABEL, Branch.CONDITIONAL, Local.NONE),
+    IF_ACMPEQ("if_acmpeq", 2, 0, Operand.LABEL, Branch.CONDITIONAL, Local.NONE),
+    IF_ACMPNE("if_acmpne", 2, 0, Operand.LABEL, Branch.CONDITIONAL, Local.NONE),
+
+    // Ausgabe, der Operand ist die Referenz im Konstantenpool
+    GETSTATIC("getstatic", 0, 1, Operand.CONSTANT, Branch.NONE, Local.NONE),
+    INVOKEVIRTUAL("invokevirtual", 2, 0, Operand.CONSTANT, Branch.NONE, Local.NONE),
+
+    RETURN("return", 0, 0, Operand.NONE, Branch.RETURN, Local.NONE);
+
+    /**
+     * Die Art des Operanden, bestimmt wie er bei der Ausgabe in Text umgewandelt wird.
+     */
+    public enum Operand {
+        NONE,
+        INTEGER,
+        LOCAL,
+        LABEL,
+        CONSTANT
+    }
+
+    public enum Branch {
+        NONE,
+        CONDITIONAL,
+        UNCONDITIONAL,
+        RETURN
+    }
+
+    /**
+     * Ob der Befehl eine lokale Variable liest oder schreibt, der Slot ist der Operand.
+     */
+    public enum Local {
+        NONE,
+        USE,
+        DEF
+    }
+
+    private static final Opcode[] opcodes = values();
+
+    private final String mnemonic;
+    private final int pops;
+    private final int pushes;
+    private final Operand operand;
+    private final Branch branch;
+    private final Local local;
+
+    Opcode(String mnemonic, int pops, int pushes, Operand operand, Branch branch, Local local) {
+        this.mnemonic = mnemonic;
+        this.pops = pops;
+        this.pushes = pushes;
+        this.operand = operand;
+        this.branch = branch;
+        this.local = local;
+    }
+
+    /**
+     * Umkehrung von {@link #ordinal()}, ohne jedes Mal {@link #values()} zu kopieren.
+     */
+    public static Opcode fromOrdinal(int ordinal) {
+        return opcodes[ordinal];
+    }
+
+    public String getMnemonic() {
+        return this.mnemonic;
+    }
+
+    /**
+     * @return Die Anzahl der Werte, die der Befehl vom Stack nimmt.
+     *     Bei invokevirtual ist das die Referenz und ein Argument, mehr ruft der Generator nicht auf.
+     */
+    public int getPops() {
+        return this.pops;
+    }
+
+    public int getPushes() {
+        return this.pushes;
+    }
+
+    /**
+     * @return Die Änderung der Stackhöhe durch den Befehl.
+     */
+    public int getStackEffect() {
+        return this.pushes - this.pops;
+    }
+
+    public Operand getOperand() {
+        return this.operand;
+    }
+
+    public Branch getBranch() {
+        return this.branch;
+    }
+
+    public boolean isJump() {
+        return this.branch == Branch.CONDITIONAL || this.branch == Branch.UNCONDITIONAL;
+    }
+
+    public Local getLocal() {
+        return this.local;
+    }
+}
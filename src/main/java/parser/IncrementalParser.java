@@ -0,0 +1,1131 @@
+package parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.misc.Interval;
+import parser.ast.NodeKind;
+import parser.ast.ParseTreeCleaner;
+import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeNode;
+import parser.ast.SyntaxTreeRebalancer;
+import parser.grammar.Grammar;
+import parser.grammar.GrammarAnalyzer;
+import parser.grammar.GrammarRule;
+import typechecker.SymbolAlreadyDefinedException;
+import typechecker.Type;
+import typechecker.TypeChecker;
+import typechecker.TypeTable;
+import util.Logger;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Hält Token, Parsebaum und Typen eines Programms, das z.B. in einem Editor bearbeitet wird.
+ * Nach einer Änderung werden nur die beschädigten Token neu gelext und nur die betroffenen Anweisungen
+ * der innersten block_cnt-Kette neu geparst. Der Rest des Parsebaums wird wiederverwendet.
+ *
+ * <p>Die Typen werden pro Anweisung geprüft, geschachtelte Rümpfe (single_or_braced) sind eigene Einheiten.
+ * Jeder Rumpf ist ein Block mit eigenem Gültigkeitsbereich wie bei {@link TypeTable}: Eine Einheit sieht die
+ * Deklarationen ihres Rumpfes und der umschließenden Rümpfe. Gleiche Namen in getrennten Rümpfen sind erlaubt,
+ * in einem Rumpf und einem darin geschachtelten nicht.
+ * Geprüft werden nur neue Einheiten und, falls sich eine Deklaration ändert, die Einheiten mit diesem Namen.
+ * Fehler werden in der Reihenfolge des Kompilierens geworfen: Syntaxfehler, doppelte Deklarationen, Typfehler.</p>
+ *
+ * <p>Gelingt das Einpassen nicht (z.B. bei Änderungen an der Klassen- oder Blockstruktur oder an Kommentaren),
+ * wird das ganze Programm neu geparst. Verschiebungen hinter einer Änderung werden erst beim Zugriff ausgeglichen,
+ * aufeinanderfolgende Änderungen nahe beieinander sind also unabhängig von der Programmgröße.</p>
+ */
+public final class IncrementalParser {
+
+    private static final String CHAIN = "block_cnt";
+    private static final String STATEMENT = "statement";
+    private static final String BODY = "single_or_braced";
+    private static final String BODY_STATEMENT = "stmt";
+
+    private final Grammar grammar;
+    private final ParsingTable parsetable;
+    private final StupsParser parser;
+    private final Function<CharStream, Lexer> lexerFactory;
+
+    /**
+     * Die rechte Seite "statement block_cnt", mit der eine Kette um eine Anweisung verlängert wird.
+     */
+    private final String chainLink;
+
+    private final StringBuilder text;
+    private TokenBuffer token;
+    private Vocabulary voc;
+
+    /**
+     * Null, wenn der letzte Parse fehlgeschlagen ist, dann wird beim nächsten Mal alles neu geparst.
+     */
+    private SyntaxTree tree;
+
+    /**
+     * Die Zeilen wiederverwendeter Knoten werden erst bei {@link #getParseTree()} nachgezogen.
+     */
+    private boolean linesDirty;
+
+    /**
+     * Alle Einheiten in Quelltextreihenfolge, die Startpositionen sind also aufsteigend.
+     */
+    private final List<Unit> units;
+    private int unitPendingFrom;
+    private int unitPendingDelta;
+    private final Map<SyntaxTreeNode, Unit> unitsByNode;
+
+    /**
+     * Die Deklarationen je Rumpf, der Schlüssel null steht für die oberste Ebene.
+     */
+    private final Map<SyntaxTreeNode, Map<String, Type>> scopeSymbols;
+
+    /**
+     * Die deklarierenden Einheiten je Name, und die Namen mit mehreren Deklarationen.
+     * Nur bei diesen Namen muss nach doppelten Deklarationen gesucht werden.
+     */
+    private final Map<String, List<Unit>> declarations;
+    private final Set<String> repeatedNames;
+    private int errorCount;
+
+    private IncrementalParser(Grammar grammar, ParsingTable parsetable, Function<CharStream, Lexer> lexerFactory) {
+        this.grammar = grammar;
+        this.parsetable = parsetable;
+        this.parser = new StupsParser(parsetable);
+        this.lexerFactory = lexerFactory;
+        this.chainLink = grammar.getProductions(CHAIN).stream()
+                                .filter(rule -> rule.getSymbols().equals(List.of(STATEMENT, CHAIN)))
+                                .map(GrammarRule::getRightside)
+                                .findFirst()
+                                .orElseThrow(() -> new IllegalArgumentException("Grammar has no rule " + CHAIN + " -> " + STATEMENT + " " + CHAIN));
+
+        this.text = new StringBuilder();
+        this.token = new TokenBuffer();
+
+        this.units = new ArrayList<>();
+        this.unitsByNode = new IdentityHashMap<>();
+        this.scopeSymbols = new IdentityHashMap<>();
+        this.declarations = new HashMap<>();
+        this.repeatedNames = new HashSet<>();
+    }
+
+    /**
+     * @param lexerFactory Z.B. StupsLexer::new, die Token-Texte werden kopiert, damit Positionen verschoben werden können.
+     */
+    public static IncrementalParser fromGrammar(Grammar grammar, Function<CharStream, Lexer> lexerFactory) {
+        final GrammarAnalyzer analyzer = GrammarAnalyzer.fromGrammarLazy(grammar);
+        return new IncrementalParser(grammar, analyzer.getTable(), lexerFactory);
+    }
+
+    /**
+     * Parst das ganze Programm, wirft den ersten Fehler.
+     */
+    public void parse(String program) {
+        this.text.setLength(0);
+        this.text.append(program);
+        this.token = this.lexAll();
+        this.reparseAll();
+        this.diagnose();
+    }
+
+    /**
+     * Ersetzt length Zeichen ab offset durch replacement und wirft den ersten Fehler des geänderten Programms.
+     */
+    public void edit(int offset, int length, String replacement) {
+        // MULTILINE_COMMENT reicht bis zum letzten */ der Datei, das lässt sich nicht lokal neu lexen
+        final boolean comment = touchesComment(this.text, offset, offset + length);
+        this.text.replace(offset, offset + length, replacement);
+
+        if (this.tree == null || comment || touchesComment(this.text, offset, offset + replacement.length())) {
+            this.token = this.lexAll();
+            this.reparseAll();
+            this.diagnose();
+            return;
+        }
+
+        final int[] damage = this.relex(offset, length, replacement.length());
+
+        if (damage[0] != damage[1] || damage[0] != damage[2]) {
+            final SyntaxTree previousTree = this.tree;
+            this.tree = null; // Ungültig, bis der Baum wieder zusammengesetzt ist
+
+            if (this.reparse(damage[0], damage[1], damage[2])) {
+                this.tree = previousTree;
+            } else {
+                Logger.logDebug("Incremental reparse not possible, parsing the whole program", IncrementalParser.class);
+                this.reparseAll();
+            }
+        }
+
+        this.diagnose();
+    }
+
+    // Lexing
+
+    private Lexer lexer() {
+        final Lexer lexer = this.lexerFactory.apply(new TextStream(this.text));
+        lexer.setTokenFactory(new CommonTokenFactory(true));
+        this.voc = lexer.getVocabulary();
+
+        return lexer;
+    }
+
+    private TokenBuffer lexAll() {
+        final Lexer lexer = this.lexer();
+        final TokenBuffer out = new TokenBuffer();
+
+        for (Token next = lexer.nextToken(); next.getType() != Token.EOF; next = lexer.nextToken()) {
+            out.append(next);
+        }
+
+        return out;
+    }
+
+    private static boolean touchesComment(CharSequence program, int from, int to) {
+        final String window = program.subSequence(Math.max(0, from - 1), Math.min(program.length(), to + 1)).toString();
+        return window.contains("/*") || window.contains("*/");
+    }
+
+    /**
+     * Lext ab der Zeile der Änderung neu, bis ein Token wieder auf einer alten Tokengrenze hinter der Änderung beginnt.
+     * Die Token dahinter werden nur verschoben, siehe {@link TokenBuffer}.
+     *
+     * @return Beschädigte Token: Beginn, Ende in der alten Liste, Ende in der neuen Liste.
+     */
+    private int[] relex(int offset, int length, int inserted) {
+        final int editEnd = offset + length;
+        final int charDelta = inserted - length;
+
+        // STRING_LIT reicht bis zum letzten " der Zeile, deshalb wird die ganze Zeile neu gelext
+        final int lineStart = this.text.lastIndexOf("\n", offset - 1) + 1;
+        int restart = this.firstTokenEndingAfter(offset - 1);
+        while (restart > 0 && this.token.get(restart - 1).getStopIndex() >= lineStart) {
+            restart--;
+        }
+
+        final Lexer lexer = this.lexer();
+        if (restart > 0) {
+            final Token before = this.token.get(restart - 1);
+
+            lexer.getInputStream().seek(before.getStopIndex() + 1);
+            lexer.setLine(before.getLine());
+            lexer.setCharPositionInLine(before.getCharPositionInLine() + before.getStopIndex() - before.getStartIndex() + 1);
+        }
+
+        final List<Token> relexed = new ArrayList<>();
+        int old = restart;
+        Token sync = null;
+        for (Token next = lexer.nextToken(); next.getType() != Token.EOF; next = lexer.nextToken()) {
+            while (old < this.token.size() && (this.token.get(old).getStartIndex() < editEnd
+                                               || this.token.get(old).getStartIndex() + charDelta < next.getStartIndex())) {
+                old++;
+            }
+
+            if (old < this.token.size() && this.token.get(old).getStartIndex() + charDelta == next.getStartIndex()
+                && this.token.get(old).getType() == next.getType()) {
+                sync = next;
+                break;
+            }
+
+            relexed.add(next);
+        }
+
+        // Unveränderte Token am Anfang gehören nicht zur Beschädigung
+        int same = 0;
+        while (same < relexed.size() && restart + same < old
+               && sameToken(relexed.get(same), this.token.get(restart + same))) {
+            same++;
+        }
+
+        if (sync == null) {
+            final int oldEnd = this.token.size();
+
+            this.token.replace(restart, oldEnd, relexed, 0, 0);
+            return new int[]{restart + same, oldEnd, restart + relexed.size()};
+        }
+
+        // Die Spalten ändern sich nur in der Zeile der Synchronisation, die Zeilen und Positionen bei allen folgenden Token
+        final int syncLine = this.token.get(old).getLine();
+        final int lineDelta = sync.getLine() - syncLine;
+        final int columnDelta = sync.getCharPositionInLine() - this.token.get(old).getCharPositionInLine();
+
+        for (int i = old; i < this.token.size() && this.token.get(i).getLine() == syncLine; i++) {
+            final CommonToken shifted = (CommonToken) this.token.get(i);
+            shifted.setCharPositionInLine(shifted.getCharPositionInLine() + columnDelta);
+        }
+
+        this.token.replace(restart, old, relexed, charDelta, lineDelta);
+        this.linesDirty = this.linesDirty || lineDelta != 0;
+
+        return new int[]{restart + same, old, restart + relexed.size()};
+    }
+
+    private static boolean sameToken(Token a, Token b) {
+        return a.getType() == b.getType() && a.getStartIndex() == b.getStartIndex()
+               && a.getLine() == b.getLine() && a.getText().equals(b.getText());
+    }
+
+    private int firstTokenEndingAfter(int position) {
+        int low = 0;
+        int high = this.token.size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final int stop = this.token.getStopIndex(mid);
+
+            if (stop > position) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+
+    private static void shift(Token token, int chars, int lines) {
+        final CommonToken shifted = (CommonToken) token;
+
+        shifted.setLine(shifted.getLine() + lines);
+        shifted.setStartIndex(shifted.getStartIndex() + chars);
+        shifted.setStopIndex(shifted.getStopIndex() + chars);
+    }
+
+    // Parsing
+
+    private void reparseAll() {
+        this.tree = null;
+        this.linesDirty = false;
+        this.units.clear();
+        this.unitsByNode.clear();
+        this.unitPendingFrom = 0;
+        this.unitPendingDelta = 0;
+        this.scopeSymbols.clear();
+        this.declarations.clear();
+        this.repeatedNames.clear();
+        this.errorCount = 0;
+
+        final SyntaxTree parsed = this.parser.parse(this.token, this.voc);
+
+        final List<Unit> added = new ArrayList<>();
+        this.index(parsed.getRoot(), null, null, null, 0, added);
+        this.units.addAll(added);
+        this.updateTypes(Collections.emptyList(), added);
+
+        this.tree = parsed;
+    }
+
+    /**
+     * Parst die Anweisungen der innersten Kette neu, welche die Token [from, oldTo) enthält,
+     * bis die Kette wieder auf eine alte Anweisung hinter der Beschädigung trifft.
+     *
+     * @return false, wenn sich die Beschädigung nicht auf eine Kette beschränken lässt.
+     */
+    private boolean reparse(int from, int oldTo, int newTo) {
+        final int delta = newTo - oldTo;
+
+        // Die innerste Anweisung, welche die Beschädigung enthält, steht in Quelltextreihenfolge am weitesten hinten
+        int runIndex = this.lastUnitStartingAtOrBefore(from);
+        while (runIndex >= 0) {
+            final Unit unit = this.unit(runIndex);
+            if (unit.chain != null && unit.end >= oldTo) {
+                break;
+            }
+            runIndex--;
+        }
+        if (runIndex < 0) {
+            return false;
+        }
+
+        // Die vorige Anweisung hat ihr Ende (z.B. ohne ELSE) mit dem ersten Token dieser Anweisung entschieden
+        if (from <= this.unit(runIndex).start) {
+            final int previous = this.previousSibling(runIndex);
+            if (previous >= 0) {
+                runIndex = previous;
+            }
+        }
+
+        final Unit run = this.unit(runIndex);
+        SyntaxTreeNode current = run.chain;
+        List<SyntaxTreeNode> cursor = current.getChildren();
+        int cursorEnd = run.start;
+        int scan = runIndex;
+        int position = run.start;
+        final int syncPosition;
+        final List<Unit> added = new ArrayList<>();
+
+        while (true) {
+            // Die alte Kette bis zur aktuellen Position vorspulen
+            Unit old = null;
+            while (this.isChainLink(cursor)) {
+                old = this.unitsByNode.get(cursor.get(1));
+                scan = this.settle(old, scan);
+                if (old.start >= oldTo && old.start + delta >= position) {
+                    break;
+                }
+
+                cursorEnd = old.end;
+                cursor = cursor.get(0).getChildren();
+            }
+
+            if (this.isChainLink(cursor)) {
+                if (old.start + delta == position) {
+                    // Ab hier ist die Kette unverändert
+
+                    current.setChildren(cursor);
+                    old.chain = current;
+                    syncPosition = old.start;
+                    break;
+                }
+            } else if (cursorEnd >= oldTo && cursorEnd + delta == position) {
+                // Das unveränderte Ende der Kette (eps oder Block)
+
+                current.setChildren(cursor);
+                syncPosition = cursorEnd;
+                break;
+            } else if (cursorEnd + delta < position) {
+                return false;
+            }
+
+            final String lookahead = position < this.token.size()
+                                     ? this.voc.getSymbolicName(this.token.get(position).getType())
+                                     : "$";
+            if (!this.chainLink.equals(this.parsetable.get(CHAIN, lookahead))) {
+                return false;
+            }
+
+            // Wie im StupsParser: Kinder rückwärts, Zeile des aktuellen Tokens
+            final int line = this.lineAt(position);
+            final SyntaxTreeNode next = new SyntaxTreeNode(CHAIN, line);
+            final SyntaxTreeNode statement = new SyntaxTreeNode(STATEMENT, line);
+            current.setChildren(next, statement);
+
+            final int end = this.parser.derive(statement, this.token, this.voc, position);
+            this.index(statement, current, run.parent, run.body, position, added);
+
+            position = end;
+            current = next;
+        }
+
+        // Einheiten austauschen, die umschließenden Anweisungen enden hinter der Kette
+        int removeEnd = runIndex;
+        while (removeEnd < this.units.size() && this.unit(removeEnd).start < syncPosition) {
+            removeEnd++;
+        }
+
+        final List<Unit> removed = new ArrayList<>(this.units.subList(runIndex, removeEnd));
+        for (int i = removeEnd; i < this.unitPendingFrom; i++) {
+            this.units.get(i).shift(delta);
+        }
+        this.unitPendingDelta += delta;
+        for (Unit up = run.parent; up != null; up = up.parent) {
+            up.end += delta;
+        }
+
+        splice(this.units, runIndex, removeEnd, added);
+        this.unitPendingFrom += added.size() - removed.size();
+
+        Logger.logInfo("Reparsed " + added.size() + " units, reused " + (this.units.size() - added.size()),
+                       IncrementalParser.class);
+
+        this.updateTypes(removed, added);
+
+        return true;
+    }
+
+    /**
+     * Ersetzt list[from, to) und überschreibt dabei so viel wie möglich, statt die ganze Liste zu verschieben.
+     */
+    private static <T> void splice(List<T> list, int from, int to, List<T> replacement) {
+        final int common = Math.min(to - from, replacement.size());
+        for (int i = 0; i < common; i++) {
+            list.set(from + i, replacement.get(i));
+        }
+
+        if (common < to - from) {
+            list.subList(from + common, to).clear();
+        } else if (common < replacement.size()) {
+            list.addAll(to, replacement.subList(common, replacement.size()));
+        }
+    }
+
+    /**
+     * Wie bei den Token im {@link TokenBuffer} sind die Einheiten ab unitPendingFrom noch nicht um unitPendingDelta verschoben.
+     */
+    private Unit unit(int index) {
+        if (index >= this.unitPendingFrom && this.unitPendingDelta == 0) {
+            this.unitPendingFrom = index + 1;
+        } else if (index >= this.unitPendingFrom) {
+            for (int i = this.unitPendingFrom; i <= index; i++) {
+                this.units.get(i).shift(this.unitPendingDelta);
+            }
+
+            this.unitPendingFrom = index + 1;
+        }
+
+        return this.units.get(index);
+    }
+
+    /**
+     * Gleicht die Einheiten bis unit aus, die Suche beginnt bei from.
+     *
+     * @return Der Index von unit.
+     */
+    private int settle(Unit unit, int from) {
+        int index = from;
+        while (this.unit(index) != unit) {
+            index++;
+        }
+
+        return index;
+    }
+
+    private boolean isChainLink(List<SyntaxTreeNode> children) {
+        return children.size() == 2 && STATEMENT.equals(children.get(1).getName());
+    }
+
+    private int previousSibling(int index) {
+        final Unit unit = this.unit(index);
+
+        for (int i = index - 1; i >= 0; i--) {
+            final Unit candidate = this.unit(i);
+
+            if (candidate.end > unit.start) {
+                // Umschließende Anweisung, die Kette beginnt mit unit
+                return -1;
+            }
+            if (candidate.chain != null && candidate.chain.getChildren().get(0) == unit.chain) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private int lastUnitStartingAtOrBefore(int position) {
+        int low = 0;
+        int high = this.units.size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final int start = this.units.get(mid).start + (mid >= this.unitPendingFrom ? this.unitPendingDelta : 0);
+
+            if (start > position) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        return low - 1;
+    }
+
+    private int lineAt(int position) {
+        return position < this.token.size() ? this.token.get(position).getLine() : 0;
+    }
+
+    /**
+     * Sammelt die Einheiten unter node in Quelltextreihenfolge.
+     * Ketten werden iterativ abgelaufen, damit lange Programme nicht zu tiefer Rekursion führen.
+     *
+     * @param body Der innerste Rumpf um node, null auf oberster Ebene.
+     * @return Die Tokenposition hinter node.
+     */
+    private int index(SyntaxTreeNode node, SyntaxTreeNode parent, Unit enclosing, SyntaxTreeNode body, int position,
+                      List<Unit> out) {
+        SyntaxTreeNode current = node;
+        SyntaxTreeNode currentParent = parent;
+        int end = position;
+
+        while (CHAIN.equals(current.getName()) && this.isChainLink(current.getChildren())) {
+            end = this.index(current.getChildren().get(1), current, enclosing, body, end, out);
+            currentParent = current;
+            current = current.getChildren().get(0);
+        }
+
+        final List<SyntaxTreeNode> children = current.getChildren();
+        if (children.isEmpty()) {
+            return Grammar.EPSILON_SYMBOL.equals(current.getName()) ? end : end + 1;
+        }
+
+        Unit unit = null;
+        if (STATEMENT.equals(current.getName())) {
+            unit = new Unit(current, currentParent, enclosing, body, end);
+        } else if (currentParent != null && BODY.equals(currentParent.getName()) && BODY_STATEMENT.equals(current.getName())) {
+            unit = new Unit(current, null, enclosing, body, end);
+        }
+        if (unit != null) {
+            out.add(unit);
+            this.unitsByNode.put(current, unit);
+        }
+
+        // Die Kinder liegen rückwärts im Baum
+        final SyntaxTreeNode childBody = BODY.equals(current.getName()) ? current : body;
+        for (int i = children.size() - 1; i >= 0; i--) {
+            end = this.index(children.get(i), current, unit == null ? enclosing : unit, childBody, end, out);
+        }
+
+        if (unit != null) {
+            unit.end = end;
+        }
+
+        return end;
+    }
+
+    // Typen
+
+    private void updateTypes(List<Unit> removed, List<Unit> added) {
+        // Die Typen vorher je Rumpf und Name, null wenn der Name dort nicht deklariert war
+        final Map<SyntaxTreeNode, Map<String, Type>> before = new IdentityHashMap<>();
+
+        for (Unit unit : removed) {
+            this.unitsByNode.remove(unit.node);
+            if (unit.error != null) {
+                this.errorCount--;
+            }
+            if (unit.declaredName != null) {
+                this.remember(before, unit);
+                this.undeclare(unit);
+            }
+        }
+
+        for (Unit unit : added) {
+            unit.ast = this.abstractSyntaxTree(unit.node);
+            collectSymbols(unit.ast.getRoot(), unit);
+
+            if (unit.declaredName != null) {
+                this.remember(before, unit);
+                this.declare(unit);
+            }
+        }
+
+        final Set<String> changed = new HashSet<>();
+        for (Map.Entry<SyntaxTreeNode, Map<String, Type>> scope : before.entrySet()) {
+            final Map<String, Type> symbols = this.scopeSymbols.getOrDefault(scope.getKey(), Collections.emptyMap());
+
+            for (Map.Entry<String, Type> entry : scope.getValue().entrySet()) {
+                if (!Objects.equals(entry.getValue(), symbols.get(entry.getKey()))) {
+                    changed.add(entry.getKey());
+                }
+            }
+        }
+
+        final Set<Unit> checked = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Unit unit : added) {
+            this.check(unit);
+            checked.add(unit);
+        }
+
+        // Bei geänderten Deklarationen werden auch die alten Einheiten geprüft, welche die Namen verwenden
+        if (!changed.isEmpty() && checked.size() < this.units.size()) {
+            for (Unit unit : this.units) {
+                if (!checked.contains(unit) && !Collections.disjoint(unit.names, changed)) {
+                    this.check(unit);
+                }
+            }
+        }
+    }
+
+    private void remember(Map<SyntaxTreeNode, Map<String, Type>> before, Unit unit) {
+        final Map<String, Type> scope = before.computeIfAbsent(unit.body, body -> new HashMap<>());
+        if (!scope.containsKey(unit.declaredName)) {
+            scope.put(unit.declaredName, this.scopeSymbols.getOrDefault(unit.body, Collections.emptyMap())
+                                                          .get(unit.declaredName));
+        }
+    }
+
+    private void declare(Unit unit) {
+        final List<Unit> declaring = this.declarations.computeIfAbsent(unit.declaredName, name -> new ArrayList<>());
+        declaring.add(unit);
+        if (declaring.size() == 2) {
+            this.repeatedNames.add(unit.declaredName);
+        }
+
+        this.scopeSymbols.computeIfAbsent(unit.body, body -> new HashMap<>()).put(unit.declaredName, unit.declaredType);
+    }
+
+    private void undeclare(Unit unit) {
+        final List<Unit> declaring = this.declarations.get(unit.declaredName);
+        declaring.remove(unit);
+        if (declaring.size() == 1) {
+            this.repeatedNames.remove(unit.declaredName);
+        } else if (declaring.isEmpty()) {
+            this.declarations.remove(unit.declaredName);
+        }
+
+        final Map<String, Type> scope = this.scopeSymbols.get(unit.body);
+        scope.remove(unit.declaredName);
+
+        // Selten: Der Name war im selben Rumpf doppelt deklariert, der Typ kommt von der verbleibenden Deklaration
+        for (Unit other : declaring) {
+            if (other.body == unit.body) {
+                scope.put(other.declaredName, other.declaredType);
+                break;
+            }
+        }
+
+        if (scope.isEmpty()) {
+            this.scopeSymbols.remove(unit.body);
+        }
+    }
+
+    private void check(Unit unit) {
+        final boolean failed = unit.error != null;
+
+        // Der eigene Rumpf zuerst, dann die umschließenden bis zur obersten Ebene
+        final List<Map<String, Type>> scopes = new ArrayList<>();
+        for (Unit current = unit; current != null; current = current.parent) {
+            scopes.add(this.scopeSymbols.getOrDefault(current.body, Collections.emptyMap()));
+        }
+
+        try {
+            unit.types = TypeChecker.validate(unit.ast, TypeTable.fromScopes(scopes));
+            unit.error = null;
+        } catch (RuntimeException e) {
+            unit.types = null;
+            unit.error = e;
+        }
+
+        if (failed != (unit.error != null)) {
+            this.errorCount += failed ? -1 : 1;
+        }
+    }
+
+    /**
+     * Die Deklaration ist für die Einheit sichtbar, wenn ihr Rumpf die Einheit umschließt.
+     */
+    private static boolean isVisible(Unit declaration, Unit unit) {
+        for (Unit current = unit; current != null; current = current.parent) {
+            if (current.body == declaration.body) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Zwei Deklarationen eines Namens sind doppelt, wenn eine im Rumpf der anderen liegt.
+     */
+    private static boolean conflicts(Unit first, Unit second) {
+        return isVisible(first, second) || isVisible(second, first);
+    }
+
+    /**
+     * Sucht nur unter den Namen mit mehreren Deklarationen, ob zwei davon nicht in getrennten Rümpfen liegen.
+     */
+    private boolean hasDuplicate() {
+        for (String name : this.repeatedNames) {
+            final Set<SyntaxTreeNode> bodies = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Unit unit : this.declarations.get(name)) {
+                if (!bodies.add(unit.body)) {
+                    return true;
+                }
+            }
+
+            for (Unit unit : this.declarations.get(name)) {
+                for (Unit enclosing = unit.parent; enclosing != null; enclosing = enclosing.parent) {
+                    if (bodies.contains(enclosing.body)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Bereinigt eine Einheit wie {@link SyntaxTree#toAbstractSyntaxTree(SyntaxTree, Grammar)},
+     * ohne die geschachtelten Rümpfe.
+     */
+    private SyntaxTree abstractSyntaxTree(SyntaxTreeNode node) {
+        final SyntaxTree ast = new SyntaxTree(shallowCopy(node));
+
+        ParseTreeCleaner.clean(ast, this.grammar);
+        SyntaxTreeRebalancer.rebalance(ast);
+
+        return ast;
+    }
+
+    private static SyntaxTreeNode shallowCopy(SyntaxTreeNode node) {
+        final SyntaxTreeNode copy = new SyntaxTreeNode(node.getName(), node.getLine());
+        copy.setValue(node.getValue());
+
+        if (!BODY.equals(node.getName())) {
+            for (SyntaxTreeNode child : node.getChildren()) {
+                copy.addChild(shallowCopy(child));
+            }
+        }
+
+        return copy;
+    }
+
+    private static void collectSymbols(SyntaxTreeNode root, Unit unit) {
+        // Wie TypeTable: declaration hat den Typ als Wert, das Kind (assignment) den Namen
+        if (NodeKind.fromName(root.getName()) == NodeKind.DECLARATION) {
+            unit.declaredName = root.getChildren().get(0).getValue();
+            unit.declaredType = Type.fromName(root.getValue());
+        }
+
+        // Alle Werte, nicht nur Variablennamen, schadet aber nicht
+        if (!root.getValue().isEmpty()) {
+            unit.names.add(root.getValue());
+        }
+
+        for (SyntaxTreeNode child : root.getChildren()) {
+            collectSymbols(child, unit);
+        }
+    }
+
+    private void diagnose() {
+        if (!this.repeatedNames.isEmpty() && this.hasDuplicate()) {
+            final Map<String, List<Unit>> seen = new HashMap<>();
+
+            for (int i = 0; i < this.units.size(); i++) {
+                final Unit unit = this.unit(i);
+                if (unit.declaredName == null) {
+                    continue;
+                }
+
+                final List<Unit> previous = seen.computeIfAbsent(unit.declaredName, name -> new ArrayList<>());
+                for (Unit other : previous) {
+                    if (conflicts(other, unit)) {
+                        Logger.logError("Line " + unit.node.getLine() + " Symbolerror: [" + unit.declaredName + "] already defined",
+                                        IncrementalParser.class);
+                        throw new SymbolAlreadyDefinedException("Das Symbol " + unit.declaredName + " wurde bereits deklariert.");
+                    }
+                }
+                previous.add(unit);
+            }
+        }
+
+        if (this.errorCount > 0) {
+            for (Unit unit : this.units) {
+                if (unit.error != null) {
+                    throw unit.error;
+                }
+            }
+        }
+    }
+
+    // Getters
+
+    /**
+     * Der aktuelle Parsebaum, identisch mit dem von {@link StupsParser#parse(List, Vocabulary)}.
+     */
+    public SyntaxTree getParseTree() {
+        if (this.tree == null) {
+            throw new IllegalStateException("The program could not be parsed");
+        }
+
+        if (this.linesDirty) {
+            this.fixLines(this.tree.getRoot(), 0);
+            this.linesDirty = false;
+        }
+
+        return this.tree;
+    }
+
+    /**
+     * Die Typen aus dem {@link TypeChecker} für eine Anweisung, ohne geschachtelte Rümpfe.
+     * Die Knoten gehören zum abstrakten Teilbaum der Anweisung.
+     */
+    public Map<SyntaxTreeNode, Type> getTypes(SyntaxTreeNode statement) {
+        final Unit unit = this.unitsByNode.get(statement);
+        return unit == null || unit.types == null ? Collections.emptyMap() : Collections.unmodifiableMap(unit.types);
+    }
+
+    public List<Token> getToken() {
+        return Collections.unmodifiableList(this.token);
+    }
+
+    public String getSource() {
+        return this.text.toString();
+    }
+
+    /**
+     * Die Kinder eines Knotens bekommen die Zeile des Tokens, bei dem der Knoten abgeleitet wurde.
+     */
+    private int fixLines(SyntaxTreeNode node, int position) {
+        SyntaxTreeNode current = node;
+        int end = position;
+
+        while (CHAIN.equals(current.getName()) && this.isChainLink(current.getChildren())) {
+            final int line = this.lineAt(end);
+            current.getChildren().get(0).setLine(line);
+            current.getChildren().get(1).setLine(line);
+
+            end = this.fixLines(current.getChildren().get(1), end);
+            current = current.getChildren().get(0);
+        }
+
+        final List<SyntaxTreeNode> children = current.getChildren();
+        if (children.isEmpty()) {
+            return Grammar.EPSILON_SYMBOL.equals(current.getName()) ? end : end + 1;
+        }
+
+        final int line = this.lineAt(end);
+        for (int i = children.size() - 1; i >= 0; i--) {
+            children.get(i).setLine(line);
+            end = this.fixLines(children.get(i), end);
+        }
+
+        return end;
+    }
+
+    /**
+     * Die Token als Lückenpuffer: Die Lücke liegt bei der letzten Änderung, die Token dahinter sind noch nicht
+     * um pendingChars und pendingLines verschoben. Beim Zugriff wandert die Lücke, bei Änderungen nahe beieinander
+     * also nur über wenige Token.
+     */
+    private static final class TokenBuffer extends AbstractList<Token> implements RandomAccess {
+
+        private Token[] data;
+        private int gapStart;
+        private int gapEnd;
+        private int pendingChars;
+        private int pendingLines;
+
+        private TokenBuffer() {
+            this.data = new Token[16];
+            this.gapEnd = this.data.length;
+        }
+
+        @Override
+        public Token get(int index) {
+            Objects.checkIndex(index, this.size());
+
+            if (index >= this.gapStart) {
+                this.moveGap(index + 1);
+            }
+
+            return this.data[index];
+        }
+
+        @Override
+        public int size() {
+            return this.data.length - this.gapEnd + this.gapStart;
+        }
+
+        /**
+         * Das Ende eines Tokens, ohne die Lücke zu verschieben.
+         */
+        private int getStopIndex(int index) {
+            return index < this.gapStart
+                   ? this.data[index].getStopIndex()
+                   : this.data[index + this.gapEnd - this.gapStart].getStopIndex() + this.pendingChars;
+        }
+
+        private void append(Token next) {
+            this.replace(this.size(), this.size(), List.of(next), 0, 0);
+        }
+
+        /**
+         * Ersetzt die Token [from, to), die Token dahinter werden um chars und lines verschoben.
+         */
+        private void replace(int from, int to, List<Token> replacement, int chars, int lines) {
+            this.moveGap(to);
+            Arrays.fill(this.data, from, to, null);
+            this.gapStart = from;
+
+            this.pendingChars += chars;
+            this.pendingLines += lines;
+
+            if (this.gapEnd - this.gapStart < replacement.size()) {
+                final int tail = this.data.length - this.gapEnd;
+                final Token[] grown = new Token[Math.max(2 * this.data.length, this.size() + replacement.size() + 16)];
+
+                System.arraycopy(this.data, 0, grown, 0, this.gapStart);
+                System.arraycopy(this.data, this.gapEnd, grown, grown.length - tail, tail);
+                this.gapEnd = grown.length - tail;
+                this.data = grown;
+            }
+
+            for (Token next : replacement) {
+                this.data[this.gapStart++] = next;
+            }
+
+            this.resetPending();
+        }
+
+        private void moveGap(int position) {
+            final int gap = this.gapEnd - this.gapStart;
+
+            if (this.pendingChars == 0 && this.pendingLines == 0 && position > this.gapStart) {
+                // Nichts zu verschieben, die Token können am Stück kopiert werden
+                final int count = position - this.gapStart;
+
+                System.arraycopy(this.data, this.gapEnd, this.data, this.gapStart, count);
+                Arrays.fill(this.data, Math.max(this.gapEnd, position), this.gapEnd + count, null);
+                this.gapStart = position;
+                this.gapEnd += count;
+            } else if (this.pendingChars == 0 && this.pendingLines == 0 && position < this.gapStart) {
+                final int count = this.gapStart - position;
+
+                System.arraycopy(this.data, position, this.data, position + gap, count);
+                Arrays.fill(this.data, position, Math.min(this.gapStart, position + gap), null);
+                this.gapStart = position;
+                this.gapEnd -= count;
+            }
+
+            while (this.gapStart < position) {
+                final Token next = this.data[this.gapEnd];
+                this.data[this.gapEnd++] = null;
+                shift(next, this.pendingChars, this.pendingLines);
+                this.data[this.gapStart++] = next;
+            }
+
+            while (this.gapStart > position) {
+                final Token previous = this.data[--this.gapStart];
+                this.data[this.gapStart] = null;
+                shift(previous, -this.pendingChars, -this.pendingLines);
+                this.data[--this.gapEnd] = previous;
+            }
+
+            this.resetPending();
+        }
+
+        private void resetPending() {
+            if (this.gapEnd == this.data.length) {
+                // Hinter der Lücke liegt nichts mehr
+                this.pendingChars = 0;
+                this.pendingLines = 0;
+            }
+        }
+    }
+
+    /**
+     * Liest direkt aus dem bearbeiteten Text, damit für das Neulexen nicht das ganze Programm kopiert wird.
+     */
+    private static final class TextStream implements CharStream {
+
+        private final CharSequence text;
+        private int position;
+
+        private TextStream(CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        public void consume() {
+            if (this.position >= this.text.length()) {
+                throw new IllegalStateException("cannot consume EOF");
+            }
+
+            this.position++;
+        }
+
+        @Override
+        public int LA(int i) {
+            if (i == 0) {
+                return 0;
+            }
+
+            final int index = i < 0 ? this.position + i : this.position + i - 1;
+            return index < 0 || index >= this.text.length() ? IntStream.EOF : this.text.charAt(index);
+        }
+
+        @Override
+        public int mark() {
+            return -1;
+        }
+
+        @Override
+        public void release(int marker) {}
+
+        @Override
+        public int index() {
+            return this.position;
+        }
+
+        @Override
+        public void seek(int index) {
+            this.position = index;
+        }
+
+        @Override
+        public int size() {
+            return this.text.length();
+        }
+
+        @Override
+        public String getSourceName() {
+            return IntStream.UNKNOWN_SOURCE_NAME;
+        }
+
+        @Override
+        public String getText(Interval interval) {
+            final int stop = Math.min(interval.b, this.text.length() - 1);
+            return stop < interval.a ? "" : this.text.subSequence(interval.a, stop + 1).toString();
+        }
+    }
+
+    /**
+     * Eine Anweisung einer Kette oder der Rumpf einer Schleife/Bedingung ohne Klammern.
+     */
+    private static final class Unit {
+
+        private final SyntaxTreeNode node;
+
+        /**
+         * Der block_cnt-Knoten, dessen Kind node ist, null bei Rümpfen ohne Klammern.
+         */
+        private SyntaxTreeNode chain;
+
+        /**
+         * Die umschließende Einheit, null auf oberster Ebene.
+         */
+        private final Unit parent;
+
+        /**
+         * Der innerste Rumpf um die Einheit, er gehört zu parent. Null auf oberster Ebene.
+         */
+        private final SyntaxTreeNode body;
+
+        /**
+         * Tokenbereich [start, end).
+         */
+        private int start;
+        private int end;
+
+        private SyntaxTree ast;
+        private Map<SyntaxTreeNode, Type> types;
+        private RuntimeException error;
+        private String declaredName;
+        private Type declaredType;
+
+        /**
+         * Die Werte im abstrakten Teilbaum, darunter alle verwendeten Variablen.
+         */
+        private final Set<String> names;
+
+        private Unit(SyntaxTreeNode node, SyntaxTreeNode chain, Unit parent, SyntaxTreeNode body, int start) {
+            this.node = node;
+            this.chain = chain;
+            this.parent = parent;
+            this.body = body;
+            this.start = start;
+            this.names = new HashSet<>();
+        }
+
+        private void shift(int delta) {
+            this.start += delta;
+            this.end += delta;
+        }
+    }
+}
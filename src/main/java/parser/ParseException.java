@@ -10,4 +10,11 @@ public class ParseException extends RuntimeException {
 
         Logger.logException("\nAST at last state:\n" + syntaxTree, ParseException.class);
     }
+
+    /**
+     * Für Parser, die keinen Syntaxbaum aufbauen.
+     */
+    public ParseException(String message) {
+        super("\n" + message);
+    }
 }
@@ -2,32 +2,364 @@ package parser;
 
 import parser.grammar.Grammar;
 
-import java.util.AbstractMap.SimpleEntry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Formatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * Repräsentation einer LL(1)-ParsingTabelle.
  * Jeder Kombination aus Nichtterminal und Terminal wird ein neues Symbol aus dem Alphabet zugewiesen.
+ * <p>
+ * Die Tabelle wird per Row-Displacement (Comb-Vector) komprimiert: Alle Zeilen werden so
+ * ineinander verschoben in ein gemeinsames Array gelegt, dass sich ihre belegten Zellen nicht überschneiden.
+ * Das check-Array merkt sich, zu welcher Zeile ein Slot gehört, so bleibt der Zugriff O(1).
+ * <p>
+ * Alternativ kann die Tabelle lazy erzeugt werden, siehe {@link #lazy}. Dann wird jede Zelle erst beim ersten
+ * Zugriff berechnet und ohne Locks über ein {@link AtomicIntegerArray} je Zeile veröffentlicht.
  */
 public class ParsingTable {
 
+    /**
+     * Kennung und Version des Binärformats von {@link #toByteArray()}.
+     */
+    private static final int FORMAT_MAGIC = 0x5354_5054; // "STPT"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int EMPTY = -1;
+
+    /**
+     * Kodierung der lazy Zellen: 0 ist noch nicht berechnet, sonst Produktionsnummer + 2 (leer ist also 1).
+     */
+    private static final int UNRESOLVED = 0;
+    private static final int LAZY_SHIFT = 2;
+
+    /**
+     * Wie viele Tabellenbreiten beim Packen nach einer Lücke für eine Zeile gesucht wird.
+     */
+    private static final int SEARCH_WINDOW = 4;
+
     private final Grammar grammar;
-    private final Map<Entry<String, String>, String> parsetable;
 
-    public ParsingTable(Grammar grammar, Map<Entry<String, String>, String> parsetable) {
+    // Dichte Nummerierung: Zeile -> Nichtterminal, Spalte -> Terminal, Produktionsnummer -> rightside
+    private final String[] rowSymbols;
+    private final String[] columnSymbols;
+    private final String[] productions;
+    private final Map<String, Integer> rowIds;
+    private final Map<String, Integer> columnIds;
+
+    /**
+     * Startposition jeder Zeile im Comb-Vector.
+     */
+    private final int[] rowOffset;
+
+    /**
+     * Für jeden Slot die Zeile, welcher dieser gehört, oder {@link #EMPTY}.
+     */
+    private final int[] check;
+
+    /**
+     * Für jeden Slot die Produktionsnummer.
+     */
+    private final int[] value;
+
+    /**
+     * Die Anzahl der belegten Zellen.
+     */
+    private final int cellCount;
+
+    /**
+     * Nur im lazy Modus gesetzt: Die Zeilen der bereits berechneten Zellen und die Berechnungsvorschrift.
+     * Eine Zeile wird erst angelegt, wenn eine ihrer Zellen angefragt wird.
+     */
+    private final AtomicReferenceArray<AtomicIntegerArray> lazyCells;
+    private final IntBinaryOperator cellResolver;
+
+    /**
+     * @param table table[row][column] enthält die Produktionsnummer oder -1, wenn die Zelle leer ist.
+     */
+    public ParsingTable(Grammar grammar, List<String> nonterminals, List<String> terminals,
+                        List<String> productions, int[][] table) {
+        this.grammar = grammar;
+        this.rowSymbols = nonterminals.toArray(String[]::new);
+        this.columnSymbols = terminals.toArray(String[]::new);
+        this.productions = productions.toArray(String[]::new);
+        this.rowIds = indexOf(this.rowSymbols);
+        this.columnIds = indexOf(this.columnSymbols);
+
+        this.rowOffset = new int[this.rowSymbols.length];
+
+        final int[][] rowColumns = new int[this.rowSymbols.length][];
+        int cells = 0;
+        for (int row = 0; row < this.rowSymbols.length; row++) {
+            rowColumns[row] = filledColumns(table[row]);
+            cells += rowColumns[row].length;
+        }
+        this.cellCount = cells;
+
+        final CombBuilder comb = new CombBuilder(this.columnSymbols.length);
+        for (int row : densestFirst(rowColumns)) {
+            this.rowOffset[row] = comb.place(row, rowColumns[row], table[row]);
+        }
+
+        this.check = comb.check();
+        this.value = comb.value();
+        this.lazyCells = null;
+        this.cellResolver = null;
+    }
+
+    private ParsingTable(Grammar grammar, String[] rowSymbols, String[] columnSymbols, String[] productions,
+                         int[] rowOffset, int[] check, int[] value, int cellCount) {
+        this.grammar = grammar;
+        this.rowSymbols = rowSymbols;
+        this.columnSymbols = columnSymbols;
+        this.productions = productions;
+        this.rowIds = indexOf(rowSymbols);
+        this.columnIds = indexOf(columnSymbols);
+        this.rowOffset = rowOffset;
+        this.check = check;
+        this.value = value;
+        this.cellCount = cellCount;
+        this.lazyCells = null;
+        this.cellResolver = null;
+    }
+
+    private ParsingTable(Grammar grammar, String[] rowSymbols, String[] columnSymbols, String[] productions,
+                         IntBinaryOperator cellResolver) {
         this.grammar = grammar;
-        this.parsetable = Collections.unmodifiableMap(parsetable);
+        this.rowSymbols = rowSymbols;
+        this.columnSymbols = columnSymbols;
+        this.productions = productions;
+        this.rowIds = indexOf(rowSymbols);
+        this.columnIds = indexOf(columnSymbols);
+        this.rowOffset = new int[0];
+        this.check = new int[0];
+        this.value = new int[0];
+        this.cellCount = 0;
+        this.lazyCells = new AtomicReferenceArray<>(rowSymbols.length);
+        this.cellResolver = cellResolver;
+    }
+
+    /**
+     * Erzeugt eine Tabelle, deren Zellen erst beim ersten Zugriff berechnet werden.
+     * Greifen mehrere Threads gleichzeitig auf dieselbe Zelle zu, berechnen sie dasselbe Ergebnis,
+     * veröffentlicht wird es per compareAndSet.
+     *
+     * @param cellResolver Liefert für (Zeile, Spalte) die Produktionsnummer oder -1, wenn die Zelle leer ist.
+     *                     Muss zustandslos sein, da er für eine Zelle mehrfach aufgerufen werden kann.
+     */
+    public static ParsingTable lazy(Grammar grammar, List<String> nonterminals, List<String> terminals,
+                                    List<String> productions, IntBinaryOperator cellResolver) {
+        return new ParsingTable(grammar, nonterminals.toArray(String[]::new), terminals.toArray(String[]::new),
+                                productions.toArray(String[]::new), cellResolver);
+    }
+
+    /**
+     * Die Zeilen nach Anzahl belegter Zellen absteigend, leere Zeilen fallen weg.
+     * First-Fit in dieser Reihenfolge lässt die dünnen Zeilen in die Lücken der vollen fallen.
+     */
+    private static int[] densestFirst(int[][] rowColumns) {
+        return IntStream.range(0, rowColumns.length)
+                        .filter(row -> rowColumns[row] != null && rowColumns[row].length > 0)
+                        .boxed()
+                        .sorted(Comparator.comparingInt((Integer row) -> rowColumns[row].length).reversed())
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+    }
+
+    private static int[] filledColumns(int[] cells) {
+        return IntStream.range(0, cells.length)
+                        .filter(column -> cells[column] != EMPTY)
+                        .toArray();
+    }
+
+    /**
+     * Übernimmt die Tabelle für eine geänderte Grammatik mit denselben Terminalen: Die Zellen unveränderter
+     * Zeilen bleiben im Comb-Vector liegen, nur die geänderten Zeilen werden entfernt und neu eingepackt.
+     *
+     * @param previousRow   Neue Zeile -> Zeile in dieser Tabelle, -1 für neue Nichtterminale.
+     * @param productionMap Produktionsnummer in dieser Tabelle -> neue Produktionsnummer.
+     * @param changedRows   Neue Zeile -> Zeileninhalt wie im Konstruktor, null für unveränderte Zeilen.
+     */
+    public ParsingTable patch(Grammar grammar, List<String> nonterminals, List<String> terminals,
+                              List<String> productions, int[] previousRow, int[] productionMap, int[][] changedRows) {
+        if (this.lazyCells != null) {
+            return this.compact().patch(grammar, nonterminals, terminals, productions,
+                                        previousRow, productionMap, changedRows);
+        }
+        if (!Arrays.asList(this.columnSymbols).equals(terminals)) {
+            throw new IllegalArgumentException("Patching requires unchanged terminals");
+        }
+
+        final int[] nextRow = new int[this.rowSymbols.length];
+        Arrays.fill(nextRow, EMPTY);
+        for (int row = 0; row < previousRow.length; row++) {
+            if (previousRow[row] != EMPTY && changedRows[row] == null) {
+                nextRow[previousRow[row]] = row;
+            }
+        }
+
+        // Unveränderte Zellen umnummerieren, die Zellen geänderter oder entfernter Zeilen freigeben
+        final int[] checkOut = this.check.clone();
+        final int[] valueOut = this.value.clone();
+        int cells = 0;
+        for (int slot = 0; slot < checkOut.length; slot++) {
+            if (checkOut[slot] == EMPTY) {
+                continue;
+            }
+
+            checkOut[slot] = nextRow[checkOut[slot]];
+            if (checkOut[slot] != EMPTY) {
+                valueOut[slot] = productionMap[valueOut[slot]];
+                cells++;
+            }
+        }
+
+        final int[] rowOffsetOut = new int[nonterminals.size()];
+        final int[][] rowColumns = new int[nonterminals.size()][];
+        for (int row = 0; row < rowOffsetOut.length; row++) {
+            if (changedRows[row] == null) {
+                rowOffsetOut[row] = this.rowOffset[previousRow[row]];
+            } else {
+                rowColumns[row] = filledColumns(changedRows[row]);
+                cells += rowColumns[row].length;
+            }
+        }
+
+        final CombBuilder comb = new CombBuilder(this.columnSymbols.length, checkOut, valueOut);
+        for (int row : densestFirst(rowColumns)) {
+            rowOffsetOut[row] = comb.place(row, rowColumns[row], changedRows[row]);
+        }
+
+        return new ParsingTable(grammar, nonterminals.toArray(String[]::new), this.columnSymbols,
+                                productions.toArray(String[]::new), rowOffsetOut, comb.check(), comb.value(), cells);
+    }
+
+    private static boolean fits(int[] check, int[] columns, int offset) {
+        for (int column : columns) {
+            final int slot = offset + column;
+
+            if (slot < 0 || (slot < check.length && check[slot] != EMPTY)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static Map<String, Integer> indexOf(String[] symbols) {
+        final Map<String, Integer> ids = new HashMap<>();
+
+        for (int i = 0; i < symbols.length; i++) {
+            ids.put(symbols[i], i);
+        }
+
+        return Collections.unmodifiableMap(ids);
     }
 
     public String get(String nonterminal, String terminal) {
-        return this.parsetable.get(new SimpleEntry<>(nonterminal, terminal));
+        final Integer row = this.rowIds.get(nonterminal);
+        final Integer column = this.columnIds.get(terminal);
+
+        if (row == null || column == null) {
+            return null;
+        }
+
+        final int prod = this.get(row, column);
+
+        return prod == EMPTY ? null : this.productions[prod];
+    }
+
+    /**
+     * Zugriff über die dichten Ids, siehe {@link #getRowId(String)} und {@link #getColumnId(String)}.
+     *
+     * @return Die Produktionsnummer oder -1, wenn die Zelle leer ist oder eine Id außerhalb der Tabelle liegt.
+     */
+    public int get(int row, int column) {
+        if (row < 0 || row >= this.rowSymbols.length || column < 0 || column >= this.columnSymbols.length) {
+            return EMPTY;
+        }
+
+        if (this.lazyCells != null) {
+            return this.getLazy(row, column);
+        }
+
+        final int slot = this.rowOffset[row] + column;
+
+        if (slot < 0 || slot >= this.check.length || this.check[slot] != row) {
+            return EMPTY;
+        }
+
+        return this.value[slot];
+    }
+
+    private int getLazy(int row, int column) {
+        AtomicIntegerArray cells = this.lazyCells.get(row);
+        if (cells == null) {
+            // Verliert ein Thread das Rennen, nimmt er die Zeile des Gewinners
+            this.lazyCells.compareAndSet(row, null, new AtomicIntegerArray(this.columnSymbols.length));
+            cells = this.lazyCells.get(row);
+        }
+
+        final int known = cells.get(column);
+        if (known != UNRESOLVED) {
+            return known - LAZY_SHIFT;
+        }
+
+        final int prod = this.cellResolver.applyAsInt(row, column);
+        cells.compareAndSet(column, UNRESOLVED, prod + LAZY_SHIFT);
+
+        return prod;
+    }
+
+    public boolean isLazy() {
+        return this.lazyCells != null;
+    }
+
+    /**
+     * Berechnet alle noch fehlenden Zellen und packt die Tabelle in den Comb-Vector.
+     * Eine bereits komprimierte Tabelle wird unverändert zurückgegeben.
+     */
+    public ParsingTable compact() {
+        if (this.lazyCells == null) {
+            return this;
+        }
+
+        final int[][] table = new int[this.rowSymbols.length][this.columnSymbols.length];
+        for (int row = 0; row < table.length; row++) {
+            for (int column = 0; column < table[row].length; column++) {
+                table[row][column] = this.get(row, column);
+            }
+        }
+
+        return new ParsingTable(this.grammar, Arrays.asList(this.rowSymbols), Arrays.asList(this.columnSymbols),
+                                Arrays.asList(this.productions), table);
+    }
+
+    public int getRowId(String nonterminal) {
+        return this.rowIds.getOrDefault(nonterminal, EMPTY);
+    }
+
+    public int getColumnId(String terminal) {
+        return this.columnIds.getOrDefault(terminal, EMPTY);
+    }
+
+    public String getProduction(int prod) {
+        return this.productions[prod];
     }
 
     public Set<String> getNonterminals() {
@@ -38,66 +370,215 @@ public class ParsingTable {
         return this.grammar.getTerminals();
     }
 
+    // Serialization
+
+    /**
+     * Schreibt die komprimierte Tabelle in ein kompaktes Binärformat.
+     * Alle Zahlen werden als VarInt geschrieben, die Symbole als UTF.
+     */
+    public byte[] toByteArray() {
+        if (this.lazyCells != null) {
+            return this.compact().toByteArray();
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_MAGIC);
+            writeVarInt(out, FORMAT_VERSION);
+
+            writeStrings(out, this.rowSymbols);
+            writeStrings(out, this.columnSymbols);
+            writeStrings(out, this.productions);
+
+            for (int offset : this.rowOffset) {
+                // Offsets können negativ sein
+                writeVarInt(out, (offset << 1) ^ (offset >> 31));
+            }
+
+            writeVarInt(out, this.cellCount);
+            writeVarInt(out, this.check.length);
+            for (int slot = 0; slot < this.check.length; slot++) {
+                writeVarInt(out, this.check[slot] + 1);
+
+                if (this.check[slot] != EMPTY) {
+                    writeVarInt(out, this.value[slot]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public static ParsingTable fromByteArray(Grammar grammar, byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != FORMAT_MAGIC || readVarInt(in) != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unknown parse-table format");
+            }
+
+            final String[] rowSymbols = readStrings(in);
+            final String[] columnSymbols = readStrings(in);
+            final String[] productions = readStrings(in);
+
+            final int[] rowOffset = new int[rowSymbols.length];
+            for (int row = 0; row < rowOffset.length; row++) {
+                final int zigzag = readVarInt(in);
+                rowOffset[row] = (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+
+            final int cellCount = readVarInt(in);
+            final int[] check = new int[readVarInt(in)];
+            final int[] value = new int[check.length];
+            for (int slot = 0; slot < check.length; slot++) {
+                check[slot] = readVarInt(in) - 1;
+
+                if (check[slot] != EMPTY) {
+                    value[slot] = readVarInt(in);
+                }
+            }
+
+            return new ParsingTable(grammar, rowSymbols, columnSymbols, productions,
+                                    rowOffset, check, value, cellCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] strings) throws IOException {
+        writeVarInt(out, strings.length);
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        final String[] strings = new String[readVarInt(in)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+
+        return strings;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int number) throws IOException {
+        int remaining = number;
+
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+
+        out.writeByte(remaining);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int number = 0;
+        int shift = 0;
+        int current;
+
+        do {
+            current = in.readUnsignedByte();
+            number |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+
+        return number;
+    }
+
     // Printing + Overrides
 
-    // TODO: This mess
+    /**
+     * Vergleicht den Speicherbedarf der komprimierten Tabelle mit der vorherigen
+     * Darstellung als {@code HashMap<Entry<String, String>, String>}.
+     * Die Objektgrößen sind Schätzungen für eine 64-Bit JVM mit Compressed Oops.
+     */
+    public String printMemoryReport() {
+        if (this.lazyCells != null) {
+            int rows = 0;
+            int resolved = 0;
+            for (int row = 0; row < this.lazyCells.length(); row++) {
+                final AtomicIntegerArray cells = this.lazyCells.get(row);
+
+                if (cells != null) {
+                    rows++;
+                    for (int column = 0; column < cells.length(); column++) {
+                        resolved += cells.get(column) != UNRESOLVED ? 1 : 0;
+                    }
+                }
+            }
+
+            return "ParsingTable (lazy): " + this.rowSymbols.length + " x " + this.columnSymbols.length + " cells, "
+                   + resolved + " resolved in " + rows + " rows\n"
+                   + " :: Row arrays: " + (rows * (4L * this.columnSymbols.length + 32L)
+                                           + 4L * this.rowSymbols.length + 16L) + " bytes";
+        }
+
+        // HashMap.Node (32) + SimpleEntry (24) + Bucket-Slot (4, Load-Factor 0.75 aufgerundet auf ~8)
+        final long mapBytes = this.cellCount * (32L + 24L + 8L) + 48L;
+        // 3 int-Arrays mit Header
+        final long combBytes = 4L * (this.rowOffset.length + this.check.length + this.value.length) + 3 * 16L;
+
+        return "ParsingTable: " + this.rowSymbols.length + " x " + this.columnSymbols.length + " cells, "
+               + this.cellCount + " filled, comb-vector length " + this.check.length + "\n"
+               + " :: Map representation (estimated): " + mapBytes + " bytes\n"
+               + " :: Comb-vector representation: " + combBytes + " bytes\n"
+               + " :: Serialized: " + this.toByteArray().length + " bytes";
+    }
+
     @Override
     public String toString() {
         final StringBuilder output = new StringBuilder();
         final Formatter format = new Formatter(output);
 
-        final List<String> inputSymbols = this.parsetable.keySet().stream()
-                                                         .map(Entry::getValue)
-                                                         .distinct()
-                                                         .collect(Collectors.toList());
+        // Only columns that have at least one entry
+        final int[] inputColumns = IntStream.range(0, this.columnSymbols.length)
+                                            .filter(column -> IntStream.range(0, this.rowSymbols.length)
+                                                                       .anyMatch(row -> this.get(row, column) != EMPTY))
+                                            .toArray();
 
         // Determine margins (column-sizes)
-        final Map<String, Integer> margins = new HashMap<>();
-        margins.put("NTERM", 0);
-        for (String terminal : inputSymbols) {
-            margins.put(terminal, 0);
+        int ntermMargin = 0;
+        final int[] margins = new int[this.columnSymbols.length];
+        for (int column : inputColumns) {
+            margins[column] = this.columnSymbols[column].length();
         }
 
-        for (String nonterminal : this.grammar.getNonterminals()) {
+        for (int row = 0; row < this.rowSymbols.length; row++) {
+            ntermMargin = Math.max(ntermMargin, this.rowSymbols[row].length());
 
-            margins.put("NTERM", Math.max(margins.get("NTERM"), nonterminal.length()));
+            for (int column : inputColumns) {
+                final int prod = this.get(row, column);
 
-            for (String terminal : inputSymbols) {
-                final String prod = this.parsetable.get(new SimpleEntry<>(nonterminal, terminal));
-
-                final int length;
-                if (prod == null) {
-                    length = 0;
-                } else {
-                    length = prod.length();
+                if (prod != EMPTY) {
+                    margins[column] = Math.max(margins[column], this.productions[prod].length());
                 }
-
-                margins.put(terminal, Math.max(margins.get(terminal), Math.max(length, terminal.length())));
             }
         }
 
-        output.append(" ".repeat(margins.get("NTERM")))
+        output.append(" ".repeat(ntermMargin))
               .append("| ");
-        for (String terminal : inputSymbols) {
-            format.format("%-Xs ".replace("X", String.valueOf(margins.get(terminal))), terminal);
+        for (int column : inputColumns) {
+            format.format("%-" + margins[column] + "s ", this.columnSymbols[column]);
         }
         output.append("|\n");
 
-        output.append("-".repeat(margins.get("NTERM")))
+        output.append("-".repeat(ntermMargin))
               .append("+");
-        for (String terminal : inputSymbols) {
-            output.append("-".repeat(margins.get(terminal)));
+        for (int column : inputColumns) {
+            output.append("-".repeat(margins[column]));
         }
-        output.append("-".repeat(inputSymbols.size() + 1))
+        output.append("-".repeat(inputColumns.length + 1))
               .append("+")
               .append("\n");
 
-        for (String nonterminal : this.grammar.getNonterminals()) {
-            format.format("%-Xs| ".replace("X", String.valueOf(margins.get("NTERM"))), nonterminal);
+        for (int row = 0; row < this.rowSymbols.length; row++) {
+            format.format("%-" + ntermMargin + "s| ", this.rowSymbols[row]);
 
-            for (String terminal : inputSymbols) {
-                final String prod = this.parsetable.get(new SimpleEntry<>(nonterminal, terminal));
-                format.format("%-Xs ".replace("X", String.valueOf(margins.get(terminal))), prod == null ? " ".repeat(9) : prod);
+            for (int column : inputColumns) {
+                final int prod = this.get(row, column);
+                format.format("%-" + margins[column] + "s ", prod == EMPTY ? " ".repeat(9) : this.productions[prod]);
             }
             output.append("|\n");
         }
@@ -106,4 +587,81 @@ public class ParsingTable {
 
         return output.toString();
     }
+
+    /**
+     * Legt Zeilen per First-Fit in den Comb-Vector.
+     */
+    private static final class CombBuilder {
+
+        private final int width;
+        private int[] check;
+        private int[] value;
+        private int used;
+        private int firstFree;
+
+        CombBuilder(int width) {
+            this.width = width;
+            this.check = new int[Math.max(16, width)];
+            this.value = new int[this.check.length];
+            Arrays.fill(this.check, EMPTY);
+        }
+
+        /**
+         * Setzt auf einem bestehenden, eventuell lückenhaften Comb-Vector auf.
+         */
+        CombBuilder(int width, int[] check, int[] value) {
+            this.width = width;
+            this.check = check;
+            this.value = value;
+
+            this.used = check.length;
+            while (this.used > 0 && check[this.used - 1] == EMPTY) {
+                this.used--;
+            }
+            this.advanceFirstFree();
+        }
+
+        /**
+         * @return Der Offset, an dem die Zeile abgelegt wurde.
+         */
+        int place(int row, int[] columns, int[] cells) {
+            // Nach einigen Versuchen wird die Zeile hinten angehängt, dort passt sie immer
+            int offset = this.firstFree - columns[0];
+            final int lastTry = offset + SEARCH_WINDOW * this.width;
+            while (!fits(this.check, columns, offset)) {
+                offset = offset < lastTry ? offset + 1 : this.used - columns[0];
+            }
+
+            final int end = offset + columns[columns.length - 1] + 1;
+            if (end > this.check.length) {
+                final int oldLength = this.check.length;
+                this.check = Arrays.copyOf(this.check, Math.max(end, oldLength * 2));
+                this.value = Arrays.copyOf(this.value, this.check.length);
+                Arrays.fill(this.check, oldLength, this.check.length, EMPTY);
+            }
+
+            for (int column : columns) {
+                this.check[offset + column] = row;
+                this.value[offset + column] = cells[column];
+            }
+            this.used = Math.max(this.used, end);
+            this.advanceFirstFree();
+
+            return offset;
+        }
+
+        private void advanceFirstFree() {
+            while (this.firstFree < this.check.length && this.check[this.firstFree] != EMPTY) {
+                this.firstFree++;
+            }
+        }
+
+        int[] check() {
+            return Arrays.copyOf(this.check, this.used);
+        }
+
+        int[] value() {
+            return Arrays.copyOf(this.value, this.used);
+        }
+    }
 }
@@ -0,0 +1,867 @@
+package parser;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeNode;
+import parser.generator.DescentParserGenerator;
+import parser.grammar.Grammar;
+import util.Logger;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recursive-Descent-Parser, erzeugt von {@link DescentParserGenerator}.
+ * Nicht von Hand bearbeiten, sondern nach Änderungen der Grammatik mit
+ * "gradle generateDescentParser" neu erzeugen.
+ */
+public final class StupsDescentParser {
+
+    private static final String FINGERPRINT = "541aef1043de5160b51c33dca42734ce7472ebb258fe9ad08fabae2a70fa3e15";
+
+    private static final String[] TERMINALS = {
+            "CLASS", "PUBLIC", "STATIC", "STRING_TYPE", "INTEGER_TYPE", "BOOLEAN_TYPE",
+            "VOID_TYPE", "WHILE", "IF", "ELSE", "PRINTLN", "ADD",
+            "MUL", "SUB", "DIV", "MOD", "AND", "OR",
+            "NOT", "LESS", "LESS_EQUAL", "GREATER", "GREATER_EQUAL", "EQUAL",
+            "NOT_EQUAL", "ASSIGN", "L_BRACE", "R_BRACE", "L_BRACKET", "R_BRACKET",
+            "L_PAREN", "R_PAREN", "SEMICOLON", "COMMA", "DOT", "INTEGER_LIT",
+            "STRING_LIT", "BOOLEAN_LIT", "IDENTIFIER", "IDENTIFIER_MAIN", "$",
+    };
+
+    private static final int T_CLASS = 0;
+    private static final int T_PUBLIC = 1;
+    private static final int T_STATIC = 2;
+    private static final int T_STRING_TYPE = 3;
+    private static final int T_INTEGER_TYPE = 4;
+    private static final int T_BOOLEAN_TYPE = 5;
+    private static final int T_VOID_TYPE = 6;
+    private static final int T_WHILE = 7;
+    private static final int T_IF = 8;
+    private static final int T_ELSE = 9;
+    private static final int T_PRINTLN = 10;
+    private static final int T_ADD = 11;
+    private static final int T_MUL = 12;
+    private static final int T_SUB = 13;
+    private static final int T_DIV = 14;
+    private static final int T_MOD = 15;
+    private static final int T_AND = 16;
+    private static final int T_OR = 17;
+    private static final int T_NOT = 18;
+    private static final int T_LESS = 19;
+    private static final int T_LESS_EQUAL = 20;
+    private static final int T_GREATER = 21;
+    private static final int T_GREATER_EQUAL = 22;
+    private static final int T_EQUAL = 23;
+    private static final int T_NOT_EQUAL = 24;
+    private static final int T_ASSIGN = 25;
+    private static final int T_L_BRACE = 26;
+    private static final int T_R_BRACE = 27;
+    private static final int T_L_BRACKET = 28;
+    private static final int T_R_BRACKET = 29;
+    private static final int T_L_PAREN = 30;
+    private static final int T_R_PAREN = 31;
+    private static final int T_SEMICOLON = 32;
+    private static final int T_COMMA = 33;
+    private static final int T_DOT = 34;
+    private static final int T_INTEGER_LIT = 35;
+    private static final int T_STRING_LIT = 36;
+    private static final int T_BOOLEAN_LIT = 37;
+    private static final int T_IDENTIFIER = 38;
+    private static final int T_IDENTIFIER_MAIN = 39;
+    private static final int T_$ = 40;
+    private static final int T_UNKNOWN = -1;
+
+    private final List<? extends Token> token;
+    private final Vocabulary voc;
+    private final int[] lookahead;
+    private final SyntaxTree tree;
+    private int position;
+
+    private StupsDescentParser(List<? extends Token> token, Vocabulary voc) {
+        this.token = token;
+        this.voc = voc;
+        this.tree = new SyntaxTree(new SyntaxTreeNode(Grammar.START_SYMBOL, 0));
+
+        final Map<String, Integer> terminalIds = new HashMap<>();
+        for (int term = 0; term < TERMINALS.length; term++) {
+            terminalIds.put(TERMINALS[term], term);
+        }
+
+        // Token-Typ des Lexers -> Terminal-Id der Grammatik
+        final int[] typeIds = new int[voc.getMaxTokenType() + 1];
+        for (int type = 0; type < typeIds.length; type++) {
+            final String name = voc.getSymbolicName(type);
+            typeIds[type] = name == null ? T_UNKNOWN : terminalIds.getOrDefault(name, T_UNKNOWN);
+        }
+
+        this.lookahead = new int[token.size() + 1];
+        for (int i = 0; i < token.size(); i++) {
+            final int type = token.get(i).getType();
+            this.lookahead[i] = type >= 0 && type < typeIds.length ? typeIds[type] : T_UNKNOWN;
+        }
+        this.lookahead[token.size()] = T_$;
+    }
+
+    /**
+     * Der Parser passt nur zu der Grammatik, aus der er erzeugt wurde.
+     */
+    public static boolean isGeneratedFrom(Grammar grammar) {
+        return FINGERPRINT.equals(DescentParserGenerator.fingerprint(grammar));
+    }
+
+    public static SyntaxTree parse(List<? extends Token> token, Vocabulary voc) {
+        Logger.logDebug("Beginning program-parsing", StupsDescentParser.class);
+
+        final StupsDescentParser parser = new StupsDescentParser(token, voc);
+        parser.parseS(parser.tree.getRoot());
+
+        Logger.logDebug("Successfully parsed the program and built the parse-tree", StupsDescentParser.class);
+
+        return parser.tree;
+    }
+
+    private int line() {
+        return this.position < this.token.size() ? this.token.get(this.position).getLine() : 0;
+    }
+
+    private SyntaxTreeNode child(SyntaxTreeNode parent, String name, int line) {
+        final SyntaxTreeNode node = new SyntaxTreeNode(name, line);
+        parent.addChild(node);
+
+        return node;
+    }
+
+    private void value(SyntaxTreeNode node, int offset) {
+        if (this.position + offset < this.token.size()) {
+            node.setValue(this.token.get(this.position + offset).getText());
+        }
+    }
+
+    private String currentSymbol() {
+        return this.position < this.token.size()
+               ? this.voc.getSymbolicName(this.token.get(this.position).getType())
+               : "$";
+    }
+
+    private void match(int terminal) {
+        if (this.lookahead[this.position] != terminal) {
+            Logger.logError("Line " + this.line() + " Syntaxerror: Expected " + TERMINALS[terminal]
+                            + " but found " + this.currentSymbol(), StupsDescentParser.class);
+            Logger.logError(StupsParser.printSourceLine(this.line(), this.token), StupsDescentParser.class);
+
+            throw new ParseException("Invalid terminal on stack: " + TERMINALS[terminal], this.tree);
+        }
+
+        this.position++;
+    }
+
+    private ParseException noProduction(String nonterminal) {
+        Logger.logError("Line " + this.line() + " Syntaxerror: Didn't expect " + this.currentSymbol(),
+                        StupsDescentParser.class);
+        Logger.logError(StupsParser.printSourceLine(this.line(), this.token), StupsDescentParser.class);
+
+        return new ParseException("No prod. for nonterminal " + nonterminal + ", terminal "
+                                  + this.currentSymbol(), this.tree);
+    }
+
+    private void parseVal(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_INTEGER_LIT: {
+                // val -> INTEGER_LIT
+                final SyntaxTreeNode c0 = this.child(node, "INTEGER_LIT", line);
+                this.value(c0, 0);
+                this.match(T_INTEGER_LIT);
+                return;
+            }
+            case T_STRING_LIT: {
+                // val -> STRING_LIT
+                final SyntaxTreeNode c0 = this.child(node, "STRING_LIT", line);
+                this.value(c0, 0);
+                this.match(T_STRING_LIT);
+                return;
+            }
+            case T_BOOLEAN_LIT: {
+                // val -> BOOLEAN_LIT
+                final SyntaxTreeNode c0 = this.child(node, "BOOLEAN_LIT", line);
+                this.value(c0, 0);
+                this.match(T_BOOLEAN_LIT);
+                return;
+            }
+            case T_IDENTIFIER: {
+                // val -> IDENTIFIER
+                final SyntaxTreeNode c0 = this.child(node, "IDENTIFIER", line);
+                this.value(c0, 0);
+                this.match(T_IDENTIFIER);
+                return;
+            }
+            default:
+                throw this.noProduction("val");
+        }
+    }
+
+    private void parseType(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_STRING_TYPE: {
+                // type -> STRING_TYPE
+                this.child(node, "STRING_TYPE", line);
+                this.match(T_STRING_TYPE);
+                return;
+            }
+            case T_INTEGER_TYPE: {
+                // type -> INTEGER_TYPE
+                this.child(node, "INTEGER_TYPE", line);
+                this.match(T_INTEGER_TYPE);
+                return;
+            }
+            case T_BOOLEAN_TYPE: {
+                // type -> BOOLEAN_TYPE
+                this.child(node, "BOOLEAN_TYPE", line);
+                this.match(T_BOOLEAN_TYPE);
+                return;
+            }
+            default:
+                throw this.noProduction("type");
+        }
+    }
+
+    private void parseOp(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_ADD:
+            case T_MUL:
+            case T_SUB:
+            case T_DIV:
+            case T_MOD: {
+                // op -> arith_op
+                final SyntaxTreeNode c0 = this.child(node, "arith_op", line);
+                this.parseArithOp(c0);
+                return;
+            }
+            case T_AND:
+            case T_OR:
+            case T_NOT: {
+                // op -> logic_op
+                final SyntaxTreeNode c0 = this.child(node, "logic_op", line);
+                this.parseLogicOp(c0);
+                return;
+            }
+            case T_LESS:
+            case T_LESS_EQUAL:
+            case T_GREATER:
+            case T_GREATER_EQUAL:
+            case T_EQUAL:
+            case T_NOT_EQUAL: {
+                // op -> compare_op
+                final SyntaxTreeNode c0 = this.child(node, "compare_op", line);
+                this.parseCompareOp(c0);
+                return;
+            }
+            default:
+                throw this.noProduction("op");
+        }
+    }
+
+    private void parseUnary(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_ADD: {
+                // unary -> ADD
+                this.child(node, "ADD", line);
+                this.match(T_ADD);
+                return;
+            }
+            case T_SUB: {
+                // unary -> SUB
+                this.child(node, "SUB", line);
+                this.match(T_SUB);
+                return;
+            }
+            case T_NOT: {
+                // unary -> NOT
+                this.child(node, "NOT", line);
+                this.match(T_NOT);
+                return;
+            }
+            default:
+                throw this.noProduction("unary");
+        }
+    }
+
+    private void parseArithOp(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_ADD: {
+                // arith_op -> ADD
+                this.child(node, "ADD", line);
+                this.match(T_ADD);
+                return;
+            }
+            case T_MUL: {
+                // arith_op -> MUL
+                this.child(node, "MUL", line);
+                this.match(T_MUL);
+                return;
+            }
+            case T_SUB: {
+                // arith_op -> SUB
+                this.child(node, "SUB", line);
+                this.match(T_SUB);
+                return;
+            }
+            case T_DIV: {
+                // arith_op -> DIV
+                this.child(node, "DIV", line);
+                this.match(T_DIV);
+                return;
+            }
+            case T_MOD: {
+                // arith_op -> MOD
+                this.child(node, "MOD", line);
+                this.match(T_MOD);
+                return;
+            }
+            default:
+                throw this.noProduction("arith_op");
+        }
+    }
+
+    private void parseLogicOp(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_AND: {
+                // logic_op -> AND
+                this.child(node, "AND", line);
+                this.match(T_AND);
+                return;
+            }
+            case T_OR: {
+                // logic_op -> OR
+                this.child(node, "OR", line);
+                this.match(T_OR);
+                return;
+            }
+            case T_NOT: {
+                // logic_op -> NOT
+                this.child(node, "NOT", line);
+                this.match(T_NOT);
+                return;
+            }
+            default:
+                throw this.noProduction("logic_op");
+        }
+    }
+
+    private void parseCompareOp(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_LESS: {
+                // compare_op -> LESS
+                this.child(node, "LESS", line);
+                this.match(T_LESS);
+                return;
+            }
+            case T_LESS_EQUAL: {
+                // compare_op -> LESS_EQUAL
+                this.child(node, "LESS_EQUAL", line);
+                this.match(T_LESS_EQUAL);
+                return;
+            }
+            case T_GREATER: {
+                // compare_op -> GREATER
+                this.child(node, "GREATER", line);
+                this.match(T_GREATER);
+                return;
+            }
+            case T_GREATER_EQUAL: {
+                // compare_op -> GREATER_EQUAL
+                this.child(node, "GREATER_EQUAL", line);
+                this.match(T_GREATER_EQUAL);
+                return;
+            }
+            case T_EQUAL: {
+                // compare_op -> EQUAL
+                this.child(node, "EQUAL", line);
+                this.match(T_EQUAL);
+                return;
+            }
+            case T_NOT_EQUAL: {
+                // compare_op -> NOT_EQUAL
+                this.child(node, "NOT_EQUAL", line);
+                this.match(T_NOT_EQUAL);
+                return;
+            }
+            default:
+                throw this.noProduction("compare_op");
+        }
+    }
+
+    private void parseS(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_CLASS: {
+                // S -> CLASS IDENTIFIER L_BRACE class_cnt R_BRACE
+                this.child(node, "R_BRACE", line);
+                final SyntaxTreeNode c3 = this.child(node, "class_cnt", line);
+                this.child(node, "L_BRACE", line);
+                final SyntaxTreeNode c1 = this.child(node, "IDENTIFIER", line);
+                this.value(c1, 1);
+                this.child(node, "CLASS", line);
+                this.match(T_CLASS);
+                this.match(T_IDENTIFIER);
+                this.match(T_L_BRACE);
+                this.parseClassCnt(c3);
+                this.match(T_R_BRACE);
+                return;
+            }
+            case T_$: {
+                // S -> eps
+                this.child(node, "eps", line);
+                return;
+            }
+            default:
+                throw this.noProduction("S");
+        }
+    }
+
+    private void parseClassCnt(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_PUBLIC: {
+                // class_cnt -> PUBLIC STATIC VOID_TYPE IDENTIFIER_MAIN L_PAREN STRING_TYPE L_BRACKET R_BRACKET IDENTIFIER R_PAREN L_BRACE block_cnt R_BRACE
+                this.child(node, "R_BRACE", line);
+                final SyntaxTreeNode c11 = this.child(node, "block_cnt", line);
+                this.child(node, "L_BRACE", line);
+                this.child(node, "R_PAREN", line);
+                final SyntaxTreeNode c8 = this.child(node, "IDENTIFIER", line);
+                this.value(c8, 8);
+                this.child(node, "R_BRACKET", line);
+                this.child(node, "L_BRACKET", line);
+                this.child(node, "STRING_TYPE", line);
+                this.child(node, "L_PAREN", line);
+                this.child(node, "IDENTIFIER_MAIN", line);
+                this.child(node, "VOID_TYPE", line);
+                this.child(node, "STATIC", line);
+                this.child(node, "PUBLIC", line);
+                this.match(T_PUBLIC);
+                this.match(T_STATIC);
+                this.match(T_VOID_TYPE);
+                this.match(T_IDENTIFIER_MAIN);
+                this.match(T_L_PAREN);
+                this.match(T_STRING_TYPE);
+                this.match(T_L_BRACKET);
+                this.match(T_R_BRACKET);
+                this.match(T_IDENTIFIER);
+                this.match(T_R_PAREN);
+                this.match(T_L_BRACE);
+                this.parseBlockCnt(c11);
+                this.match(T_R_BRACE);
+                return;
+            }
+            case T_R_BRACE: {
+                // class_cnt -> eps
+                this.child(node, "eps", line);
+                return;
+            }
+            default:
+                throw this.noProduction("class_cnt");
+        }
+    }
+
+    private void parseBlockCnt(SyntaxTreeNode node) {
+        SyntaxTreeNode current = node;
+
+        while (true) {
+            final int line = this.line();
+
+            switch (this.lookahead[this.position]) {
+                case T_STRING_TYPE:
+                case T_INTEGER_TYPE:
+                case T_BOOLEAN_TYPE:
+                case T_WHILE:
+                case T_IF:
+                case T_PRINTLN:
+                case T_IDENTIFIER: {
+                    // block_cnt -> statement block_cnt
+                    final SyntaxTreeNode c1 = this.child(current, "block_cnt", line);
+                    final SyntaxTreeNode c0 = this.child(current, "statement", line);
+                    this.parseStatement(c0);
+                    current = c1;
+                    continue;
+                }
+                case T_L_BRACE: {
+                    // block_cnt -> L_BRACE block_cnt R_BRACE
+                    this.child(current, "R_BRACE", line);
+                    final SyntaxTreeNode c1 = this.child(current, "block_cnt", line);
+                    this.child(current, "L_BRACE", line);
+                    this.match(T_L_BRACE);
+                    this.parseBlockCnt(c1);
+                    this.match(T_R_BRACE);
+                    return;
+                }
+                case T_R_BRACE: {
+                    // block_cnt -> eps
+                    this.child(current, "eps", line);
+                    return;
+                }
+                default:
+                    throw this.noProduction("block_cnt");
+            }
+        }
+    }
+
+    private void parseStatement(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_STRING_TYPE:
+            case T_INTEGER_TYPE:
+            case T_BOOLEAN_TYPE:
+            case T_PRINTLN:
+            case T_IDENTIFIER: {
+                // statement -> stmt SEMICOLON
+                this.child(node, "SEMICOLON", line);
+                final SyntaxTreeNode c0 = this.child(node, "stmt", line);
+                this.parseStmt(c0);
+                this.match(T_SEMICOLON);
+                return;
+            }
+            case T_WHILE: {
+                // statement -> loop
+                final SyntaxTreeNode c0 = this.child(node, "loop", line);
+                this.parseLoop(c0);
+                return;
+            }
+            case T_IF: {
+                // statement -> cond
+                final SyntaxTreeNode c0 = this.child(node, "cond", line);
+                this.parseCond(c0);
+                return;
+            }
+            default:
+                throw this.noProduction("statement");
+        }
+    }
+
+    private void parseStmt(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_STRING_TYPE:
+            case T_INTEGER_TYPE:
+            case T_BOOLEAN_TYPE: {
+                // stmt -> declaration
+                final SyntaxTreeNode c0 = this.child(node, "declaration", line);
+                this.parseDeclaration(c0);
+                return;
+            }
+            case T_PRINTLN: {
+                // stmt -> print
+                final SyntaxTreeNode c0 = this.child(node, "print", line);
+                this.parsePrint(c0);
+                return;
+            }
+            case T_IDENTIFIER: {
+                // stmt -> assignment
+                final SyntaxTreeNode c0 = this.child(node, "assignment", line);
+                this.parseAssignment(c0);
+                return;
+            }
+            default:
+                throw this.noProduction("stmt");
+        }
+    }
+
+    private void parsePrint(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_PRINTLN: {
+                // print -> PRINTLN par_expr
+                final SyntaxTreeNode c1 = this.child(node, "par_expr", line);
+                this.child(node, "PRINTLN", line);
+                this.match(T_PRINTLN);
+                this.parseParExpr(c1);
+                return;
+            }
+            default:
+                throw this.noProduction("print");
+        }
+    }
+
+    private void parseDeclaration(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_STRING_TYPE:
+            case T_INTEGER_TYPE:
+            case T_BOOLEAN_TYPE: {
+                // declaration -> type assignment
+                final SyntaxTreeNode c1 = this.child(node, "assignment", line);
+                final SyntaxTreeNode c0 = this.child(node, "type", line);
+                this.parseType(c0);
+                this.parseAssignment(c1);
+                return;
+            }
+            default:
+                throw this.noProduction("declaration");
+        }
+    }
+
+    private void parseAssignment(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_IDENTIFIER: {
+                // assignment -> IDENTIFIER ASSIGN expr
+                final SyntaxTreeNode c2 = this.child(node, "expr", line);
+                this.child(node, "ASSIGN", line);
+                final SyntaxTreeNode c0 = this.child(node, "IDENTIFIER", line);
+                this.value(c0, 0);
+                this.match(T_IDENTIFIER);
+                this.match(T_ASSIGN);
+                this.parseExpr(c2);
+                return;
+            }
+            default:
+                throw this.noProduction("assignment");
+        }
+    }
+
+    private void parseParExpr(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_L_PAREN: {
+                // par_expr -> L_PAREN expr R_PAREN
+                this.child(node, "R_PAREN", line);
+                final SyntaxTreeNode c1 = this.child(node, "expr", line);
+                this.child(node, "L_PAREN", line);
+                this.match(T_L_PAREN);
+                this.parseExpr(c1);
+                this.match(T_R_PAREN);
+                return;
+            }
+            default:
+                throw this.noProduction("par_expr");
+        }
+    }
+
+    private void parseExpr(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_ADD:
+            case T_SUB:
+            case T_NOT:
+            case T_L_PAREN:
+            case T_INTEGER_LIT:
+            case T_STRING_LIT:
+            case T_BOOLEAN_LIT:
+            case T_IDENTIFIER: {
+                // expr -> expr_f expr_2
+                final SyntaxTreeNode c1 = this.child(node, "expr_2", line);
+                final SyntaxTreeNode c0 = this.child(node, "expr_f", line);
+                this.parseExprF(c0);
+                this.parseExpr2(c1);
+                return;
+            }
+            default:
+                throw this.noProduction("expr");
+        }
+    }
+
+    private void parseExpr2(SyntaxTreeNode node) {
+        SyntaxTreeNode current = node;
+
+        while (true) {
+            final int line = this.line();
+
+            switch (this.lookahead[this.position]) {
+                case T_ADD:
+                case T_MUL:
+                case T_SUB:
+                case T_DIV:
+                case T_MOD:
+                case T_AND:
+                case T_OR:
+                case T_NOT:
+                case T_LESS:
+                case T_LESS_EQUAL:
+                case T_GREATER:
+                case T_GREATER_EQUAL:
+                case T_EQUAL:
+                case T_NOT_EQUAL: {
+                    // expr_2 -> op expr_f expr_2
+                    final SyntaxTreeNode c2 = this.child(current, "expr_2", line);
+                    final SyntaxTreeNode c1 = this.child(current, "expr_f", line);
+                    final SyntaxTreeNode c0 = this.child(current, "op", line);
+                    this.parseOp(c0);
+                    this.parseExprF(c1);
+                    current = c2;
+                    continue;
+                }
+                case T_R_PAREN:
+                case T_SEMICOLON: {
+                    // expr_2 -> eps
+                    this.child(current, "eps", line);
+                    return;
+                }
+                default:
+                    throw this.noProduction("expr_2");
+            }
+        }
+    }
+
+    private void parseExprF(SyntaxTreeNode node) {
+        SyntaxTreeNode current = node;
+
+        while (true) {
+            final int line = this.line();
+
+            switch (this.lookahead[this.position]) {
+                case T_ADD:
+                case T_SUB:
+                case T_NOT: {
+                    // expr_f -> unary expr_f
+                    final SyntaxTreeNode c1 = this.child(current, "expr_f", line);
+                    final SyntaxTreeNode c0 = this.child(current, "unary", line);
+                    this.parseUnary(c0);
+                    current = c1;
+                    continue;
+                }
+                case T_L_PAREN: {
+                    // expr_f -> par_expr
+                    final SyntaxTreeNode c0 = this.child(current, "par_expr", line);
+                    this.parseParExpr(c0);
+                    return;
+                }
+                case T_INTEGER_LIT:
+                case T_STRING_LIT:
+                case T_BOOLEAN_LIT:
+                case T_IDENTIFIER: {
+                    // expr_f -> val
+                    final SyntaxTreeNode c0 = this.child(current, "val", line);
+                    this.parseVal(c0);
+                    return;
+                }
+                default:
+                    throw this.noProduction("expr_f");
+            }
+        }
+    }
+
+    private void parseLoop(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_WHILE: {
+                // loop -> WHILE par_expr single_or_braced
+                final SyntaxTreeNode c2 = this.child(node, "single_or_braced", line);
+                final SyntaxTreeNode c1 = this.child(node, "par_expr", line);
+                this.child(node, "WHILE", line);
+                this.match(T_WHILE);
+                this.parseParExpr(c1);
+                this.parseSingleOrBraced(c2);
+                return;
+            }
+            default:
+                throw this.noProduction("loop");
+        }
+    }
+
+    private void parseCond(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_IF: {
+                // cond -> IF par_expr single_or_braced cond_else
+                final SyntaxTreeNode c3 = this.child(node, "cond_else", line);
+                final SyntaxTreeNode c2 = this.child(node, "single_or_braced", line);
+                final SyntaxTreeNode c1 = this.child(node, "par_expr", line);
+                this.child(node, "IF", line);
+                this.match(T_IF);
+                this.parseParExpr(c1);
+                this.parseSingleOrBraced(c2);
+                this.parseCondElse(c3);
+                return;
+            }
+            default:
+                throw this.noProduction("cond");
+        }
+    }
+
+    private void parseCondElse(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_STRING_TYPE:
+            case T_INTEGER_TYPE:
+            case T_BOOLEAN_TYPE:
+            case T_WHILE:
+            case T_IF:
+            case T_PRINTLN:
+            case T_L_BRACE:
+            case T_R_BRACE:
+            case T_IDENTIFIER: {
+                // cond_else -> eps
+                this.child(node, "eps", line);
+                return;
+            }
+            case T_ELSE: {
+                // cond_else -> ELSE single_or_braced
+                final SyntaxTreeNode c1 = this.child(node, "single_or_braced", line);
+                this.child(node, "ELSE", line);
+                this.match(T_ELSE);
+                this.parseSingleOrBraced(c1);
+                return;
+            }
+            default:
+                throw this.noProduction("cond_else");
+        }
+    }
+
+    private void parseSingleOrBraced(SyntaxTreeNode node) {
+        final int line = this.line();
+
+        switch (this.lookahead[this.position]) {
+            case T_STRING_TYPE:
+            case T_INTEGER_TYPE:
+            case T_BOOLEAN_TYPE:
+            case T_PRINTLN:
+            case T_IDENTIFIER: {
+                // single_or_braced -> stmt SEMICOLON
+                this.child(node, "SEMICOLON", line);
+                final SyntaxTreeNode c0 = this.child(node, "stmt", line);
+                this.parseStmt(c0);
+                this.match(T_SEMICOLON);
+                return;
+            }
+            case T_L_BRACE: {
+                // single_or_braced -> L_BRACE block_cnt R_BRACE
+                this.child(node, "R_BRACE", line);
+                final SyntaxTreeNode c1 = this.child(node, "block_cnt", line);
+                this.child(node, "L_BRACE", line);
+                this.match(T_L_BRACE);
+                this.parseBlockCnt(c1);
+                this.match(T_R_BRACE);
+                return;
+            }
+            default:
+                throw this.noProduction("single_or_braced");
+        }
+    }
+}
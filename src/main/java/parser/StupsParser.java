@@ -30,7 +30,15 @@ public class StupsParser {
         return new StupsParser(analyzer.getTable());
     }
 
-    private static String printSourceLine(int line, Collection<? extends Token> token) {
+    /**
+     * Die Parsetabelle wird nur so weit berechnet, wie sie beim Parsen benötigt wird.
+     */
+    public static StupsParser fromGrammarLazy(Grammar grammar) {
+        final GrammarAnalyzer analyzer = GrammarAnalyzer.fromGrammarLazy(grammar);
+        return new StupsParser(analyzer.getTable());
+    }
+
+    static String printSourceLine(int line, Collection<? extends Token> token) {
         final Optional<String> srcLine = token.stream()
                                               .filter(tok -> tok.getLine() == line)
                                               .map(Token::getText)
@@ -44,10 +52,26 @@ public class StupsParser {
 
         final SyntaxTreeNode root = new SyntaxTreeNode(Grammar.START_SYMBOL, 0);
         final SyntaxTree tree = new SyntaxTree(root);
+
+        this.derive(root, token, voc, 0);
+
+        Logger.logDebug("Successfully parsed the program and built the parse-tree", StupsParser.class);
+
+        return tree;
+    }
+
+    /**
+     * Leitet nur das Nichtterminal von root ab, beginnend bei Token from.
+     * Da die Tabelle LL(1) ist, entsteht derselbe Teilbaum wie beim Parsen des ganzen Programms.
+     *
+     * @return Die Position hinter dem letzten konsumierten Token.
+     */
+    int derive(SyntaxTreeNode root, List<? extends Token> token, Vocabulary voc, int from) {
+        final SyntaxTree tree = new SyntaxTree(root);
         final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
         stack.push(root);
 
-        int inputPosition = 0;
+        int inputPosition = from;
 
         // Parsing
         while (!stack.isEmpty()) {
@@ -127,8 +151,6 @@ public class StupsParser {
             }
         }
 
-        Logger.logDebug("Successfully parsed the program and built the parse-tree", StupsParser.class);
-
-        return tree;
+        return inputPosition;
     }
 }
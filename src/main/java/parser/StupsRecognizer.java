@@ -0,0 +1,216 @@
+package parser;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import parser.grammar.Grammar;
+import parser.grammar.GrammarAnalyzer;
+import parser.grammar.GrammarRule;
+import typechecker.TypeStack;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prüft eine Liste von Token mit Hilfe einer {@link ParsingTable}, ohne einen Syntaxbaum aufzubauen.
+ * Die Typen werden dabei von einem {@link TypeStack} geprüft, es wird nur der erste Fehler geworfen.
+ *
+ * <p>Auf dem Stack liegen nur Ids: Terminale sind Spaltennummern, Nichtterminale folgen dahinter.
+ * Negative Einträge sind Aktionen, welche in die Produktionen eingefügt werden und den {@link TypeStack}
+ * an den Stellen aufrufen, an denen der {@link typechecker.TypeChecker} die entsprechenden Knoten prüft.</p>
+ */
+public final class StupsRecognizer {
+
+    private static final int BEGIN_EXPRESSION = -1;
+    private static final int END_EXPRESSION = -2;
+    private static final int OPERAND = -3;
+    private static final int UNARY_OPERATOR = -4;
+    private static final int APPLY_UNARY = -5;
+    private static final int BINARY_OPERATOR = -6;
+    private static final int BEGIN_ASSIGNMENT = -7;
+    private static final int END_ASSIGNMENT = -8;
+    private static final int DISCARD = -9;
+
+    private static final int EMPTY = -1;
+
+    private final ParsingTable parsetable;
+
+    /**
+     * Die rechten Seiten der Produktionen mit eingefügten Aktionen, rückwärts, damit sie direkt auf den Stack passen.
+     */
+    private final int[][] productions;
+
+    private final int terminalCount;
+    private final String[] symbols;
+    private final int startSymbol;
+    private final int eof;
+
+    private StupsRecognizer(Grammar grammar, ParsingTable parsetable) {
+        this.parsetable = parsetable;
+        this.terminalCount = grammar.getTerminals().size() + 1;
+        this.symbols = new String[this.terminalCount + grammar.getNonterminals().size()];
+
+        for (String terminal : grammar.getTerminals()) {
+            this.symbols[parsetable.getColumnId(terminal)] = terminal;
+        }
+        this.eof = parsetable.getColumnId("$");
+        this.symbols[this.eof] = "$";
+        for (String nonterminal : grammar.getNonterminals()) {
+            this.symbols[this.terminalCount + parsetable.getRowId(nonterminal)] = nonterminal;
+        }
+        this.startSymbol = this.terminalCount + parsetable.getRowId(Grammar.START_SYMBOL);
+
+        final List<GrammarRule> rules = grammar.getProductions();
+        this.productions = new int[rules.size()][];
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            this.productions[prod] = this.compile(rules.get(prod));
+        }
+    }
+
+    public static StupsRecognizer fromGrammar(Grammar grammar) {
+        final GrammarAnalyzer analyzer = GrammarAnalyzer.fromGrammarLazy(grammar);
+        return new StupsRecognizer(grammar, analyzer.getTable());
+    }
+
+    /**
+     * Die Aktionen hängen an den Namen, welche auch der {@link typechecker.TypeChecker} verwendet.
+     */
+    private int[] compile(GrammarRule rule) {
+        final String leftside = rule.getLeftside();
+        final List<Integer> out = new ArrayList<>();
+
+        switch (leftside) {
+            case "expr" -> out.add(BEGIN_EXPRESSION);
+            case "assignment" -> out.add(BEGIN_ASSIGNMENT);
+            default -> {}
+        }
+
+        for (String sym : rule.getSymbols()) {
+            if (Grammar.EPSILON_SYMBOL.equals(sym)) {
+                continue;
+            }
+
+            final int row = this.parsetable.getRowId(sym);
+            out.add(row == EMPTY ? this.parsetable.getColumnId(sym) : this.terminalCount + row);
+        }
+
+        switch (leftside) {
+            case "expr" -> out.add(END_EXPRESSION);
+            case "val" -> out.add(OPERAND);
+            case "unary" -> out.add(UNARY_OPERATOR);
+            case "op" -> out.add(BINARY_OPERATOR);
+            case "assignment" -> out.add(END_ASSIGNMENT);
+            case "print", "loop", "cond" -> out.add(DISCARD);
+            case "expr_f" -> {
+                if ("unary".equals(rule.getSymbols().get(0))) {
+                    out.add(APPLY_UNARY);
+                }
+            }
+            default -> {}
+        }
+
+        final int[] reversed = new int[out.size()];
+        for (int i = 0; i < reversed.length; i++) {
+            reversed[i] = out.get(out.size() - 1 - i);
+        }
+
+        return reversed;
+    }
+
+    /**
+     * Wirft den ersten Syntax-, Deklarations- oder Typfehler, in dieser Reihenfolge wie beim Kompilieren.
+     * Typfehler werden wie vom {@link typechecker.TypeChecker} in Postorder des Abstrakten Syntaxbaums gefunden,
+     * nicht in der Reihenfolge des Quelltexts.
+     */
+    public void recognize(List<? extends Token> token, Vocabulary voc) {
+        Logger.logDebug("Beginning program-recognition", StupsRecognizer.class);
+
+        // Die Tokentypen werden einmal auf Spalten abgebildet
+        final int[] input = new int[token.size() + 1];
+        for (int i = 0; i < token.size(); i++) {
+            final String sym = voc.getSymbolicName(token.get(i).getType());
+            input[i] = sym == null ? EMPTY : this.parsetable.getColumnId(sym);
+        }
+        input[token.size()] = this.eof;
+
+        final TypeStack types = TypeStack.fromTokens(token, voc);
+
+        int[] stack = new int[64];
+        int size = 0;
+        stack[size++] = this.startSymbol;
+
+        int inputPosition = 0;
+        int assignmentTarget = 0;
+
+        while (size > 0) {
+            final int top = stack[--size];
+            final int current = input[inputPosition];
+
+            if (top == BEGIN_EXPRESSION) {
+                types.beginExpression();
+            } else if (top == BEGIN_ASSIGNMENT) {
+                // Das aktuelle Token ist der IDENTIFIER, dem zugewiesen wird
+                assignmentTarget = inputPosition;
+            } else if (top < 0) {
+                // Aktion, das letzte konsumierte Token gehört zur gerade abgeschlossenen Produktion
+
+                final Token last = token.get(inputPosition - 1);
+                switch (top) {
+                    case END_EXPRESSION -> types.endExpression(last.getLine());
+                    case OPERAND -> types.operand(voc.getSymbolicName(last.getType()), last.getText(), inputPosition - 1);
+                    case UNARY_OPERATOR -> types.unaryOperator(voc.getSymbolicName(last.getType()));
+                    case APPLY_UNARY -> types.applyUnary(last.getLine());
+                    case BINARY_OPERATOR -> types.binaryOperator(voc.getSymbolicName(last.getType()), last.getLine());
+                    case END_ASSIGNMENT -> types.assignment(token.get(assignmentTarget).getText(), assignmentTarget, last.getLine());
+                    case DISCARD -> types.discard();
+                    default -> throw new IllegalStateException("Unknown action " + top);
+                }
+            } else if (top < this.terminalCount) {
+                // Terminal, muss mit der Eingabe übereinstimmen
+
+                if (top != current) {
+                    Logger.logError("Line " + this.line(token, inputPosition) + " Syntaxerror: Expected " + this.symbols[top]
+                                    + " but found " + this.name(token, voc, inputPosition), StupsRecognizer.class);
+                    Logger.logError(StupsParser.printSourceLine(this.line(token, inputPosition), token), StupsRecognizer.class);
+
+                    throw new ParseException("Invalid terminal on stack: " + this.symbols[top]);
+                }
+
+                inputPosition++;
+            } else {
+                // Nichtterminal, wird durch die Produktion aus der Tabelle ersetzt
+
+                final int prod = current < 0 ? EMPTY : this.parsetable.get(top - this.terminalCount, current);
+
+                if (prod == EMPTY) {
+                    Logger.logError("Line " + this.line(token, inputPosition) + " Syntaxerror: Didn't expect "
+                                    + this.name(token, voc, inputPosition), StupsRecognizer.class);
+                    Logger.logError(StupsParser.printSourceLine(this.line(token, inputPosition), token), StupsRecognizer.class);
+
+                    throw new ParseException("No prod. for nonterminal " + this.symbols[top] + ", terminal "
+                                             + this.name(token, voc, inputPosition));
+                }
+
+                final int[] rightside = this.productions[prod];
+                if (size + rightside.length > stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * (size + rightside.length));
+                }
+                System.arraycopy(rightside, 0, stack, size, rightside.length);
+                size += rightside.length;
+            }
+        }
+
+        types.verify();
+
+        Logger.logDebug("Successfully recognized the program", StupsRecognizer.class);
+    }
+
+    private int line(List<? extends Token> token, int position) {
+        return position < token.size() ? token.get(position).getLine() : 0;
+    }
+
+    private String name(List<? extends Token> token, Vocabulary voc, int position) {
+        return position < token.size() ? voc.getSymbolicName(token.get(position).getType()) : "$";
+    }
+}
@@ -0,0 +1,278 @@
+package parser.ast;
+
+import util.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Fasst strukturell gleiche Ausdrücke eines Abstrakten Syntaxbaums zu gemeinsamen DAG-Knoten zusammen (Hash-Consing).
+ *
+ * <p>Jeder getypte Knoten ({@link NodeKind#isTyped()}) bekommt die Nummer seines DAG-Knotens. Der Schlüssel ist
+ * Name, Wert und die DAG-Knoten der Kinder, Zeilen zählen nicht mit. Bei Identifiern zählt zusätzlich der innerste
+ * Block ({@link SyntaxTreeArena#isBlock(int)}): Variablen gelten in ihrem ganzen Block, im selben Block meint
+ * ein Name also immer dieselbe Deklaration. In verschiedenen Blöcken kann derselbe Name verschiedene
+ * Variablen mit verschiedenen Typen meinen, solche Ausdrücke werden nicht geteilt. Die Nummern werden in Postorder des ersten
+ * Vorkommens vergeben, Kinder haben also immer kleinere Nummern als ihr Parent.</p>
+ *
+ * <p>Als {@link SyntaxTreeVisitor} muss der DAG im Durchlauf vor den Visitors stehen, die ihn abfragen.</p>
+ */
+public final class ExpressionDag implements SyntaxTreeVisitor {
+
+    public static final int NONE = -1;
+
+    /**
+     * Arenaknoten -> DAG-Knoten, {@link #NONE} für Anweisungen.
+     */
+    private final int[] dagNodes;
+
+    // Spalten je DAG-Knoten
+    private int[] names;
+    private int[] values;
+    private int[] scopes;
+    private int[] hashes;
+    private int[] firstOccurrences;
+    private int[] childStart;
+    private int count;
+
+    /**
+     * Die Kinder aller DAG-Knoten hintereinander, die von Knoten i liegen in [childStart[i], childStart[i + 1]).
+     */
+    private int[] children;
+    private int childCount;
+
+    /**
+     * Offene Adressierung, enthält DAG-Knoten + 1, 0 ist frei.
+     */
+    private int[] table;
+
+    private int occurrences;
+
+    /**
+     * Die offenen Blöcke, Blöcke sind in Preorder nummeriert, 0 ist das ganze Programm.
+     */
+    private int[] openScopes;
+    private int openCount;
+    private int scopeCount;
+
+    public ExpressionDag(SyntaxTreeArena tree) {
+        this.dagNodes = new int[tree.size()];
+        Arrays.fill(this.dagNodes, NONE);
+
+        this.names = new int[16];
+        this.values = new int[16];
+        this.scopes = new int[16];
+        this.hashes = new int[16];
+        this.firstOccurrences = new int[16];
+        this.childStart = new int[17];
+        this.children = new int[16];
+        this.table = new int[32];
+        this.openScopes = new int[16];
+        this.openCount = 1;
+        this.scopeCount = 1;
+    }
+
+    public static ExpressionDag fromArena(SyntaxTreeArena tree) {
+        final ExpressionDag dag = new ExpressionDag(tree);
+        SyntaxTreeWalker.walk(tree, dag);
+
+        return dag;
+    }
+
+    @Override
+    public void enter(SyntaxTreeArena tree, int node) {
+        if (tree.isBlock(node)) {
+            if (this.openCount == this.openScopes.length) {
+                this.openScopes = Arrays.copyOf(this.openScopes, 2 * this.openCount);
+            }
+
+            this.openScopes[this.openCount++] = this.scopeCount++;
+        }
+    }
+
+    @Override
+    public void exit(SyntaxTreeArena tree, int node) {
+        if (tree.isBlock(node)) {
+            this.openCount--;
+        }
+
+        if (!tree.getKind(node).isTyped()) {
+            return;
+        }
+
+        int hash = 31 * (31 * tree.getNameId(node) + tree.getValueId(node)) + this.scopeOf(tree, node);
+        for (int child = tree.getFirstChild(node); child != SyntaxTreeArena.NONE; child = tree.getNextSibling(child)) {
+            if (this.dagNodes[child] == NONE) {
+                // Enthält eine Anweisung, kann nicht geteilt werden
+                return;
+            }
+
+            hash = 31 * hash + this.hashes[this.dagNodes[child]];
+        }
+        hash ^= hash >>> 16;
+
+        this.occurrences++;
+        this.dagNodes[node] = this.intern(tree, node, hash);
+
+        if (this.isRepeated(node)) {
+            Logger.logInfoSupplier(() -> "Sharing expression \"" + tree.getName(node) + ": " + tree.getValue(node)
+                                         + "\" from line " + tree.getLine(this.getFirstOccurrence(node)), ExpressionDag.class);
+        }
+    }
+
+    /**
+     * @return Der innerste Block bei Identifiern, sonst 0.
+     */
+    private int scopeOf(SyntaxTreeArena tree, int node) {
+        return tree.getKind(node) == NodeKind.IDENTIFIER ? this.openScopes[this.openCount - 1] : 0;
+    }
+
+    private int intern(SyntaxTreeArena tree, int node, int hash) {
+        final int mask = this.table.length - 1;
+
+        int slot = hash & mask;
+        while (this.table[slot] != 0) {
+            final int candidate = this.table[slot] - 1;
+            if (this.hashes[candidate] == hash && this.matches(tree, node, candidate)) {
+                return candidate;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        final int dagNode = this.add(tree, node, hash);
+        this.table[slot] = dagNode + 1;
+
+        if (2 * this.count > this.table.length) {
+            this.rehash();
+        }
+
+        return dagNode;
+    }
+
+    private boolean matches(SyntaxTreeArena tree, int node, int candidate) {
+        if (this.names[candidate] != tree.getNameId(node) || this.values[candidate] != tree.getValueId(node)
+            || this.scopes[candidate] != this.scopeOf(tree, node)) {
+            return false;
+        }
+
+        int index = this.childStart[candidate];
+        for (int child = tree.getFirstChild(node); child != SyntaxTreeArena.NONE; child = tree.getNextSibling(child)) {
+            if (index == this.childStart[candidate + 1] || this.children[index] != this.dagNodes[child]) {
+                return false;
+            }
+
+            index++;
+        }
+
+        return index == this.childStart[candidate + 1];
+    }
+
+    private int add(SyntaxTreeArena tree, int node, int hash) {
+        if (this.count == this.names.length) {
+            final int capacity = 2 * this.count;
+
+            this.names = Arrays.copyOf(this.names, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.scopes = Arrays.copyOf(this.scopes, capacity);
+            this.hashes = Arrays.copyOf(this.hashes, capacity);
+            this.firstOccurrences = Arrays.copyOf(this.firstOccurrences, capacity);
+            this.childStart = Arrays.copyOf(this.childStart, capacity + 1);
+        }
+
+        final int dagNode = this.count;
+        this.count++;
+
+        this.names[dagNode] = tree.getNameId(node);
+        this.values[dagNode] = tree.getValueId(node);
+        this.scopes[dagNode] = this.scopeOf(tree, node);
+        this.hashes[dagNode] = hash;
+        this.firstOccurrences[dagNode] = node;
+
+        for (int child = tree.getFirstChild(node); child != SyntaxTreeArena.NONE; child = tree.getNextSibling(child)) {
+            if (this.childCount == this.children.length) {
+                this.children = Arrays.copyOf(this.children, 2 * this.children.length);
+            }
+
+            this.children[this.childCount++] = this.dagNodes[child];
+        }
+        this.childStart[dagNode + 1] = this.childCount;
+
+        return dagNode;
+    }
+
+    private void rehash() {
+        this.table = new int[2 * this.table.length];
+        final int mask = this.table.length - 1;
+
+        for (int dagNode = 0; dagNode < this.count; dagNode++) {
+            int slot = this.hashes[dagNode] & mask;
+            while (this.table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            this.table[slot] = dagNode + 1;
+        }
+    }
+
+    // Abfragen über Arenaknoten
+
+    /**
+     * @return Der DAG-Knoten oder {@link #NONE}, wenn der Knoten kein Ausdruck ist.
+     */
+    public int getDagNode(int node) {
+        return this.dagNodes[node];
+    }
+
+    /**
+     * @return Der erste Knoten in Postorder mit dem gleichen Ausdruck, oder {@link #NONE}.
+     */
+    public int getFirstOccurrence(int node) {
+        return this.dagNodes[node] == NONE ? NONE : this.firstOccurrences[this.dagNodes[node]];
+    }
+
+    /**
+     * Der gleiche Ausdruck kam in Postorder schon vorher vor.
+     */
+    public boolean isRepeated(int node) {
+        return this.dagNodes[node] != NONE && this.firstOccurrences[this.dagNodes[node]] != node;
+    }
+
+    // Abfragen über DAG-Knoten
+
+    public int getNameId(int dagNode) {
+        return this.names[dagNode];
+    }
+
+    public int getValueId(int dagNode) {
+        return this.values[dagNode];
+    }
+
+    /**
+     * Der zwischengespeicherte strukturelle Hash, berechnet aus Name, Wert, Block und den Hashes der Kinder.
+     */
+    public int getHash(int dagNode) {
+        return this.hashes[dagNode];
+    }
+
+    public int getChildCount(int dagNode) {
+        return this.childStart[dagNode + 1] - this.childStart[dagNode];
+    }
+
+    public int getChild(int dagNode, int index) {
+        return this.children[this.childStart[dagNode] + index];
+    }
+
+    /**
+     * Die Anzahl verschiedener Ausdrücke.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Die Anzahl der Ausdrucksknoten im Baum, inklusive Wiederholungen.
+     */
+    public int getOccurrences() {
+        return this.occurrences;
+    }
+}
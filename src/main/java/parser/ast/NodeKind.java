@@ -0,0 +1,71 @@
+package parser.ast;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Die Knotenarten des Abstrakten Syntaxbaums, auf denen die späteren Durchläufe verzweigen.
+ * Alle anderen Namen (Typen, Klammern, Schlüsselwörter) sind {@link #OTHER}.
+ */
+public enum NodeKind {
+
+    DECLARATION("declaration"),
+    ASSIGNMENT("assignment"),
+    EXPR("expr"),
+    PAR_EXPR("par_expr"),
+    PRINT("print"),
+    LOOP("loop"),
+    COND("cond"),
+    IDENTIFIER("IDENTIFIER"),
+    INTEGER_LIT("INTEGER_LIT"),
+    STRING_LIT("STRING_LIT"),
+    BOOLEAN_LIT("BOOLEAN_LIT"),
+    OTHER("");
+
+    private static final Map<String, NodeKind> kinds;
+
+    static {
+        kinds = new HashMap<>();
+        for (NodeKind kind : values()) {
+            kinds.put(kind.name, kind);
+        }
+    }
+
+    private final String name;
+
+    NodeKind(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return Die Knotenart zum Namen, {@link #OTHER} für alle übrigen Namen.
+     */
+    public static NodeKind fromName(String name) {
+        return kinds.getOrDefault(name, OTHER);
+    }
+
+    public boolean isLiteral() {
+        return this == INTEGER_LIT || this == STRING_LIT || this == BOOLEAN_LIT;
+    }
+
+    /**
+     * Literale und Variablen sind die Blätter eines Ausdrucks.
+     */
+    public boolean isOperand() {
+        return this.isLiteral() || this == IDENTIFIER;
+    }
+
+    /**
+     * Knoten, denen der TypeChecker einen Typ zuweist.
+     */
+    public boolean isTyped() {
+        return this.isOperand() || this == EXPR || this == PAR_EXPR;
+    }
+
+    /**
+     * @return Der Knotenname im Syntaxbaum.
+     */
+    public String getName() {
+        return this.name;
+    }
+}
@@ -0,0 +1,86 @@
+package parser.ast;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Die Operatoren, die als Wert eines expr-Knotens vorkommen.
+ *
+ * <p>Operatorpräzedenz, 0 ist die höchste:</p>
+ * <ul>
+ *     <li>0 - Unary: -, +, !</li>
+ *     <li>1 - Multiplicative: *, /, %</li>
+ *     <li>2 - Additive: +, -</li>
+ *     <li>3 - Comparative: &lt;, &lt;=, &gt;, &gt;=</li>
+ *     <li>4 - Equality: ==, !=</li>
+ *     <li>5 - Logical AND: &amp;&amp;</li>
+ *     <li>6 - Logical OR: ||</li>
+ * </ul>
+ */
+public enum Operator {
+
+    NOT(0, true, false, false),
+    MUL(1, false, true, true),
+    DIV(1, false, true, false),
+    MOD(1, false, true, false),
+    ADD(2, true, true, true),
+    SUB(2, true, true, false),
+    LESS(3, false, true, false),
+    LESS_EQUAL(3, false, true, false),
+    GREATER(3, false, true, false),
+    GREATER_EQUAL(3, false, true, false),
+    EQUAL(4, false, true, true),
+    NOT_EQUAL(4, false, true, true),
+    AND(5, false, true, true),
+    OR(6, false, true, true);
+
+    private static final Map<String, Operator> operators;
+
+    static {
+        operators = new HashMap<>();
+        for (Operator operator : values()) {
+            operators.put(operator.name(), operator);
+        }
+    }
+
+    private final int priority;
+    private final boolean unary;
+    private final boolean binary;
+    private final boolean commutative;
+
+    Operator(int priority, boolean unary, boolean binary, boolean commutative) {
+        this.priority = priority;
+        this.unary = unary;
+        this.binary = binary;
+        this.commutative = commutative;
+    }
+
+    /**
+     * @return Der Operator zum Wert eines Knotens oder null, wenn der Wert kein Operator ist.
+     */
+    public static Operator fromName(String name) {
+        return operators.get(name);
+    }
+
+    /**
+     * @return Die Priorität des Operators, 0 ist die höchste.
+     */
+    public int getPriority() {
+        return this.priority;
+    }
+
+    /**
+     * ADD und SUB sind unär und binär.
+     */
+    public boolean isUnary() {
+        return this.unary;
+    }
+
+    public boolean isBinary() {
+        return this.binary;
+    }
+
+    public boolean isCommutative() {
+        return this.commutative;
+    }
+}
@@ -1,10 +1,19 @@
 package parser.ast;
 
 import parser.grammar.Grammar;
+import parser.grammar.GrammarAction;
+import parser.grammar.GrammarActionTable;
 import util.Logger;
 
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static parser.grammar.GrammarAction.DELCHILD;
+import static parser.grammar.GrammarAction.DELIFEMPTY;
+import static parser.grammar.GrammarAction.NAMETOVAL;
+import static parser.grammar.GrammarAction.PROMOTE;
+import static parser.grammar.GrammarAction.RENAMETO;
+import static parser.grammar.GrammarAction.VALTOVAL;
 
 /**
  * Wendet in der Grammatik definierte Regeln auf einen Parsebaum an.
@@ -17,216 +26,321 @@ import java.util.HashSet;
  *     <li>Führt Umbenennungen durch</li>
  *     <li>Verschiebt Informationen in Knoten-Namen und -Wert</li>
  * </ul>
+ *
+ * <p>Die Regeln werden auf einer {@link SyntaxTreeArena} ausgeführt,
+ * die Varianten für {@link SyntaxTree} übertragen das Ergebnis zurück.</p>
+ *
+ * <p>Alle Regeln laufen in einem einzigen Postorder-Durchlauf. Jeder Knoten durchläuft die Schritte
+ * in der Reihenfolge der einzelnen Regeln, nachdem seine Kinder fertig sind. Das Ergebnis ist dasselbe,
+ * wie wenn jede Regel für sich über den ganzen Baum liefe. Die Grammatik wird dabei über
+ * die {@link GrammarActionTable} mit Symbolnummern statt mit Namen befragt.</p>
  */
 public final class ParseTreeCleaner {
 
-    private ParseTreeCleaner() {}
+    // Rückgabe eines Knotens an seinen Parent
+    private static final int KEEP = 0;
+    private static final int DELETE_CHILD = 1; // [delchild] oder Epsilon
+    private static final int DELETE_EMPTY = 2; // [delifempty]
+
+    private final SyntaxTreeArena tree;
+    private final GrammarActionTable actions;
+    private final Set<GrammarAction> steps;
+
+    /**
+     * Stringindex des Baums -> Symbolnummer der Grammatik.
+     */
+    private final int[] symbols;
+
+    /**
+     * Symbolnummer -> Stringindex des neuen Namens bei [renameto].
+     */
+    private final int[] newNames;
+
+    private ParseTreeCleaner(SyntaxTreeArena tree, Grammar grammar, Set<GrammarAction> steps) {
+        this.tree = tree;
+        this.actions = grammar.getActionTable();
+        this.steps = steps;
+
+        // Die neuen Namen kommen zuerst in die Stringtabelle, danach kommen keine Strings mehr hinzu
+        this.newNames = new int[this.actions.getSymbolCount()];
+        for (int symbol = 0; symbol < this.newNames.length; symbol++) {
+            final int newName = this.actions.getNewName(symbol);
+            this.newNames[symbol] = newName == GrammarActionTable.UNKNOWN ? 0 : tree.intern(this.actions.getName(newName));
+        }
+
+        this.symbols = new int[tree.getStringCount()];
+        for (int id = 0; id < this.symbols.length; id++) {
+            this.symbols[id] = this.actions.getSymbol(tree.getString(id));
+        }
+    }
+
+    private static void run(SyntaxTreeArena parseTree, Grammar grammar, Set<GrammarAction> steps) {
+        final ParseTreeCleaner cleaner = new ParseTreeCleaner(parseTree, grammar, steps);
+
+        // Die Wurzel hat keinen Parent, der sie löschen könnte
+        cleaner.clean(parseTree.getRoot(), GrammarActionTable.UNKNOWN);
+    }
 
     public static void clean(SyntaxTree parseTree, Grammar grammar) {
-        Logger.logDebug("Beginning cleaning of parse-tree", ParseTreeCleaner.class);
+        final SyntaxTreeArena arena = SyntaxTreeArena.fromTree(parseTree);
+        clean(arena, grammar);
+        arena.writeTo(parseTree);
+    }
 
-        deleteChildren(parseTree, grammar);
-        deleteIfEmpty(parseTree, grammar);
-        promote(parseTree, grammar);
+    public static void clean(SyntaxTreeArena parseTree, Grammar grammar) {
+        Logger.logDebug("Beginning cleaning of parse-tree", ParseTreeCleaner.class);
 
-        renameTo(parseTree, grammar);
-        nameToValue(parseTree, grammar);
-        valueToValue(parseTree, grammar);
+        run(parseTree, grammar, EnumSet.allOf(GrammarAction.class));
 
         Logger.logDebug("Successfully cleaned the parse-tree", ParseTreeCleaner.class);
-        Logger.logDebugSupplier(() -> parseTree.printToImage("ParseTreeCleaned"), ParseTreeCleaner.class);
+        Logger.logDebugSupplier(() -> parseTree.toTree().printToImage("ParseTreeCleaned"), ParseTreeCleaner.class);
     }
 
     /**
      * Es werden Werte nach oben gereicht von [promote]-able Nodes.
      */
     public static void promote(SyntaxTree parseTree, Grammar grammar) {
+        final SyntaxTreeArena arena = SyntaxTreeArena.fromTree(parseTree);
+        promote(arena, grammar);
+        arena.writeTo(parseTree);
+    }
+
+    public static void promote(SyntaxTreeArena parseTree, Grammar grammar) {
         Logger.logDebug(" :: Beginning up-propagation of nodes", ParseTreeCleaner.class);
-        promote(parseTree.getRoot(), grammar);
+        run(parseTree, grammar, EnumSet.of(PROMOTE));
         Logger.logDebug(" :: Promoted nodes", ParseTreeCleaner.class);
     }
 
-    private static void promote(SyntaxTreeNode root, Grammar grammar) {
-        final Collection<SyntaxTreeNode> toRemove = new HashSet<>();
-
-        for (SyntaxTreeNode child : root.getChildren()) {
-            promote(child, grammar);
+    /**
+     * Löscht leere Knoten mit [delIfEmpty].
+     */
+    public static void deleteIfEmpty(SyntaxTree parseTree, Grammar grammar) {
+        final SyntaxTreeArena arena = SyntaxTreeArena.fromTree(parseTree);
+        deleteIfEmpty(arena, grammar);
+        arena.writeTo(parseTree);
+    }
 
-            // Impliziert, dass die for-schleife nur 1x läuft, deshalb ist child das richtige Kind
-            if (!grammar.canPromoteChild(root)) {
-                continue;
-            }
+    public static void deleteIfEmpty(SyntaxTreeArena parseTree, Grammar grammar) {
+        Logger.logDebug(" :: Beginning removal of empty nodes", ParseTreeCleaner.class);
+        run(parseTree, grammar, EnumSet.of(DELIFEMPTY));
+        Logger.logDebug(" :: Removed all empty nodes", ParseTreeCleaner.class);
+    }
 
-            Logger.logInfo("Promoting child \"" + child.getName() + "\" to root \"" + root.getName() + "\"\n"
-                           + root.nodePrint("\t\t"), ParseTreeCleaner.class);
+    /**
+     * Löscht redundante Informationen in [delChildren]-Nodes (z.b. IF-child von COND) und Epsilon-Nodes.
+     */
+    public static void deleteChildren(SyntaxTree parseTree, Grammar grammar) {
+        final SyntaxTreeArena arena = SyntaxTreeArena.fromTree(parseTree);
+        deleteChildren(arena, grammar);
+        arena.writeTo(parseTree);
+    }
 
-            root.setName(child.getName());
-            root.setValue(child.getValue());
-            root.setChildren(child.getChildren());
+    public static void deleteChildren(SyntaxTreeArena parseTree, Grammar grammar) {
+        Logger.logDebug(" :: Beginning removal of redundant children", ParseTreeCleaner.class);
+        run(parseTree, grammar, EnumSet.of(DELCHILD));
+        Logger.logDebug(" :: Redundant children were removed", ParseTreeCleaner.class);
+    }
 
-            child.setValue("REMOVE"); // If both childs have the same identity both are removed, so change one
-            toRemove.add(child);
-        }
+    /**
+     * Verschiebt Knotennamen von [nametoval]-Nodes in Parent-Values und löscht das Child.
+     */
+    public static void nameToValue(SyntaxTree parseTree, Grammar grammar) {
+        final SyntaxTreeArena arena = SyntaxTreeArena.fromTree(parseTree);
+        nameToValue(arena, grammar);
+        arena.writeTo(parseTree);
+    }
 
-        root.getChildren().removeAll(toRemove);
+    public static void nameToValue(SyntaxTreeArena parseTree, Grammar grammar) {
+        Logger.logDebug(" :: Beginning up-propagation of node-names", ParseTreeCleaner.class);
+        run(parseTree, grammar, EnumSet.of(NAMETOVAL));
+        Logger.logDebug(" :: Moved node-names to parent-values", ParseTreeCleaner.class);
     }
 
     /**
-     * Löscht leere Knoten mit [delIfEmpty].
+     * [valtoval]-Nodes bekommen den Child-Namen als Value anstatt als Child.
+     * Wird z.B. durchgeführt bei Assignments: Der Assignment-Node bekommt den
+     * Variablennamen als Wert anstatt als Child-Node.
      */
-    public static void deleteIfEmpty(SyntaxTree parseTree, Grammar grammar) {
-        Logger.logDebug(" :: Beginning removal of empty nodes", ParseTreeCleaner.class);
-        deleteIfEmpty(parseTree.getRoot(), grammar);
-        Logger.logDebug(" :: Removed all empty nodes", ParseTreeCleaner.class);
+    public static void valueToValue(SyntaxTree parseTree, Grammar grammar) {
+        final SyntaxTreeArena arena = SyntaxTreeArena.fromTree(parseTree);
+        valueToValue(arena, grammar);
+        arena.writeTo(parseTree);
     }
 
-    private static void deleteIfEmpty(SyntaxTreeNode root, Grammar grammar) {
-        final Collection<SyntaxTreeNode> toRemove = new HashSet<>();
+    public static void valueToValue(SyntaxTreeArena parseTree, Grammar grammar) {
+        Logger.logDebug(" :: Beginning up-propagation of node-values", ParseTreeCleaner.class);
+        run(parseTree, grammar, EnumSet.of(VALTOVAL));
+        Logger.logDebug(" :: Moved node-values to parent-values", ParseTreeCleaner.class);
+    }
 
-        for (SyntaxTreeNode child : root.getChildren()) {
-            deleteIfEmpty(child, grammar);
+    // Durchlauf -------------------------------------------------------------------------------------------------------
 
-            if (!grammar.canDeleteIfEmpty(child)) {
-                continue;
+    private int symbol(int node) {
+        return this.symbols[this.tree.getNameId(node)];
+    }
+
+    /**
+     * Bereinigt den Teilbaum unter root und entscheidet, ob der Parent root löschen soll.
+     * Die Löschentscheidungen fallen mit dem ursprünglichen Namen, bevor root umgeformt wird.
+     *
+     * @return {@link #KEEP}, {@link #DELETE_CHILD} oder {@link #DELETE_EMPTY}.
+     */
+    private int clean(int root, int parentSymbol) {
+        final int symbol = this.symbol(root);
+
+        // Leer nach [delchild] bzw. nach [delchild] und [delifempty]
+        boolean emptyAfterDeleteChildren = true;
+        boolean emptyAfterDeleteIfEmpty = true;
+        boolean removed = false;
+
+        for (int child = this.tree.getFirstChild(root); child != SyntaxTreeArena.NONE; child = this.tree.getNextSibling(child)) {
+            final int decision = this.clean(child, symbol);
+
+            emptyAfterDeleteChildren = emptyAfterDeleteChildren && decision == DELETE_CHILD;
+            emptyAfterDeleteIfEmpty = emptyAfterDeleteIfEmpty && decision != KEEP;
+
+            if (decision != KEEP) {
+                final int deleted = child;
+                Logger.logInfoSupplier(() -> "Removing child \"" + this.tree.getName(deleted) + "\" from root \"" + this.tree.getName(root) + "\"\n"
+                                             + this.tree.nodePrint(root, "\t\t"), ParseTreeCleaner.class);
+
+                this.tree.detach(child);
+                removed = true;
             }
+        }
 
-            Logger.logInfo("Removing node \"" + child.getName() + "\"", ParseTreeCleaner.class);
+        if (removed) {
+            this.tree.removeDetached(root);
+        }
 
-            child.setValue("REMOVE"); // If both childs have the same identity both are removed, so change one
-            toRemove.add(child);
+        if (this.steps.contains(DELCHILD) && emptyAfterDeleteChildren
+            && this.actions.canDeleteChild(parentSymbol, symbol)) {
+            return DELETE_CHILD;
         }
 
-        root.getChildren().removeAll(toRemove);
-    }
+        if (this.steps.contains(DELIFEMPTY) && emptyAfterDeleteIfEmpty
+            && this.actions.canDeleteIfEmpty(symbol) && !this.tree.hasValue(root)) {
+            return DELETE_EMPTY;
+        }
 
-    /**
-     * Löscht redundante Informationen in [delChildren]-Nodes (z.b. IF-child von COND) und Epsilon-Nodes.
-     */
-    public static void deleteChildren(SyntaxTree parseTree, Grammar grammar) {
-        Logger.logDebug(" :: Beginning removal of redundant children", ParseTreeCleaner.class);
-        deleteChildren(parseTree.getRoot(), grammar);
-        Logger.logDebug(" :: Redundant children were removed", ParseTreeCleaner.class);
-    }
+        if (this.steps.contains(PROMOTE) && this.promote(root, symbol)) {
+            // Das Kind hat alle Schritte schon hinter sich
+            return KEEP;
+        }
 
-    private static void deleteChildren(SyntaxTreeNode root, Grammar grammar) {
-        final Collection<SyntaxTreeNode> toRemove = new HashSet<>();
+        final int newSymbol = this.steps.contains(RENAMETO) ? this.renameTo(root, symbol) : symbol;
 
-        for (SyntaxTreeNode child : root.getChildren()) {
-            deleteChildren(child, grammar);
+        if (this.steps.contains(NAMETOVAL)) {
+            this.nameToValue(root, newSymbol);
+        }
 
-            if (!grammar.canDeleteChild(root, child)) {
-                continue;
-            }
+        if (this.steps.contains(VALTOVAL)) {
+            this.valueToValue(root, newSymbol);
+        }
+
+        return KEEP;
+    }
 
-            Logger.logInfo("Removing child \"" + child.getName() + "\" from root \"" + root.getName() + "\"\n"
-                           + root.nodePrint("\t\t"), ParseTreeCleaner.class);
+    private boolean promote(int root, int symbol) {
+        final int child = this.tree.getFirstChild(root);
 
-            child.setValue("REMOVE"); // If both childs have the same identity both are removed, so change one
-            toRemove.add(child);
+        if (!this.actions.canPromoteChild(symbol) || this.tree.hasValue(root)
+            || child == SyntaxTreeArena.NONE || this.tree.getNextSibling(child) != SyntaxTreeArena.NONE) {
+            return false;
         }
 
-        root.getChildren().removeAll(toRemove);
+        Logger.logInfoSupplier(() -> "Promoting child \"" + this.tree.getName(child) + "\" to root \"" + this.tree.getName(root) + "\"\n"
+                                     + this.tree.nodePrint(root, "\t\t"), ParseTreeCleaner.class);
+
+        this.tree.replaceWith(root, child);
+
+        return true;
     }
 
     /**
-     * Führt Umbenennungen durch.
+     * Benennt einmal je Kind um, so wie der Knoten früher je Kind besucht wurde.
+     *
+     * @return Das Symbol des neuen Namens.
      */
-    private static void renameTo(SyntaxTree parseTree, Grammar grammar) {
-        Logger.logDebug(" :: Beginning renaming of nodes", ParseTreeCleaner.class);
-        renameTo(parseTree.getRoot(), grammar);
-        Logger.logDebug(" :: Renamed nodes", ParseTreeCleaner.class);
-    }
-
-    private static void renameTo(SyntaxTreeNode root, Grammar grammar) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            renameTo(child, grammar);
+    private int renameTo(int root, int symbol) {
+        int current = symbol;
 
-            if (!grammar.canBeRenamed(root)) {
+        for (int child = this.tree.getFirstChild(root); child != SyntaxTreeArena.NONE; child = this.tree.getNextSibling(child)) {
+            final int newSymbol = this.actions.getNewName(current);
+            if (newSymbol == GrammarActionTable.UNKNOWN) {
                 continue;
             }
 
-            Logger.logInfo("Renaming node \"" + root.getName() + "\" to \"" + grammar.getNewName(root) + "\"", ParseTreeCleaner.class);
+            Logger.logInfo("Renaming node \"" + this.tree.getName(root) + "\" to \"" + this.actions.getName(newSymbol) + "\"", ParseTreeCleaner.class);
 
-            root.setName(grammar.getNewName(root));
+            this.tree.setNameId(root, this.newNames[current]);
+            current = newSymbol;
         }
-    }
 
-    /**
-     * Verschiebt Knotennamen von [nametoval]-Nodes in Parent-Values und löscht das Child.
-     */
-    public static void nameToValue(SyntaxTree parseTree, Grammar grammar) {
-        Logger.logDebug(" :: Beginning up-propagation of node-names", ParseTreeCleaner.class);
-        nameToValue(parseTree.getRoot(), grammar);
-        Logger.logDebug(" :: Moved node-names to parent-values", ParseTreeCleaner.class);
+        return current;
     }
 
-    private static void nameToValue(SyntaxTreeNode root, Grammar grammar) {
-        final Collection<SyntaxTreeNode> toRemove = new HashSet<>();
-
-        for (SyntaxTreeNode child : root.getChildren()) {
-            nameToValue(child, grammar);
+    private void nameToValue(int root, int symbol) {
+        boolean removed = false;
 
-            if (!grammar.canMoveNameToVal(root, child)) {
+        for (int child = this.tree.getFirstChild(root); child != SyntaxTreeArena.NONE; child = this.tree.getNextSibling(child)) {
+            if (!this.actions.canMoveNameToVal(symbol, this.symbol(child)) || this.tree.hasValue(root)) {
                 continue;
             }
 
-            Logger.logInfo("Moving child-name \"" + child.getName() + "\" to parent-value of node \"" + root.getName() + "\"\n"
-                           + root.nodePrint("\t\t"), ParseTreeCleaner.class);
+            final int moved = child;
+            Logger.logInfoSupplier(() -> "Moving child-name \"" + this.tree.getName(moved) + "\" to parent-value of node \"" + this.tree.getName(root) + "\"\n"
+                                         + this.tree.nodePrint(root, "\t\t"), ParseTreeCleaner.class);
 
-            root.setValue(child.getName());
-
-            child.setValue("REMOVE"); // If both childs have the same identity both are removed, so change one
-            toRemove.add(child);
+            this.tree.setValueId(root, this.tree.getNameId(child));
+            this.tree.detach(child);
+            removed = true;
         }
 
-        root.getChildren().removeAll(toRemove);
-    }
-
-    /**
-     * [valtoval]-Nodes bekommen den Child-Namen als Value anstatt als Child.
-     * Wird z.B. durchgeführt bei Assignments: Der Assignment-Node bekommt den
-     * Variablennamen als Wert anstatt als Child-Node.
-     */
-    public static void valueToValue(SyntaxTree parseTree, Grammar grammar) {
-        Logger.logDebug(" :: Beginning up-propagation of node-values", ParseTreeCleaner.class);
-        valueToValue(parseTree.getRoot(), grammar);
-        Logger.logDebug(" :: Moved node-values to parent-values", ParseTreeCleaner.class);
+        if (removed) {
+            this.tree.removeDetached(root);
+        }
     }
 
-    private static void valueToValue(SyntaxTreeNode root, Grammar grammar) {
-        final Collection<SyntaxTreeNode> toRemove = new HashSet<>();
+    private void valueToValue(int root, int symbol) {
+        boolean removed = false;
 
-        for (SyntaxTreeNode child : root.getChildren()) {
-            valueToValue(child, grammar);
-
-            if (!grammar.hasValToVal(root, child) || !root.getValue().isBlank()) {
+        for (int child = this.tree.getFirstChild(root); child != SyntaxTreeArena.NONE; child = this.tree.getNextSibling(child)) {
+            if (!this.actions.hasValToVal(symbol, this.symbol(child)) || !this.tree.getValue(root).isBlank()) {
                 continue;
             }
 
-            if (root.getChildren().size() == 2
-                && root.getChildren().get(0).getName().equals(root.getChildren().get(1).getName())) {
-                // Case where variable is assigned another variable with the same name
+            // Gelöschte Kinder bleiben bis zum Ende der Schleife in der Kette
+            final int first = this.tree.getFirstChild(root);
+            final int second = this.tree.getNextSibling(first);
 
-                Logger.logInfo("Moving child-value \"" + root.getChildren().get(1).getValue()
-                               + "\" to parent-value of node \"" + root.getName() + "\"\n"
-                               + root.nodePrint("\t\t"), ParseTreeCleaner.class);
+            if (second != SyntaxTreeArena.NONE && this.tree.getNextSibling(second) == SyntaxTreeArena.NONE
+                && this.tree.getNameId(first) == this.tree.getNameId(second)) {
+                // Case where variable is assigned another variable with the same name
 
-                root.setValue(root.getChildren().get(1).getValue());
+                Logger.logInfoSupplier(() -> "Moving child-value \"" + this.tree.getValue(second)
+                                             + "\" to parent-value of node \"" + this.tree.getName(root) + "\"\n"
+                                             + this.tree.nodePrint(root, "\t\t"), ParseTreeCleaner.class);
 
-                root.getChildren().get(1).setValue("REMOVE"); // If both childs have the same identity both are removed, so change one
-                toRemove.add(root.getChildren().get(1));
+                this.tree.setValueId(root, this.tree.getValueId(second));
+                this.tree.detach(second);
 
             } else {
                 // Usual case where an expression is assigned
 
-                Logger.logInfo("Moving child value \"" + child.getValue() + "\" to parent-value of node \""
-                               + root.getName() + "\"\n" + root.nodePrint("\t\t"), ParseTreeCleaner.class);
+                final int moved = child;
+                Logger.logInfoSupplier(() -> "Moving child value \"" + this.tree.getValue(moved) + "\" to parent-value of node \""
+                                             + this.tree.getName(root) + "\"\n" + this.tree.nodePrint(root, "\t\t"), ParseTreeCleaner.class);
 
-                root.setValue(child.getValue());
-                toRemove.add(child);
+                this.tree.setValueId(root, this.tree.getValueId(child));
+                this.tree.detach(child);
             }
+
+            removed = true;
         }
 
-        root.getChildren().removeAll(toRemove);
+        if (removed) {
+            this.tree.removeDetached(root);
+        }
     }
 }
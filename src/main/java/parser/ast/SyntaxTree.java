@@ -24,12 +24,7 @@ public class SyntaxTree {
      * @param grammar Die Parsegrammatik wird benötigt um die Umformungen durchzuführen.
      */
     public static SyntaxTree toAbstractSyntaxTree(SyntaxTree concreteSyntaxTree, Grammar grammar) {
-        final SyntaxTree abstractSyntaxTree = concreteSyntaxTree.deepCopy();
-
-        ParseTreeCleaner.clean(abstractSyntaxTree, grammar);
-        SyntaxTreeRebalancer.rebalance(abstractSyntaxTree);
-
-        return abstractSyntaxTree;
+        return SyntaxTreeArena.toAbstractSyntaxTree(concreteSyntaxTree, grammar).toTree();
     }
 
     public SyntaxTree deepCopy() {
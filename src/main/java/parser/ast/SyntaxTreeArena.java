@@ -0,0 +1,573 @@
+package parser.ast;
+
+import parser.grammar.Grammar;
+import util.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Speichert einen Syntaxbaum spaltenweise in int-Puffern statt als {@link SyntaxTreeNode}-Objekte.
+ * Ein Knoten ist ein Index, Namen und Werte sind Indizes in eine gemeinsame Stringtabelle.
+ *
+ * <p>Pro Knoten werden 6 ints gespeichert (Name, Wert, Zeile, Parent, erstes Kind, nächstes Geschwister),
+ * ein {@link SyntaxTreeNode} braucht mit UUID und eigener Kinderliste ein Vielfaches davon.
+ * Große Bäume liegen in direkten {@link ByteBuffer}n außerhalb des Heaps.</p>
+ *
+ * <p>Gelöschte Knoten bleiben als Lücken stehen, {@link #compact()} entfernt sie.</p>
+ *
+ * <p>Für jeden String der Tabelle wird beim Eintragen einmal die {@link NodeKind} und der {@link Operator} bestimmt,
+ * die Durchläufe verzweigen damit auf Enums statt auf Stringvergleichen.</p>
+ */
+public final class SyntaxTreeArena {
+
+    public static final int NONE = -1;
+
+    /**
+     * Ab dieser Knotenanzahl wird {@link #fromTree(SyntaxTree)} direkt allokiert.
+     */
+    private static final int DIRECT_THRESHOLD = 1 << 20;
+
+    private final boolean direct;
+
+    private IntBuffer name;
+    private IntBuffer value;
+    private IntBuffer line;
+    private IntBuffer parent;
+    private IntBuffer firstChild;
+    private IntBuffer nextSibling;
+    private int size;
+    private int root;
+
+    private final List<String> strings;
+    private final Map<String, Integer> stringIds;
+
+    /**
+     * Knotenart und Operator je String, der Index ist der Index in der Stringtabelle.
+     */
+    private NodeKind[] kinds;
+    private Operator[] operators;
+
+    private SyntaxTreeArena(int capacity, boolean direct) {
+        this.direct = direct;
+        this.strings = new ArrayList<>();
+        this.stringIds = new HashMap<>();
+        this.kinds = new NodeKind[16];
+        this.operators = new Operator[16];
+        this.root = NONE;
+
+        this.allocateColumns(Math.max(capacity, 1));
+        this.intern(""); // Leerer Wert hat Index 0
+    }
+
+    /**
+     * Übernimmt fertige Spalten ohne Kopie, z.B. aus einer Datei gemappt. Die Kapazität der Spalten ist die Knotenanzahl.
+     *
+     * @param strings Die Stringtabelle, der leere String muss den Index 0 haben.
+     */
+    static SyntaxTreeArena wrap(IntBuffer[] columns, int root, List<String> strings) {
+        final SyntaxTreeArena arena = new SyntaxTreeArena(1, columns[0].isDirect());
+
+        arena.name = columns[0];
+        arena.value = columns[1];
+        arena.line = columns[2];
+        arena.parent = columns[3];
+        arena.firstChild = columns[4];
+        arena.nextSibling = columns[5];
+        arena.size = columns[0].capacity();
+        arena.root = root;
+
+        if (strings.isEmpty() || !strings.get(0).isEmpty()) {
+            throw new IllegalArgumentException("Stringtabelle beginnt nicht mit dem leeren String");
+        }
+        for (int id = 1; id < strings.size(); id++) {
+            if (arena.intern(strings.get(id)) != id) {
+                throw new IllegalArgumentException("Doppelter String in der Stringtabelle: " + strings.get(id));
+            }
+        }
+
+        return arena;
+    }
+
+    public static SyntaxTreeArena allocate(int capacity) {
+        return new SyntaxTreeArena(capacity, false);
+    }
+
+    /**
+     * Die Knoten liegen in direkten Puffern, nur die Stringtabelle belegt Heap.
+     */
+    public static SyntaxTreeArena allocateDirect(int capacity) {
+        return new SyntaxTreeArena(capacity, true);
+    }
+
+    public static SyntaxTreeArena fromTree(SyntaxTree tree) {
+        return fromTree(tree, tree.size() >= DIRECT_THRESHOLD, null);
+    }
+
+    /**
+     * @param nodes Wird mit den Baumknoten gefüllt, der Listenindex ist der Knoten in der Arena.
+     */
+    public static SyntaxTreeArena fromTree(SyntaxTree tree, List<SyntaxTreeNode> nodes) {
+        return fromTree(tree, tree.size() >= DIRECT_THRESHOLD, nodes);
+    }
+
+    private static SyntaxTreeArena fromTree(SyntaxTree tree, boolean direct, List<SyntaxTreeNode> nodes) {
+        final SyntaxTreeArena arena = new SyntaxTreeArena((int) Math.min(tree.size(), Integer.MAX_VALUE / 2), direct);
+
+        arena.root = arena.copyOf(tree.getRoot(), NONE, nodes);
+
+        return arena;
+    }
+
+    /**
+     * Formt einen konkreten Parsebaum wie {@link SyntaxTree#toAbstractSyntaxTree(SyntaxTree, Grammar)} um,
+     * das Ergebnis bleibt aber in der Arena.
+     */
+    public static SyntaxTreeArena toAbstractSyntaxTree(SyntaxTree concreteSyntaxTree, Grammar grammar) {
+        final SyntaxTreeArena arena = fromTree(concreteSyntaxTree);
+
+        ParseTreeCleaner.clean(arena, grammar);
+        SyntaxTreeRebalancer.rebalance(arena);
+
+        final SyntaxTreeArena compacted = arena.compact();
+        Logger.logDebug("Compacted syntax-tree arena from " + arena.size + " to " + compacted.size + " nodes", SyntaxTreeArena.class);
+
+        return compacted;
+    }
+
+    private int copyOf(SyntaxTreeNode node, int parentNode, List<SyntaxTreeNode> nodes) {
+        final int copy = this.addNode(node.getName(), node.getLine());
+        this.value.put(copy, this.intern(node.getValue()));
+        this.parent.put(copy, parentNode);
+
+        if (nodes != null) {
+            nodes.add(node);
+        }
+
+        int previous = NONE;
+        for (SyntaxTreeNode child : node.getChildren()) {
+            final int childCopy = this.copyOf(child, copy, nodes);
+            this.link(copy, previous, childCopy);
+            previous = childCopy;
+        }
+
+        return copy;
+    }
+
+    /**
+     * Erzeugt einen {@link SyntaxTree} aus dem Baum unter der Wurzel.
+     */
+    public SyntaxTree toTree() {
+        return new SyntaxTree(this.toNode(this.root));
+    }
+
+    private SyntaxTreeNode toNode(int node) {
+        final SyntaxTreeNode treeNode = new SyntaxTreeNode(this.getName(node), this.getLine(node));
+        treeNode.setValue(this.getValue(node));
+
+        for (int child = this.getFirstChild(node); child != NONE; child = this.getNextSibling(child)) {
+            treeNode.addChild(this.toNode(child));
+        }
+
+        return treeNode;
+    }
+
+    /**
+     * Überträgt den Baum in einen bestehenden {@link SyntaxTree}, dessen Wurzelobjekt erhalten bleibt.
+     */
+    void writeTo(SyntaxTree tree) {
+        final SyntaxTreeNode newRoot = this.toNode(this.root);
+        final SyntaxTreeNode oldRoot = tree.getRoot();
+
+        oldRoot.setName(newRoot.getName());
+        oldRoot.setValue(newRoot.getValue());
+        oldRoot.setLine(newRoot.getLine());
+        oldRoot.setChildren(newRoot.getChildren());
+    }
+
+    /**
+     * Kopiert die von der Wurzel erreichbaren Knoten in Preorder in eine neue Arena gleicher Art.
+     */
+    public SyntaxTreeArena compact() {
+        final SyntaxTreeArena compacted = new SyntaxTreeArena(this.subtreeSize(this.root), this.direct);
+
+        compacted.root = compacted.copyOf(this, this.root, NONE);
+
+        return compacted;
+    }
+
+    private int copyOf(SyntaxTreeArena other, int node, int parentNode) {
+        final int copy = this.addNode(other.getName(node), other.getLine(node));
+        this.value.put(copy, this.intern(other.getValue(node)));
+        this.parent.put(copy, parentNode);
+
+        int previous = NONE;
+        for (int child = other.getFirstChild(node); child != NONE; child = other.getNextSibling(child)) {
+            final int childCopy = this.copyOf(other, child, copy);
+            this.link(copy, previous, childCopy);
+            previous = childCopy;
+        }
+
+        return copy;
+    }
+
+    // Knoten
+
+    /**
+     * Legt einen Knoten ohne Parent, Kinder und Wert an.
+     *
+     * @return Der Index des neuen Knotens.
+     */
+    public int addNode(String nodeName, int nodeLine) {
+        if (this.size == this.name.capacity()) {
+            this.grow();
+        }
+
+        final int node = this.size;
+        this.size++;
+
+        this.name.put(node, this.intern(nodeName));
+        this.value.put(node, 0);
+        this.line.put(node, nodeLine);
+        this.parent.put(node, NONE);
+        this.firstChild.put(node, NONE);
+        this.nextSibling.put(node, NONE);
+
+        return node;
+    }
+
+    /**
+     * Ersetzt die Kinder eines Knotens, die bisherigen Kinder werden abgehängt.
+     */
+    public void setChildren(int node, int... children) {
+        this.detachChildren(node);
+
+        int previous = NONE;
+        for (int child : children) {
+            this.parent.put(child, node);
+            this.link(node, previous, child);
+            previous = child;
+        }
+
+        if (previous != NONE) {
+            this.nextSibling.put(previous, NONE);
+        }
+    }
+
+    /**
+     * Übernimmt Name, Wert und Kinder eines anderen Knotens, dieser wird danach nicht mehr verwendet.
+     */
+    public void replaceWith(int node, int other) {
+        this.detachChildren(node);
+
+        this.name.put(node, this.name.get(other));
+        this.value.put(node, this.value.get(other));
+        this.firstChild.put(node, this.firstChild.get(other));
+
+        for (int child = this.getFirstChild(node); child != NONE; child = this.getNextSibling(child)) {
+            this.parent.put(child, node);
+        }
+
+        this.firstChild.put(other, NONE);
+        this.parent.put(other, NONE);
+    }
+
+    /**
+     * Markiert ein Kind zum Löschen, die Geschwisterkette bleibt bis {@link #removeDetached(int)} unverändert.
+     * Dadurch ändert das Löschen nichts an einer laufenden Iteration über die Kinder.
+     */
+    public void detach(int child) {
+        this.parent.put(child, NONE);
+    }
+
+    /**
+     * Entfernt die mit {@link #detach(int)} markierten Kinder aus der Geschwisterkette.
+     */
+    public void removeDetached(int node) {
+        int previous = NONE;
+        for (int child = this.getFirstChild(node); child != NONE; child = this.getNextSibling(child)) {
+            if (this.parent.get(child) == node) {
+                this.link(node, previous, child);
+                previous = child;
+            }
+        }
+
+        if (previous == NONE) {
+            this.firstChild.put(node, NONE);
+        } else {
+            this.nextSibling.put(previous, NONE);
+        }
+    }
+
+    /**
+     * Kehrt die Reihenfolge der Kinder um.
+     */
+    public void reverseChildren(int node) {
+        int reversed = NONE;
+        int child = this.getFirstChild(node);
+
+        while (child != NONE) {
+            final int next = this.getNextSibling(child);
+            this.nextSibling.put(child, reversed);
+            reversed = child;
+            child = next;
+        }
+
+        this.firstChild.put(node, reversed);
+    }
+
+    private void detachChildren(int node) {
+        for (int child = this.getFirstChild(node); child != NONE; child = this.getNextSibling(child)) {
+            if (this.parent.get(child) == node) {
+                this.parent.put(child, NONE);
+            }
+        }
+
+        this.firstChild.put(node, NONE);
+    }
+
+    private void link(int node, int previous, int child) {
+        if (previous == NONE) {
+            this.firstChild.put(node, child);
+        } else {
+            this.nextSibling.put(previous, child);
+        }
+    }
+
+    // Stringtabelle
+
+    /**
+     * Liefert den Index eines Strings in der Stringtabelle, neue Strings werden angehängt.
+     * Namen und Werte teilen sich die Tabelle, der leere String hat den Index 0.
+     */
+    public int intern(String string) {
+        final Integer id = this.stringIds.get(string);
+        if (id != null) {
+            return id;
+        }
+
+        final int newId = this.strings.size();
+        if (newId == this.kinds.length) {
+            this.kinds = Arrays.copyOf(this.kinds, 2 * newId);
+            this.operators = Arrays.copyOf(this.operators, 2 * newId);
+        }
+
+        this.strings.add(string);
+        this.stringIds.put(string, newId);
+        this.kinds[newId] = NodeKind.fromName(string);
+        this.operators[newId] = Operator.fromName(string);
+
+        return newId;
+    }
+
+    // Speicher
+
+    private void allocateColumns(int capacity) {
+        this.name = this.allocateColumn(capacity, this.name);
+        this.value = this.allocateColumn(capacity, this.value);
+        this.line = this.allocateColumn(capacity, this.line);
+        this.parent = this.allocateColumn(capacity, this.parent);
+        this.firstChild = this.allocateColumn(capacity, this.firstChild);
+        this.nextSibling = this.allocateColumn(capacity, this.nextSibling);
+    }
+
+    private IntBuffer allocateColumn(int capacity, IntBuffer old) {
+        final IntBuffer column = this.direct
+                                 ? ByteBuffer.allocateDirect(4 * capacity).order(ByteOrder.nativeOrder()).asIntBuffer()
+                                 : IntBuffer.allocate(capacity);
+
+        if (old != null) {
+            final IntBuffer used = old.duplicate();
+            used.position(0).limit(this.size);
+            column.put(used);
+        }
+
+        return column;
+    }
+
+    private void grow() {
+        Logger.logInfo("Growing syntax-tree arena to " + 2 * this.name.capacity() + " nodes", SyntaxTreeArena.class);
+
+        this.allocateColumns(2 * this.name.capacity());
+    }
+
+    // Getters, Setters
+
+    public int getRoot() {
+        return this.root;
+    }
+
+    public void setRoot(int root) {
+        this.root = root;
+    }
+
+    /**
+     * Die Anzahl angelegter Knoten, inklusive gelöschter.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isDirect() {
+        return this.direct;
+    }
+
+    public SyntaxTreeCursor cursor() {
+        return new SyntaxTreeCursor(this, this.root);
+    }
+
+    public String getName(int node) {
+        return this.strings.get(this.name.get(node));
+    }
+
+    public void setName(int node, String nodeName) {
+        this.name.put(node, this.intern(nodeName));
+    }
+
+    public String getValue(int node) {
+        return this.strings.get(this.value.get(node));
+    }
+
+    public void setValue(int node, String nodeValue) {
+        this.value.put(node, this.intern(nodeValue));
+    }
+
+    public NodeKind getKind(int node) {
+        return this.kinds[this.name.get(node)];
+    }
+
+    /**
+     * @return Der Operator im Wert des Knotens oder null, wenn der Wert kein Operator ist.
+     */
+    public Operator getOperator(int node) {
+        return this.operators[this.value.get(node)];
+    }
+
+    /**
+     * Der Knoten ist ein eigener Gültigkeitsbereich für Variablen: Ein Rumpf einer Schleife oder Verzweigung
+     * (jedes Kind außer der Bedingung) oder ein Block in geschweiften Klammern.
+     */
+    public boolean isBlock(int node) {
+        final int parent = this.getParent(node);
+        if (parent != NONE && node != this.getFirstChild(parent)
+            && (this.getKind(parent) == NodeKind.LOOP || this.getKind(parent) == NodeKind.COND)) {
+            return true;
+        }
+
+        final int first = this.getFirstChild(node);
+
+        return first != NONE && "L_BRACE".equals(this.getName(first));
+    }
+
+    public int getNameId(int node) {
+        return this.name.get(node);
+    }
+
+    public void setNameId(int node, int nameId) {
+        this.name.put(node, nameId);
+    }
+
+    public int getValueId(int node) {
+        return this.value.get(node);
+    }
+
+    public void setValueId(int node, int valueId) {
+        this.value.put(node, valueId);
+    }
+
+    public String getString(int id) {
+        return this.strings.get(id);
+    }
+
+    public int getStringCount() {
+        return this.strings.size();
+    }
+
+    public boolean hasValue(int node) {
+        return this.value.get(node) != 0;
+    }
+
+    public int getLine(int node) {
+        return this.line.get(node);
+    }
+
+    public void setLine(int node, int nodeLine) {
+        this.line.put(node, nodeLine);
+    }
+
+    public int getParent(int node) {
+        return this.parent.get(node);
+    }
+
+    public int getFirstChild(int node) {
+        return this.firstChild.get(node);
+    }
+
+    public int getNextSibling(int node) {
+        return this.nextSibling.get(node);
+    }
+
+    public boolean isEmpty(int node) {
+        return this.firstChild.get(node) == NONE;
+    }
+
+    public int getChildCount(int node) {
+        int count = 0;
+        for (int child = this.getFirstChild(node); child != NONE; child = this.getNextSibling(child)) {
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException Wenn der Knoten weniger Kinder hat.
+     */
+    public int getChild(int node, int index) {
+        int child = this.getFirstChild(node);
+        for (int i = 0; i < index && child != NONE; i++) {
+            child = this.getNextSibling(child);
+        }
+
+        if (child == NONE) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for node " + this.getName(node));
+        }
+
+        return child;
+    }
+
+    /**
+     * Die Anzahl der Knoten im Teilbaum, wie {@link SyntaxTreeNode#size()}.
+     */
+    public int subtreeSize(int node) {
+        int subtreeSize = 1;
+        for (int child = this.getFirstChild(node); child != NONE; child = this.getNextSibling(child)) {
+            subtreeSize += this.subtreeSize(child);
+        }
+
+        return subtreeSize;
+    }
+
+    public String nodePrint(int node, String prefix) {
+        final StringBuilder children = new StringBuilder();
+        for (int child = this.getFirstChild(node); child != NONE; child = this.getNextSibling(child)) {
+            children.append(prefix).append("└── ").append(this.getName(child)).append(": ").append(this.getValue(child)).append("\n");
+        }
+
+        return prefix + this.getName(node) + ": " + this.getValue(node) + "\n"
+               + prefix + children.toString().trim();
+    }
+
+    // Overrides
+
+    @Override
+    public String toString() {
+        return this.root == NONE ? "" : this.toTree().toString();
+    }
+}
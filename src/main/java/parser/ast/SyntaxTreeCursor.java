@@ -0,0 +1,102 @@
+package parser.ast;
+
+/**
+ * Ein wiederverwendbarer Zeiger auf einen Knoten in einer {@link SyntaxTreeArena}.
+ * Beim Navigieren werden keine Objekte erzeugt, der Cursor wird nur umgesetzt.
+ *
+ * <p>Die Navigationsmethoden liefern false und bleiben stehen, wenn es das Ziel nicht gibt.</p>
+ */
+public final class SyntaxTreeCursor {
+
+    private final SyntaxTreeArena arena;
+    private int node;
+
+    SyntaxTreeCursor(SyntaxTreeArena arena, int node) {
+        this.arena = arena;
+        this.node = node;
+    }
+
+    // Navigation
+
+    public SyntaxTreeCursor moveTo(int target) {
+        this.node = target;
+        return this;
+    }
+
+    public boolean toParent() {
+        return this.move(this.arena.getParent(this.node));
+    }
+
+    public boolean toFirstChild() {
+        return this.move(this.arena.getFirstChild(this.node));
+    }
+
+    public boolean toNextSibling() {
+        return this.move(this.arena.getNextSibling(this.node));
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException Wenn der Knoten weniger Kinder hat.
+     */
+    public SyntaxTreeCursor toChild(int index) {
+        this.node = this.arena.getChild(this.node, index);
+        return this;
+    }
+
+    /**
+     * Geht in Preorder zum nächsten Knoten, ohne den Teilbaum unter {@code subtreeRoot} zu verlassen.
+     */
+    public boolean toNextInSubtree(int subtreeRoot) {
+        if (this.toFirstChild()) {
+            return true;
+        }
+
+        int current = this.node;
+        while (current != subtreeRoot) {
+            final int sibling = this.arena.getNextSibling(current);
+            if (sibling != SyntaxTreeArena.NONE) {
+                this.node = sibling;
+                return true;
+            }
+
+            current = this.arena.getParent(current);
+        }
+
+        return false;
+    }
+
+    private boolean move(int target) {
+        if (target == SyntaxTreeArena.NONE) {
+            return false;
+        }
+
+        this.node = target;
+        return true;
+    }
+
+    // Getters
+
+    public int getNode() {
+        return this.node;
+    }
+
+    public String getName() {
+        return this.arena.getName(this.node);
+    }
+
+    public String getValue() {
+        return this.arena.getValue(this.node);
+    }
+
+    public int getLine() {
+        return this.arena.getLine(this.node);
+    }
+
+    public int getChildCount() {
+        return this.arena.getChildCount(this.node);
+    }
+
+    public boolean isEmpty() {
+        return this.arena.isEmpty(this.node);
+    }
+}
@@ -0,0 +1,237 @@
+package parser.ast;
+
+import typechecker.Type;
+import util.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binäres Dateiformat für einen geprüften Abstrakten Syntaxbaum, damit Werkzeuge unveränderte Programme
+ * nicht neu lexen, parsen und prüfen müssen.
+ *
+ * <p>Aufbau (little-endian ints, 4-Byte-ausgerichtet):</p>
+ * <ul>
+ *     <li>Header: Magic, Version, Knotenanzahl, Wurzel, Stringanzahl, Source-Datei (String), Länge der Stringtabelle</li>
+ *     <li>Stringtabelle: Je String die Länge in Bytes und UTF-8, Index 0 ist der leere String</li>
+ *     <li>7 Spalten je Knoten in Preorder: Name, Wert, Zeile, Parent, erstes Kind, nächstes Geschwister, Typ</li>
+ * </ul>
+ *
+ * <p>Die Spalten entsprechen denen der {@link SyntaxTreeArena}. Beim Lesen wird die Datei gemappt und die Spalten
+ * werden ohne Kopie als Arena verwendet, nur die Stringtabelle wird dekodiert. Die Knotenarten ergeben sich aus
+ * den Namen in der Stringtabelle.</p>
+ */
+public final class SyntaxTreeImage {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x54534153; // "SAST"
+    private static final int HEADER_INTS = 7;
+    private static final int COLUMNS = 7;
+
+    private final SyntaxTreeArena tree;
+
+    /**
+     * Der Typ je Knoten als Index in die Stringtabelle, 0 für Knoten ohne Typ.
+     */
+    private final IntBuffer types;
+
+    private final String source;
+
+    private SyntaxTreeImage(SyntaxTreeArena tree, IntBuffer types, String source) {
+        this.tree = tree;
+        this.types = types;
+        this.source = source;
+    }
+
+    /**
+     * Schreibt den Baum mit den Knotentypen aus dem TypeChecker.
+     *
+     * @param nodeTypes Der Typ jedes Knotens, der Index ist der Knoten in der Arena.
+     * @param source    Die Source-Datei, wird beim Erzeugen von Code aus dem Abbild gebraucht
+     */
+    public static void write(Path path, SyntaxTreeArena tree, Type[] nodeTypes, String source) throws IOException {
+        Logger.logDebug("Writing syntax-tree image " + path, SyntaxTreeImage.class);
+
+        // Die Stringtabelle der Arena, ergänzt um Typen und Source-Datei
+        final List<String> strings = new ArrayList<>();
+        final Map<String, Integer> stringIds = new HashMap<>();
+        for (int id = 0; id < tree.getStringCount(); id++) {
+            strings.add(tree.getString(id));
+            stringIds.put(tree.getString(id), id);
+        }
+
+        final int[] typeIds = new int[tree.size()];
+        for (int node = 0; node < typeIds.length; node++) {
+            typeIds[node] = nodeTypes[node] == null ? 0 : stringId(nodeTypes[node].name(), strings, stringIds);
+        }
+        final int sourceId = stringId(source, strings, stringIds);
+
+        final byte[][] encoded = new byte[strings.size()][];
+        int stringBytes = 0;
+        for (int id = 0; id < encoded.length; id++) {
+            encoded[id] = strings.get(id).getBytes(StandardCharsets.UTF_8);
+            stringBytes += 4 + encoded[id].length;
+        }
+        stringBytes = (stringBytes + 3) & ~3;
+
+        final long length = 4L * HEADER_INTS + stringBytes + 4L * COLUMNS * tree.size();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(tree.size()).putInt(tree.getRoot())
+                  .putInt(strings.size()).putInt(sourceId).putInt(stringBytes);
+
+            for (byte[] string : encoded) {
+                buffer.putInt(string.length).put(string);
+            }
+            buffer.position(4 * HEADER_INTS + stringBytes);
+
+            for (int node = 0; node < tree.size(); node++) {
+                buffer.putInt(tree.getNameId(node));
+            }
+            for (int node = 0; node < tree.size(); node++) {
+                buffer.putInt(tree.getValueId(node));
+            }
+            for (int node = 0; node < tree.size(); node++) {
+                buffer.putInt(tree.getLine(node));
+            }
+            for (int node = 0; node < tree.size(); node++) {
+                buffer.putInt(tree.getParent(node));
+            }
+            for (int node = 0; node < tree.size(); node++) {
+                buffer.putInt(tree.getFirstChild(node));
+            }
+            for (int node = 0; node < tree.size(); node++) {
+                buffer.putInt(tree.getNextSibling(node));
+            }
+            for (int typeId : typeIds) {
+                buffer.putInt(typeId);
+            }
+
+            buffer.force();
+        }
+
+        Logger.logDebug("Wrote " + tree.size() + " nodes and " + strings.size() + " strings", SyntaxTreeImage.class);
+    }
+
+    private static int stringId(String string, List<String> strings, Map<String, Integer> stringIds) {
+        final Integer id = stringIds.get(string);
+        if (id != null) {
+            return id;
+        }
+
+        strings.add(string);
+        stringIds.put(string, strings.size() - 1);
+
+        return strings.size() - 1;
+    }
+
+    /**
+     * Mappt die Datei, der Baum liegt danach ohne Kopie in der gemappten Datei.
+     * Der Baum kann nur gelesen werden, Änderungen werfen eine {@link java.nio.ReadOnlyBufferException}.
+     *
+     * @throws IOException Wenn die Datei kein Abbild in dieser Version ist.
+     */
+    public static SyntaxTreeImage read(Path path) throws IOException {
+        Logger.logDebug("Reading syntax-tree image " + path, SyntaxTreeImage.class);
+
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.remaining() < 4 * HEADER_INTS || buffer.getInt() != MAGIC) {
+            throw new IOException(path + " ist kein Syntaxbaum-Abbild");
+        }
+
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(path + " hat Version " + version + ", erwartet wird " + VERSION);
+        }
+
+        final int nodeCount = buffer.getInt();
+        final int root = buffer.getInt();
+        final int stringCount = buffer.getInt();
+        final int sourceId = buffer.getInt();
+        final int stringBytes = buffer.getInt();
+
+        if (buffer.capacity() != 4L * HEADER_INTS + stringBytes + 4L * COLUMNS * nodeCount) {
+            throw new IOException(path + " ist unvollständig");
+        }
+
+        final List<String> strings = new ArrayList<>(stringCount);
+        for (int id = 0; id < stringCount; id++) {
+            final byte[] string = new byte[buffer.getInt()];
+            buffer.get(string);
+            strings.add(new String(string, StandardCharsets.UTF_8));
+        }
+
+        final IntBuffer[] columns = new IntBuffer[COLUMNS];
+        for (int column = 0; column < COLUMNS; column++) {
+            final int offset = 4 * HEADER_INTS + stringBytes + 4 * column * nodeCount;
+            columns[column] = column(buffer, offset, nodeCount);
+        }
+
+        final SyntaxTreeArena tree = SyntaxTreeArena.wrap(columns, root, strings);
+
+        Logger.logDebug("Read " + nodeCount + " nodes and " + stringCount + " strings", SyntaxTreeImage.class);
+
+        return new SyntaxTreeImage(tree, columns[COLUMNS - 1], strings.get(sourceId));
+    }
+
+    private static IntBuffer column(ByteBuffer buffer, int offset, int nodeCount) {
+        return buffer.duplicate()
+                     .position(offset)
+                     .limit(offset + 4 * nodeCount)
+                     .slice()
+                     .order(ByteOrder.LITTLE_ENDIAN)
+                     .asIntBuffer();
+    }
+
+    // Getters
+
+    public SyntaxTreeArena getTree() {
+        return this.tree;
+    }
+
+    /**
+     * @return Der Typ des Knotens oder null, wenn der Knoten keinen Typ hat.
+     */
+    public Type getNodeType(int node) {
+        final int typeId = this.types.get(node);
+
+        return typeId == 0 ? null : Type.fromName(this.tree.getString(typeId));
+    }
+
+    /**
+     * @return Der Typ jedes Knotens wie bei {@link typechecker.TypeChecker#validate(SyntaxTreeArena)}.
+     */
+    public Type[] getNodeTypes() {
+        final Type[] nodeTypes = new Type[this.tree.size()];
+        for (int node = 0; node < nodeTypes.length; node++) {
+            nodeTypes[node] = this.getNodeType(node);
+        }
+
+        return nodeTypes;
+    }
+
+    public String getSource() {
+        return this.source;
+    }
+}
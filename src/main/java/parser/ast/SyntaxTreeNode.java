@@ -1,7 +1,9 @@
 package parser.ast;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -11,15 +13,48 @@ import java.util.stream.Collectors;
 /**
  * Repräsentiert einen Token aus dem Quellprogramm im Parsebaum,
  * oder eine abstrakte Anweisung im Abstrakten Syntaxbaum.
+ *
+ * <p>Größe, Höhe und Hash des Teilbaums werden zwischengespeichert. Jede Änderung über die Setter verwirft
+ * die Werte des Knotens und seiner Vorfahren, andere Bäume bleiben davon unberührt.
+ * Vorfahre ist jeweils der Knoten, dem der Knoten zuletzt als Kind gegeben wurde. Hängt ein Knoten
+ * zusätzlich noch in einem anderen Baum, wird dieser bei Änderungen nicht invalidiert.
+ * Die Liste aus {@link #getChildren()} darf deshalb nicht direkt verändert werden.</p>
  */
 public class SyntaxTreeNode {
 
     private final UUID id;
-    private final int line;
+    private int line;
     private String name;
     private String value;
     private List<SyntaxTreeNode> children = new ArrayList<>();
 
+    /**
+     * Der Knoten, in dessen Kinderliste dieser Knoten zuletzt eingehängt wurde, oder null.
+     */
+    private SyntaxTreeNode parent;
+
+    /**
+     * Unveränderlich, damit parallele Leser nie halb geschriebene Werte sehen.
+     */
+    private static final class Metadata {
+
+        private final long size;
+        private final int height;
+        private final int hash;
+
+        private Metadata(long size, int height, int hash) {
+            this.size = size;
+            this.height = height;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Null, wenn der Teilbaum seit der letzten Berechnung verändert wurde.
+     * Ist der Wert gesetzt, sind auch die Werte aller Nachfahren gesetzt.
+     */
+    private Metadata metadata;
+
     public SyntaxTreeNode(String name, int line) {
         this.id = UUID.randomUUID();
         this.name = name;
@@ -34,6 +69,7 @@ public class SyntaxTreeNode {
         newNode.children = this.children.stream()
                                         .map(SyntaxTreeNode::deepCopy)
                                         .collect(Collectors.toList());
+        newNode.children.forEach(child -> child.parent = newNode);
 
         return newNode;
     }
@@ -45,7 +81,87 @@ public class SyntaxTreeNode {
     }
 
     public long size() {
-        return 1 + this.children.stream().mapToLong(SyntaxTreeNode::size).sum();
+        return this.metadata().size;
+    }
+
+    /**
+     * Die Anzahl der Ebenen im Teilbaum, ein Blatt hat Höhe 1.
+     */
+    public int height() {
+        return this.metadata().height;
+    }
+
+    /**
+     * Berechnet die fehlenden Werte in Postorder ohne Rekursion, damit auch tiefe Bäume den Stack nicht sprengen.
+     * Teilbäume mit gesetzten Werten werden nicht betreten.
+     */
+    private Metadata metadata() {
+        final Metadata cached = this.metadata;
+        if (cached != null) {
+            return cached;
+        }
+
+        final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
+        stack.push(this);
+
+        while (!stack.isEmpty()) {
+            final SyntaxTreeNode current = stack.peek();
+
+            boolean childrenReady = true;
+            for (SyntaxTreeNode child : current.children) {
+                if (child.metadata == null) {
+                    stack.push(child);
+                    childrenReady = false;
+                }
+            }
+
+            if (childrenReady) {
+                stack.pop();
+                current.metadata = current.computeMetadata();
+            }
+        }
+
+        return this.metadata;
+    }
+
+    /**
+     * Setzt voraus, dass die Werte aller Kinder gesetzt sind.
+     */
+    private Metadata computeMetadata() {
+        long size = 1;
+        int height = 0;
+        int childrenHash = 1; // Wie List.hashCode()
+        for (SyntaxTreeNode child : this.children) {
+            final Metadata childMetadata = child.metadata;
+
+            size += childMetadata.size;
+            height = Math.max(height, childMetadata.height);
+            childrenHash = 31 * childrenHash + childMetadata.hash;
+        }
+
+        return new Metadata(size, height + 1, Objects.hash(this.line, this.name, this.value, childrenHash));
+    }
+
+    /**
+     * Verwirft die Werte entlang der Vorfahren. Ein Knoten ohne Werte hat auch keine gültigen Vorfahren mehr,
+     * dort kann aufgehört werden.
+     */
+    private void modified() {
+        for (SyntaxTreeNode node = this; node != null && node.metadata != null; node = node.parent) {
+            node.metadata = null;
+        }
+    }
+
+    private void adopt(SyntaxTreeNode child) {
+        child.parent = this;
+    }
+
+    private void release(List<SyntaxTreeNode> oldChildren) {
+        for (SyntaxTreeNode child : oldChildren) {
+            if (child.parent == this) {
+                child.parent = null;
+            }
+        }
     }
 
     public String getValue() {
@@ -54,27 +170,37 @@ public class SyntaxTreeNode {
 
     public void setValue(String value) {
         this.value = value;
+        this.modified();
     }
 
     public int getLine() {
         return this.line;
     }
 
+    public void setLine(int line) {
+        this.line = line;
+        this.modified();
+    }
+
     public List<SyntaxTreeNode> getChildren() {
         return this.children;
     }
 
     public void setChildren(List<SyntaxTreeNode> children) {
+        this.release(this.children);
         this.children = children;
+        this.children.forEach(this::adopt);
+        this.modified();
     }
 
     public void setChildren(SyntaxTreeNode... children) {
-        this.children = new ArrayList<>();
-        this.children.addAll(Arrays.asList(children));
+        this.setChildren(new ArrayList<>(Arrays.asList(children)));
     }
 
     public void addChild(SyntaxTreeNode syntaxTreeNode) {
         this.children.add(syntaxTreeNode);
+        this.adopt(syntaxTreeNode);
+        this.modified();
     }
 
     public String getName() {
@@ -83,6 +209,7 @@ public class SyntaxTreeNode {
 
     public void setName(String name) {
         this.name = name;
+        this.modified();
     }
 
     public UUID getId() {
@@ -123,7 +250,7 @@ public class SyntaxTreeNode {
     @Override
     @SuppressWarnings("NonFinalFieldReferencedInHashCode")
     public int hashCode() {
-        return Objects.hash(this.line, this.name, this.value, this.children);
+        return this.metadata().hash;
     }
 
     @Override
@@ -136,6 +263,10 @@ public class SyntaxTreeNode {
             return false;
         }
         final SyntaxTreeNode that = (SyntaxTreeNode) o;
+        if (this.hashCode() != that.hashCode()) {
+            // Zwischengespeichert, ungleiche Teilbäume werden meist ohne Abstieg erkannt
+            return false;
+        }
         return this.line == that.line && this.name.equals(that.name)
                && this.value.equals(that.value) && this.children.equals(that.children);
     }
@@ -2,261 +2,173 @@ package parser.ast;
 
 import util.Logger;
 
-import java.util.Collections;
-import java.util.Map;
-import java.util.Set;
-
 /**
- * Ein SyntaxTree wird an bestimmten Stellen rotiert, sodass bestimmte Eigenschaften
+ * Ein SyntaxTree wird an bestimmten Stellen umgebaut, sodass bestimmte Eigenschaften
  * korrekt repräsentiert werden (Operatorpräzedenz, Linkassoziativität etc.).
+ *
+ * <p>Der Parser liefert Ausdrücke als rechtslastige Kette aus Operanden und Operatoren.
+ * Diese wird per Precedence-Climbing direkt in den fertigen Ausdrucksbaum umgebaut,
+ * die Knoten der Kette werden dabei als Operatorknoten wiederverwendet.</p>
  */
 public final class SyntaxTreeRebalancer {
 
-    /**
-     * Jedem Operator wird eine Priorität zugewiesen, 0 ist die höchste.
-     */
-    private static final Map<String, Integer> operatorPriority;
-
-    private static final Set<String> unaryOperators;
-    private static final Set<String> commutativeOperators;
-
-    //!: Operatorpräzedenz
-    // 0 - Unary: -, +, !
-    // 1 - Multiplicative: *, /, %
-    // 2 - Additive: +, -
-    // 3 - Comparative: <, <=, >, >=
-    // 4 - Equality: ==, !=
-    // 5 - Logical AND: &&
-    // 6 - Logical OR: ||
-    static {
-        operatorPriority = Map.ofEntries(Map.entry("NOT", 0),
-                                         Map.entry("MUL", 1),
-                                         Map.entry("DIV", 1),
-                                         Map.entry("MOD", 1),
-                                         Map.entry("ADD", 2),
-                                         Map.entry("SUB", 2),
-                                         Map.entry("LESS", 3),
-                                         Map.entry("LESS_EQUAL", 3),
-                                         Map.entry("GREATER", 3),
-                                         Map.entry("GREATER_EQUAL", 3),
-                                         Map.entry("EQUAL", 4),
-                                         Map.entry("NOT_EQUAL", 4),
-                                         Map.entry("AND", 5),
-                                         Map.entry("OR", 6));
-
-        unaryOperators = Set.of("NOT", "ADD", "SUB");
-
-        commutativeOperators = Set.of("ADD", "MUL", "EQUAL", "NOT_EQUAL", "AND", "OR");
-    }
-
     private SyntaxTreeRebalancer() {}
 
     /**
-     * Ein Abstrakter Syntaxbaum wird umbalanciert.
+     * Ein Abstrakter Syntaxbaum wird umbalanciert, in einem Durchlauf.
      *
      * <ul>
      *     <li>Baum wird gespiegelt, damit die Ausdrücke vorwárts laufen (Tiefste Ebenen müssen nach links)</li>
-     *     <li>Linkspräzedenz wird durch Links-Rotationen durchgesetzt</li>
-     *     <li>Operatorpräzedenz wird durch Rechtsrotationen durchgesetzt</li>
+     *     <li>Operatorketten werden nach Operatorpräzedenz und Linkspräzedenz zu Ausdrücken aufgebaut</li>
      *     <li>Kommutative Ausdrücke werden gespiegelt, damit die tiefen Teilausdrücke zuerst berechnet werden</li>
      * </ul>
      */
     public static void rebalance(SyntaxTree abstractSyntaxTree) {
+        final SyntaxTreeArena arena = SyntaxTreeArena.fromTree(abstractSyntaxTree);
+        rebalance(arena);
+        arena.writeTo(abstractSyntaxTree);
+    }
+
+    public static void rebalance(SyntaxTreeArena abstractSyntaxTree) {
         Logger.logDebug("Beginning rebalancing of syntax-tree", SyntaxTreeRebalancer.class);
 
-        flip(abstractSyntaxTree);
-        leftPrecedence(abstractSyntaxTree);
-        operatorPrecedence(abstractSyntaxTree);
-        flipCommutativeExpr(abstractSyntaxTree);
+        // Es werden keine Knoten angelegt, die Größen aller Teilbäume passen also in ein Array
+        final int[] sizes = new int[abstractSyntaxTree.size()];
+        rebalance(abstractSyntaxTree, abstractSyntaxTree.getRoot(), sizes);
 
         Logger.logDebug("Successfully rebalanced syntax-tree", SyntaxTreeRebalancer.class);
-        Logger.logDebugSupplier(() -> abstractSyntaxTree.printToImage("AbstractSyntaxTree"), SyntaxTreeRebalancer.class);
+        Logger.logDebugSupplier(() -> abstractSyntaxTree.toTree().printToImage("AbstractSyntaxTree"), SyntaxTreeRebalancer.class);
     }
 
-    /**
-     * Baum spiegeln, damit höhere Ebenen links sind und EXPR vorwärts laufen.
-     */
-    public static void flip(SyntaxTree abstractSyntaxTree) {
-        Logger.logDebug(" :: Flipping tree for ltr evaluation", SyntaxTreeRebalancer.class);
-        flip(abstractSyntaxTree.getRoot());
-        Logger.logDebug(" :: Successfully flipped tree", SyntaxTreeRebalancer.class);
-    }
+    private static void rebalance(SyntaxTreeArena tree, int root, int[] sizes) {
+        tree.reverseChildren(root);
 
-    private static void flip(SyntaxTreeNode root) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            flip(child);
+        for (int child = tree.getFirstChild(root); child != SyntaxTreeArena.NONE; child = tree.getNextSibling(child)) {
+            rebalance(tree, child, sizes);
         }
 
-        Collections.reverse(root.getChildren());
-    }
-
-    /**
-     * Kommutative Ausdrücke werden gespiegelt, damit die tiefen Teilexpressions zuerst berechnet werden.
-     */
-    public static void flipCommutativeExpr(SyntaxTree abstractSyntaxTree) {
-        Logger.logDebug(" :: Flipping commutative expressions for stack efficiency", SyntaxTreeRebalancer.class);
-        flipCommutativeExpr(abstractSyntaxTree.getRoot());
-        Logger.logDebug(" :: Succesfully optimized stack efficiency", SyntaxTreeRebalancer.class);
-    }
-
-    private static void flipCommutativeExpr(SyntaxTreeNode root) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            flipCommutativeExpr(child);
+        if (isOperatorChain(tree, root)) {
+            buildExpression(tree, root, sizes);
         }
 
-        if ("expr".equals(root.getName()) && commutativeOperators.contains(root.getValue())) {
-            // Ausdruck ist kommutativ
-
-            if (root.getChildren().size() == 2 && root.getChildren().get(0).size() < root.getChildren().get(1).size()) {
-                // Make the bigger subtree the left one
-
-                Logger.logInfo("Flipping node \"" + root.getName() + ": " + root.getValue() + "\"\n"
-                               + root.nodePrint("\t\t"), SyntaxTreeRebalancer.class);
-
-                Collections.reverse(root.getChildren());
-            }
+        int size = 1;
+        for (int child = tree.getFirstChild(root); child != SyntaxTreeArena.NONE; child = tree.getNextSibling(child)) {
+            size += sizes[child];
         }
+
+        sizes[root] = size;
     }
 
     /**
-     * Führt Linksrotationen durch für Linkspräzedenz.
-     * Es werden EXPR-Nodes (2 Childs, 1 davon EXPR, Kein Wert) solange wie möglich linksrotiert.
+     * Baum spiegeln, damit höhere Ebenen links sind und EXPR vorwärts laufen.
      */
-    public static void leftPrecedence(SyntaxTree abstractSyntaxTree) {
-        Logger.logDebug(" :: Left-rotating expressions for left-precedence", SyntaxTreeRebalancer.class);
-        leftPrecedence(abstractSyntaxTree.getRoot());
-        Logger.logDebug(" :: Successfully rotated expressions for left-precedence", SyntaxTreeRebalancer.class);
+    public static void flip(SyntaxTree abstractSyntaxTree) {
+        final SyntaxTreeArena arena = SyntaxTreeArena.fromTree(abstractSyntaxTree);
+        flip(arena);
+        arena.writeTo(abstractSyntaxTree);
     }
 
-    private static void leftPrecedence(SyntaxTreeNode root) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            leftPrecedence(child);
-        }
-
-        final SyntaxTreeNode expr = getExpr(root);
+    public static void flip(SyntaxTreeArena abstractSyntaxTree) {
+        Logger.logDebug(" :: Flipping tree for ltr evaluation", SyntaxTreeRebalancer.class);
+        flip(abstractSyntaxTree, abstractSyntaxTree.getRoot());
+        Logger.logDebug(" :: Successfully flipped tree", SyntaxTreeRebalancer.class);
+    }
 
-        if (expr == null || root.getChildren().size() != 2 || !root.getValue().isEmpty()) {
-            return;
+    private static void flip(SyntaxTreeArena tree, int root) {
+        for (int child = tree.getFirstChild(root); child != SyntaxTreeArena.NONE; child = tree.getNextSibling(child)) {
+            flip(tree, child);
         }
 
-        boolean change;
-
-        do {
-            change = specialLeftRotate(root);
-        } while (change);
+        tree.reverseChildren(root);
     }
 
     /**
-     * Führt eine Linksrotation durch.
-     * Diese ist nicht regulär, da der Operator linksvererbt wird.
-     *
-     * @return Es wird false zurückgegeben, sobald keine weitere Rotation mehr möglich ist.
+     * Eine Operatorkette hat nach dem Spiegeln die Form
+     * {@code root[operand, expr: op[operand, expr: op[operand, ...]]]}, die Wurzel hat keinen Wert.
+     * Das letzte Kettenglied hat nur den Operanden als Kind.
      */
-    private static boolean specialLeftRotate(SyntaxTreeNode root) {
-        Logger.logInfo("Special-left-rotation around node \"" + root.getName() + ": " + root.getValue() + "\"\n"
-                       + root.nodePrint("\t\t"), SyntaxTreeRebalancer.class);
-
-        final SyntaxTreeNode left = root.getChildren().get(0);
-        final SyntaxTreeNode right = root.getChildren().get(1);
-
-        // Verhindert Wurzel mit nur einem EXPR-Child (nach oben "hängende" Wurzel)
-        if (endOfExpr(right)) {
-            root.setName(right.getName());
-            root.setValue(right.getValue());
-            root.setChildren(left, right.getChildren().get(0));
-            return false; // Braucht keine weitere Rotation
-        }
-
-        final SyntaxTreeNode insertLeft = new SyntaxTreeNode(root.getName(), root.getLine());
-        insertLeft.setValue(right.getValue()); // Operation wird linksvererbt
-        insertLeft.setChildren(left, right.getChildren().get(0));
-
-        root.setName(right.getName()); // Value wird nicht gesetzt, da ans linke Kind vererbt
-        root.setChildren(insertLeft, right.getChildren().get(1));
-
-        return true;
-    }
-
-    // Findet die 1te (linkeste) expr
-    private static SyntaxTreeNode getExpr(SyntaxTreeNode root) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            if ("expr".equals(child.getName())) {
-                return child;
-            }
+    private static boolean isOperatorChain(SyntaxTreeArena tree, int root) {
+        if (tree.hasValue(root) || tree.getChildCount(root) != 2) {
+            return false;
         }
 
-        return null;
-    }
+        final int tail = tree.getChild(root, 1);
 
-    private static boolean endOfExpr(SyntaxTreeNode root) {
-        return root.getChildren().size() == 1;
+        return tree.getKind(tail) == NodeKind.EXPR && tree.hasValue(tail);
     }
 
     /**
-     * Führt Rechtsrotationen durch für Operatorpräzedenz.
-     * Es wird solange rechtsrotiert, bis alle Operatoren mit hoher Priorität tiefer stehen
-     * als die Operatoren mit niedriger Priorität.
+     * Baut eine Operatorkette per Precedence-Climbing zu einem Ausdruck um.
+     * Gleiche Priorität wird zuerst links zusammengefasst (Linkspräzedenz).
+     * Alle Operatorknoten bekommen die Zeile der Kettenwurzel, die Wurzel übernimmt den obersten Operator.
      */
-    public static void operatorPrecedence(SyntaxTree abstractSyntaxTree) {
-        Logger.logDebug(" :: Right-rotating expressions for operator-precedence", SyntaxTreeRebalancer.class);
-
-        boolean changed;
+    private static void buildExpression(SyntaxTreeArena tree, int root, int[] sizes) {
+        Logger.logInfoSupplier(() -> "Building expression from operator-chain \"" + tree.getName(root) + "\"\n"
+                                     + tree.nodePrint(root, "\t\t"), SyntaxTreeRebalancer.class);
 
-        do {
-            changed = operatorPrecedence(abstractSyntaxTree.getRoot());
-        } while (changed);
+        int length = 1;
+        for (int tail = tree.getChild(root, 1); tree.getChildCount(tail) == 2; tail = tree.getChild(tail, 1)) {
+            length++;
+        }
 
-        Logger.logDebug(" :: Rotated expressions for operator-precedence", SyntaxTreeRebalancer.class);
-    }
+        // Die Kette vorher ablaufen, da setChildren die Geschwisterketten umhängt
+        final int[] operands = new int[length + 1];
+        final int[] operators = new int[length];
+        operands[0] = tree.getChild(root, 0);
+        int tail = tree.getChild(root, 1);
+        for (int i = 0; i < length; i++) {
+            operators[i] = tail;
+            operands[i + 1] = tree.getFirstChild(tail);
+            tail = tree.getNextSibling(operands[i + 1]);
+        }
 
-    public static boolean operatorPrecedence(SyntaxTreeNode root) {
-        boolean changed = false;
+        // Operanden- und Operatorstack, die Operanden bleiben in Reihenfolge
+        final int[] operandStack = new int[length + 1];
+        final int[] operatorStack = new int[length];
+        int operandCount = 0;
+        int operatorCount = 0;
 
-        for (SyntaxTreeNode child : root.getChildren()) {
-            changed = changed || operatorPrecedence(child);
+        operandStack[operandCount++] = operands[0];
+        for (int i = 0; i < length; i++) {
+            final int priority = tree.getOperator(operators[i]).getPriority();
 
-            if (preceding(root, child)) {
-                simpleRightRotate(root);
-                changed = true;
+            while (operatorCount > 0 && tree.getOperator(operatorStack[operatorCount - 1]).getPriority() <= priority) {
+                operandCount--;
+                operandStack[operandCount - 1] = reduce(tree, operatorStack[--operatorCount], operandStack[operandCount - 1],
+                                                        operandStack[operandCount], tree.getLine(root), sizes);
             }
-        }
 
-        return changed;
-    }
-
-    /**
-     * Ermittelt, ob der ParentNode höhere Priorität als der ChildNode hat.
-     */
-    private static boolean preceding(SyntaxTreeNode parent, SyntaxTreeNode child) {
-        if (!"expr".equals(parent.getName()) || parent.getValue().isEmpty()
-            || !"expr".equals(child.getName()) || child.getValue().isEmpty()) {
-            return false;
+            operatorStack[operatorCount++] = operators[i];
+            operandStack[operandCount++] = operands[i + 1];
         }
 
-        // Unary operators have the highest precedence
-        if (child.getChildren().size() == 1 && unaryOperators.contains(child.getValue())) {
-            return false;
+        while (operatorCount > 0) {
+            operandCount--;
+            operandStack[operandCount - 1] = reduce(tree, operatorStack[--operatorCount], operandStack[operandCount - 1],
+                                                    operandStack[operandCount], tree.getLine(root), sizes);
         }
 
-        // Less equals higher
-        {
-            return operatorPriority.get(parent.getValue()) < operatorPriority.get(child.getValue());
-        }
+        tree.replaceWith(root, operandStack[0]);
     }
 
-    private static void simpleRightRotate(SyntaxTreeNode root) {
-        Logger.logInfo("Simple right-rotation around node \"" + root.getName() + ": " + root.getValue() + "\"\n"
-                       + root.nodePrint("\t\t"), SyntaxTreeRebalancer.class);
-
-        final SyntaxTreeNode left = root.getChildren().get(0);
-        final SyntaxTreeNode right = root.getChildren().get(1);
+    /**
+     * Hängt beide Operanden an den Operatorknoten.
+     * Bei kommutativen Operatoren kommt der größere Teilbaum nach links, damit dieser zuerst berechnet wird
+     * und der Stack klein bleibt.
+     */
+    private static int reduce(SyntaxTreeArena tree, int operator, int left, int right, int line, int[] sizes) {
+        if (tree.getOperator(operator).isCommutative() && sizes[left] < sizes[right]) {
+            Logger.logInfoSupplier(() -> "Flipping node \"" + tree.getName(operator) + ": " + tree.getValue(operator) + "\"",
+                                   SyntaxTreeRebalancer.class);
+
+            tree.setChildren(operator, right, left);
+        } else {
+            tree.setChildren(operator, left, right);
+        }
 
-        final SyntaxTreeNode insertRight = new SyntaxTreeNode(root.getName(), root.getLine());
-        insertRight.setValue(root.getValue());
-        insertRight.setChildren(left.getChildren().get(1), right);
+        tree.setLine(operator, line);
+        sizes[operator] = 1 + sizes[left] + sizes[right];
 
-        root.setName(left.getName());
-        root.setValue(left.getValue());
-        root.setChildren(left.getChildren().get(0), insertRight);
+        return operator;
     }
 }
@@ -0,0 +1,12 @@
+package parser.ast;
+
+/**
+ * Wird von {@link SyntaxTreeWalker} für jeden Knoten einer {@link SyntaxTreeArena} aufgerufen.
+ * {@link #enter} kommt vor den Kindern (Preorder), {@link #exit} nach den Kindern (Postorder).
+ */
+public interface SyntaxTreeVisitor {
+
+    default void enter(SyntaxTreeArena tree, int node) {}
+
+    default void exit(SyntaxTreeArena tree, int node) {}
+}
@@ -0,0 +1,59 @@
+package parser.ast;
+
+import java.util.Arrays;
+
+/**
+ * Läuft mit einem expliziten Stack über eine {@link SyntaxTreeArena}, die Tiefe des Baums ist also egal.
+ * Mehrere {@link SyntaxTreeVisitor}s teilen sich einen Durchlauf, je Knoten werden sie in der
+ * übergebenen Reihenfolge aufgerufen.
+ *
+ * <p>Die Visitor dürfen den Baum nicht verändern.</p>
+ */
+public final class SyntaxTreeWalker {
+
+    private SyntaxTreeWalker() {}
+
+    public static void walk(SyntaxTreeArena tree, SyntaxTreeVisitor... visitors) {
+        walk(tree, tree.getRoot(), visitors);
+    }
+
+    /**
+     * Besucht den Teilbaum unter root, die Kinder von links nach rechts.
+     */
+    public static void walk(SyntaxTreeArena tree, int root, SyntaxTreeVisitor... visitors) {
+        // Nicht-negative Einträge werden betreten, ~node wird verlassen
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = root;
+
+        while (size > 0) {
+            final int top = stack[--size];
+
+            if (top < 0) {
+                for (SyntaxTreeVisitor visitor : visitors) {
+                    visitor.exit(tree, ~top);
+                }
+                continue;
+            }
+
+            for (SyntaxTreeVisitor visitor : visitors) {
+                visitor.enter(tree, top);
+            }
+
+            final int childCount = tree.getChildCount(top);
+            if (size + childCount + 1 > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(2 * stack.length, size + childCount + 1));
+            }
+
+            stack[size++] = ~top;
+
+            // Rückwärts auf den Stack, damit das erste Kind zuerst besucht wird
+            int child = tree.getFirstChild(top);
+            for (int i = size + childCount - 1; i >= size; i--) {
+                stack[i] = child;
+                child = tree.getNextSibling(child);
+            }
+            size += childCount;
+        }
+    }
+}
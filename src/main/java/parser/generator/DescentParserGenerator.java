@@ -0,0 +1,394 @@
+package parser.generator;
+
+import parser.ParsingTable;
+import parser.grammar.Grammar;
+import parser.grammar.GrammarAnalyzer;
+import parser.grammar.GrammarRule;
+import util.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Erzeugt aus einer Grammatik einen Recursive-Descent-Parser als Java-Quelltext.
+ * Jedes Nichtterminal bekommt eine Methode, die Produktionen werden per switch über int-Token-Ids ausgewählt.
+ * <p>
+ * Der erzeugte Parser baut denselben Parsebaum wie der {@link parser.StupsParser},
+ * dieser bleibt als Fallback für Grammatiken bestehen, für die kein Parser erzeugt wurde.
+ * Aufruf über den Gradle-Task generateDescentParser.
+ */
+public final class DescentParserGenerator {
+
+    private static final String END_SYMBOL = "$";
+
+    private final Grammar grammar;
+    private final ParsingTable table;
+
+    // Terminale inklusive $ am Ende, die Indizes sind die Token-Ids im erzeugten Parser
+    private final List<String> terminals = new ArrayList<>();
+    private final Map<String, String> terminalConstants = new HashMap<>();
+    private final Map<String, String> nonterminalMethods = new HashMap<>();
+
+    private DescentParserGenerator(Grammar grammar) {
+        this.grammar = grammar;
+        this.table = GrammarAnalyzer.fromGrammar(grammar).getTable();
+
+        this.terminals.addAll(grammar.getTerminalList());
+        this.terminals.add(END_SYMBOL);
+
+        final Set<String> usedNames = new HashSet<>();
+        for (int term = 0; term < this.terminals.size(); term++) {
+            this.terminalConstants.put(this.terminals.get(term),
+                                       uniqueName("T_" + identifier(this.terminals.get(term)), term, usedNames));
+        }
+        for (String nterm : grammar.getNonterminalList()) {
+            this.nonterminalMethods.put(nterm, uniqueName("parse" + camelCase(nterm), 0, usedNames));
+        }
+    }
+
+    public static DescentParserGenerator fromGrammar(Grammar grammar) {
+        return new DescentParserGenerator(grammar);
+    }
+
+    /**
+     * Erzeugt den Parser für eine Grammatik-Datei.
+     *
+     * @param args Pfad zur Grammatik, Pfad der erzeugten Java-Datei.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: DescentParserGenerator <grammar> <output.java>");
+        }
+
+        final Path output = Paths.get(args[1]);
+        final String fileName = output.getFileName().toString();
+        final String className = fileName.substring(0, fileName.length() - ".java".length());
+
+        final DescentParserGenerator generator = DescentParserGenerator.fromGrammar(Grammar.fromFile(Paths.get(args[0])));
+        Files.writeString(output, generator.generate("parser", className));
+
+        Logger.logDebug("Generated " + output, DescentParserGenerator.class);
+    }
+
+    /**
+     * Eindeutige Kennung der Grammatik, über die der erzeugte Parser prüft, ob er zur Grammatik passt.
+     * Die Reihenfolge der Symbole und Regeln spielt keine Rolle.
+     */
+    public static String fingerprint(Grammar grammar) {
+        final StringBuilder description = new StringBuilder();
+
+        description.append(new TreeSet<>(grammar.getTerminals())).append('\n');
+        description.append(new TreeSet<>(grammar.getNonterminals())).append('\n');
+        for (String rule : grammar.getRules().stream()
+                                  .map(GrammarRule::toString)
+                                  .collect(Collectors.toCollection(TreeSet::new))) {
+            description.append(rule).append('\n');
+        }
+
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256")
+                                             .digest(description.toString().getBytes(StandardCharsets.UTF_8));
+            final StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String identifier(String symbol) {
+        final StringBuilder name = new StringBuilder();
+
+        for (char c : symbol.toCharArray()) {
+            name.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+
+        return name.toString();
+    }
+
+    private static String camelCase(String symbol) {
+        final StringBuilder name = new StringBuilder();
+
+        for (String part : identifier(symbol).split("_")) {
+            if (!part.isEmpty()) {
+                name.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1));
+            }
+        }
+
+        return name.toString();
+    }
+
+    private static String uniqueName(String name, int suffix, Set<String> usedNames) {
+        String unique = name;
+        int counter = suffix;
+
+        while (!usedNames.add(unique)) {
+            unique = name + "_" + counter++;
+        }
+
+        return unique;
+    }
+
+    // Generation
+
+    public String generate(String packageName, String className) {
+        final StringBuilder out = new StringBuilder();
+
+        out.append("package ").append(packageName).append(";\n\n")
+           .append("import org.antlr.v4.runtime.Token;\n")
+           .append("import org.antlr.v4.runtime.Vocabulary;\n")
+           .append("import parser.ast.SyntaxTree;\n")
+           .append("import parser.ast.SyntaxTreeNode;\n")
+           .append("import parser.generator.DescentParserGenerator;\n")
+           .append("import parser.grammar.Grammar;\n")
+           .append("import util.Logger;\n\n")
+           .append("import java.util.HashMap;\n")
+           .append("import java.util.List;\n")
+           .append("import java.util.Map;\n\n")
+           .append("/**\n")
+           .append(" * Recursive-Descent-Parser, erzeugt von {@link DescentParserGenerator}.\n")
+           .append(" * Nicht von Hand bearbeiten, sondern nach Änderungen der Grammatik mit\n")
+           .append(" * \"gradle generateDescentParser\" neu erzeugen.\n")
+           .append(" */\n")
+           .append("public final class ").append(className).append(" {\n\n");
+
+        this.generateConstants(out);
+        this.generateFrame(out, className);
+
+        for (String nterm : this.grammar.getNonterminalList()) {
+            this.generateMethod(out, nterm);
+        }
+
+        out.append("}\n");
+
+        return out.toString();
+    }
+
+    private void generateConstants(StringBuilder out) {
+        out.append("    private static final String FINGERPRINT = \"").append(fingerprint(this.grammar)).append("\";\n\n");
+
+        out.append("    private static final String[] TERMINALS = {");
+        for (int term = 0; term < this.terminals.size(); term++) {
+            out.append(term % 6 == 0 ? "\n            " : " ")
+               .append('"').append(escape(this.terminals.get(term))).append("\",");
+        }
+        out.append("\n    };\n\n");
+
+        for (int term = 0; term < this.terminals.size(); term++) {
+            out.append("    private static final int ").append(this.terminalConstants.get(this.terminals.get(term)))
+               .append(" = ").append(term).append(";\n");
+        }
+        out.append("    private static final int T_UNKNOWN = -1;\n\n");
+    }
+
+    private void generateFrame(StringBuilder out, String className) {
+        out.append("    private final List<? extends Token> token;\n")
+           .append("    private final Vocabulary voc;\n")
+           .append("    private final int[] lookahead;\n")
+           .append("    private final SyntaxTree tree;\n")
+           .append("    private int position;\n\n")
+
+           .append("    private ").append(className).append("(List<? extends Token> token, Vocabulary voc) {\n")
+           .append("        this.token = token;\n")
+           .append("        this.voc = voc;\n")
+           .append("        this.tree = new SyntaxTree(new SyntaxTreeNode(Grammar.START_SYMBOL, 0));\n\n")
+           .append("        final Map<String, Integer> terminalIds = new HashMap<>();\n")
+           .append("        for (int term = 0; term < TERMINALS.length; term++) {\n")
+           .append("            terminalIds.put(TERMINALS[term], term);\n")
+           .append("        }\n\n")
+           .append("        // Token-Typ des Lexers -> Terminal-Id der Grammatik\n")
+           .append("        final int[] typeIds = new int[voc.getMaxTokenType() + 1];\n")
+           .append("        for (int type = 0; type < typeIds.length; type++) {\n")
+           .append("            final String name = voc.getSymbolicName(type);\n")
+           .append("            typeIds[type] = name == null ? T_UNKNOWN : terminalIds.getOrDefault(name, T_UNKNOWN);\n")
+           .append("        }\n\n")
+           .append("        this.lookahead = new int[token.size() + 1];\n")
+           .append("        for (int i = 0; i < token.size(); i++) {\n")
+           .append("            final int type = token.get(i).getType();\n")
+           .append("            this.lookahead[i] = type >= 0 && type < typeIds.length ? typeIds[type] : T_UNKNOWN;\n")
+           .append("        }\n")
+           .append("        this.lookahead[token.size()] = ").append(this.terminalConstants.get(END_SYMBOL)).append(";\n")
+           .append("    }\n\n")
+
+           .append("    /**\n")
+           .append("     * Der Parser passt nur zu der Grammatik, aus der er erzeugt wurde.\n")
+           .append("     */\n")
+           .append("    public static boolean isGeneratedFrom(Grammar grammar) {\n")
+           .append("        return FINGERPRINT.equals(DescentParserGenerator.fingerprint(grammar));\n")
+           .append("    }\n\n")
+
+           .append("    public static SyntaxTree parse(List<? extends Token> token, Vocabulary voc) {\n")
+           .append("        Logger.logDebug(\"Beginning program-parsing\", ").append(className).append(".class);\n\n")
+           .append("        final ").append(className).append(" parser = new ").append(className).append("(token, voc);\n")
+           .append("        parser.").append(this.nonterminalMethods.get(Grammar.START_SYMBOL))
+           .append("(parser.tree.getRoot());\n\n")
+           .append("        Logger.logDebug(\"Successfully parsed the program and built the parse-tree\", ")
+           .append(className).append(".class);\n\n")
+           .append("        return parser.tree;\n")
+           .append("    }\n\n")
+
+           // Hilfsmethoden, Zeilen und Werte werden wie im StupsParser beim Expandieren vergeben
+           .append("    private int line() {\n")
+           .append("        return this.position < this.token.size() ? this.token.get(this.position).getLine() : 0;\n")
+           .append("    }\n\n")
+           .append("    private SyntaxTreeNode child(SyntaxTreeNode parent, String name, int line) {\n")
+           .append("        final SyntaxTreeNode node = new SyntaxTreeNode(name, line);\n")
+           .append("        parent.addChild(node);\n\n")
+           .append("        return node;\n")
+           .append("    }\n\n")
+           .append("    private void value(SyntaxTreeNode node, int offset) {\n")
+           .append("        if (this.position + offset < this.token.size()) {\n")
+           .append("            node.setValue(this.token.get(this.position + offset).getText());\n")
+           .append("        }\n")
+           .append("    }\n\n")
+           .append("    private String currentSymbol() {\n")
+           .append("        return this.position < this.token.size()\n")
+           .append("               ? this.voc.getSymbolicName(this.token.get(this.position).getType())\n")
+           .append("               : \"").append(END_SYMBOL).append("\";\n")
+           .append("    }\n\n")
+           .append("    private void match(int terminal) {\n")
+           .append("        if (this.lookahead[this.position] != terminal) {\n")
+           .append("            Logger.logError(\"Line \" + this.line() + \" Syntaxerror: Expected \" + TERMINALS[terminal]\n")
+           .append("                            + \" but found \" + this.currentSymbol(), ").append(className).append(".class);\n")
+           .append("            Logger.logError(StupsParser.printSourceLine(this.line(), this.token), ")
+           .append(className).append(".class);\n\n")
+           .append("            throw new ParseException(\"Invalid terminal on stack: \" + TERMINALS[terminal], this.tree);\n")
+           .append("        }\n\n")
+           .append("        this.position++;\n")
+           .append("    }\n\n")
+           .append("    private ParseException noProduction(String nonterminal) {\n")
+           .append("        Logger.logError(\"Line \" + this.line() + \" Syntaxerror: Didn't expect \" + this.currentSymbol(),\n")
+           .append("                        ").append(className).append(".class);\n")
+           .append("        Logger.logError(StupsParser.printSourceLine(this.line(), this.token), ")
+           .append(className).append(".class);\n\n")
+           .append("        return new ParseException(\"No prod. for nonterminal \" + nonterminal + \", terminal \"\n")
+           .append("                                  + this.currentSymbol(), this.tree);\n")
+           .append("    }\n");
+    }
+
+    /**
+     * Eine Methode pro Nichtterminal. Endet eine Produktion mit demselben Nichtterminal (z.B. block_cnt),
+     * wird statt der Rekursion eine Schleife erzeugt, damit lange Programme nicht den Stack füllen.
+     */
+    private void generateMethod(StringBuilder out, String nterm) {
+        final int row = this.table.getRowId(nterm);
+
+        // Produktion -> Terminale, bei denen sie ausgewählt wird, in Spaltenreihenfolge
+        final Map<Integer, List<String>> cases = new LinkedHashMap<>();
+        for (String term : this.terminals) {
+            final int column = this.table.getColumnId(term);
+            final int prod = row == -1 || column == -1 ? -1 : this.table.get(row, column);
+
+            if (prod != -1) {
+                cases.computeIfAbsent(prod, key -> new ArrayList<>()).add(term);
+            }
+        }
+
+        final boolean loop = cases.keySet().stream()
+                                  .map(prod -> symbols(this.table.getProduction(prod)))
+                                  .anyMatch(symbols -> symbols[symbols.length - 1].equals(nterm));
+
+        out.append("\n    private void ").append(this.nonterminalMethods.get(nterm)).append("(SyntaxTreeNode node) {\n");
+
+        String indent = "        ";
+        if (loop) {
+            out.append(indent).append("SyntaxTreeNode current = node;\n\n")
+               .append(indent).append("while (true) {\n");
+            indent += "    ";
+        }
+        final String parent = loop ? "current" : "node";
+
+        out.append(indent).append("final int line = this.line();\n\n")
+           .append(indent).append("switch (this.lookahead[this.position]) {\n");
+
+        for (Map.Entry<Integer, List<String>> entry : cases.entrySet()) {
+            final List<String> labels = entry.getValue();
+            for (int i = 0; i < labels.size(); i++) {
+                out.append(indent).append("    case ").append(this.terminalConstants.get(labels.get(i)))
+                   .append(i == labels.size() - 1 ? ": {\n" : ":\n");
+            }
+
+            this.generateProduction(out, indent + "        ", nterm, parent, this.table.getProduction(entry.getKey()), loop);
+            out.append(indent).append("    }\n");
+        }
+
+        out.append(indent).append("    default:\n")
+           .append(indent).append("        throw this.noProduction(\"").append(escape(nterm)).append("\");\n")
+           .append(indent).append("}\n");
+
+        if (loop) {
+            out.append("        }\n");
+        }
+        out.append("    }\n");
+    }
+
+    private void generateProduction(StringBuilder out, String indent, String nterm, String parent,
+                                    String rightside, boolean loop) {
+        final String[] symbols = symbols(rightside);
+
+        out.append(indent).append("// ").append(nterm).append(" -> ").append(rightside).append("\n");
+
+        // Der StupsParser hängt die Kinder von hinten nach vorne an
+        for (int i = symbols.length - 1; i >= 0; i--) {
+            final boolean hasValue = "IDENTIFIER".equals(symbols[i]) || symbols[i].endsWith("_LIT");
+
+            out.append(indent);
+            if (hasValue || this.nonterminalMethods.containsKey(symbols[i])) {
+                out.append("final SyntaxTreeNode c").append(i).append(" = ");
+            }
+            out.append("this.child(").append(parent).append(", \"").append(escape(symbols[i])).append("\", line);\n");
+
+            if (hasValue) {
+                out.append(indent).append("this.value(c").append(i).append(", ").append(i).append(");\n");
+            }
+        }
+
+        for (int i = 0; i < symbols.length; i++) {
+            final String sym = symbols[i];
+
+            if (Grammar.EPSILON_SYMBOL.equals(sym)) {
+                continue;
+            }
+
+            if (this.nonterminalMethods.containsKey(sym)) {
+                if (loop && i == symbols.length - 1 && sym.equals(nterm)) {
+                    out.append(indent).append("current = c").append(i).append(";\n")
+                       .append(indent).append("continue;\n");
+                    return;
+                }
+
+                out.append(indent).append("this.").append(this.nonterminalMethods.get(sym))
+                   .append("(c").append(i).append(");\n");
+            } else {
+                out.append(indent).append("this.match(").append(this.terminalConstants.get(sym)).append(");\n");
+            }
+        }
+
+        out.append(indent).append("return;\n");
+    }
+
+    private static String[] symbols(String rightside) {
+        return rightside.split(" ");
+    }
+
+    private static String escape(String symbol) {
+        return symbol.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -6,12 +6,15 @@ import util.Logger;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -70,6 +73,27 @@ public class Grammar {
      */
     private final Set<GrammarRule> rules;
 
+    // Index, wird einmalig beim Erzeugen der Grammatik aufgebaut
+
+    /**
+     * Jeder leftside werden ihre Produktionen in fester Reihenfolge zugewiesen.
+     */
+    private final Map<String, List<GrammarRule>> productionIndex;
+
+    /**
+     * Jeder leftside werden die rightsides ihrer Produktionen zugewiesen.
+     */
+    private final Map<String, Set<String>> rightsideIndex;
+
+    private final List<GrammarRule> productionList;
+    private final List<String> terminalList;
+    private final List<String> nonterminalList;
+
+    /**
+     * Die Kontextaktionen als Arrays über Symbolnummern, für Durchläufe über ganze Bäume.
+     */
+    private final GrammarActionTable actionTable;
+
     public Grammar(Set<String> terminals, Set<String> nonterminals,
                    Map<GrammarAction, Set<String>> actionMap,
                    Map<String, String> renameMappings,
@@ -87,6 +111,42 @@ public class Grammar {
         this.nameToValMappings = Collections.unmodifiableMap(nameToValMappings);
         this.valToValMappings = Collections.unmodifiableMap(valToValMappings);
         this.delChildMappings = Collections.unmodifiableMap(delChildMappings);
+
+        this.terminalList = List.copyOf(terminals);
+        this.nonterminalList = List.copyOf(nonterminals);
+        this.productionIndex = initProductionIndex(rules);
+        this.productionList = this.productionIndex.values().stream()
+                                                  .flatMap(List::stream)
+                                                  .collect(Collectors.toUnmodifiableList());
+        this.rightsideIndex = initRightsideIndex(this.productionIndex);
+        this.actionTable = GrammarActionTable.fromActions(terminals, nonterminals,
+                                                          actionMap, renameMappings, nameToValMappings,
+                                                          valToValMappings, delChildMappings);
+    }
+
+    /**
+     * Gruppiert die Produktionen nach leftside, die Reihenfolge der leftsides bleibt erhalten.
+     */
+    private static Map<String, List<GrammarRule>> initProductionIndex(Collection<GrammarRule> rules) {
+        final Map<String, List<GrammarRule>> index = new LinkedHashMap<>();
+
+        for (GrammarRule rule : rules) {
+            index.computeIfAbsent(rule.getLeftside(), leftside -> new ArrayList<>()).add(rule);
+        }
+
+        index.replaceAll((leftside, prods) -> List.copyOf(prods));
+
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static Map<String, Set<String>> initRightsideIndex(Map<String, List<GrammarRule>> productionIndex) {
+        final Map<String, Set<String>> index = new HashMap<>();
+
+        productionIndex.forEach((leftside, prods) -> index.put(leftside, prods.stream()
+                                                                              .map(GrammarRule::getRightside)
+                                                                              .collect(Collectors.toUnmodifiableSet())));
+
+        return Collections.unmodifiableMap(index);
     }
 
     public static Grammar fromFile(Path path) throws IOException {
@@ -98,10 +158,10 @@ public class Grammar {
                      .filter(line -> !(line.isBlank() || line.startsWith("//")))
                      .collect(Collectors.toUnmodifiableList());
 
-        // Grammar
-        final Set<String> terminals = new HashSet<>();
-        final Set<String> nonterminals = new HashSet<>();
-        final Set<GrammarRule> rules = new HashSet<>();
+        // Grammar, in Reihenfolge der Datei
+        final Set<String> terminals = new LinkedHashSet<>();
+        final Set<String> nonterminals = new LinkedHashSet<>();
+        final Set<GrammarRule> rules = new LinkedHashSet<>();
 
         // Actions
         final Map<GrammarAction, Set<String>> actionMap = new EnumMap<>(GrammarAction.class);
@@ -123,14 +183,14 @@ public class Grammar {
             // Parse Keywords
             if (currentLine.startsWith("TERM:")) {
 
-                terminals.addAll(Arrays.stream(currentLine.split(" ")).skip(1).collect(Collectors.toSet()));
+                terminals.addAll(Arrays.stream(currentLine.split(" ")).skip(1).collect(Collectors.toList()));
 
                 Arrays.stream(currentLine.split(" "))
                       .skip(1)
                       .forEach(term -> Logger.logInfo(" :: Registered terminal symbol \"" + term + "\"", Grammar.class));
             } else if (currentLine.startsWith("NTERM:")) {
 
-                nonterminals.addAll(Arrays.stream(currentLine.split(" ")).skip(1).collect(Collectors.toSet()));
+                nonterminals.addAll(Arrays.stream(currentLine.split(" ")).skip(1).collect(Collectors.toList()));
 
                 Arrays.stream(currentLine.split(" "))
                       .skip(1)
@@ -308,24 +368,45 @@ public class Grammar {
         return this.nonterminals;
     }
 
+    public List<String> getTerminalList() {
+        return this.terminalList;
+    }
+
+    public List<String> getNonterminalList() {
+        return this.nonterminalList;
+    }
+
     public Set<GrammarRule> getRules() {
         return this.rules;
     }
 
+    /**
+     * Alle Produktionen, nach leftside gruppiert.
+     */
+    public List<GrammarRule> getProductions() {
+        return this.productionList;
+    }
+
+    /**
+     * Ermittelt alle Produktionen, welche zu einer leftside gehören, in fester Reihenfolge.
+     */
+    public List<GrammarRule> getProductions(String leftside) {
+        return this.productionIndex.getOrDefault(leftside, Collections.emptyList());
+    }
+
     /**
      * Ermittelt alle möglichen Produktionen, welche zu einer leftside gehören können.
      */
     public Set<String> getRightsides(String leftside) {
-        return this.rules.stream()
-                         .filter(rule -> rule.getLeftside().equals(leftside))
-                         .map(GrammarRule::getRightside)
-                         .collect(Collectors.toUnmodifiableSet());
+        return this.rightsideIndex.getOrDefault(leftside, Collections.emptySet());
     }
 
     public Set<String> getLeftSides() {
-        return this.rules.stream()
-                         .map(GrammarRule::getLeftside)
-                         .collect(Collectors.toUnmodifiableSet());
+        return this.productionIndex.keySet();
+    }
+
+    public GrammarActionTable getActionTable() {
+        return this.actionTable;
     }
 
     // Actions ---------------------------------------------------------------------------------------------------------
@@ -340,7 +421,7 @@ public class Grammar {
                && root.getValue().isEmpty();
     }
 
-    private boolean canPromoteChild(String rootName) {
+    public boolean canPromoteChild(String rootName) {
         return this.actionMap.get(PROMOTE).contains(rootName);
     }
 
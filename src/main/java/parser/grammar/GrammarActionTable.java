@@ -0,0 +1,178 @@
+package parser.grammar;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Die Kontextaktionen der Grammatik, kompiliert in Arrays über dichte Symbolnummern.
+ * Jedes Symbol bekommt eine Bitmaske seiner {@link GrammarAction}s, Umbenennungen werden als Zielnummer
+ * gespeichert und die Parent-Child-Zuordnungen (delchild, nametoval, valtoval) als Bitzeile je Parent.
+ * <p>
+ * Eine Abfrage ist damit ein Arrayzugriff statt Map- und Listensuche.
+ * Unbekannte Namen haben die Nummer {@link #UNKNOWN} und keine Aktionen.
+ */
+public final class GrammarActionTable {
+
+    public static final int UNKNOWN = -1;
+
+    private final List<String> symbols;
+    private final Map<String, Integer> symbolIds;
+    private final int epsilon;
+
+    /**
+     * Für jedes Symbol die Aktionen als Bits, Bit i steht für {@link GrammarAction#ordinal()} i.
+     */
+    private final int[] actions;
+
+    /**
+     * Für jedes Symbol mit [renameto] die Nummer des neuen Namens, sonst {@link #UNKNOWN}.
+     */
+    private final int[] renameTo;
+
+    // Bitmatrizen, Zeile = Parent, Spalte = Child
+    private final int rowWords;
+    private final long[] delChild;
+    private final long[] nameToVal;
+    private final long[] valToVal;
+
+    private GrammarActionTable(List<String> symbols, Map<String, Integer> symbolIds) {
+        this.symbols = Collections.unmodifiableList(symbols);
+        this.symbolIds = Collections.unmodifiableMap(symbolIds);
+        this.epsilon = symbolIds.get(Grammar.EPSILON_SYMBOL);
+
+        this.actions = new int[symbols.size()];
+        this.renameTo = new int[symbols.size()];
+        this.rowWords = (symbols.size() + Long.SIZE - 1) / Long.SIZE;
+        this.delChild = new long[symbols.size() * this.rowWords];
+        this.nameToVal = new long[symbols.size() * this.rowWords];
+        this.valToVal = new long[symbols.size() * this.rowWords];
+    }
+
+    static GrammarActionTable fromActions(Collection<String> terminals, Collection<String> nonterminals,
+                                          Map<GrammarAction, Set<String>> actionMap,
+                                          Map<String, String> renameMappings,
+                                          Map<String, List<String>> nameToValMappings,
+                                          Map<String, List<String>> valToValMappings,
+                                          Map<String, List<String>> delChildMappings) {
+
+        // Alle Namen, die in einem Baum vorkommen oder in einer Aktion genannt werden
+        final List<String> symbols = new ArrayList<>();
+        final Map<String, Integer> symbolIds = new HashMap<>();
+        register(List.of(Grammar.EPSILON_SYMBOL), symbols, symbolIds);
+        register(terminals, symbols, symbolIds);
+        register(nonterminals, symbols, symbolIds);
+        actionMap.values().forEach(leftsides -> register(leftsides, symbols, symbolIds));
+        register(renameMappings.values(), symbols, symbolIds);
+        nameToValMappings.values().forEach(children -> register(children, symbols, symbolIds));
+        valToValMappings.values().forEach(children -> register(children, symbols, symbolIds));
+        delChildMappings.values().forEach(children -> register(children, symbols, symbolIds));
+
+        final GrammarActionTable table = new GrammarActionTable(symbols, symbolIds);
+
+        actionMap.forEach((action, leftsides) -> {
+            for (String leftside : leftsides) {
+                table.actions[symbolIds.get(leftside)] |= 1 << action.ordinal();
+            }
+        });
+
+        for (int symbol = 0; symbol < symbols.size(); symbol++) {
+            final String newName = table.hasAction(symbol, GrammarAction.RENAMETO) ? renameMappings.get(symbols.get(symbol)) : null;
+            table.renameTo[symbol] = newName == null ? UNKNOWN : symbolIds.get(newName);
+        }
+
+        table.fillMatrix(table.delChild, GrammarAction.DELCHILD, delChildMappings);
+        table.fillMatrix(table.nameToVal, GrammarAction.NAMETOVAL, nameToValMappings);
+        table.fillMatrix(table.valToVal, GrammarAction.VALTOVAL, valToValMappings);
+
+        return table;
+    }
+
+    private static void register(Collection<String> names, List<String> symbols, Map<String, Integer> symbolIds) {
+        for (String name : names) {
+            if (!symbolIds.containsKey(name)) {
+                symbolIds.put(name, symbols.size());
+                symbols.add(name);
+            }
+        }
+    }
+
+    /**
+     * Nur Parents, welche die Aktion auch ausführen, bekommen ihre Children eingetragen.
+     */
+    private void fillMatrix(long[] matrix, GrammarAction action, Map<String, List<String>> mappings) {
+        mappings.forEach((parentName, children) -> {
+            final int parent = this.symbolIds.get(parentName);
+            if (!this.hasAction(parent, action)) {
+                return;
+            }
+
+            for (String childName : children) {
+                final int child = this.symbolIds.get(childName);
+                matrix[parent * this.rowWords + child / Long.SIZE] |= 1L << child;
+            }
+        });
+    }
+
+    private boolean contains(long[] matrix, int parent, int child) {
+        return parent != UNKNOWN && child != UNKNOWN
+               && (matrix[parent * this.rowWords + child / Long.SIZE] & (1L << child)) != 0;
+    }
+
+    private boolean hasAction(int symbol, GrammarAction action) {
+        return symbol != UNKNOWN && (this.actions[symbol] & (1 << action.ordinal())) != 0;
+    }
+
+    // Symbole
+
+    /**
+     * @return Die Nummer des Namens oder {@link #UNKNOWN}.
+     */
+    public int getSymbol(String name) {
+        return this.symbolIds.getOrDefault(name, UNKNOWN);
+    }
+
+    public String getName(int symbol) {
+        return this.symbols.get(symbol);
+    }
+
+    public int getSymbolCount() {
+        return this.symbols.size();
+    }
+
+    // Actions ---------------------------------------------------------------------------------------------------------
+
+    public boolean canPromoteChild(int symbol) {
+        return this.hasAction(symbol, GrammarAction.PROMOTE);
+    }
+
+    public boolean canDeleteIfEmpty(int symbol) {
+        return this.hasAction(symbol, GrammarAction.DELIFEMPTY);
+    }
+
+    /**
+     * Epsilon-Knoten werden immer gelöscht.
+     */
+    public boolean canDeleteChild(int parent, int child) {
+        return child == this.epsilon || this.contains(this.delChild, parent, child);
+    }
+
+    /**
+     * @return Die Nummer des neuen Namens oder {@link #UNKNOWN}, wenn das Symbol nicht umbenannt wird.
+     */
+    public int getNewName(int symbol) {
+        return symbol == UNKNOWN ? UNKNOWN : this.renameTo[symbol];
+    }
+
+    public boolean canMoveNameToVal(int parent, int child) {
+        return this.contains(this.nameToVal, parent, child);
+    }
+
+    public boolean hasValToVal(int parent, int child) {
+        return this.contains(this.valToVal, parent, child);
+    }
+}
@@ -3,308 +3,918 @@ package parser.grammar;
 import parser.ParsingTable;
 import util.Logger;
 
-import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public final class GrammarAnalyzer {
 
+    /**
+     * Das Endsymbol der Eingabe, wird in follow(S) eingetragen.
+     */
+    private static final String END_SYMBOL = "$";
+
     private final Grammar grammar;
 
+    // Dichte Nummerierung der Symbole, Terminale (inklusive $) und Nichtterminale getrennt
+    private final List<String> terminalList = new ArrayList<>();
+    private final Map<String, Integer> terminalIds = new HashMap<>();
+    private final List<String> nonterminalList = new ArrayList<>();
+    private final Map<String, Integer> nonterminalIds = new HashMap<>();
+
+    /**
+     * Die Produktionen als Symbol-Ids, siehe {@link #symbolId(String)}. Epsilon ist das leere Array.
+     */
+    private int[][] productions;
+    private int[] productionLeft;
+    private int[][] productionsByLeft;
+    private final Map<GrammarRule, Integer> productionIds = new HashMap<>();
+
+    private final boolean[] nullable;
+    private final long[][] firstSets;
+    private final long[][] followSets;
+
+    /**
+     * first(Xi ... Xk) für jede Produktion X1 ... Xk und jedes i, beginnend bei suffixOffset[prod].
+     * Der letzte Eintrag jeder Produktion ist das leere Suffix.
+     */
+    private long[][] suffixFirst;
+    private boolean[] suffixNullable;
+    private int[] suffixOffset;
+
+    /**
+     * Bereits berechnete stringFirst-Anfragen.
+     * Concurrent, da der Analyzer wie seine lazy Parsetabelle von mehreren Threads genutzt werden kann.
+     */
+    private final Map<String, Set<String>> stringFirstCache = new ConcurrentHashMap<>();
+
     /**
      * Das first-Set enthält für jedes Nichtterminalsymbol alle Terminalsymbole, die als erstes bei diesen
      * Nichtterminal auftreten können.
+     * Die Stringdarstellung wird im lazy Modus erst beim ersten Zugriff erzeugt.
      */
-    private final Map<String, Set<String>> first;
+    private volatile Map<String, Set<String>> first;
 
     /**
      * Das follow-Set enhält für jedes Nichtterminalsymbol alle Terminalsymbole, die direkt auf dieses
      * Nichtterminal folgen können.
      */
-    private final Map<String, Set<String>> follow;
+    private volatile Map<String, Set<String>> follow;
 
     private final ParsingTable table;
 
-    private GrammarAnalyzer(Grammar grammar) {
+    private GrammarAnalyzer(Grammar grammar, boolean lazy, GrammarAnalyzer previous) {
         this.grammar = grammar;
 
         Logger.logDebug("Beginning grammar analysis", GrammarAnalyzer.class);
 
-        // Es muss zwingend in der Reihenfolge [First < Follow < Table] initialisiert werden
-        this.first = this.initFirst();
-        this.follow = this.initFollow();
-        this.table = this.initParseTable();
+        // Es muss zwingend in der Reihenfolge [Nullable < First < Follow < Table] initialisiert werden
+        this.initSymbols();
+        final GrammarDelta delta = previous == null
+                                   ? GrammarDelta.full(this.nonterminalList.size())
+                                   : this.initDelta(previous);
+        this.nullable = this.initNullable(delta);
+        this.firstSets = this.initFirstSets(delta);
+        this.initSuffixFirst();
+        this.initFollowDelta(delta);
+        this.followSets = this.initFollowSets(delta);
+
+        if (lazy) {
+            this.table = this.initLazyParseTable();
+        } else {
+            this.first = this.initFirst(delta);
+            this.follow = this.initFollow(delta);
+            this.table = this.initParseTable(delta);
+        }
 
         Logger.logDebug("Grammar analysis successful", GrammarAnalyzer.class);
     }
 
     public static GrammarAnalyzer fromGrammar(Grammar grammar) {
-        return new GrammarAnalyzer(grammar);
+        return new GrammarAnalyzer(grammar, false, null);
     }
 
-    private Map<String, Set<String>> initFirst() {
-        Logger.logDebug(" :: Initializing first-set", GrammarAnalyzer.class);
+    /**
+     * Wie {@link #fromGrammar(Grammar)}, die Zellen der Parsetabelle und die Stringdarstellung von
+     * first/follow werden aber erst bei Bedarf berechnet.
+     * Für große Grammatiken, bei denen ein Programm nur einen Bruchteil der Tabelle benötigt.
+     */
+    public static GrammarAnalyzer fromGrammarLazy(Grammar grammar) {
+        return new GrammarAnalyzer(grammar, true, null);
+    }
 
-        final Map<String, Set<String>> firstOut = new HashMap<>();
+    /**
+     * Analysiert eine geänderte Version der Grammatik und verwendet dabei die Ergebnisse dieser Analyse weiter.
+     * Nullable/First werden nur für Nichtterminale neu berechnet, die von einer geänderten Regel abhängen,
+     * Follow nur für Nichtterminale, deren Vorkommen betroffen sind. Alle anderen Zeilen der Parsetabelle
+     * werden übernommen. Der lazy Modus bleibt erhalten.
+     */
+    public GrammarAnalyzer reanalyze(Grammar changed) {
+        return new GrammarAnalyzer(changed, this.table.isLazy(), this);
+    }
 
-        // Die Methode funktioniert erst, nachdem first initialisiert ist.
-        // Deshalb hier doppelt.
-        final Predicate<String> nullable = sym -> sym.equals(Grammar.EPSILON_SYMBOL)
-                                                  || sym.isBlank()
-                                                  || firstOut.get(sym).contains(Grammar.EPSILON_SYMBOL);
-        final Predicate<String[]> allNullable = split -> split.length == 0
-                                                         || Arrays.stream(split).allMatch(nullable);
+    /**
+     * Nummeriert Terminale und Nichtterminale dicht durch und zerlegt die Produktionen einmalig
+     * in int-Arrays, damit First/Follow als Bitmengen berechnet werden können.
+     */
+    private void initSymbols() {
+        for (String term : this.grammar.getTerminalList()) {
+            this.terminalIds.putIfAbsent(term, this.terminalList.size());
+            this.terminalList.add(term);
+        }
+        this.terminalIds.putIfAbsent(END_SYMBOL, this.terminalList.size());
+        this.terminalList.add(END_SYMBOL);
 
-        // Initialisieren
-        for (String nterm : this.grammar.getNonterminals()) {
-            firstOut.put(nterm, new HashSet<>());
+        for (String nterm : this.grammar.getNonterminalList()) {
+            this.nonterminalIds.put(nterm, this.nonterminalList.size());
+            this.nonterminalList.add(nterm);
         }
-        for (String term : this.grammar.getTerminals()) {
-            // 1. If X is a terminal, then first(X) = {X}.
 
-            firstOut.put(term, new HashSet<>());
-            firstOut.get(term).add(term);
+        final List<GrammarRule> rules = this.grammar.getProductions();
+        this.productionLeft = new int[rules.size()];
+        this.productions = new int[rules.size()][];
+        final EdgeList byLeft = new EdgeList();
+
+        for (int prod = 0; prod < rules.size(); prod++) {
+            final GrammarRule rule = rules.get(prod);
+
+            this.productionIds.put(rule, prod);
+            this.productionLeft[prod] = this.nonterminalId(rule.getLeftside());
+            this.productions[prod] = rule.isEpsilon()
+                                     ? new int[0]
+                                     : rule.getSymbols().stream()
+                                           .mapToInt(this::symbolId)
+                                           .toArray();
+            byLeft.add(this.productionLeft[prod], prod);
         }
 
-        boolean change;
+        this.productionsByLeft = byLeft.toAdjacency(this.nonterminalList.size());
+    }
 
-        do {
-            change = false;
+    /**
+     * Terminale werden als id >= 0 kodiert, Nichtterminale als ~id (< 0).
+     */
+    private int symbolId(String sym) {
+        final Integer term = this.terminalIds.get(sym);
+        if (term != null) {
+            return term;
+        }
 
-            for (String leftside : this.grammar.getLeftSides()) {
-                // 2. (a) If X is a nonterminal...
+        return ~this.nonterminalId(sym);
+    }
 
-                for (String rightside : this.grammar.getRightsides(leftside)) {
-                    // ...and X -> Y1 Y2 ... Yk is a production...
+    private int nonterminalId(String sym) {
+        final Integer nterm = this.nonterminalIds.get(sym);
+        if (nterm == null) {
+            Logger.logError("Symbol " + sym + " is neither a terminal nor a nonterminal.", GrammarAnalyzer.class);
+            throw new GrammarParseException("Undefined symbol: " + sym);
+        }
+
+        return nterm;
+    }
+
+    /**
+     * Vergleicht die Regeln mit der vorherigen Analyse. Betroffen für nullable/first sind die Nichtterminale
+     * mit hinzugefügten oder entfernten Regeln und alle, in deren Produktionen ein betroffenes vorkommt.
+     */
+    private GrammarDelta initDelta(GrammarAnalyzer previous) {
+        final int ntermCount = this.nonterminalList.size();
+        final GrammarDelta delta = new GrammarDelta(previous, ntermCount);
 
+        for (int nterm = 0; nterm < ntermCount; nterm++) {
+            final Integer previousId = previous.nonterminalIds.get(this.nonterminalList.get(nterm));
 
-                    if (!rightside.equals(Grammar.EPSILON_SYMBOL)) {
-                        // ...for some k >= 1...
+            // Neue Nichtterminale haben keine vorherigen Ergebnisse
+            delta.previousNonterminal[nterm] = previousId == null ? -1 : previousId;
+            delta.changed[nterm] = previousId == null;
+        }
 
-                        final String[] split = rightside.split(" ");
+        delta.terminalMap = new int[previous.terminalList.size()];
+        for (int term = 0; term < delta.terminalMap.length; term++) {
+            delta.terminalMap[term] = this.terminalIds.getOrDefault(previous.terminalList.get(term), -1);
+        }
+        delta.sameTerminals = this.terminalList.equals(previous.terminalList);
+
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            if (!previous.productionIds.containsKey(this.grammar.getProductions().get(prod))) {
+                delta.changed[this.productionLeft[prod]] = true;
+                delta.addedProductions.add(prod);
+            }
+        }
+        for (GrammarRule rule : previous.grammar.getProductions()) {
+            if (!this.productionIds.containsKey(rule)) {
+                delta.removedRules.add(rule);
 
-                        // !: Dumm implementiert, alles wird mehrfach auf nullable gecheckt:
-                        // !: nullable(Y1), nullable(Y1 Y2), nullable(Y1 Y2 Y3)...
-                        for (int i = 0; i < split.length; i++) {
+                final Integer leftside = this.nonterminalIds.get(rule.getLeftside());
+                if (leftside != null) {
+                    delta.changed[leftside] = true;
+                }
+            }
+        }
 
-                            // All Y1 ... Yi-1
-                            final String[] sub = Arrays.copyOfRange(split, 0, i);
+        // Kante Y -> X, wenn Y in einer Produktion von X vorkommt
+        final EdgeList users = new EdgeList();
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            for (int sym : this.productions[prod]) {
+                if (sym < 0) {
+                    users.add(~sym, this.productionLeft[prod]);
+                }
+            }
+        }
 
-                            if (allNullable.test(sub)) {
-                                // ...then place a in first(X) if a is in first(Yi) for some i...
-                                // ...and epsilon is in all of first(Y1) ... first(Yi-1).
+        delta.first = closure(delta.changed, users.toAdjacency(ntermCount));
 
-                                // Because a != epsilon
-                                final Set<String> firstYiNoEps = firstOut.get(split[i]).stream()
-                                                                         .filter(sym -> !sym.equals(Grammar.EPSILON_SYMBOL))
-                                                                         .collect(Collectors.toSet());
+        Logger.logDebug(" :: Grammar changed: " + delta.addedProductions.size() + " rules added, "
+                        + delta.removedRules.size() + " rules removed, "
+                        + count(delta.first) + " of " + ntermCount + " first-sets affected",
+                        GrammarAnalyzer.class);
 
-                                final boolean changeNow = firstOut.get(leftside).addAll(firstYiNoEps);
-                                change = change || changeNow;
+        return delta;
+    }
 
-                                Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                                Logger.logInfoIfTrue(changeNow, " :: Added " + firstYiNoEps + " to \"first("
-                                                                + leftside + ")\" (All before are nullable)", GrammarAnalyzer.class);
-                            }
+    /**
+     * Follow(B) ist betroffen, wenn B in einer geänderten Regel vorkommt, oder wenn hinter B ein Nichtterminal
+     * mit betroffenem first steht. Von dort aus wird entlang der Follow-Kanten A -> B weitergereicht.
+     * Dafür muss nullable bereits berechnet sein.
+     */
+    private void initFollowDelta(GrammarDelta delta) {
+        if (delta.previous == null) {
+            return;
+        }
 
-                            if (i == split.length - 1 && allNullable.test(split)) {
-                                // 2. (b) If epsilon is in first(Y1) ... first(Yk), then add epsilon to first(X).
+        final int ntermCount = this.nonterminalList.size();
+        final boolean[] seeds = delta.changed.clone();
 
-                                final boolean changeNow = firstOut.get(leftside).add(Grammar.EPSILON_SYMBOL);
-                                change = change || changeNow;
+        for (int prod : delta.addedProductions) {
+            for (int sym : this.productions[prod]) {
+                if (sym < 0) {
+                    seeds[~sym] = true;
+                }
+            }
+        }
+        for (GrammarRule rule : delta.removedRules) {
+            for (String sym : rule.getSymbols()) {
+                final Integer nterm = this.nonterminalIds.get(sym);
+                if (nterm != null) {
+                    seeds[nterm] = true;
+                }
+            }
+        }
 
-                                Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                                Logger.logInfoIfTrue(changeNow, " :: Added [" + Grammar.EPSILON_SYMBOL + "] to \"first("
-                                                                + leftside + ")\" (All are nullable)", GrammarAnalyzer.class);
-                            }
-                        }
-                    }
+        // Kante A -> B, wenn follow(A) in follow(B) einfließt
+        final EdgeList dependencies = new EdgeList();
 
-                    if (rightside.equals(Grammar.EPSILON_SYMBOL)) {
-                        // 3. If X -> epsilon is a production, then add epsilon to first(X).
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            final int leftside = this.productionLeft[prod];
+            final int[] rightside = this.productions[prod];
+            boolean affectedSuffix = false;
 
-                        final boolean changeNow = firstOut.get(leftside).add(Grammar.EPSILON_SYMBOL);
-                        change = change || changeNow;
+            for (int i = rightside.length - 1; i >= 0; i--) {
+                if (rightside[i] >= 0) {
+                    continue;
+                }
 
-                        Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                        Logger.logInfoIfTrue(changeNow, " :: Added [" + Grammar.EPSILON_SYMBOL + "] to \"first("
-                                                        + leftside + ")\" (X -> EPS exists)", GrammarAnalyzer.class);
-                    }
+                if (affectedSuffix) {
+                    // first oder nullable des Suffixes hinter B kann sich geändert haben
+                    seeds[~rightside[i]] = true;
                 }
+                if (this.suffixNullable[this.suffixOffset[prod] + i + 1]) {
+                    dependencies.add(leftside, ~rightside[i]);
+                }
+
+                affectedSuffix |= delta.first[~rightside[i]];
             }
-        } while (change);
+        }
 
-        Logger.logInfo("First Set: " + firstOut, GrammarAnalyzer.class);
-        Logger.logDebug(" :: First-set initialized successfully", GrammarAnalyzer.class);
+        delta.follow = closure(seeds, dependencies.toAdjacency(ntermCount));
 
-        return firstOut;
+        // Eine Zeile ändert sich, wenn sich die first-Sets ihrer Produktionen oder ihr follow ändern
+        delta.rows = delta.follow.clone();
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            final int leftside = this.productionLeft[prod];
+
+            delta.rows[leftside] |= delta.changed[leftside]
+                                    || Arrays.stream(this.productions[prod])
+                                             .anyMatch(sym -> sym < 0 && delta.first[~sym]);
+        }
+
+        Logger.logDebug(" :: " + count(delta.follow) + " follow-sets and " + count(delta.rows)
+                        + " table rows affected", GrammarAnalyzer.class);
     }
 
-    private Map<String, Set<String>> initFollow() {
-        Logger.logDebug(" :: Initializing follow-set", GrammarAnalyzer.class);
+    /**
+     * Alle Knoten, die von den Startknoten aus erreichbar sind (inklusive der Startknoten).
+     */
+    private static boolean[] closure(boolean[] start, int[][] edges) {
+        final boolean[] reached = start.clone();
+        final int[] stack = new int[reached.length];
+        int size = 0;
+
+        for (int node = 0; node < reached.length; node++) {
+            if (reached[node]) {
+                stack[size++] = node;
+            }
+        }
 
-        final Map<String, Set<String>> followOut = new HashMap<>();
+        while (size > 0) {
+            final int current = stack[--size];
 
-        // Initialisieren
-        for (String nterm : this.grammar.getNonterminals()) {
-            followOut.put(nterm, new HashSet<>());
+            for (int next : edges[current]) {
+                if (!reached[next]) {
+                    reached[next] = true;
+                    stack[size++] = next;
+                }
+            }
         }
 
-        // 1. Place $ in follow(S), where S is the start symbol, and $ is the input right endmarker
-        followOut.get(Grammar.START_SYMBOL).add("$");
+        return reached;
+    }
 
-        boolean change;
+    private static int count(boolean[] flags) {
+        int count = 0;
+        for (boolean flag : flags) {
+            count += flag ? 1 : 0;
+        }
 
-        do {
-            change = false;
+        return count;
+    }
 
-            for (String leftside : this.grammar.getLeftSides()) {
+    /**
+     * Überträgt eine Bitmenge der vorherigen Analyse auf die aktuelle Nummerierung der Terminale.
+     */
+    private long[] remap(GrammarDelta delta, long[] previousBits) {
+        if (delta.sameTerminals) {
+            return previousBits.clone();
+        }
 
-                for (String rightside : this.grammar.getRightsides(leftside)) {
+        final long[] bits = new long[this.words()];
+        for (int word = 0; word < previousBits.length; word++) {
+            long remaining = previousBits[word];
 
-                    final String[] split = rightside.split(" ");
+            while (remaining != 0) {
+                final int term = delta.terminalMap[word * Long.SIZE + Long.numberOfTrailingZeros(remaining)];
+                remaining &= remaining - 1;
 
-                    for (int i = 1; i < split.length; i++) {
-                        // 2. If there is a production A -> aBb, then everything in first(b) except epsilon
-                        //    is in follow(B).
+                if (term != -1) {
+                    set(bits, term);
+                }
+            }
+        }
 
-                        if (!this.grammar.getNonterminals().contains(split[i - 1])) {
-                            // Follow nur für Nichtterminale berechnen
+        return bits;
+    }
 
-                            continue;
-                        }
+    /**
+     * Ein Nichtterminal ist nullable, wenn es eine Produktion gibt, deren Symbole alle nullable sind.
+     * Jede Produktion zählt ihre noch nicht nullable Symbole, wird ein Nichtterminal nullable,
+     * werden nur die Produktionen angefasst, in denen es vorkommt.
+     */
+    private boolean[] initNullable(GrammarDelta delta) {
+        Logger.logDebug(" :: Initializing nullable-vector", GrammarAnalyzer.class);
+
+        final int ntermCount = this.nonterminalList.size();
+        final boolean[] nullableOut = new boolean[ntermCount];
+        final int[] pending = new int[this.productions.length];
+        final EdgeList occurrences = new EdgeList();
+
+        final int[] queue = new int[ntermCount];
+        int tail = 0;
+
+        for (int nterm = 0; nterm < ntermCount; nterm++) {
+            if (!delta.first[nterm]) {
+                nullableOut[nterm] = delta.previous.nullable[delta.previousNonterminal[nterm]];
+            }
+        }
 
-                        // !: Hier wird wieder alles doppelt geprüft
-                        for (int k = i; k < split.length; k++) {
-                            // Behandelt solche Fälle: X -> Y1 Y2 Y3, wo Y2 nullable ist.
-                            // Dann beinhaltet follow(Y1) auch first(Y3)
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            final int[] rightside = this.productions[prod];
 
-                            final String[] sub = Arrays.copyOfRange(split, i, k);
+            if (!delta.first[this.productionLeft[prod]]
+                || Arrays.stream(rightside).anyMatch(sym -> sym >= 0)) {
+                // Produktionen mit Terminalen können nie nullable werden
 
-                            if (this.allNullable(sub)) {
+                continue;
+            }
 
-                                final Set<String> firstXkNoEps = this.first(split[k]).stream()
-                                                                     .filter(sym -> !sym.equals(Grammar.EPSILON_SYMBOL))
-                                                                     .collect(Collectors.toSet());
+            int count = 0;
+            boolean blocked = false;
+            for (int sym : rightside) {
+                if (delta.first[~sym]) {
+                    occurrences.add(~sym, prod);
+                    count++;
+                } else if (!nullableOut[~sym]) {
+                    // Unveränderte Nichtterminale werden auch jetzt nicht nullable
+                    blocked = true;
+                }
+            }
 
-                                final boolean changeNow = followOut.get(split[i - 1]).addAll(firstXkNoEps);
-                                change = change || changeNow;
+            if (blocked) {
+                continue;
+            }
+            pending[prod] = count;
 
-                                Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                                Logger.logInfoIfTrue(changeNow, " :: Added " + firstXkNoEps + " to \"follow("
-                                                                + split[i - 1] + ")\" (All nullable inbetween)", GrammarAnalyzer.class);
-                            }
-                        }
+            if (count == 0 && !nullableOut[this.productionLeft[prod]]) {
+                // 3. If X -> epsilon is a production, then add epsilon to first(X).
+                //    (Oder X -> Y1 ... Yk mit ausschließlich unveränderten, nullable Yi)
 
-                        // 3. (b) If there is a production A -> aBb, where b is nullable, then everything in
-                        //        follow(A) is in follow(B)
-                        final String[] sub = Arrays.copyOfRange(split, i, split.length);
+                nullableOut[this.productionLeft[prod]] = true;
+                queue[tail++] = this.productionLeft[prod];
+            }
+        }
 
-                        if (this.allNullable(sub)) {
+        final int[][] occurrenceMap = occurrences.toAdjacency(ntermCount);
 
-                            final boolean changeNow = followOut.get(split[i - 1]).addAll(followOut.get(leftside));
-                            change = change || changeNow;
+        for (int head = 0; head < tail; head++) {
+            for (int prod : occurrenceMap[queue[head]]) {
+                pending[prod]--;
 
-                            Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                            Logger.logInfoIfTrue(changeNow, " :: Added " + leftside + " to \"follow("
-                                                            + split[i - 1] + ")\" (All following are nullable)", GrammarAnalyzer.class);
-                        }
-                    }
+                if (pending[prod] == 0 && !nullableOut[this.productionLeft[prod]]) {
+                    // 2. (b) If epsilon is in first(Y1) ... first(Yk), then add epsilon to first(X).
 
-                    if (this.grammar.getNonterminals().contains(split[split.length - 1])) {
-                        // 3. (a) If there is a production A -> aB, then everything in follow(A) is in follow(B).
+                    nullableOut[this.productionLeft[prod]] = true;
+                    queue[tail++] = this.productionLeft[prod];
+                }
+            }
+        }
 
-                        final boolean changeNow = followOut.get(split[split.length - 1]).addAll(followOut.get(leftside));
-                        change = change || changeNow;
+        return nullableOut;
+    }
+
+    private long[][] initFirstSets(GrammarDelta delta) {
+        Logger.logDebug(" :: Initializing first-set", GrammarAnalyzer.class);
+
+        final long[][] firstOut = new long[this.nonterminalList.size()][];
+        for (int nterm = 0; nterm < firstOut.length; nterm++) {
+            firstOut[nterm] = delta.first[nterm]
+                              ? new long[this.words()]
+                              : this.remap(delta, delta.previous.firstSets[delta.previousNonterminal[nterm]]);
+        }
+
+        // Kante B -> A bedeutet first(B) ist Teilmenge von first(A)
+        final EdgeList dependencies = new EdgeList();
+
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            // 2. (a) If X is a nonterminal and X -> Y1 Y2 ... Yk is a production...
+
+            final int leftside = this.productionLeft[prod];
+
+            if (!delta.first[leftside]) {
+                continue;
+            }
+
+            for (int sym : this.productions[prod]) {
+                // ...then place a in first(X) if a is in first(Yi) for some i...
+                // ...and epsilon is in all of first(Y1) ... first(Yi-1).
+
+                if (sym >= 0) {
+                    // 1. If X is a terminal, then first(X) = {X}.
+
+                    set(firstOut[leftside], sym);
+                    break;
+                }
+
+                if (delta.first[~sym]) {
+                    dependencies.add(~sym, leftside);
+                } else {
+                    // first(Yi) ist bereits vollständig
+                    union(firstOut[leftside], firstOut[~sym]);
+                }
+
+                if (!this.nullable[~sym]) {
+                    break;
+                }
+            }
+        }
 
-                        Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                        Logger.logInfoIfTrue(changeNow, " :: Added " + followOut.get(leftside) + " to \"follow("
-                                                        + split[split.length - 1] + ")\" (Last item in production)", GrammarAnalyzer.class);
+        propagate(firstOut, dependencies.toAdjacency(this.nonterminalList.size()), delta.first);
+
+        Logger.logDebug(" :: First-set initialized successfully", GrammarAnalyzer.class);
+
+        return firstOut;
+    }
+
+    private long[][] initFollowSets(GrammarDelta delta) {
+        Logger.logDebug(" :: Initializing follow-set", GrammarAnalyzer.class);
+
+        final long[][] followOut = new long[this.nonterminalList.size()][];
+        for (int nterm = 0; nterm < followOut.length; nterm++) {
+            followOut[nterm] = delta.follow[nterm]
+                               ? new long[this.words()]
+                               : this.remap(delta, delta.previous.followSets[delta.previousNonterminal[nterm]]);
+        }
+
+        // Kante A -> B bedeutet follow(A) ist Teilmenge von follow(B)
+        final EdgeList dependencies = new EdgeList();
+
+        // 1. Place $ in follow(S), where S is the start symbol, and $ is the input right endmarker
+        final Integer start = this.nonterminalIds.get(Grammar.START_SYMBOL);
+        if (start != null && delta.follow[start]) {
+            set(followOut[start], this.terminalIds.get(END_SYMBOL));
+        }
+
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            final int leftside = this.productionLeft[prod];
+            final int[] rightside = this.productions[prod];
+
+            for (int i = 0; i < rightside.length; i++) {
+                if (rightside[i] >= 0 || !delta.follow[~rightside[i]]) {
+                    // Follow nur für (betroffene) Nichtterminale berechnen
+
+                    continue;
+                }
+
+                final int suffix = this.suffixOffset[prod] + i + 1;
+
+                // 2. If there is a production A -> aBb, then everything in first(b) except epsilon
+                //    is in follow(B).
+                union(followOut[~rightside[i]], this.suffixFirst[suffix]);
+
+                if (this.suffixNullable[suffix]) {
+                    // 3. If there is a production A -> aBb, where b is nullable (or A -> aB),
+                    //    then everything in follow(A) is in follow(B)
+
+                    if (delta.follow[leftside]) {
+                        dependencies.add(leftside, ~rightside[i]);
+                    } else {
+                        union(followOut[~rightside[i]], followOut[leftside]);
                     }
                 }
             }
+        }
 
-        } while (change);
+        propagate(followOut, dependencies.toAdjacency(this.nonterminalList.size()), delta.follow);
 
-        Logger.logInfo("Follow Set: " + followOut, GrammarAnalyzer.class);
         Logger.logDebug(" :: Follow-set initialized successfully", GrammarAnalyzer.class);
 
         return followOut;
     }
 
-    private ParsingTable initParseTable() {
-        Logger.logDebug(" :: Initializing parse-table", GrammarAnalyzer.class);
+    /**
+     * Berechnet first und nullable für jedes Suffix jeder Produktion in einem Durchlauf von rechts nach links.
+     * Dafür muss first bereits vollständig sein.
+     */
+    private void initSuffixFirst() {
+        Logger.logDebug(" :: Initializing production-first-sets", GrammarAnalyzer.class);
+
+        this.suffixOffset = new int[this.productions.length];
 
-        final Map<Map.Entry<String, String>, String> tableOut = new HashMap<>();
+        int total = 0;
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            this.suffixOffset[prod] = total;
+            total += this.productions[prod].length + 1;
+        }
 
-        for (String leftside : this.grammar.getLeftSides()) {
+        this.suffixFirst = new long[total][];
+        this.suffixNullable = new boolean[total];
 
-            for (String rightside : this.grammar.getRightsides(leftside)) {
-                // For each production A -> a of the grammar, do the following:
+        final long[] empty = new long[this.words()];
 
-                final Set<String> firstRightside = this.stringFirst(rightside);
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            final int[] rightside = this.productions[prod];
+            final int offset = this.suffixOffset[prod];
 
-                for (String sym : firstRightside) {
-                    // 1. For each terminal t in first(a), add A -> a to table[A, t]
+            this.suffixFirst[offset + rightside.length] = empty;
+            this.suffixNullable[offset + rightside.length] = true;
 
-                    final String prev = tableOut.put(new AbstractMap.SimpleEntry<>(leftside, sym), rightside);
+            for (int i = rightside.length - 1; i >= 0; i--) {
+                final int sym = rightside[i];
+                final long[] bits = new long[this.words()];
 
-                    Logger.logInfo("Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                    Logger.logInfo(" :: Add " + rightside + " to cell (" + leftside + ", " + sym + ") (" + sym
-                                   + " in \"first(" + rightside + ")\")", GrammarAnalyzer.class);
-                    Logger.logInfoNullable(prev, " :: Overwritten " + prev + "!", GrammarAnalyzer.class);
+                if (sym >= 0) {
+                    set(bits, sym);
+                } else {
+                    union(bits, this.firstSets[~sym]);
+
+                    if (this.nullable[~sym]) {
+                        // first(Xi Xi+1 ... Xk) enthält first(Xi+1 ... Xk), wenn Xi nullable ist
+
+                        union(bits, this.suffixFirst[offset + i + 1]);
+                        this.suffixNullable[offset + i] = this.suffixNullable[offset + i + 1];
+                    }
                 }
 
-                final Set<String> followLeftside = this.follow(leftside);
+                this.suffixFirst[offset + i] = bits;
+            }
+        }
+    }
+
+    /**
+     * Alle Terminale, bei denen eine Produktion in der Parsetabelle eingetragen wird:
+     * first(a), und follow(A), wenn a nullable ist.
+     */
+    private long[] predictSet(int prod) {
+        final int offset = this.suffixOffset[prod];
 
-                if (firstRightside.contains(Grammar.EPSILON_SYMBOL)) {
-                    // 2. If epsilon in first(a), then...
+        if (!this.suffixNullable[offset]) {
+            return this.suffixFirst[offset];
+        }
 
-                    for (String sym : followLeftside) {
-                        // ...for each terminal b in follow(A), add A -> a to table[A, b].
+        // If epsilon in first(a), then for each terminal b in follow(A), add A -> a to table[A, b].
+        final long[] predict = this.suffixFirst[offset].clone();
+        union(predict, this.followSets[this.productionLeft[prod]]);
 
-                        final String prev = tableOut.put(new AbstractMap.SimpleEntry<>(leftside, sym), rightside);
+        return predict;
+    }
 
-                        Logger.logInfo("Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                        Logger.logInfo(" :: Add " + rightside + " to cell (" + leftside + ", " + sym + ") (" + sym
-                                       + " in \"follow(" + leftside + ")\")", GrammarAnalyzer.class);
-                        Logger.logInfoNullable(prev, " :: Overwritten " + prev + "!", GrammarAnalyzer.class);
-                    }
+    /**
+     * Wie {@link #predictSet(int)}, aber für ein einzelnes Terminal, ohne eine Menge anzulegen.
+     */
+    private boolean predicts(int prod, int term) {
+        final int offset = this.suffixOffset[prod];
 
-                    if (followLeftside.contains("$")) {
-                        // If epsilon is in first(a) and $ is in follow(A), add A -> a to table[A, $].
+        return contains(this.suffixFirst[offset], term)
+               || (this.suffixNullable[offset] && contains(this.followSets[this.productionLeft[prod]], term));
+    }
+
+    /**
+     * Verteilt die Mengen entlang der Abhängigkeitskanten, bis sich nichts mehr ändert.
+     * Es werden nur Nichtterminale erneut besucht, deren Vorgänger sich geändert haben.
+     *
+     * @param affected Nur diese Nichtterminale werden anfangs eingereiht, die übrigen haben keine Kanten.
+     */
+    private static void propagate(long[][] sets, int[][] dependents, boolean[] affected) {
+        final int count = sets.length;
+        final int[] queue = new int[count];
+        final boolean[] queued = new boolean[count];
+
+        int head = 0;
+        int size = 0;
+        for (int nterm = 0; nterm < count; nterm++) {
+            if (affected[nterm]) {
+                queue[size++] = nterm;
+                queued[nterm] = true;
+            }
+        }
+
+        while (size > 0) {
+            final int current = queue[head];
+            head = (head + 1) % count;
+            size--;
+            queued[current] = false;
+
+            for (int dependent : dependents[current]) {
+                if (union(sets[dependent], sets[current]) && !queued[dependent]) {
+                    queue[(head + size) % count] = dependent;
+                    queued[dependent] = true;
+                    size++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Überführt die Bitmengen in die Stringdarstellung, welche nach außen gegeben wird.
+     */
+    private Map<String, Set<String>> initFirst() {
+        return this.initFirst(GrammarDelta.full(this.nonterminalList.size()));
+    }
+
+    private Map<String, Set<String>> initFirst(GrammarDelta delta) {
+        final Map<String, Set<String>> firstOut = new HashMap<>();
+        final Map<String, Set<String>> previousFirst = delta.previous == null ? null : delta.previous.first;
+
+        for (String term : this.grammar.getTerminals()) {
+            firstOut.put(term, Set.of(term));
+        }
+        for (int nterm = 0; nterm < this.nonterminalList.size(); nterm++) {
+            if (!delta.first[nterm] && previousFirst != null) {
+                firstOut.put(this.nonterminalList.get(nterm), previousFirst.get(this.nonterminalList.get(nterm)));
+                continue;
+            }
+
+            final Set<String> symbols = this.toSymbolSet(this.firstSets[nterm]);
+            if (this.nullable[nterm]) {
+                symbols.add(Grammar.EPSILON_SYMBOL);
+            }
+
+            firstOut.put(this.nonterminalList.get(nterm), Collections.unmodifiableSet(symbols));
+        }
+
+        Logger.logInfoSupplier(() -> "First Set: " + firstOut, GrammarAnalyzer.class);
+
+        return Collections.unmodifiableMap(firstOut);
+    }
+
+    private Map<String, Set<String>> initFollow() {
+        return this.initFollow(GrammarDelta.full(this.nonterminalList.size()));
+    }
+
+    private Map<String, Set<String>> initFollow(GrammarDelta delta) {
+        final Map<String, Set<String>> followOut = new HashMap<>();
+        final Map<String, Set<String>> previousFollow = delta.previous == null ? null : delta.previous.follow;
+
+        for (int nterm = 0; nterm < this.nonterminalList.size(); nterm++) {
+            if (!delta.follow[nterm] && previousFollow != null) {
+                followOut.put(this.nonterminalList.get(nterm), previousFollow.get(this.nonterminalList.get(nterm)));
+                continue;
+            }
+
+            followOut.put(this.nonterminalList.get(nterm),
+                          Collections.unmodifiableSet(this.toSymbolSet(this.followSets[nterm])));
+        }
+
+        Logger.logInfoSupplier(() -> "Follow Set: " + followOut, GrammarAnalyzer.class);
+
+        return Collections.unmodifiableMap(followOut);
+    }
+
+    private Set<String> toSymbolSet(long[] bits) {
+        final Set<String> symbols = new HashSet<>();
+
+        for (int word = 0; word < bits.length; word++) {
+            long remaining = bits[word];
 
-                        final String prev = tableOut.put(new AbstractMap.SimpleEntry<>(leftside, "$"), rightside);
+            while (remaining != 0) {
+                symbols.add(this.terminalList.get(word * Long.SIZE + Long.numberOfTrailingZeros(remaining)));
+                remaining &= remaining - 1;
+            }
+        }
+
+        return symbols;
+    }
+
+    private int words() {
+        return (this.terminalList.size() + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index / Long.SIZE] |= 1L << (index % Long.SIZE);
+    }
+
+    private static boolean contains(long[] bits, int index) {
+        return (bits[index / Long.SIZE] & (1L << (index % Long.SIZE))) != 0;
+    }
+
+    /**
+     * target = target | source.
+     *
+     * @return Es wird true zurückgegeben, wenn target verändert wurde.
+     */
+    private static boolean union(long[] target, long[] source) {
+        boolean change = false;
+
+        for (int word = 0; word < target.length; word++) {
+            final long merged = target[word] | source[word];
+
+            if (merged != target[word]) {
+                target[word] = merged;
+                change = true;
+            }
+        }
+
+        return change;
+    }
+
+    private ParsingTable initParseTable(GrammarDelta delta) {
+        Logger.logDebug(" :: Initializing parse-table", GrammarAnalyzer.class);
+
+        final List<GrammarRule> rules = this.grammar.getProductions();
 
-                        Logger.logInfo("Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                        Logger.logInfo(" :: Add " + rightside + " to cell (" + leftside
-                                       + ", $) (epsilon in \"first(" + rightside + ")\" and $ in \"follow("
-                                       + leftside + ")\")", GrammarAnalyzer.class);
-                        Logger.logInfoNullable(prev, " :: Overwritten " + prev + "!", GrammarAnalyzer.class);
+        // Bei gleichen Terminalen bleiben unveränderte Zeilen im Comb-Vector liegen, sonst werden sie kopiert.
+        // Ist der Großteil betroffen, wird neu gepackt, da das Einpassen in viele verstreute Lücken teurer ist.
+        final boolean patch = delta.previous != null && delta.sameTerminals
+                              && 2 * count(delta.rows) <= this.nonterminalList.size();
+
+        final int[][] tableOut = new int[this.nonterminalList.size()][];
+        for (int leftside = 0; leftside < tableOut.length; leftside++) {
+            if (patch && !delta.rows[leftside]) {
+                continue;
+            }
+
+            tableOut[leftside] = new int[this.terminalList.size()];
+            Arrays.fill(tableOut[leftside], -1);
+
+            if (!delta.rows[leftside]) {
+                this.copyTableRow(delta, leftside, tableOut[leftside]);
+            }
+        }
+
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            // For each production A -> a of the grammar, add A -> a to table[A, t] for each t in predict(A -> a)
+
+            final int leftside = this.productionLeft[prod];
+
+            if (!delta.rows[leftside]) {
+                continue;
+            }
+
+            final long[] predict = this.predictSet(prod);
+
+            Logger.logInfo("Rule: \"" + rules.get(prod) + "\"", GrammarAnalyzer.class);
+
+            for (int word = 0; word < predict.length; word++) {
+                long remaining = predict[word];
+
+                while (remaining != 0) {
+                    final int sym = word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+
+                    final int prev = tableOut[leftside][sym];
+                    tableOut[leftside][sym] = prod;
+
+                    if (prev != -1) {
+                        Logger.logInfo(" :: Overwritten " + rules.get(prev).getRightside() + " in cell ("
+                                       + this.nonterminalList.get(leftside) + ", " + this.terminalList.get(sym) + ")!",
+                                       GrammarAnalyzer.class);
                     }
                 }
             }
         }
 
-        final ParsingTable parsingTable = new ParsingTable(this.grammar, tableOut);
+        final ParsingTable parsingTable = patch
+                                          ? delta.previous.table.patch(this.grammar, this.nonterminalList,
+                                                                       this.terminalList, this.rightsides(),
+                                                                       delta.previousNonterminal,
+                                                                       this.productionMap(delta), tableOut)
+                                          : new ParsingTable(this.grammar, this.nonterminalList,
+                                                             this.terminalList, this.rightsides(), tableOut);
 
-        Logger.logInfo("ParsingTable:\n" + parsingTable, GrammarAnalyzer.class);
+        Logger.logInfoSupplier(() -> "ParsingTable:\n" + parsingTable, GrammarAnalyzer.class);
+        Logger.logDebugSupplier(parsingTable::printMemoryReport, GrammarAnalyzer.class);
         Logger.logDebug(" :: Parse-table initialized successfully", GrammarAnalyzer.class);
 
         return parsingTable;
     }
 
+    /**
+     * Übernimmt eine unveränderte Zeile aus der vorherigen Parsetabelle, die Ids werden dabei umgerechnet.
+     */
+    private void copyTableRow(GrammarDelta delta, int leftside, int[] row) {
+        final GrammarAnalyzer previous = delta.previous;
+        final int previousRow = delta.previousNonterminal[leftside];
+        final List<GrammarRule> previousRules = previous.grammar.getProductions();
+
+        for (int column = 0; column < delta.terminalMap.length; column++) {
+            final int prod = previous.table.get(previousRow, column);
+
+            if (prod != -1 && delta.terminalMap[column] != -1) {
+                row[delta.terminalMap[column]] = this.productionIds.get(previousRules.get(prod));
+            }
+        }
+    }
+
+    /**
+     * Vorherige Produktionsnummer -> aktuelle Produktionsnummer, -1 für entfernte Regeln.
+     */
+    private int[] productionMap(GrammarDelta delta) {
+        final List<GrammarRule> previousRules = delta.previous.grammar.getProductions();
+        final int[] map = new int[previousRules.size()];
+
+        for (int prod = 0; prod < map.length; prod++) {
+            map[prod] = this.productionIds.getOrDefault(previousRules.get(prod), -1);
+        }
+
+        return map;
+    }
+
+    private ParsingTable initLazyParseTable() {
+        Logger.logDebug(" :: Initializing lazy parse-table", GrammarAnalyzer.class);
+
+        return ParsingTable.lazy(this.grammar, this.nonterminalList, this.terminalList,
+                                 this.rightsides(), this::predictCell);
+    }
+
+    /**
+     * Berechnet eine einzelne Zelle der Parsetabelle, dafür werden nur die Produktionen des Nichtterminals geprüft.
+     * Wie in {@link #initParseTable()} gewinnt bei Konflikten die letzte Produktion.
+     */
+    private int predictCell(int leftside, int term) {
+        int cell = -1;
+
+        for (int prod : this.productionsByLeft[leftside]) {
+            if (!this.predicts(prod, term)) {
+                continue;
+            }
+
+            if (cell != -1) {
+                Logger.logInfo(" :: Overwritten " + this.grammar.getProductions().get(cell).getRightside()
+                               + " in cell (" + this.nonterminalList.get(leftside) + ", "
+                               + this.terminalList.get(term) + ")!", GrammarAnalyzer.class);
+            }
+            cell = prod;
+        }
+
+        return cell;
+    }
+
+    private List<String> rightsides() {
+        return this.grammar.getProductions().stream()
+                           .map(GrammarRule::getRightside)
+                           .collect(Collectors.toList());
+    }
+
 
     public boolean nullable(String sym) {
         return sym.isBlank()
                || sym.equals(Grammar.EPSILON_SYMBOL)
-               || this.first.get(sym).contains(Grammar.EPSILON_SYMBOL);
+               || this.getFirst().get(sym).contains(Grammar.EPSILON_SYMBOL);
     }
 
     public boolean allNullable(String[] split) {
@@ -313,63 +923,190 @@ public final class GrammarAnalyzer {
     }
 
     public Set<String> first(String sym) {
-        return this.first.get(sym);
+        return this.getFirst().get(sym);
     }
 
+    /**
+     * Für Produktionen der Grammatik wird das vorberechnete first verwendet,
+     * alle anderen Anfragen werden einmal berechnet und gespeichert.
+     */
     public Set<String> stringFirst(String rightside) {
-        return this.stringFirst(rightside.split(" "));
+        return this.stringFirstCache.computeIfAbsent(rightside, key -> this.computeStringFirst(key.split(" ")));
     }
 
     public Set<String> stringFirst(String[] split) {
-        final Set<String> firstOut = new HashSet<>();
+        return this.stringFirst(String.join(" ", split));
+    }
 
-        // !: Hier wird wieder doppelt getestet
-        for (int i = 0; i < split.length; i++) {
-            final String[] sub = Arrays.copyOfRange(split, 0, i);
+    private Set<String> computeStringFirst(String[] split) {
+        final long[] bits = new long[this.words()];
+        boolean allNullable = true;
 
-            if (this.allNullable(sub)) {
-                // X1 ... Xi-1 are nullable, so first(X1 ... Xn) contains first(Xi)
+        for (String sym : split) {
+            if (sym.isBlank() || Grammar.EPSILON_SYMBOL.equals(sym)) {
+                continue;
+            }
 
-                final Set<String> firstXiNoEps;
-                if (split.length == 1 && split[0].equals(Grammar.EPSILON_SYMBOL)) {
-                    // Stream collect has to be evaluated, doesn't work on empty stream
+            final int id = this.symbolId(sym);
 
-                    firstXiNoEps = Collections.emptySet();
-                } else {
-                    // Only non-epsilon symbols
+            if (id >= 0) {
+                set(bits, id);
+                allNullable = false;
+                break;
+            }
 
-                    firstXiNoEps = this.first(split[i]).stream()
-                                       .filter(sym -> !sym.equals(Grammar.EPSILON_SYMBOL))
-                                       .collect(Collectors.toSet());
-                }
+            // X1 ... Xi-1 are nullable, so first(X1 ... Xn) contains first(Xi)
+            union(bits, this.firstSets[~id]);
 
-                firstOut.addAll(firstXiNoEps);
+            if (!this.nullable[~id]) {
+                allNullable = false;
+                break;
+            }
+        }
 
-                if (i == split.length - 1 && this.allNullable(split)) {
-                    // Finally, add epsilon to first(X1 X2 ... Xn) if, for all i, epsilon is in first(Xi).
+        final Set<String> firstOut = this.toSymbolSet(bits);
+        if (allNullable) {
+            // Finally, add epsilon to first(X1 X2 ... Xn) if, for all i, epsilon is in first(Xi).
 
-                    firstOut.add(Grammar.EPSILON_SYMBOL);
-                }
-            }
+            firstOut.add(Grammar.EPSILON_SYMBOL);
         }
 
-        return firstOut;
+        return Collections.unmodifiableSet(firstOut);
+    }
+
+    /**
+     * Ermittelt ohne Allokation, ob eine Produktion bei einem Terminal in die Parsetabelle eingetragen wird.
+     */
+    public boolean predicts(GrammarRule rule, String terminal) {
+        final Integer prod = this.productionIds.get(rule);
+        final Integer term = this.terminalIds.get(terminal);
+
+        return prod != null && term != null && this.predicts(prod, term);
+    }
+
+    /**
+     * Ermittelt in konstanter Zeit, ob das Suffix einer Produktion ab Position from nullable ist.
+     * Für Regeln, die nicht zur Grammatik gehören, ist das Ergebnis wie bei {@link #predicts} false.
+     */
+    public boolean suffixNullable(GrammarRule rule, int from) {
+        final Integer prod = this.productionIds.get(rule);
+
+        if (prod == null) {
+            return false;
+        }
+
+        return this.suffixNullable[this.suffixOffset[prod] + Math.min(from, this.productions[prod].length)];
     }
 
     public Set<String> follow(String sym) {
-        return this.follow.get(sym);
+        return this.getFollow().get(sym);
     }
 
 
     public Map<String, Set<String>> getFirst() {
+        if (this.first == null) {
+            // Mehrfaches Berechnen bei gleichzeitigem Zugriff ist harmlos, das Ergebnis ist immer gleich
+            this.first = this.initFirst();
+        }
+
         return this.first;
     }
 
     public Map<String, Set<String>> getFollow() {
+        if (this.follow == null) {
+            this.follow = this.initFollow();
+        }
+
         return this.follow;
     }
 
     public ParsingTable getTable() {
         return this.table;
     }
+
+    /**
+     * Unterschied zu einer vorherigen Analyse: Welche Nichtterminale neu berechnet werden müssen.
+     * Ohne vorherige Analyse ist alles betroffen.
+     */
+    private static final class GrammarDelta {
+
+        private final GrammarAnalyzer previous;
+
+        /**
+         * Aktuelle Nichtterminal-Id -> Id in der vorherigen Analyse, -1 für neue Nichtterminale.
+         */
+        private final int[] previousNonterminal;
+
+        /**
+         * Vorherige Terminal-Id -> aktuelle Id, -1 für entfernte Terminale.
+         */
+        private int[] terminalMap;
+        private boolean sameTerminals;
+
+        private final boolean[] changed;
+        private final List<Integer> addedProductions = new ArrayList<>();
+        private final List<GrammarRule> removedRules = new ArrayList<>();
+
+        private boolean[] first;
+        private boolean[] follow;
+        private boolean[] rows;
+
+        private GrammarDelta(GrammarAnalyzer previous, int nonterminals) {
+            this.previous = previous;
+            this.previousNonterminal = new int[nonterminals];
+            this.changed = new boolean[nonterminals];
+        }
+
+        static GrammarDelta full(int nonterminals) {
+            final GrammarDelta delta = new GrammarDelta(null, nonterminals);
+            final boolean[] all = new boolean[nonterminals];
+            Arrays.fill(all, true);
+
+            delta.first = all;
+            delta.follow = all;
+            delta.rows = all;
+
+            return delta;
+        }
+    }
+
+    /**
+     * Sammelt Kanten zwischen dichten Ids und baut daraus Adjazenzlisten ohne Boxing.
+     */
+    private static final class EdgeList {
+
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private int size;
+
+        void add(int source, int target) {
+            if (this.size == this.from.length) {
+                this.from = Arrays.copyOf(this.from, this.size * 2);
+                this.to = Arrays.copyOf(this.to, this.size * 2);
+            }
+
+            this.from[this.size] = source;
+            this.to[this.size] = target;
+            this.size++;
+        }
+
+        int[][] toAdjacency(int nodes) {
+            final int[] degree = new int[nodes];
+            for (int edge = 0; edge < this.size; edge++) {
+                degree[this.from[edge]]++;
+            }
+
+            final int[][] adjacency = new int[nodes][];
+            for (int node = 0; node < nodes; node++) {
+                adjacency[node] = new int[degree[node]];
+                degree[node] = 0;
+            }
+
+            for (int edge = 0; edge < this.size; edge++) {
+                adjacency[this.from[edge]][degree[this.from[edge]]++] = this.to[edge];
+            }
+
+            return adjacency;
+        }
+    }
 }
@@ -1,6 +1,10 @@
 package parser.grammar;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * Repräsentation einer Produktionsregel der Form leftside -> rightside.
@@ -10,9 +14,20 @@ public class GrammarRule {
     private final String leftside;
     private final String rightside;
 
+    /**
+     * Die rightside bereits in Symbole zerlegt, damit nicht bei jeder Analyse gesplittet werden muss.
+     * Für Epsilon-Produktionen ist die Liste leer.
+     */
+    private final List<String> symbols;
+
     public GrammarRule(String leftside, String... rightside) {
         this.leftside = leftside.trim();
         this.rightside = String.join(" ", rightside).trim();
+        this.symbols = Grammar.EPSILON_SYMBOL.equals(this.rightside)
+                       ? Collections.emptyList()
+                       : Arrays.stream(this.rightside.split(" "))
+                               .filter(sym -> !sym.isBlank())
+                               .collect(Collectors.toUnmodifiableList());
     }
 
     public String getLeftside() {
@@ -23,6 +38,14 @@ public class GrammarRule {
         return this.rightside;
     }
 
+    public List<String> getSymbols() {
+        return this.symbols;
+    }
+
+    public boolean isEpsilon() {
+        return this.symbols.isEmpty();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
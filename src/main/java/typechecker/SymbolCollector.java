@@ -0,0 +1,116 @@
+package typechecker;
+
+import parser.ast.NodeKind;
+import parser.ast.SyntaxTreeArena;
+import parser.ast.SyntaxTreeVisitor;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sammelt die Deklarationen für die {@link TypeTable}, in Postorder wie {@link TypeTable#fromArena(SyntaxTreeArena)}.
+ * Eine doppelte Deklaration wird erst mit {@link #getTable()} geworfen, damit der Durchlauf
+ * mit anderen Visitorn zu Ende laufen kann.
+ *
+ * <p>Jeder Block öffnet einen Bereich. Ein Name darf in einem Block nur einmal deklariert werden, auch nicht
+ * in einem geschachtelten Block, in getrennten Blöcken aber mehrfach.</p>
+ */
+public final class SymbolCollector implements SyntaxTreeVisitor {
+
+    /**
+     * Die Tabelle wird während des Sammelns schon befüllt.
+     */
+    private final TypeTable table;
+
+    /**
+     * Die offenen Bereiche, der letzte ist der aktuelle.
+     */
+    private final List<Integer> scopes;
+
+    /**
+     * Je offenem Bereich die Namen aus seinen schon geschlossenen inneren Blöcken.
+     */
+    private final List<Set<String>> innerSymbols;
+
+    private RuntimeException duplicate;
+    private int duplicateLine;
+    private String duplicateIdentifier;
+
+    public SymbolCollector(SyntaxTreeArena tree) {
+        this.table = TypeTable.withScopes(tree.size());
+        this.scopes = new ArrayList<>();
+        this.scopes.add(0);
+        this.innerSymbols = new ArrayList<>();
+        this.innerSymbols.add(new HashSet<>());
+    }
+
+    @Override
+    public void enter(SyntaxTreeArena tree, int node) {
+        final int current = this.scopes.get(this.scopes.size() - 1);
+        this.table.setScope(node, current);
+
+        if (tree.isBlock(node)) {
+            this.scopes.add(this.table.openScope(current));
+            this.innerSymbols.add(new HashSet<>());
+        }
+    }
+
+    @Override
+    public void exit(SyntaxTreeArena tree, int node) {
+        // Ein Rumpf kann auch direkt eine Deklaration sein, diese gilt dann nur im Rumpf
+        if (tree.getKind(node) == NodeKind.DECLARATION) {
+            this.declare(tree, node);
+        }
+
+        if (tree.isBlock(node)) {
+            // Die Namen des Blocks gelten im umschließenden Block als innere Namen
+            final int closed = this.scopes.remove(this.scopes.size() - 1);
+            final Set<String> inner = this.innerSymbols.remove(this.innerSymbols.size() - 1);
+
+            inner.addAll(this.table.getDeclaredSymbols(closed));
+            this.innerSymbols.get(this.innerSymbols.size() - 1).addAll(inner);
+        }
+    }
+
+    private void declare(SyntaxTreeArena tree, int node) {
+        final int current = this.scopes.get(this.scopes.size() - 1);
+        final String identifier = tree.getValue(tree.getChild(node, 0));
+        final boolean defined = this.table.lookup(current, identifier) != null
+                                || this.innerSymbols.get(this.innerSymbols.size() - 1).contains(identifier);
+
+        Logger.logInfo("Adding Entry: \"" + identifier + "\" -> \"" + tree.getValue(node) + "\"", TypeTable.class);
+        this.table.declare(current, identifier, Type.fromName(tree.getValue(node)));
+
+        if (defined && this.duplicate == null) {
+            this.duplicate = new SymbolAlreadyDefinedException("Das Symbol " + identifier + " wurde bereits deklariert.");
+            this.duplicateLine = tree.getLine(node);
+            this.duplicateIdentifier = identifier;
+        }
+    }
+
+    /**
+     * Die bisher gesammelten Symbole, die Tabelle wächst mit dem Durchlauf.
+     */
+    TypeTable getPartialTable() {
+        return this.table;
+    }
+
+    boolean hasDuplicate() {
+        return this.duplicate != null;
+    }
+
+    /**
+     * @throws SymbolAlreadyDefinedException Wenn ein Symbol mehrfach deklariert wurde.
+     */
+    public TypeTable getTable() {
+        if (this.duplicate != null) {
+            Logger.logError("Line " + this.duplicateLine + " Symbolerror: [" + this.duplicateIdentifier + "] already defined", TypeTable.class);
+            throw this.duplicate;
+        }
+
+        return this.table;
+    }
+}
@@ -0,0 +1,33 @@
+package typechecker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Die Datentypen eines Programms, benannt wie die Typ-Terminals der Grammatik.
+ * Der Wert eines declaration-Knotens ist einer dieser Namen.
+ *
+ * <p>Die Tabellen in {@link TypeTable} und im Codegenerator sind Arrays über {@link #ordinal()}.</p>
+ */
+public enum Type {
+
+    INTEGER_TYPE,
+    BOOLEAN_TYPE,
+    STRING_TYPE;
+
+    private static final Map<String, Type> types;
+
+    static {
+        types = new HashMap<>();
+        for (Type type : values()) {
+            types.put(type.name(), type);
+        }
+    }
+
+    /**
+     * @return Der Typ zum Namen oder null, wenn der Name kein Datentyp ist.
+     */
+    public static Type fromName(String name) {
+        return types.get(name);
+    }
+}
@@ -1,169 +1,567 @@
 package typechecker;
 
+import parser.ast.ExpressionDag;
+import parser.ast.NodeKind;
+import parser.ast.Operator;
 import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeArena;
 import parser.ast.SyntaxTreeNode;
+import parser.ast.SyntaxTreeVisitor;
+import parser.ast.SyntaxTreeWalker;
 import util.Logger;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Prüft die Typen eines Abstrakten Syntaxbaums in Postorder und weist jedem Ausdruck seinen Typ zu.
+ *
+ * <p>Als {@link SyntaxTreeVisitor} kann die Prüfung mit anderen Durchläufen zusammengelegt werden.
+ * Sammelt ein {@link SymbolCollector} die Deklarationen im selben Durchlauf, sind spätere Deklarationen
+ * noch unbekannt. Variablen gelten aber in ihrem ganzen Block, deshalb werden Prüfungen mit solchen
+ * Variablen bis {@link #verify()} zurückgestellt.</p>
+ *
+ * <p>Wie bei {@link TypeStack} wird nur der erste Fehler in Postorder geworfen, doppelte Deklarationen zuerst.</p>
+ *
+ * <p>Mit vollständiger Tabelle sind Zuweisungen und Bedingungen unabhängig voneinander, große Programme können dann
+ * mit {@link #validateParallel(SyntaxTreeArena, TypeTable)} parallel geprüft werden.</p>
+ */
+public final class TypeChecker implements SyntaxTreeVisitor {
+
+    /**
+     * So viele unabhängige Teilbäume prüft eine Teilaufgabe der parallelen Prüfung mindestens am Stück.
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private final SyntaxTreeArena tree;
+    private final TypeTable table;
+
+    /**
+     * Sammelt die Deklarationen im selben Durchlauf, null wenn die Tabelle schon vollständig ist.
+     */
+    private final SymbolCollector symbols;
+
+    /**
+     * Gleiche Teilausdrücke werden nur beim ersten Vorkommen geprüft, null ohne Hash-Consing.
+     */
+    private final ExpressionDag expressions;
+
+    /**
+     * Der Typ jedes Knotens, der Index ist der Knoten in der Arena.
+     */
+    private final Type[] nodeTable;
+
+    /**
+     * Knoten, deren Typ von einer noch nicht deklarierten Variable abhängt, in Postorder.
+     * Null mit vollständiger Tabelle.
+     */
+    private final boolean[] pending;
+    private int[] pendingNodes;
+    private int pendingCount;
+
+    /**
+     * Zurückgestellte Prüfungen und ihre Position in Postorder.
+     */
+    private int[] deferredNodes;
+    private int[] deferredPositions;
+    private int deferredCount;
+
+    private int position;
+
+    private RuntimeException error;
+    private String errorLog;
+    private int errorPosition;
+
+    private TypeChecker(SyntaxTreeArena tree, TypeTable table, SymbolCollector symbols, ExpressionDag expressions,
+                        Type[] nodeTable) {
+        this.tree = tree;
+        this.table = table;
+        this.symbols = symbols;
+        this.expressions = expressions;
+        this.nodeTable = nodeTable;
+        this.pending = symbols == null ? null : new boolean[tree.size()];
+        this.pendingNodes = new int[16];
+        this.deferredNodes = new int[16];
+        this.deferredPositions = new int[16];
+        this.errorPosition = Integer.MAX_VALUE;
+    }
 
-public final class TypeChecker {
+    /**
+     * Prüft mit einer vollständigen Tabelle.
+     */
+    public static TypeChecker fromTable(SyntaxTreeArena tree, TypeTable table) {
+        return new TypeChecker(tree, table, null, null, new Type[tree.size()]);
+    }
 
-    private static final Collection<String> lit = Arrays.asList("INTEGER_LIT", "STRING_LIT", "BOOLEAN_LIT");
-    private static final Collection<String> unary = Arrays.asList("ADD", "SUB", "NOT");
+    /**
+     * Prüft mit den Symbolen, die der Collector im selben Durchlauf sammelt.
+     * Der Collector muss im Durchlauf vor dem TypeChecker stehen.
+     */
+    public static TypeChecker fromCollector(SyntaxTreeArena tree, SymbolCollector symbols) {
+        return new TypeChecker(tree, symbols.getPartialTable(), symbols, null, new Type[tree.size()]);
+    }
 
-    private TypeChecker() {}
+    /**
+     * Wie {@link #fromCollector(SyntaxTreeArena, SymbolCollector)}, wiederholte Teilausdrücke übernehmen aber den Typ
+     * ihres ersten Vorkommens. Der DAG muss im Durchlauf vor dem TypeChecker stehen.
+     */
+    public static TypeChecker fromCollector(SyntaxTreeArena tree, SymbolCollector symbols, ExpressionDag expressions) {
+        return new TypeChecker(tree, symbols.getPartialTable(), symbols, expressions, new Type[tree.size()]);
+    }
 
     // TODO: merge nodeTable into typetable?
     // Wirft exception bei typeerror
-    public static Map<SyntaxTreeNode, String> validate(SyntaxTree tree) {
-        final TypeTable table = TypeTable.fromAST(tree);
-        final Map<SyntaxTreeNode, String> nodeTable = new HashMap<>();
+    public static Map<SyntaxTreeNode, Type> validate(SyntaxTree tree) {
+        final List<SyntaxTreeNode> nodes = new ArrayList<>();
+
+        return toMap(validate(SyntaxTreeArena.fromTree(tree, nodes)), nodes);
+    }
+
+    /**
+     * Prüft einen Teilbaum, dessen Variablen auch außerhalb deklariert sein können.
+     */
+    public static Map<SyntaxTreeNode, Type> validate(SyntaxTree tree, TypeTable table) {
+        final List<SyntaxTreeNode> nodes = new ArrayList<>();
+
+        return toMap(validate(SyntaxTreeArena.fromTree(tree, nodes), table), nodes);
+    }
+
+    private static Map<SyntaxTreeNode, Type> toMap(Type[] nodeTypes, List<SyntaxTreeNode> nodes) {
+        final Map<SyntaxTreeNode, Type> nodeTable = new HashMap<>();
+        for (int node = 0; node < nodeTypes.length; node++) {
+            if (nodeTypes[node] != null) {
+                nodeTable.put(nodes.get(node), nodeTypes[node]);
+            }
+        }
+
+        return nodeTable;
+    }
+
+    /**
+     * Sammelt die Symbole und prüft die Typen in einem Durchlauf.
+     *
+     * @return Der Typ jedes Knotens, der Index ist der Knoten in der Arena.
+     */
+    public static Type[] validate(SyntaxTreeArena tree) {
+        final SymbolCollector symbols = new SymbolCollector(tree);
+        final TypeChecker checker = fromCollector(tree, symbols);
+
+        Logger.logDebug("Beginning typevalidation of abstract-syntax-tree", TypeChecker.class);
+
+        SyntaxTreeWalker.walk(tree, symbols, checker);
+        final Type[] nodeTable = checker.verify();
+
+        Logger.logDebug("Successfully typevalidated the abstract-syntax-tree", TypeChecker.class);
+
+        return nodeTable;
+    }
+
+    public static Type[] validate(SyntaxTreeArena tree, TypeTable table) {
+        final TypeChecker checker = fromTable(tree, table);
 
         Logger.logDebug("Beginning typevalidation of abstract-syntax-tree", TypeChecker.class);
 
-        validate(tree.getRoot(), table, nodeTable);
+        SyntaxTreeWalker.walk(tree, checker);
+        final Type[] nodeTable = checker.verify();
+
+        Logger.logDebug("Successfully typevalidated the abstract-syntax-tree", TypeChecker.class);
+
+        return nodeTable;
+    }
+
+    /**
+     * Wie {@link #validate(SyntaxTreeArena, TypeTable)}, prüft die Zuweisungen und Bedingungen aber in Abschnitten
+     * parallel im gemeinsamen {@link ForkJoinPool}.
+     */
+    public static Type[] validateParallel(SyntaxTreeArena tree, TypeTable table) {
+        return validateParallel(tree, table, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Prüft die unabhängigen Teilbäume (Zuweisungen und Ausdrücke außerhalb von Zuweisungen) in Abschnitten parallel.
+     * Die Teilbäume sind disjunkt, jeder Abschnitt schreibt also ohne Synchronisation in andere Einträge der
+     * gemeinsamen Typtabelle. Die Tabelle wird nur gelesen.
+     *
+     * <p>Die Teilbäume liegen in Preorder hintereinander, das ist auch ihre Reihenfolge in Postorder. Beim Zusammenführen
+     * gewinnt deshalb der Fehler des linken Abschnitts, geworfen wird wie sequentiell der erste Fehler in Postorder.</p>
+     *
+     * @return Der Typ jedes Knotens, der Index ist der Knoten in der Arena.
+     */
+    public static Type[] validateParallel(SyntaxTreeArena tree, TypeTable table, ForkJoinPool pool) {
+        final int[] roots = collectCheckRoots(tree);
+        final Type[] nodeTable = new Type[tree.size()];
+
+        Logger.logDebug("Beginning parallel typevalidation of " + roots.length + " subtrees", TypeChecker.class);
+
+        final TypeChecker failed = pool.invoke(new CheckTask(tree, table, nodeTable, roots, 0, roots.length));
+        if (failed != null) {
+            failed.verify(); // Wirft den Fehler
+        }
 
         Logger.logDebug("Successfully typevalidated the abstract-syntax-tree", TypeChecker.class);
 
         return nodeTable;
     }
 
-    private static void validate(SyntaxTreeNode root, TypeTable table, Map<SyntaxTreeNode, String> nodeTable) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            validate(child, table, nodeTable);
+    /**
+     * Sammelt die Wurzeln der unabhängig prüfbaren Teilbäume in Preorder: Zuweisungen und die obersten getypten
+     * Knoten außerhalb von Zuweisungen. In diese Teilbäume wird nicht weiter abgestiegen.
+     */
+    private static int[] collectCheckRoots(SyntaxTreeArena tree) {
+        int[] roots = new int[16];
+        int rootCount = 0;
+
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = tree.getRoot();
+
+        while (size > 0) {
+            final int node = stack[--size];
+            final NodeKind kind = tree.getKind(node);
+
+            if (kind == NodeKind.ASSIGNMENT || kind.isTyped()) {
+                if (rootCount == roots.length) {
+                    roots = Arrays.copyOf(roots, 2 * roots.length);
+                }
+
+                roots[rootCount++] = node;
+                continue;
+            }
+
+            // Rückwärts auf den Stack, damit das erste Kind zuerst besucht wird
+            final int childCount = tree.getChildCount(node);
+            if (size + childCount > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(2 * stack.length, size + childCount));
+            }
+
+            int index = size + childCount;
+            for (int child = tree.getFirstChild(node); child != SyntaxTreeArena.NONE; child = tree.getNextSibling(child)) {
+                stack[--index] = child;
+            }
+            size += childCount;
+        }
+
+        return Arrays.copyOf(roots, rootCount);
+    }
+
+    /**
+     * Prüft die Teilbäume roots[from, to) und liefert den Checker mit dem ersten Fehler oder null.
+     */
+    private static final class CheckTask extends RecursiveTask<TypeChecker> {
+
+        private final SyntaxTreeArena tree;
+        private final TypeTable table;
+        private final Type[] nodeTable;
+        private final int[] roots;
+        private final int from;
+        private final int to;
+
+        private CheckTask(SyntaxTreeArena tree, TypeTable table, Type[] nodeTable, int[] roots, int from, int to) {
+            this.tree = tree;
+            this.table = table;
+            this.nodeTable = nodeTable;
+            this.roots = roots;
+            this.from = from;
+            this.to = to;
         }
 
-        if (lit.contains(root.getName())) {
-            // NodeTable Eintrag für Literal hinzufügen
+        @Override
+        protected TypeChecker compute() {
+            if (this.to - this.from <= CHUNK_SIZE) {
+                final TypeChecker checker = new TypeChecker(this.tree, this.table, null, null, this.nodeTable);
+
+                for (int i = this.from; i < this.to && checker.error == null; i++) {
+                    SyntaxTreeWalker.walk(this.tree, this.roots[i], checker);
+                }
+
+                return checker.error == null ? null : checker;
+            }
 
-            final String literalType = getLiteralType(root.getName());
+            final int middle = (this.from + this.to) >>> 1;
+            final CheckTask left = new CheckTask(this.tree, this.table, this.nodeTable, this.roots, this.from, middle);
+            final CheckTask right = new CheckTask(this.tree, this.table, this.nodeTable, this.roots, middle, this.to);
+
+            left.fork();
+            final TypeChecker rightFailed = right.compute();
+            final TypeChecker leftFailed = left.join();
+
+            return leftFailed != null ? leftFailed : rightFailed;
+        }
+    }
 
-            Logger.logInfo("Register type \"" + literalType + "\" for node \"" + root.getName() + ": "
-                           + root.getValue() + "\"", TypeChecker.class);
+    @Override
+    public void exit(SyntaxTreeArena tree, int root) {
+        final int current = this.position++;
+        final NodeKind kind = tree.getKind(root);
 
-            nodeTable.put(root, literalType);
+        if (this.isChecked(root, kind)) {
+            // Gleicher Ausdruck wurde schon geprüft, ein Fehler darin steht also schon weiter vorne
+            this.nodeTable[root] = this.nodeTable[this.expressions.getFirstOccurrence(root)];
             return;
-        } else if ("expr".equals(root.getName())) {
-            // NodeTable Eintrag für Expression hinzufügen
+        }
+
+        switch (kind) {
+            case INTEGER_LIT, STRING_LIT, BOOLEAN_LIT -> {
+                // NodeTable Eintrag für Literal hinzufügen
+
+                final Type literalType = getLiteralType(kind);
+
+                Logger.logInfo("Register type \"" + literalType + "\" for node \"" + tree.getName(root) + ": "
+                               + tree.getValue(root) + "\"", TypeChecker.class);
+
+                this.nodeTable[root] = literalType;
+                return;
+            }
+            case EXPR -> {
+                // NodeTable Eintrag für Expression hinzufügen
 
-            final String exprType = table.getMethodReturnType(root.getValue());
+                final Type exprType = this.table.getMethodReturnType(tree.getOperator(root));
 
-            Logger.logInfo("Register type \"" + exprType + "\" for node \"" + root.getName() + "\"\n"
-                           + root.nodePrint("\t\t"), TypeChecker.class);
+                Logger.logInfoSupplier(() -> "Register type \"" + exprType + "\" for node \"" + tree.getName(root) + "\"\n"
+                                             + tree.nodePrint(root, "\t\t"), TypeChecker.class);
 
-            nodeTable.put(root, exprType);
-        } else if ("par_expr".equals(root.getName())) {
-            // Nodetable Eintrag für Klammern
+                this.nodeTable[root] = exprType;
+            }
+            case PAR_EXPR -> {
+                // Nodetable Eintrag für Klammern
 
-            final SyntaxTreeNode centerChild = root.getChildren().get(0);
+                this.typeParExpr(root);
+                if (this.isPending(tree.getChild(root, 0))) {
+                    this.markPending(root);
+                }
+            }
+            case IDENTIFIER -> {
+                // Nodedtable Eintrag fuer Identifier
+
+                this.typeIdentifier(root);
+                if (this.nodeTable[root] == null && this.symbols != null) {
+                    // Kann noch später im Programm deklariert werden
+                    this.markPending(root);
+                }
+            }
+            default -> {}
+        }
+
+        if (kind == NodeKind.ASSIGNMENT || kind == NodeKind.EXPR) {
+            if (this.hasPendingChild(root) || this.isPendingAssignment(root)) {
+                this.defer(root, current);
+            } else if (this.error == null) {
+                // Nach dem ersten Fehler werden nur noch zurückgestellte Prüfungen davor gebraucht
+                this.validate(root, current);
+            }
+        }
+    }
 
-            nodeTable.put(root, nodeTable.get(centerChild));
-        } else if ("IDENTIFIER".equals(root.getName())) {
-            // Nodedtable Eintrag fuer Identifier
+    /**
+     * Löst die zurückgestellten Variablen mit der vollständigen Tabelle auf und holt die zurückgestellten Prüfungen nach.
+     *
+     * @return Der Typ jedes Knotens, der Index ist der Knoten in der Arena.
+     * @throws RuntimeException Der erste Fehler in Postorder, doppelte Deklarationen zuerst.
+     */
+    public Type[] verify() {
+        if (this.symbols != null) {
+            this.symbols.getTable(); // Wirft bei doppelter Deklaration
+        }
 
-            final String identifierType = table.getSymbolType(root.getValue());
+        // In Postorder, Klammern werden also nach ihrem Inhalt aufgelöst
+        for (int i = 0; i < this.pendingCount; i++) {
+            this.pending[this.pendingNodes[i]] = false;
 
-            Logger.logInfo("Register type \"" + identifierType + "\" for node \"" + root.getName() + ": "
-                           + root.getValue() + "\"", TypeChecker.class);
+            if (this.tree.getKind(this.pendingNodes[i]) == NodeKind.IDENTIFIER) {
+                this.typeIdentifier(this.pendingNodes[i]);
+            } else {
+                this.typeParExpr(this.pendingNodes[i]);
+            }
+        }
 
-            nodeTable.put(root, identifierType);
+        for (int i = 0; i < this.deferredCount && this.deferredPositions[i] < this.errorPosition; i++) {
+            this.validate(this.deferredNodes[i], this.deferredPositions[i]);
         }
 
-        if ("assignment".equals(root.getName())) {
-            validateAssignment(root, table, nodeTable);
-        } else if ("expr".equals(root.getName())) {
-            validateExpression(root, table, nodeTable);
+        if (this.error != null) {
+            Logger.logError(this.errorLog, TypeChecker.class);
+            throw this.error;
         }
+
+        return this.nodeTable;
     }
 
-    private static void validateAssignment(SyntaxTreeNode root, TypeTable table, Map<SyntaxTreeNode, String> nodeTable) {
-        final String identifier = root.getValue();
-        final String identifierType = table.getSymbolType(identifier);
-        final SyntaxTreeNode literalNode = root.getChildren().get(0);
-        final String literalType = nodeTable.get(literalNode);
+    private void typeParExpr(int root) {
+        this.nodeTable[root] = this.nodeTable[this.tree.getChild(root, 0)];
+    }
 
-        Logger.logInfo("Validating assignment: \"" + identifier + "\" -> \"" + identifierType + "\" = \"" + literalType + "\"", TypeChecker.class);
+    private void typeIdentifier(int root) {
+        final Type identifierType = this.table.getSymbolType(root, this.tree.getValue(root));
 
-        if (!literalType.equals(identifierType)) {
-            Logger.logError("Line " + root.getLine() + " Typeerror: Can't assign [" + literalNode.getValue()
-                            + "] to [" + identifier + "]: " + identifierType, TypeChecker.class);
+        Logger.logInfo("Register type \"" + identifierType + "\" for node \"IDENTIFIER: "
+                       + this.tree.getValue(root) + "\"", TypeChecker.class);
 
-            throw new AssignmentTypeMismatchException("Trying to assign " + literalType + " to a " + identifierType + " variable.");
+        this.nodeTable[root] = identifierType;
+    }
+
+    private boolean isChecked(int root, NodeKind kind) {
+        if (this.expressions == null || (kind != NodeKind.EXPR && kind != NodeKind.PAR_EXPR)
+            || !this.expressions.isRepeated(root)) {
+            return false;
+        }
+
+        final int first = this.expressions.getFirstOccurrence(root);
+
+        // Ausdrücke mit noch unbekannten Variablen werden normal zurückgestellt
+        return this.nodeTable[first] != null && !this.isPending(first);
+    }
+
+    /**
+     * Die Deklaration einer Zuweisung wird erst nach der Zuweisung selbst verlassen.
+     */
+    private boolean isPendingAssignment(int root) {
+        return this.symbols != null
+               && this.tree.getKind(root) == NodeKind.ASSIGNMENT
+               && this.table.getSymbolType(root, this.tree.getValue(root)) == null;
+    }
+
+    private boolean hasPendingChild(int root) {
+        for (int child = this.tree.getFirstChild(root); child != SyntaxTreeArena.NONE; child = this.tree.getNextSibling(child)) {
+            if (this.isPending(child)) {
+                return true;
+            }
         }
+
+        return false;
     }
 
-    private static void validateExpression(SyntaxTreeNode root, TypeTable table, Map<SyntaxTreeNode, String> nodeTable) {
-        final String op = root.getValue();
+    private boolean isPending(int node) {
+        return this.pending != null && this.pending[node];
+    }
 
-        Logger.logInfo("Validating expression: \"" + root.getValue() + "\"\n" + root.nodePrint("\t\t"), TypeChecker.class);
+    private void markPending(int node) {
+        if (this.pendingCount == this.pendingNodes.length) {
+            this.pendingNodes = Arrays.copyOf(this.pendingNodes, 2 * this.pendingCount);
+        }
 
-        if (root.isEmpty()) {
-            // Keine Kinder
+        this.pending[node] = true;
+        this.pendingNodes[this.pendingCount++] = node;
+    }
+
+    private void defer(int node, int nodePosition) {
+        if (this.deferredCount == this.deferredNodes.length) {
+            this.deferredNodes = Arrays.copyOf(this.deferredNodes, 2 * this.deferredCount);
+            this.deferredPositions = Arrays.copyOf(this.deferredPositions, 2 * this.deferredCount);
+        }
+
+        this.deferredNodes[this.deferredCount] = node;
+        this.deferredPositions[this.deferredCount] = nodePosition;
+        this.deferredCount++;
+    }
+
+    /**
+     * Merkt sich nur den ersten Fehler in Postorder.
+     */
+    private void fail(int nodePosition, RuntimeException exception, String log) {
+        if (nodePosition < this.errorPosition) {
+            this.error = exception;
+            this.errorLog = log;
+            this.errorPosition = nodePosition;
+        }
+    }
+
+    private void validate(int root, int nodePosition) {
+        if (this.tree.getKind(root) == NodeKind.ASSIGNMENT) {
+            this.validateAssignment(root, nodePosition);
+        } else {
+            this.validateExpression(root, nodePosition);
+        }
+    }
+
+    private void validateAssignment(int root, int nodePosition) {
+        final String identifier = this.tree.getValue(root);
+        final Type identifierType = this.table.getSymbolType(root, identifier);
+        final int literalNode = this.tree.getChild(root, 0);
+        final Type literalType = this.nodeTable[literalNode];
+
+        Logger.logInfo("Validating assignment: \"" + identifier + "\" -> \"" + identifierType + "\" = \"" + literalType + "\"", TypeChecker.class);
 
-            Logger.logError("Line " + root.getLine() + " Operatorerror: Can't use [" + op + "] without arguments", TypeChecker.class);
+        if (literalType == null) {
+            this.fail(nodePosition, new SymbolNotDefinedException("Zugriff auf nicht deklarierte Variable " + this.tree.getValue(literalNode)),
+                      "Variable " + this.tree.getValue(literalNode) + " wurde nicht deklariert.");
+        } else if (literalType != identifierType) {
+            this.fail(nodePosition, new AssignmentTypeMismatchException("Trying to assign " + literalType + " to a " + identifierType + " variable."),
+                      "Line " + this.tree.getLine(root) + " Typeerror: Can't assign [" + this.tree.getValue(literalNode)
+                      + "] to [" + identifier + "]: " + identifierType);
+        }
+    }
+
+    private void validateExpression(int root, int nodePosition) {
+        final String op = this.tree.getValue(root);
+        final Operator operator = this.tree.getOperator(root);
+        final int childCount = this.tree.getChildCount(root);
+        final int line = this.tree.getLine(root);
+
+        Logger.logInfoSupplier(() -> "Validating expression: \"" + op + "\"\n" + this.tree.nodePrint(root, "\t\t"), TypeChecker.class);
 
-            throw new OperatorUsageException("Versuche Operator " + op + " ohne Argumente aufzurufen.");
-        } else if (root.getChildren().size() != 1 && "NOT".equals(op)) {
+        if (childCount == 0) {
+            // Keine Kinder
+
+            this.fail(nodePosition, new OperatorUsageException("Versuche Operator " + op + " ohne Argumente aufzurufen."),
+                      "Line " + line + " Operatorerror: Can't use [" + op + "] without arguments");
+            return;
+        } else if (childCount != 1 && operator == Operator.NOT) {
             // Unärer Operator mit  != 1 Child
             // SUB, ADD müssen nicht geprüft werden, da diese doppelt belegt sind mit ihrem binären Gegenstück
 
-            Logger.logError("Line " + root.getLine() + " Operatorerror: Can't use [" + op + "] with more than 1 argument", TypeChecker.class);
-
-            throw new OperatorUsageException("Versuche unären Operator " + op + " mit mehreren Argument aufzurufen.");
-        } else if (root.getChildren().size() == 1 && !unary.contains(op)) {
+            this.fail(nodePosition, new OperatorUsageException("Versuche unären Operator " + op + " mit mehreren Argument aufzurufen."),
+                      "Line " + line + " Operatorerror: Can't use [" + op + "] with more than 1 argument");
+            return;
+        } else if (childCount == 1 && (operator == null || !operator.isUnary())) {
             // Binärer Operator mit 1 Child
 
-            Logger.logError("Line " + root.getLine() + " Operatorerror: Can't use [" + op + "] with only 1 argument", TypeChecker.class);
-
-            throw new OperatorUsageException("Versuche binären Operator " + op + " mit einem Argument aufzurufen.");
+            this.fail(nodePosition, new OperatorUsageException("Versuche binären Operator " + op + " mit einem Argument aufzurufen."),
+                      "Line " + line + " Operatorerror: Can't use [" + op + "] with only 1 argument");
+            return;
         }
 
-        final List<String> requiredType = table.getMethodArgumentType(op);
-        for (SyntaxTreeNode child : root.getChildren()) {
+        for (int child = this.tree.getFirstChild(root); child != SyntaxTreeArena.NONE; child = this.tree.getNextSibling(child)) {
             // Jedes Child muss korrekten Typ zurückgeben
 
-            final String childReturnType = nodeTable.get(child);
+            final Type childReturnType = this.nodeTable[child];
 
             if (childReturnType == null) {
-                Logger.logError("Variable " + child.getValue() + " wurde nicht deklariert.", TypeChecker.class);
-
-                throw new SymbolNotDefinedException("Zugriff auf nicht deklarierte Variable " + child.getValue());
+                this.fail(nodePosition, new SymbolNotDefinedException("Zugriff auf nicht deklarierte Variable " + this.tree.getValue(child)),
+                          "Variable " + this.tree.getValue(child) + " wurde nicht deklariert.");
+                return;
             }
 
-            if (!requiredType.contains(childReturnType)) {
-                // Child returned Typ, welcher nicht im SymbolTable als Argumenttyp steht
+            if (this.table.getMethodReturnType(operator, childReturnType) == null) {
+                // Child returned Typ, welcher nicht in der Signatur des Operators steht
                 // Der NodeTable enthält auch Literale, diese müssen also nicht einzeln behandelt werden
 
-                Logger.logError("Line " + root.getLine() + " Typeerror: Can't use [" + op
-                                + "] with argument of type [" + nodeTable.get(child) + "]", TypeChecker.class);
-
-                throw new OperatorTypeMismatchException("Versuche Operator " + op + " mit Argument vom Typ " + nodeTable.get(child) + " aufzurufen.");
+                this.fail(nodePosition, new OperatorTypeMismatchException("Versuche Operator " + op + " mit Argument vom Typ " + childReturnType + " aufzurufen."),
+                          "Line " + line + " Typeerror: Can't use [" + op + "] with argument of type [" + childReturnType + "]");
+                return;
             }
         }
 
-        if ("EQUAL".equals(op) || "NOT_EQUAL".equals(op)) {
-            final SyntaxTreeNode left = root.getChildren().get(0);
-            final SyntaxTreeNode right = root.getChildren().get(1);
-
-            if (!nodeTable.get(left).equals(nodeTable.get(right))) {
-                Logger.logError("Line " + root.getLine() + " Typeerror: Can't use [" + op
-                                + "] with arguments of type [" + nodeTable.get(left) + "] and [" + nodeTable.get(right)
-                                + "]", TypeChecker.class);
+        if (operator == Operator.EQUAL || operator == Operator.NOT_EQUAL) {
+            final Type left = this.nodeTable[this.tree.getChild(root, 0)];
+            final Type right = this.nodeTable[this.tree.getChild(root, 1)];
 
-                throw new OperatorTypeMismatchException("Versuche Operator" + op + " mit Argumenten ungleichen Types zu verwenden.");
+            if (left != right) {
+                this.fail(nodePosition, new OperatorTypeMismatchException("Versuche Operator" + op + " mit Argumenten ungleichen Types zu verwenden."),
+                          "Line " + line + " Typeerror: Can't use [" + op + "] with arguments of type [" + left + "] and [" + right + "]");
             }
         }
     }
 
-    private static String getLiteralType(String literal) {
+    private static Type getLiteralType(NodeKind literal) {
         return switch (literal) {
-            case "BOOLEAN_LIT" -> "BOOLEAN_TYPE";
-            case "INTEGER_LIT" -> "INTEGER_TYPE";
-            case "STRING_LIT" -> "STRING_TYPE";
+            case BOOLEAN_LIT -> Type.BOOLEAN_TYPE;
+            case INTEGER_LIT -> Type.INTEGER_TYPE;
+            case STRING_LIT -> Type.STRING_TYPE;
             default -> null;
         };
     }
@@ -0,0 +1,411 @@
+package typechecker;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import parser.ast.Operator;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prüft die Typen eines Programms während des Erkennens, ohne einen Syntaxbaum aufzubauen.
+ * Es gelten die Regeln von {@link TypeChecker} und {@link TypeTable}.
+ *
+ * <p>Ausdrücke werden mit einem Operator- und einem Typstack ausgewertet (Shunting-Yard),
+ * dabei gelten die Prioritäten aus {@link Operator}.
+ * Es wird nur der erste Fehler gespeichert, geworfen wird er erst mit {@link #verify()},
+ * da Syntaxfehler Vorrang haben.</p>
+ *
+ * <p>Der erste Fehler ist wie beim {@link TypeChecker} der erste in Postorder des Abstrakten Syntaxbaums.
+ * Dort stehen bei kommutativen Operatoren die größeren Teilausdrücke links ({@link parser.ast.SyntaxTreeRebalancer}),
+ * deshalb merkt sich jeder Eintrag die Größe seines Teilbaums und den ersten Fehler darin.
+ * Die Fehler eines Ausdrucks werden erst übernommen, wenn er vollständig ist.</p>
+ */
+public final class TypeStack {
+
+    private final TypeTable table;
+
+    /**
+     * Typen der fertigen Teilausdrücke, null für nicht deklarierte Variablen.
+     */
+    private Type[] types;
+
+    /**
+     * Für Fehlermeldungen: Der Wert eines Operanden, wie bei {@link parser.ast.SyntaxTreeNode#getValue()}.
+     */
+    private String[] values;
+
+    /**
+     * Die Anzahl der Knoten, die der Teilausdruck im Abstrakten Syntaxbaum hat.
+     */
+    private int[] sizes;
+
+    /**
+     * Der erste Fehler im Teilausdruck in Postorder oder null.
+     */
+    private RuntimeException[] errors;
+    private String[] errorLogs;
+    private int typeCount;
+
+    /**
+     * Offene Operatoren, null trennt die verschachtelten Ausdrücke.
+     */
+    private Operator[] operators;
+    private boolean[] unary;
+    private int operatorCount;
+
+    private RuntimeException error;
+    private String errorLog;
+    private Class<?> errorSource;
+
+    private TypeStack(TypeTable table) {
+        this.table = table;
+        this.types = new Type[16];
+        this.values = new String[16];
+        this.sizes = new int[16];
+        this.errors = new RuntimeException[16];
+        this.errorLogs = new String[16];
+        this.operators = new Operator[16];
+        this.unary = new boolean[16];
+    }
+
+    /**
+     * Sammelt die Deklarationen vorab, da Variablen wie bei {@link TypeTable} in ihrem ganzen Block gelten.
+     * Eine Deklaration beginnt immer mit "Typ IDENTIFIER =".
+     *
+     * <p>Die Blöcke werden an den Token erkannt: Geschweifte Klammern öffnen und schließen einen Block,
+     * ein Rumpf ohne Klammern nach if, while oder else gilt bis zum Ende seiner Anweisung.</p>
+     */
+    public static TypeStack fromTokens(List<? extends Token> token, Vocabulary voc) {
+        final TypeTable table = TypeTable.withScopes(token.size());
+        RuntimeException duplicate = null;
+        String duplicateLog = null;
+
+        // Die Tokentypen werden einmal nachgeschlagen, statt für jedes Token den Namen zu vergleichen
+        final Type[] declarationTypes = new Type[voc.getMaxTokenType() + 1];
+        final Map<String, Integer> tokenTypes = new HashMap<>();
+        for (int type = 0; type < declarationTypes.length; type++) {
+            final String name = voc.getSymbolicName(type);
+
+            declarationTypes[type] = name == null ? null : Type.fromName(name);
+            if (name != null) {
+                tokenTypes.put(name, type);
+            }
+        }
+        final int identifierType = tokenTypes.getOrDefault("IDENTIFIER", Token.INVALID_TYPE);
+        final int assignType = tokenTypes.getOrDefault("ASSIGN", Token.INVALID_TYPE);
+        final int ifType = tokenTypes.getOrDefault("IF", Token.INVALID_TYPE);
+        final int whileType = tokenTypes.getOrDefault("WHILE", Token.INVALID_TYPE);
+        final int elseType = tokenTypes.getOrDefault("ELSE", Token.INVALID_TYPE);
+        final int lParenType = tokenTypes.getOrDefault("L_PAREN", Token.INVALID_TYPE);
+        final int rParenType = tokenTypes.getOrDefault("R_PAREN", Token.INVALID_TYPE);
+        final int lBraceType = tokenTypes.getOrDefault("L_BRACE", Token.INVALID_TYPE);
+        final int rBraceType = tokenTypes.getOrDefault("R_BRACE", Token.INVALID_TYPE);
+        final int semicolonType = tokenTypes.getOrDefault("SEMICOLON", Token.INVALID_TYPE);
+
+        // Die offenen Blöcke, bei Rümpfen ohne Klammern die Klammertiefe, bei der sie enden, sonst -1
+        final List<Integer> scopes = new ArrayList<>();
+        final List<Integer> scopeDepths = new ArrayList<>();
+        final List<Set<String>> innerSymbols = new ArrayList<>();
+        scopes.add(0);
+        scopeDepths.add(-1);
+        innerSymbols.add(new HashSet<>());
+
+        int braceDepth = 0;
+        int parenDepth = 0;
+        int conditionDepth = -1; // Klammertiefe der Bedingung nach if oder while, sonst -1
+        for (int i = 0; i < token.size(); i++) {
+            final int type = token.get(i).getType();
+            boolean bodyFollows = false;
+
+            if (type == lBraceType) {
+                braceDepth++;
+                openScope(table, scopes, scopeDepths, innerSymbols, -1);
+            } else if (type == rBraceType) {
+                braceDepth--;
+                closeScope(table, scopes, scopeDepths, innerSymbols);
+            } else if (type == ifType || type == whileType) {
+                conditionDepth = parenDepth;
+            } else if (type == lParenType) {
+                parenDepth++;
+            } else if (type == rParenType) {
+                parenDepth--;
+                bodyFollows = parenDepth == conditionDepth;
+                if (bodyFollows) {
+                    conditionDepth = -1;
+                }
+            } else if (type == elseType) {
+                bodyFollows = true;
+            }
+
+            table.setScope(i, scopes.get(scopes.size() - 1));
+
+            final boolean declaration = type >= 0 && type < declarationTypes.length && declarationTypes[type] != null
+                                        && i + 2 < token.size()
+                                        && token.get(i + 1).getType() == identifierType
+                                        && token.get(i + 2).getType() == assignType;
+
+            if (declaration) {
+                final int scope = scopes.get(scopes.size() - 1);
+                final String identifier = token.get(i + 1).getText();
+                final boolean defined = table.lookup(scope, identifier) != null
+                                        || innerSymbols.get(innerSymbols.size() - 1).contains(identifier);
+
+                table.declare(scope, identifier, declarationTypes[type]);
+
+                if (defined && duplicate == null) {
+                    duplicateLog = "Line " + token.get(i).getLine() + " Symbolerror: [" + identifier + "] already defined";
+                    duplicate = new SymbolAlreadyDefinedException("Das Symbol " + identifier + " wurde bereits deklariert.");
+                }
+            }
+
+            if (bodyFollows && (i + 1 >= token.size() || token.get(i + 1).getType() != lBraceType)) {
+                openScope(table, scopes, scopeDepths, innerSymbols, braceDepth);
+            } else if ((type == semicolonType && parenDepth == 0) || type == rBraceType) {
+                // Die Anweisung ist zu Ende, damit auch alle Rümpfe ohne Klammern, die mit ihr enden
+                while (scopeDepths.get(scopeDepths.size() - 1) == braceDepth) {
+                    closeScope(table, scopes, scopeDepths, innerSymbols);
+                }
+            }
+        }
+
+        final TypeStack stack = new TypeStack(table);
+        if (duplicate != null) {
+            stack.fail(duplicate, duplicateLog, TypeTable.class);
+        }
+
+        return stack;
+    }
+
+    private static void openScope(TypeTable table, List<Integer> scopes, List<Integer> scopeDepths,
+                                  List<Set<String>> innerSymbols, int depth) {
+        scopes.add(table.openScope(scopes.get(scopes.size() - 1)));
+        scopeDepths.add(depth);
+        innerSymbols.add(new HashSet<>());
+    }
+
+    private static void closeScope(TypeTable table, List<Integer> scopes, List<Integer> scopeDepths,
+                                   List<Set<String>> innerSymbols) {
+        if (scopes.size() == 1) {
+            // Überzählige Klammern sind ein Syntaxfehler, der beim Erkennen gemeldet wird
+            return;
+        }
+
+        // Die Namen des Blocks gelten im umschließenden Block als innere Namen, wie im SymbolCollector
+        final int closed = scopes.remove(scopes.size() - 1);
+        final Set<String> inner = innerSymbols.remove(innerSymbols.size() - 1);
+        scopeDepths.remove(scopeDepths.size() - 1);
+
+        inner.addAll(table.getDeclaredSymbols(closed));
+        innerSymbols.get(innerSymbols.size() - 1).addAll(inner);
+    }
+
+    // Aktionen des Erkenners
+
+    public void beginExpression() {
+        this.pushOperator(null, false);
+    }
+
+    public void endExpression(int line) {
+        while (this.operators[this.operatorCount - 1] != null) {
+            this.reduce(line);
+        }
+
+        this.operatorCount--;
+        final int entry = this.typeCount - 1;
+
+        if (this.operatorCount > 0) {
+            // Verschachtelte Ausdrücke stehen in Klammern, dafür hat der Syntaxbaum einen eigenen par_expr-Knoten
+            this.sizes[entry]++;
+        } else if (this.errors[entry] != null) {
+            // Der Ausdruck ist vollständig, seine Fehler liegen vor allem, was danach kommt
+            this.fail(this.errors[entry], this.errorLogs[entry], TypeChecker.class);
+        }
+    }
+
+    /**
+     * @param symbol   Der Name des Terminals, z.B. INTEGER_LIT oder IDENTIFIER.
+     * @param position Die Position des Tokens, bestimmt den Block für Variablen.
+     */
+    public void operand(String symbol, String text, int position) {
+        final Type type = switch (symbol) {
+            case "BOOLEAN_LIT" -> Type.BOOLEAN_TYPE;
+            case "INTEGER_LIT" -> Type.INTEGER_TYPE;
+            case "STRING_LIT" -> Type.STRING_TYPE;
+            case "IDENTIFIER" -> this.table.getSymbolType(position, text);
+            default -> null;
+        };
+
+        this.pushType(type, text, 1);
+    }
+
+    public void unaryOperator(String operator) {
+        this.pushOperator(Operator.fromName(operator), true);
+    }
+
+    /**
+     * Wendet den letzten unären Operator auf den gerade fertigen Operanden an.
+     */
+    public void applyUnary(int line) {
+        this.reduce(line);
+    }
+
+    public void binaryOperator(String operator, int line) {
+        final Operator binary = Operator.fromName(operator);
+
+        // Linksassoziativ: Gleiche Priorität wird vorher ausgewertet
+        while (this.operators[this.operatorCount - 1] != null
+               && this.operators[this.operatorCount - 1].getPriority() <= binary.getPriority()) {
+            this.reduce(line);
+        }
+
+        this.pushOperator(binary, false);
+    }
+
+    /**
+     * @param position Die Position des Tokens, dem zugewiesen wird.
+     */
+    public void assignment(String identifier, int position, int line) {
+        final Type identifierType = this.table.getSymbolType(position, identifier);
+        final Type literalType = this.types[this.typeCount - 1];
+        final String literalValue = this.values[this.typeCount - 1];
+        this.typeCount--;
+
+        if (literalType == null) {
+            this.fail(new SymbolNotDefinedException("Zugriff auf nicht deklarierte Variable " + literalValue),
+                      "Variable " + literalValue + " wurde nicht deklariert.", TypeChecker.class);
+        } else if (literalType != identifierType) {
+            this.fail(new AssignmentTypeMismatchException("Trying to assign " + literalType + " to a " + identifierType + " variable."),
+                      "Line " + line + " Typeerror: Can't assign [" + literalValue + "] to [" + identifier + "]: " + identifierType,
+                      TypeChecker.class);
+        }
+    }
+
+    /**
+     * Verwirft den Typ eines Ausdrucks, der nicht zugewiesen wird (Bedingungen, Ausgaben).
+     */
+    public void discard() {
+        this.typeCount--;
+    }
+
+    /**
+     * Wirft den ersten gefundenen Fehler.
+     */
+    public void verify() {
+        if (this.error != null) {
+            Logger.logError(this.errorLog, this.errorSource);
+            throw this.error;
+        }
+    }
+
+    // Auswertung
+
+    private void reduce(int line) {
+        this.operatorCount--;
+        final Operator op = this.operators[this.operatorCount];
+        final boolean binary = !this.unary[this.operatorCount];
+        final int first = this.typeCount - (binary ? 2 : 1);
+
+        // Im Syntaxbaum steht bei kommutativen Operatoren der größere Teilausdruck links, er wird zuerst geprüft
+        final boolean swapped = binary && op.isCommutative() && this.sizes[first] < this.sizes[first + 1];
+        final int left = swapped ? first + 1 : first;
+        final int right = swapped ? first : first + 1;
+
+        final Type leftType = this.types[left];
+        final String leftValue = this.values[left];
+        final Type rightType = binary ? this.types[right] : null;
+        final String rightValue = binary ? this.values[right] : null;
+
+        // Fehler in den Teilausdrücken liegen in Postorder vor denen des Operators
+        RuntimeException error = this.errors[left];
+        String errorLog = this.errorLogs[left];
+        if (error == null && binary) {
+            error = this.errors[right];
+            errorLog = this.errorLogs[right];
+        }
+
+        final int size = 1 + this.sizes[first] + (binary ? this.sizes[first + 1] : 0);
+        this.typeCount = first;
+        this.pushType(this.table.getMethodReturnType(op), op.name(), size);
+        this.errors[first] = error;
+        this.errorLogs[first] = errorLog;
+
+        if (binary && op == Operator.NOT) {
+            this.failExpression(first, new OperatorUsageException("Versuche unären Operator " + op + " mit mehreren Argument aufzurufen."),
+                                "Line " + line + " Operatorerror: Can't use [" + op + "] with more than 1 argument");
+        }
+
+        this.checkOperand(first, op, leftType, leftValue, line);
+        if (binary) {
+            this.checkOperand(first, op, rightType, rightValue, line);
+        }
+
+        if ((op == Operator.EQUAL || op == Operator.NOT_EQUAL) && leftType != rightType) {
+            this.failExpression(first, new OperatorTypeMismatchException("Versuche Operator" + op + " mit Argumenten ungleichen Types zu verwenden."),
+                                "Line " + line + " Typeerror: Can't use [" + op + "] with arguments of type [" + leftType
+                                + "] and [" + rightType + "]");
+        }
+    }
+
+    private void checkOperand(int entry, Operator op, Type type, String value, int line) {
+        if (type == null) {
+            this.failExpression(entry, new SymbolNotDefinedException("Zugriff auf nicht deklarierte Variable " + value),
+                                "Variable " + value + " wurde nicht deklariert.");
+        } else if (this.table.getMethodReturnType(op, type) == null) {
+            this.failExpression(entry, new OperatorTypeMismatchException("Versuche Operator " + op + " mit Argument vom Typ " + type + " aufzurufen."),
+                                "Line " + line + " Typeerror: Can't use [" + op + "] with argument of type [" + type + "]");
+        }
+    }
+
+    /**
+     * Merkt sich nur den ersten Fehler des Teilausdrucks.
+     */
+    private void failExpression(int entry, RuntimeException exception, String log) {
+        if (this.errors[entry] == null) {
+            this.errors[entry] = exception;
+            this.errorLogs[entry] = log;
+        }
+    }
+
+    private void fail(RuntimeException exception, String log, Class<?> source) {
+        if (this.error == null) {
+            this.error = exception;
+            this.errorLog = log;
+            this.errorSource = source;
+        }
+    }
+
+    private void pushType(Type type, String value, int size) {
+        if (this.typeCount == this.types.length) {
+            this.types = Arrays.copyOf(this.types, 2 * this.typeCount);
+            this.values = Arrays.copyOf(this.values, 2 * this.typeCount);
+            this.sizes = Arrays.copyOf(this.sizes, 2 * this.typeCount);
+            this.errors = Arrays.copyOf(this.errors, 2 * this.typeCount);
+            this.errorLogs = Arrays.copyOf(this.errorLogs, 2 * this.typeCount);
+        }
+
+        this.types[this.typeCount] = type;
+        this.values[this.typeCount] = value;
+        this.sizes[this.typeCount] = size;
+        this.errors[this.typeCount] = null;
+        this.errorLogs[this.typeCount] = null;
+        this.typeCount++;
+    }
+
+    private void pushOperator(Operator operator, boolean isUnary) {
+        if (this.operatorCount == this.operators.length) {
+            this.operators = Arrays.copyOf(this.operators, 2 * this.operatorCount);
+            this.unary = Arrays.copyOf(this.unary, 2 * this.operatorCount);
+        }
+
+        this.operators[this.operatorCount] = operator;
+        this.unary[this.operatorCount] = isUnary;
+        this.operatorCount++;
+    }
+}
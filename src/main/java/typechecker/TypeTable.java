@@ -1,116 +1,219 @@
 package typechecker;
 
+import parser.ast.Operator;
 import parser.ast.SyntaxTree;
-import parser.ast.SyntaxTreeNode;
+import parser.ast.SyntaxTreeArena;
+import parser.ast.SyntaxTreeWalker;
 import util.Logger;
 
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Speichert die Datentypen von Symbolen und Funktionen in einem Programm.
+ *
+ * <p>Variablen gelten in ihrem ganzen Block (siehe {@link SyntaxTreeArena#isBlock(int)}) und in den darin
+ * geschachtelten Blöcken. Jeder Block ist ein Bereich, der mit seinem umschließenden Bereich verkettet ist.
+ * Gleiche Namen in getrennten Blöcken sind verschiedene Variablen.</p>
  */
 public final class TypeTable {
 
     /**
-     * Weist jeder deklarierter Variable ihren Typ zu.
+     * Weist jedem Operator einen Rückgabetyp zu, der Index ist {@link Operator#ordinal()}.
      */
-    private final Map<String, String> symbolTable;
+    private static final Type[] methodReturnTable;
 
     /**
-     * Weist jedem Operator einen Rückgabetyp zu.
+     * Der Rückgabetyp je Operator und Argumenttyp, null wenn der Operator Argumente dieses Typs nicht annimmt.
+     * Die Indizes sind {@link Operator#ordinal()} und {@link Type#ordinal()}.
      */
-    private final Map<String, String> methodReturnTable;
+    private static final Type[][] methodSignatureTable;
+
+    static {
+        methodReturnTable = new Type[Operator.values().length];
+        methodSignatureTable = new Type[Operator.values().length][Type.values().length];
+
+        addSignature(Type.INTEGER_TYPE, Type.INTEGER_TYPE, Operator.ADD, Operator.SUB, Operator.MUL, Operator.DIV, Operator.MOD);
+        addSignature(Type.BOOLEAN_TYPE, Type.BOOLEAN_TYPE, Operator.NOT, Operator.AND, Operator.OR);
+        addSignature(Type.INTEGER_TYPE, Type.BOOLEAN_TYPE,
+                     Operator.LESS, Operator.LESS_EQUAL, Operator.GREATER, Operator.GREATER_EQUAL);
+        for (Type type : Type.values()) {
+            addSignature(type, Type.BOOLEAN_TYPE, Operator.EQUAL, Operator.NOT_EQUAL);
+        }
+    }
+
+    private static void addSignature(Type argumentType, Type returnType, Operator... operators) {
+        for (Operator operator : operators) {
+            methodReturnTable[operator.ordinal()] = returnType;
+            methodSignatureTable[operator.ordinal()][argumentType.ordinal()] = returnType;
+        }
+    }
+
+    /**
+     * Die Gültigkeitsbereiche, Index 0 ist der äußerste. Jeder Bereich ist mit seinem umschließenden Bereich verkettet.
+     */
+    private final List<Scope> scopes;
 
     /**
-     * Weist jedem Operator die Typen seiner Argumente zu.
+     * Der innerste Bereich je Position (Knoten in der Arena oder Token), null wenn es nur den äußersten Bereich gibt.
      */
-    private final Map<String, List<String>> methodArgumentTable;
-
-    private TypeTable(Map<String, String> symbolTable) {
-        this.symbolTable = Collections.unmodifiableMap(symbolTable);
-
-        // Enthält die Return-Types der Operatoren
-
-        this.methodReturnTable = Map.ofEntries(Map.entry("ADD", "INTEGER_TYPE"),
-                                               Map.entry("SUB", "INTEGER_TYPE"),
-                                               Map.entry("MUL", "INTEGER_TYPE"),
-                                               Map.entry("DIV", "INTEGER_TYPE"),
-                                               Map.entry("MOD", "INTEGER_TYPE"),
-                                               Map.entry("NOT", "BOOLEAN_TYPE"),
-                                               Map.entry("AND", "BOOLEAN_TYPE"),
-                                               Map.entry("OR", "BOOLEAN_TYPE"),
-                                               Map.entry("LESS", "BOOLEAN_TYPE"),
-                                               Map.entry("LESS_EQUAL", "BOOLEAN_TYPE"),
-                                               Map.entry("GREATER", "BOOLEAN_TYPE"),
-                                               Map.entry("GREATER_EQUAL", "BOOLEAN_TYPE"),
-                                               Map.entry("EQUAL", "BOOLEAN_TYPE"),
-                                               Map.entry("NOT_EQUAL", "BOOLEAN_TYPE"));
-
-        this.methodArgumentTable = Map.ofEntries(Map.entry("ADD", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("SUB", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("MUL", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("DIV", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("MOD", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("AND", Collections.singletonList("BOOLEAN_TYPE")),
-                                                 Map.entry("OR", Collections.singletonList("BOOLEAN_TYPE")),
-                                                 Map.entry("NOT", Collections.singletonList("BOOLEAN_TYPE")),
-                                                 Map.entry("LESS", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("LESS_EQUAL", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("GREATER", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("GREATER_EQUAL", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("EQUAL", Arrays.asList("INTEGER_TYPE", "BOOLEAN_TYPE", "STRING_TYPE")),
-                                                 Map.entry("NOT_EQUAL", Arrays.asList("INTEGER_TYPE", "BOOLEAN_TYPE", "STRING_TYPE")));
+    private final int[] positionScopes;
+
+    private TypeTable(Map<String, Type> symbolTable, int[] positionScopes) {
+        this.scopes = new ArrayList<>();
+        this.scopes.add(new Scope(null, symbolTable));
+        this.positionScopes = positionScopes;
     }
 
     public static TypeTable fromAST(SyntaxTree tree) {
-        Logger.logDebug("Building typetable", TypeTable.class);
+        return fromArena(SyntaxTreeArena.fromTree(tree));
+    }
 
-        final Map<String, String> symbolTable = new HashMap<>();
+    public static TypeTable fromArena(SyntaxTreeArena tree) {
+        Logger.logDebug("Building typetable", TypeTable.class);
 
-        initSymbolTable(tree.getRoot(), symbolTable);
+        final SymbolCollector collector = new SymbolCollector(tree);
+        SyntaxTreeWalker.walk(tree, collector);
+        final TypeTable table = collector.getTable();
 
         Logger.logDebug("Successfully built typetable", TypeTable.class);
 
-        return new TypeTable(symbolTable);
+        return table;
+    }
+
+    /**
+     * Für Prüfungen ohne vollständigen Syntaxbaum, die Deklarationen werden vom Aufrufer gesammelt.
+     * Die Map wird nicht kopiert, spätere Änderungen sind also sichtbar.
+     */
+    public static TypeTable fromSymbols(Map<String, Type> symbolTable) {
+        return new TypeTable(symbolTable, null);
     }
 
-    private static void initSymbolTable(SyntaxTreeNode root, Map<String, String> table) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            initSymbolTable(child, table);
+    /**
+     * Wie {@link #fromSymbols(Map)}, aber mit verketteten Bereichen für Prüfungen ohne vollständigen Syntaxbaum.
+     * Ohne Positionen gilt für alle Knoten der innerste Bereich, gesucht wird von dort nach außen.
+     *
+     * @param scopes Die Bereiche von innen nach außen, die Maps werden nicht kopiert.
+     */
+    public static TypeTable fromScopes(List<Map<String, Type>> scopes) {
+        final TypeTable table = new TypeTable(scopes.get(scopes.size() - 1), null);
+        for (int scope = scopes.size() - 2; scope >= 0; scope--) {
+            table.scopes.add(new Scope(table.scopes.get(table.scopes.size() - 1), scopes.get(scope)));
         }
 
-        if ("declaration".equals(root.getName())) {
-            final SyntaxTreeNode child = root.getChildren().get(0);
+        return table;
+    }
+
+    /**
+     * Eine leere Tabelle mit Gültigkeitsbereichen, wird vom Sammler befüllt.
+     *
+     * @param positions Die Anzahl der Knoten bzw. Token, deren Bereich gespeichert wird.
+     */
+    static TypeTable withScopes(int positions) {
+        return new TypeTable(new HashMap<>(), new int[positions]);
+    }
+
+    // Gültigkeitsbereiche
+
+    /**
+     * @return Der neue Bereich innerhalb von parent.
+     */
+    int openScope(int parent) {
+        this.scopes.add(new Scope(this.scopes.get(parent), new HashMap<>()));
+
+        return this.scopes.size() - 1;
+    }
+
+    void setScope(int position, int scope) {
+        this.positionScopes[position] = scope;
+    }
+
+    /**
+     * @return Der vorherige Typ des Namens in genau diesem Bereich, null wenn er dort neu ist.
+     */
+    Type declare(int scope, String sym, Type type) {
+        return this.scopes.get(scope).symbols.put(sym, type);
+    }
 
-            Logger.logInfo("Adding Entry: \"" + child.getValue() + "\" -> \"" + root.getValue() + "\"", TypeTable.class);
-            final String oldEntry = table.put(child.getValue(), root.getValue());
+    Set<String> getDeclaredSymbols(int scope) {
+        return this.scopes.get(scope).symbols.keySet();
+    }
 
-            if (oldEntry != null) {
-                Logger.logError("Line " + root.getLine() + " Symbolerror: [" + child.getValue() + "] already defined", TypeTable.class);
-                throw new SymbolAlreadyDefinedException("Das Symbol " + child.getValue() + " wurde bereits deklariert.");
+    /**
+     * Sucht den Namen im Bereich und danach in den umschließenden Bereichen.
+     */
+    Type lookup(int scope, String sym) {
+        for (Scope current = this.scopes.get(scope); current != null; current = current.parent) {
+            final Type type = current.symbols.get(sym);
+            if (type != null) {
+                return type;
             }
         }
+
+        return null;
+    }
+
+    /**
+     * @return Der innerste Bereich an der Position, ohne gespeicherte Positionen der innerste Bereich überhaupt.
+     */
+    public int getScope(int position) {
+        return this.positionScopes == null ? this.scopes.size() - 1 : this.positionScopes[position];
+    }
+
+    public int getScopeCount() {
+        return this.scopes.size();
     }
 
     // Getters
 
-    public String getSymbolType(String sym) {
-        return this.symbolTable.get(sym);
+    /**
+     * @return Der Typ im äußersten Bereich.
+     */
+    public Type getSymbolType(String sym) {
+        return this.scopes.get(0).symbols.get(sym);
     }
 
-    public String getMethodReturnType(String meth) {
-        return this.methodReturnTable.get(meth);
+    /**
+     * @return Der Typ des Namens, wie er an der Position (Knoten oder Token) sichtbar ist.
+     */
+    public Type getSymbolType(int position, String sym) {
+        return this.lookup(this.getScope(position), sym);
+    }
+
+    public Type getMethodReturnType(Operator meth) {
+        return methodReturnTable[meth.ordinal()];
     }
 
-    public List<String> getMethodArgumentType(String meth) {
-        return this.methodArgumentTable.get(meth);
+    /**
+     * @return Der Rückgabetyp oder null, wenn der Operator keine Argumente dieses Typs annimmt.
+     */
+    public Type getMethodReturnType(Operator meth, Type argumentType) {
+        return methodSignatureTable[meth.ordinal()][argumentType.ordinal()];
     }
 
+    /**
+     * Die Anzahl der Deklarationen in allen Bereichen.
+     */
     public int getSymbolCount() {
-        return this.symbolTable.size();
+        int count = 0;
+        for (Scope scope : this.scopes) {
+            count += scope.symbols.size();
+        }
+
+        return count;
+    }
+
+    private static final class Scope {
+
+        private final Scope parent;
+        private final Map<String, Type> symbols;
+
+        private Scope(Scope parent, Map<String, Type> symbols) {
+            this.parent = parent;
+            this.symbols = symbols;
+        }
     }
 }
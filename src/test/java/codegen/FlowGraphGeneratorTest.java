@@ -14,6 +14,7 @@ import parser.StupsParser;
 import parser.ast.SyntaxTree;
 import parser.ast.SyntaxTreeNode;
 import parser.grammar.Grammar;
+import typechecker.Type;
 import typechecker.TypeChecker;
 
 import java.io.BufferedReader;
@@ -219,7 +220,7 @@ class FlowGraphGeneratorTest {
         System.out.println(program);
 
         final SyntaxTree tree = lexParseProgram(program);
-        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final Map<SyntaxTreeNode, Type> nodeTable = TypeChecker.validate(tree);
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph srcProg = gen.generateGraph();
 
@@ -236,7 +237,7 @@ class FlowGraphGeneratorTest {
         System.out.println(program);
 
         final SyntaxTree tree = lexParseProgram(program);
-        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final Map<SyntaxTreeNode, Type> nodeTable = TypeChecker.validate(tree);
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph srcProg = gen.generateGraph();
 
@@ -279,7 +280,7 @@ class FlowGraphGeneratorTest {
         System.out.println(program);
 
         final SyntaxTree tree = lexParseProgram(program);
-        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final Map<SyntaxTreeNode, Type> nodeTable = TypeChecker.validate(tree);
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph srcProg = gen.generateGraph();
 
@@ -296,7 +297,7 @@ class FlowGraphGeneratorTest {
         System.out.println(program);
 
         final SyntaxTree tree = lexParseProgram(program);
-        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final Map<SyntaxTreeNode, Type> nodeTable = TypeChecker.validate(tree);
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph srcProg = gen.generateGraph();
 
@@ -311,7 +312,7 @@ class FlowGraphGeneratorTest {
         System.out.print(program);
 
         final SyntaxTree tree = lexParseProgram(program);
-        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final Map<SyntaxTreeNode, Type> nodeTable = TypeChecker.validate(tree);
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph srcProg = gen.generateGraph();
 
@@ -319,12 +320,28 @@ class FlowGraphGeneratorTest {
         assertThat(executeCompiledProgram()).isEqualTo(result);
     }
 
+    @Test
+    void disjointBlocksShareSlotsTest() {
+        final String program = "class TestOutput {\n\tpublic static void main(String[] args) {\n\t\tint i = 1;\n"
+                               + "\t\tif (i < 2) {\n\t\t\tint a = i + 1;\n\t\t\tSystem.out.println(a);\n\t\t}\n"
+                               + "\t\telse {\n\t\t\tint b = i + 2;\n\t\t\tSystem.out.println(b);\n\t\t}\n\t}\n}";
+
+        final SyntaxTree tree = lexParseProgram(program);
+        final Map<SyntaxTreeNode, Type> nodeTable = TypeChecker.validate(tree);
+        final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
+        final FlowGraph srcProg = gen.generateGraph();
+
+        assertThat(gen.getVarMap().get("a")).isEqualTo(gen.getVarMap().get("b"))
+                                             .isNotEqualTo(gen.getVarMap().get("i"));
+        assertThat(srcProg.toString()).contains(".limit locals 3");
+    }
+
     @Test
     void compileEmptyProgramTest() {
         final String program = readProgram("EmptyFile.stups");
 
         final SyntaxTree tree = lexParseProgram(program);
-        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final Map<SyntaxTreeNode, Type> nodeTable = TypeChecker.validate(tree);
 
         assertThatThrownBy(() -> FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput"))
                 .isInstanceOf(CodeGenerationException.class);
@@ -0,0 +1,96 @@
+package codegen;
+
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.Opcode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlowGraphTest {
+
+    private static List<FlowBasicBlock> blocks(FlowGraph graph) {
+        final List<FlowBasicBlock> blocks = new ArrayList<>();
+        graph.forEach(blocks::add);
+
+        return blocks;
+    }
+
+    @Test
+    void testMultipleForwardJumps() {
+        final FlowGraph graph = new FlowGraph("49.0", "Test.stups", "Test", 1, 1);
+        final int end = graph.newLabel("END");
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addJump(Opcode.IFEQ, end);
+        graph.addInstruction(Opcode.LDC, 2);
+        graph.addJump(Opcode.IFEQ, end);
+        graph.addInstruction(Opcode.LDC, 3);
+        graph.addLabel(end);
+
+        final List<FlowBasicBlock> blocks = blocks(graph);
+        final FlowBasicBlock endBlock = blocks.get(blocks.size() - 1);
+
+        assertThat(endBlock.getLabel()).isEqualTo("END");
+        assertThat(endBlock.getBlockPredecessorSet()).containsExactlyInAnyOrder(blocks.get(0), blocks.get(1), blocks.get(2));
+    }
+
+    @Test
+    void testBackwardJump() {
+        final FlowGraph graph = new FlowGraph("49.0", "Test.stups", "Test", 1, 1);
+        final int loop = graph.newLabel("LOOP", 0);
+        graph.addLabel(loop);
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addJump(Opcode.GOTO, loop);
+
+        final List<FlowBasicBlock> blocks = blocks(graph);
+
+        assertThat(blocks.get(0).getLabel()).isEqualTo("LOOP0");
+        assertThat(blocks.get(0).getBlockPredecessorSet()).containsExactly(blocks.get(0));
+        assertThat(blocks.get(1).getBlockPredecessorSet()).isEmpty();
+    }
+
+    @Test
+    void testJasminText() {
+        final FlowGraph graph = new FlowGraph("49.0", "Test.stups", "Test", 2, 2);
+        final int end = graph.newLabel("IFend", 3);
+        graph.addInstruction(Opcode.GETSTATIC, "java/lang/System/out Ljava/io/PrintStream;");
+        graph.addInstruction(Opcode.LDC_CONSTANT, "\"Hi\"");
+        graph.addInstruction(Opcode.ASTORE, 1);
+        graph.addJump(Opcode.GOTO, end);
+        graph.addLabel(end);
+        graph.addInstruction(Opcode.IADD);
+        graph.purgeEmptyBlocks();
+
+        assertThat(graph.toString()).contains("START:\n"
+                                              + "\t\tgetstatic java/lang/System/out Ljava/io/PrintStream;\n"
+                                              + "\t\tldc \"Hi\"\n"
+                                              + "\t\tastore 1\n"
+                                              + "\t\tgoto IFend3\n"
+                                              + "IFend3:\n"
+                                              + "\t\tiadd \n");
+    }
+
+    @Test
+    void testPurgeEmptyBlocks() {
+        final FlowGraph graph = new FlowGraph("49.0", "Test.stups", "Test", 1, 1);
+        final int a = graph.newLabel("A");
+        final int b = graph.newLabel("B");
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addJump(Opcode.IFEQ, a);
+        graph.addJump(Opcode.IFEQ, b);
+        graph.addLabel(a);
+        graph.addLabel(b);
+        graph.addInstruction(Opcode.LDC, 2);
+
+        graph.purgeEmptyBlocks();
+        final List<FlowBasicBlock> blocks = blocks(graph);
+
+        assertThat(blocks).extracting(FlowBasicBlock::getLabel).containsExactly("START", "", "A", "B");
+        assertThat(blocks).extracting(FlowBasicBlock::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(blocks.get(2).getBlockPredecessorSet()).containsExactlyInAnyOrder(blocks.get(0), blocks.get(1));
+        assertThat(blocks.get(3).getBlockPredecessorSet()).containsExactlyInAnyOrder(blocks.get(1), blocks.get(2));
+    }
+}
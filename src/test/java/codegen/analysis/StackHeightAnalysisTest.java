@@ -0,0 +1,88 @@
+package codegen.analysis;
+
+import codegen.CodeGenerationException;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.Opcode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StackHeightAnalysisTest {
+
+    @Test
+    void testComparisonInPrintln() {
+        // System.out.println(1 < 2);
+        final FlowGraph graph = new FlowGraph("49.0", "Test.stups", "Test", 0, 1);
+        final int trueLabel = graph.newLabel("LTtrue", 0);
+        final int endLabel = graph.newLabel("LTend", 0);
+        graph.addInstruction(Opcode.GETSTATIC, "java/lang/System/out Ljava/io/PrintStream;");
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addInstruction(Opcode.LDC, 2);
+        graph.addJump(Opcode.IF_ICMPLT, trueLabel);
+        graph.addInstruction(Opcode.LDC, 0);
+        graph.addJump(Opcode.GOTO, endLabel);
+        graph.addLabel(trueLabel);
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addLabel(endLabel);
+        graph.addInstruction(Opcode.INVOKEVIRTUAL, "java/io/PrintStream/println(Z)V");
+        graph.purgeEmptyBlocks();
+
+        final StackHeightAnalysis analysis = StackHeightAnalysis.fromFlowGraph(graph);
+        final FlowBasicBlock end = graph.getBlock(graph.getBlockCount() - 1);
+
+        assertThat(analysis.getMaxHeight()).isEqualTo(3);
+        assertThat(analysis.getEntryHeight(graph.getBlock(1))).isEqualTo(1);
+        assertThat(analysis.getEntryHeight(end)).isEqualTo(2);
+    }
+
+    @Test
+    void testLoopKeepsHeight() {
+        final FlowGraph graph = new FlowGraph("49.0", "Test.stups", "Test", 0, 2);
+        final int start = graph.newLabel("LOOPstart", 0);
+        final int end = graph.newLabel("LOOPend", 0);
+        graph.addLabel(start);
+        graph.addInstruction(Opcode.ILOAD, 1);
+        graph.addJump(Opcode.IFEQ, end);
+        graph.addInstruction(Opcode.ILOAD, 1);
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addInstruction(Opcode.ISUB);
+        graph.addInstruction(Opcode.ISTORE, 1);
+        graph.addJump(Opcode.GOTO, start);
+        graph.addLabel(end);
+        graph.purgeEmptyBlocks();
+
+        assertThat(StackHeightAnalysis.fromFlowGraph(graph).getMaxHeight()).isEqualTo(2);
+    }
+
+    @Test
+    void testEmptyGraph() {
+        final FlowGraph graph = new FlowGraph("49.0", "Test.stups", "Test", 0, 1);
+
+        assertThat(StackHeightAnalysis.fromFlowGraph(graph).getMaxHeight()).isEqualTo(0);
+    }
+
+    @Test
+    void testHeightMismatch() {
+        final FlowGraph graph = new FlowGraph("49.0", "Test.stups", "Test", 0, 1);
+        final int end = graph.newLabel("END");
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addJump(Opcode.IFEQ, end);
+        graph.addInstruction(Opcode.LDC, 2);
+        graph.addLabel(end);
+        graph.addInstruction(Opcode.RETURN);
+        graph.purgeEmptyBlocks();
+
+        assertThatThrownBy(() -> StackHeightAnalysis.fromFlowGraph(graph)).isInstanceOf(CodeGenerationException.class);
+    }
+
+    @Test
+    void testUnderflow() {
+        final FlowGraph graph = new FlowGraph("49.0", "Test.stups", "Test", 0, 1);
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addInstruction(Opcode.IADD);
+
+        assertThatThrownBy(() -> StackHeightAnalysis.fromFlowGraph(graph)).isInstanceOf(CodeGenerationException.class);
+    }
+}
@@ -0,0 +1,118 @@
+package codegen.analysis;
+
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.Opcode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StackMapAnalysisTest {
+
+    @Test
+    void testComparisonInPrintln() {
+        // System.out.println(1 < 2);
+        final FlowGraph graph = new FlowGraph("52.0", "Test.stups", "Test", 3, 1);
+        final int trueLabel = graph.newLabel("LTtrue", 0);
+        final int endLabel = graph.newLabel("LTend", 0);
+        graph.addInstruction(Opcode.GETSTATIC, "java/lang/System/out Ljava/io/PrintStream;");
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addInstruction(Opcode.LDC, 2);
+        graph.addJump(Opcode.IF_ICMPLT, trueLabel);
+        graph.addInstruction(Opcode.LDC, 0);
+        graph.addJump(Opcode.GOTO, endLabel);
+        graph.addLabel(trueLabel);
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addLabel(endLabel);
+        graph.addInstruction(Opcode.INVOKEVIRTUAL, "java/io/PrintStream/println(Z)V");
+        graph.purgeEmptyBlocks();
+
+        final StackMapAnalysis frames = StackMapAnalysis.fromFlowGraph(graph);
+
+        assertThat(frames.needsFrame(graph.getBlock(0))).isFalse();
+        assertThat(frames.needsFrame(graph.getBlock(1))).isFalse();
+        assertThat(frames.getFrame(graph.getBlock(2))).isEqualTo("\t.stack\n"
+                                                                 + "\t\tlocals Object [Ljava/lang/String;\n"
+                                                                 + "\t\tstack Object java/io/PrintStream\n"
+                                                                 + "\t.end stack\n");
+        assertThat(frames.getFrame(graph.getBlock(3))).isEqualTo("\t.stack\n"
+                                                                 + "\t\tlocals Object [Ljava/lang/String;\n"
+                                                                 + "\t\tstack Object java/io/PrintStream\n"
+                                                                 + "\t\tstack Integer\n"
+                                                                 + "\t.end stack\n");
+    }
+
+    @Test
+    void testSharedSlotBecomesTop() {
+        // if (true) { String s = "A"; } else { int i = 1; }
+        final FlowGraph graph = new FlowGraph("52.0", "Test.stups", "Test", 1, 2);
+        final int ifFalse = graph.newLabel("IFfalse", 0);
+        final int ifEnd = graph.newLabel("IFend", 0);
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addJump(Opcode.IFEQ, ifFalse);
+        graph.addInstruction(Opcode.LDC_CONSTANT, "\"A\"");
+        graph.addInstruction(Opcode.ASTORE, 1);
+        graph.addJump(Opcode.GOTO, ifEnd);
+        graph.addLabel(ifFalse);
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addInstruction(Opcode.ISTORE, 1);
+        graph.addLabel(ifEnd);
+        graph.purgeEmptyBlocks();
+
+        final StackMapAnalysis frames = StackMapAnalysis.fromFlowGraph(graph);
+        final FlowBasicBlock end = graph.getBlock(graph.getBlockCount() - 1);
+
+        assertThat(frames.needsFrame(end)).isTrue();
+        assertThat(frames.getFrame(end)).isEqualTo("\t.stack\n"
+                                                   + "\t\tlocals Object [Ljava/lang/String;\n"
+                                                   + "\t.end stack\n");
+    }
+
+    @Test
+    void testLoopVariable() {
+        // int i = 0; while (i < 1) { String s = "A"; i = i + 1; }
+        final FlowGraph graph = new FlowGraph("52.0", "Test.stups", "Test", 2, 3);
+        final int start = graph.newLabel("LOOPstart", 0);
+        final int end = graph.newLabel("LOOPend", 0);
+        graph.addInstruction(Opcode.LDC, 0);
+        graph.addInstruction(Opcode.ISTORE, 1);
+        graph.addLabel(start);
+        graph.addInstruction(Opcode.ILOAD, 1);
+        graph.addJump(Opcode.IFEQ, end);
+        graph.addInstruction(Opcode.LDC_CONSTANT, "\"A\"");
+        graph.addInstruction(Opcode.ASTORE, 2);
+        graph.addInstruction(Opcode.ILOAD, 1);
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addInstruction(Opcode.IADD);
+        graph.addInstruction(Opcode.ISTORE, 1);
+        graph.addJump(Opcode.GOTO, start);
+        graph.addLabel(end);
+        graph.purgeEmptyBlocks();
+
+        final StackMapAnalysis frames = StackMapAnalysis.fromFlowGraph(graph);
+
+        assertThat(frames.getFrame(graph.getBlock(1))).isEqualTo("\t.stack\n"
+                                                                 + "\t\tlocals Object [Ljava/lang/String;\n"
+                                                                 + "\t\tlocals Integer\n"
+                                                                 + "\t.end stack\n");
+    }
+
+    @Test
+    void testConsecutiveLabels() {
+        final FlowGraph graph = new FlowGraph("52.0", "Test.stups", "Test", 1, 1);
+        final int a = graph.newLabel("A");
+        final int b = graph.newLabel("B");
+        graph.addInstruction(Opcode.LDC, 1);
+        graph.addJump(Opcode.IFEQ, a);
+        graph.addLabel(a);
+        graph.addLabel(b);
+        graph.addInstruction(Opcode.LDC, 2);
+        graph.addInstruction(Opcode.ISTORE, 1);
+        graph.purgeEmptyBlocks();
+
+        final StackMapAnalysis frames = StackMapAnalysis.fromFlowGraph(graph);
+
+        assertThat(frames.needsFrame(graph.getBlock(1))).isFalse();
+        assertThat(frames.needsFrame(graph.getBlock(2))).isTrue();
+    }
+}
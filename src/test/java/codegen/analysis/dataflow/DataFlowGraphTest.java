@@ -0,0 +1,56 @@
+package codegen.analysis.dataflow;
+
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.Opcode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataFlowGraphTest {
+
+    private static int[] successors(DataFlowGraph graph, int node) {
+        final int[] successors = new int[graph.getSuccessorCount(node)];
+        for (int i = 0; i < successors.length; i++) {
+            successors[i] = graph.getSuccessor(node, i);
+        }
+
+        return successors;
+    }
+
+    private static int[] predecessors(DataFlowGraph graph, int node) {
+        final int[] predecessors = new int[graph.getPredecessorCount(node)];
+        for (int i = 0; i < predecessors.length; i++) {
+            predecessors[i] = graph.getPredecessor(node, i);
+        }
+
+        return predecessors;
+    }
+
+    @Test
+    void testLoopEdges() {
+        final FlowGraph flowGraph = new FlowGraph("49.0", "Test.stups", "Test", 1, 2);
+        final int loop = flowGraph.newLabel("LOOP");
+        final int end = flowGraph.newLabel("END");
+        flowGraph.addInstruction(Opcode.LDC, 1);     // 0
+        flowGraph.addInstruction(Opcode.ISTORE, 1);  // 1
+        flowGraph.addLabel(loop);
+        flowGraph.addInstruction(Opcode.ILOAD, 1);   // 2
+        flowGraph.addJump(Opcode.IFEQ, end);         // 3
+        flowGraph.addJump(Opcode.GOTO, loop);        // 4
+        flowGraph.addLabel(end);
+        flowGraph.addInstruction(Opcode.RETURN);     // 5
+        flowGraph.purgeEmptyBlocks();
+
+        final DataFlowGraph graph = DataFlowGraph.fromFlowGraph(flowGraph);
+
+        assertThat(graph.size()).isEqualTo(6);
+        assertThat(graph.get(2).getUseSet()).containsExactly("1");
+        assertThat(successors(graph, 1)).containsExactly(2);
+        assertThat(successors(graph, 3)).containsOnly(4, 5);
+        assertThat(successors(graph, 4)).containsExactly(2);
+        assertThat(successors(graph, 5)).isEmpty();
+        assertThat(predecessors(graph, 2)).containsOnly(1, 4);
+        assertThat(predecessors(graph, 5)).containsOnly(3);
+        assertThat(predecessors(graph, 0)).isEmpty();
+    }
+}
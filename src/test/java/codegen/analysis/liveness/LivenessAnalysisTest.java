@@ -14,6 +14,7 @@ import parser.StupsParser;
 import parser.ast.SyntaxTree;
 import parser.ast.SyntaxTreeNode;
 import parser.grammar.Grammar;
+import typechecker.Type;
 import typechecker.TypeChecker;
 
 import java.io.IOException;
@@ -51,7 +52,7 @@ class LivenessAnalysisTest {
 
     private static LivenessAnalysis initLivenessAnalysis(String program) {
         final SyntaxTree tree = lexParseProgram(program);
-        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final Map<SyntaxTreeNode, Type> nodeTable = TypeChecker.validate(tree);
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph graph = gen.generateGraph();
         final DataFlowGraph dataGraph = DataFlowGraph.fromFlowGraph(graph);
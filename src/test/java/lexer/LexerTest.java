@@ -127,7 +127,7 @@ class LexerTest {
 
         final List<String> token = LexerTest.getSymbols(lex);
 
-        assertThat(token).hasSize(96)
+        assertThat(token).hasSize(101)
                          .containsSequence("IF",
                                            "L_PAREN",
                                            "IDENTIFIER",
@@ -0,0 +1,221 @@
+package parser;
+
+import lexer.StupsLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import parser.ast.SyntaxTree;
+import parser.grammar.Grammar;
+import typechecker.AssignmentTypeMismatchException;
+import typechecker.OperatorTypeMismatchException;
+import typechecker.SymbolAlreadyDefinedException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IncrementalParserTest {
+
+    private static final String PROGRAM = "class MyClass {\n"
+                                          + "public static void main(String[] args) {\n"
+                                          + "int a = 1;\n"
+                                          + "boolean b = true;\n"
+                                          + "while (b) {\n"
+                                          + "a = a + 1;\n"
+                                          + "b = a < 10;\n"
+                                          + "}\n"
+                                          + "if (b) a = 2;\n"
+                                          + "System.out.println(a);\n"
+                                          + "}}";
+
+    private static Grammar grammar;
+    private static StupsParser parser;
+    private IncrementalParser incremental;
+
+    @BeforeAll
+    static void init() throws IOException {
+        final Path path = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
+        grammar = Grammar.fromFile(path);
+        parser = StupsParser.fromGrammar(grammar);
+    }
+
+    @BeforeEach
+    void initParser() {
+        this.incremental = IncrementalParser.fromGrammar(grammar, StupsLexer::new);
+        this.incremental.parse(PROGRAM);
+    }
+
+    private void edit(String target, String replacement) {
+        final int offset = this.incremental.getSource().indexOf(target);
+        this.incremental.edit(offset, target.length(), replacement);
+    }
+
+    private void assertSameAsFullParse() {
+        final Lexer lex = new StupsLexer(CharStreams.fromString(this.incremental.getSource()));
+        final List<? extends Token> token = lex.getAllTokens();
+        final SyntaxTree expected = parser.parse(token, lex.getVocabulary());
+
+        assertThat(this.incremental.getParseTree().getRoot()).isEqualTo(expected.getRoot());
+        assertThat(this.incremental.getToken()).hasSameSizeAs(token);
+        for (int i = 0; i < token.size(); i++) {
+            assertThat(this.incremental.getToken().get(i).getStartIndex()).isEqualTo(token.get(i).getStartIndex());
+            assertThat(this.incremental.getToken().get(i).getLine()).isEqualTo(token.get(i).getLine());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"EmptyMain.stups",
+                            "GeneralComment.stups",
+                            "GeneralWhile.stups",
+                            "GeneralIfElse.stups",
+                            "Println.stups",
+                            "CompileAllInOne1.stups"})
+    void testInsertInExamples(String prog) throws Exception {
+        final Path path = Paths.get(IncrementalParserTest.class.getClassLoader().getResource("examplePrograms/" + prog).toURI());
+        final String program = Files.readString(path, StandardCharsets.US_ASCII);
+
+        this.incremental.parse(program);
+        this.incremental.edit(program.lastIndexOf('}', program.lastIndexOf('}') - 1), 0, "int zzz = 1;\n");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testEditLiteral() {
+        edit("a < 10", "a < 20");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testInsertStatement() {
+        edit("b = a < 10;\n", "b = a < 10;\nSystem.out.println(b);\n");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testDeleteStatement() {
+        edit("a = a + 1;\n", "");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testInsertLines() {
+        // Nur die Zeilen der folgenden Token ändern sich
+        edit("int a", "\n\nint a");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testDanglingElse() {
+        // Die vorige Anweisung bekommt ein ELSE
+        edit("System.out", "else a = 3;\nSystem.out");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testChangeStructure() {
+        edit("if (b) a = 2;", "if (b) { a = 2; } else { a = 3; }");
+        edit("while (b)", "if (b)");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testEditComment() {
+        edit("int a = 1;", "/* int c = 1; */ int a = 1;");
+        edit("/* int c = 1; */", "");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testSyntaxErrorAndFix() {
+        assertThatThrownBy(() -> edit("a = a + 1;", "a = a + ;")).isInstanceOf(ParseException.class);
+
+        edit("a = a + ;", "a = a + 2;");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testTypeErrorAndFix() {
+        assertThatThrownBy(() -> edit("a = 2;", "a = true;")).isInstanceOf(AssignmentTypeMismatchException.class);
+
+        edit("a = true;", "a = 3;");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testChangedDeclarationChecksUnchangedStatements() {
+        // Die Zuweisungen im Schleifenrumpf werden nicht neu geparst, aber neu geprüft
+        assertThatThrownBy(() -> edit("int a = 1;", "String a = \"1\";")).isInstanceOf(OperatorTypeMismatchException.class);
+
+        edit("String a = \"1\";", "int a = 1;");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testDuplicateDeclaration() {
+        assertThatThrownBy(() -> edit("System.out", "int a = 5;\nSystem.out")).isInstanceOf(SymbolAlreadyDefinedException.class);
+
+        edit("int a = 5;\n", "");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testOutOfScopeUse() {
+        assertThatThrownBy(() -> edit("System.out", "while (b) { int x = 1; }\nx = 2;\nSystem.out"))
+                .isInstanceOf(AssignmentTypeMismatchException.class);
+
+        edit("x = 2;\n", "");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testSameNameInDisjointBlocks() {
+        edit("System.out", "if (b) { int x = 1; } else { String x = \"1\"; }\nwhile (b) { boolean x = false; }\nSystem.out");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testDeclarationInInnerBlock() {
+        assertThatThrownBy(() -> edit("b = a < 10;", "b = a < 10; int a = 2;")).isInstanceOf(SymbolAlreadyDefinedException.class);
+
+        edit("int a = 2;", "int c = 2;");
+
+        assertSameAsFullParse();
+    }
+
+    @Test
+    void testManyEditsAtOnePlace() {
+        for (int i = 0; i < 20; i++) {
+            edit("a + 1", "a + 1 + " + i);
+        }
+        for (int i = 0; i < 20; i++) {
+            edit("System.out.println(a);", "System.out.println(a);\nSystem.out.println(a);");
+        }
+
+        assertSameAsFullParse();
+    }
+}
@@ -0,0 +1,162 @@
+package parser;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import parser.grammar.Grammar;
+import parser.grammar.GrammarAnalyzer;
+import parser.grammar.GrammarRule;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParsingTableTest {
+
+    private static Grammar grammar;
+    private static GrammarAnalyzer analyzer;
+    private static List<String> terminals;
+
+    @BeforeAll
+    static void init() throws IOException {
+        final Path path = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
+        grammar = Grammar.fromFile(path);
+        analyzer = GrammarAnalyzer.fromGrammar(grammar);
+
+        terminals = new ArrayList<>(grammar.getTerminals());
+        terminals.add("$");
+    }
+
+    /**
+     * Die Tabelle als Map, direkt nach Definition aus first und follow aufgebaut.
+     * Bei Konflikten gewinnt wie im {@link GrammarAnalyzer} die letzte Produktion.
+     */
+    private static Map<String, Map<String, String>> mapTable() {
+        final Map<String, Map<String, String>> table = new HashMap<>();
+
+        for (GrammarRule rule : grammar.getProductions()) {
+            final Set<String> predict = new HashSet<>(analyzer.stringFirst(rule.getRightside()));
+            predict.remove(Grammar.EPSILON_SYMBOL);
+
+            if (analyzer.allNullable(rule.getRightside().split(" "))) {
+                predict.addAll(analyzer.follow(rule.getLeftside()));
+            }
+
+            for (String term : predict) {
+                table.computeIfAbsent(rule.getLeftside(), key -> new HashMap<>()).put(term, rule.getRightside());
+            }
+        }
+
+        return table;
+    }
+
+    private static void assertSameCells(ParsingTable table, Map<String, Map<String, String>> expected) {
+        for (String nterm : grammar.getNonterminals()) {
+            for (String term : terminals) {
+                assertThat(table.get(nterm, term))
+                        .isEqualTo(expected.getOrDefault(nterm, Collections.emptyMap()).get(term));
+            }
+        }
+    }
+
+    @Test
+    void testStupsTableMatchesMap() {
+        final Map<String, Map<String, String>> expected = mapTable();
+
+        assertSameCells(analyzer.getTable(), expected);
+        assertSameCells(GrammarAnalyzer.fromGrammarLazy(grammar).getTable(), expected);
+    }
+
+    @Test
+    void testStupsTableRoundTrip() {
+        final ParsingTable table = analyzer.getTable();
+        final byte[] bytes = table.toByteArray();
+        final ParsingTable restored = ParsingTable.fromByteArray(grammar, bytes);
+
+        assertSameCells(restored, mapTable());
+        assertThat(restored.toByteArray()).containsExactly(bytes);
+
+        for (String nterm : grammar.getNonterminals()) {
+            for (String term : terminals) {
+                final int row = table.getRowId(nterm);
+                final int column = table.getColumnId(term);
+
+                assertThat(restored.get(restored.getRowId(nterm), restored.getColumnId(term)))
+                        .isEqualTo(table.get(row, column));
+            }
+        }
+    }
+
+    @Test
+    void testDisplacementPacking() {
+        // Die Zeilen B und C passen in die Lücken von A, der Comb-Vector ist so lang wie eine Zeile
+        final int[][] cells = {{0, -1, 1, -1},
+                               {-1, 2, -1, -1},
+                               {-1, -1, -1, 3}};
+        final ParsingTable table = new ParsingTable(grammar, Arrays.asList("A", "B", "C"),
+                                                    Arrays.asList("w", "x", "y", "z"),
+                                                    Arrays.asList("p0", "p1", "p2", "p3"), cells);
+
+        assertThat(table.printMemoryReport()).contains("4 filled, comb-vector length 4");
+
+        // Jeder Slot ist belegt, leere Zellen werden nur über check[] erkannt
+        for (int row = 0; row < cells.length; row++) {
+            for (int column = 0; column < cells[row].length; column++) {
+                assertThat(table.get(row, column)).isEqualTo(cells[row][column]);
+            }
+        }
+
+        assertThat(table.get("A", "x")).isNull();
+        assertThat(table.get("C", "z")).isEqualTo("p3");
+    }
+
+    @Test
+    void testOutOfRangeIds() {
+        final ParsingTable table = analyzer.getTable();
+        final ParsingTable lazy = GrammarAnalyzer.fromGrammarLazy(grammar).getTable();
+        final int rows = grammar.getNonterminals().size();
+
+        for (ParsingTable current : new ParsingTable[]{table, lazy}) {
+            assertThat(current.get(-1, 0)).isEqualTo(-1);
+            assertThat(current.get(0, -1)).isEqualTo(-1);
+            assertThat(current.get(rows, 0)).isEqualTo(-1);
+            assertThat(current.get(0, terminals.size())).isEqualTo(-1);
+            assertThat(current.get(current.getRowId("unknown"), 0)).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void testRejectUnknownFormat() {
+        final byte[] bytes = analyzer.getTable().toByteArray();
+
+        final byte[] magic = bytes.clone();
+        magic[0] ^= 1;
+        assertThatThrownBy(() -> ParsingTable.fromByteArray(grammar, magic))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Die Version steht als VarInt direkt hinter der Kennung
+        final byte[] version = bytes.clone();
+        version[4]++;
+        assertThatThrownBy(() -> ParsingTable.fromByteArray(grammar, version))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testMemoryReport() {
+        final ParsingTable table = analyzer.getTable();
+
+        assertThat(table.printMemoryReport()).contains("comb-vector length", "Serialized: "
+                                                                             + table.toByteArray().length + " bytes");
+        assertThat(GrammarAnalyzer.fromGrammarLazy(grammar).getTable().printMemoryReport()).contains("(lazy)");
+    }
+}
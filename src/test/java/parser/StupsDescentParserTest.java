@@ -0,0 +1,100 @@
+package parser;
+
+import lexer.StupsLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import parser.ast.SyntaxTree;
+import parser.generator.DescentParserGenerator;
+import parser.grammar.Grammar;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StupsDescentParserTest {
+
+    private static Grammar grammar;
+    private static StupsParser parser;
+
+    @BeforeAll
+    static void init() throws IOException {
+        final Path path = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
+        grammar = Grammar.fromFile(path);
+        parser = StupsParser.fromGrammar(grammar);
+    }
+
+    private static StupsLexer getLexer(String program) {
+        try {
+            final Path path = Paths.get(StupsDescentParserTest.class.getClassLoader().getResource("examplePrograms/" + program).toURI());
+            final String programCode = Files.readString(path, StandardCharsets.US_ASCII);
+            return new StupsLexer(CharStreams.fromString(programCode));
+        } catch (Exception ignore) {
+            ignore.printStackTrace();
+        }
+
+        return null;
+    }
+
+    @Test
+    void testGeneratedFromCurrentGrammar() {
+        // Schlägt fehl, wenn stups.grammar geändert, aber "gradle generateDescentParser" nicht ausgeführt wurde
+        assertThat(StupsDescentParser.isGeneratedFrom(grammar)).isTrue();
+    }
+
+    @Test
+    void testGeneratedSourceUpToDate() throws IOException {
+        final Path source = Paths.get(System.getProperty("user.dir") + "/src/main/java/parser/StupsDescentParser.java");
+
+        assertThat(DescentParserGenerator.fromGrammar(grammar).generate("parser", "StupsDescentParser"))
+                .isEqualTo(Files.readString(source, StandardCharsets.UTF_8));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"EmptyFile.stups",
+                            "EmptyMain.stups",
+                            "GeneralComment.stups",
+                            "MultipleDeclarations.stups",
+                            "DeclarationAssignment.stups",
+                            "Expr.stups",
+                            "GeneralWhile.stups",
+                            "GeneralIfElse.stups",
+                            "Println.stups",
+                            "CompileAllInOne1.stups"})
+    void testSameTreeAsTableParser(String prog) {
+        final Lexer lex = getLexer(prog);
+        final List<? extends Token> token = lex.getAllTokens();
+
+        final SyntaxTree expected = parser.parse(token, lex.getVocabulary());
+        final SyntaxTree actual = StupsDescentParser.parse(token, lex.getVocabulary());
+
+        assertThat(actual.getRoot()).isEqualTo(expected.getRoot());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"FailingSemicolon.stups",
+                            "FailingMissingBrace.stups",
+                            "FailingMissingBrace2.stups",
+                            "FailingMissingMain.stups",
+                            "FailingMissingMain2.stups",
+                            "FailingEmptyParExpr.stups",
+                            "FailingEmptyParExpr2.stups",
+                            "FailingWrongStatement.stups",
+                            "FailingWrongStatement2.stups",
+                            "FailingWrongStatement3.stups"})
+    void testIncorrectPrograms(String prog) {
+        final Lexer lex = getLexer(prog);
+
+        assertThatThrownBy(() -> StupsDescentParser.parse(lex.getAllTokens(), lex.getVocabulary())).isInstanceOf(ParseException.class);
+    }
+}
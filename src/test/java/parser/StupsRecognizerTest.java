@@ -0,0 +1,172 @@
+package parser;
+
+import lexer.StupsLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import parser.grammar.Grammar;
+import typechecker.AssignmentTypeMismatchException;
+import typechecker.OperatorTypeMismatchException;
+import typechecker.OperatorUsageException;
+import typechecker.SymbolAlreadyDefinedException;
+import typechecker.SymbolNotDefinedException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StupsRecognizerTest {
+
+    private static StupsRecognizer recognizer;
+
+    @BeforeAll
+    static void init() throws IOException {
+        final Path path = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
+        recognizer = StupsRecognizer.fromGrammar(Grammar.fromFile(path));
+    }
+
+    private static String exprToProg(String expr) {
+        return "class MyClass {\n"
+               + "public static void main(String[] args) {\n"
+               + expr
+               + "}}";
+    }
+
+    private static void recognize(String program) {
+        final Lexer lex = new StupsLexer(CharStreams.fromString(program));
+        recognizer.recognize(lex.getAllTokens(), lex.getVocabulary());
+    }
+
+    private static void recognizeFile(String program) throws Exception {
+        final Path path = Paths.get(StupsRecognizerTest.class.getClassLoader().getResource("examplePrograms/" + program).toURI());
+        recognize(Files.readString(path, StandardCharsets.US_ASCII));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"EmptyFile.stups",
+                            "EmptyMain.stups",
+                            "GeneralComment.stups",
+                            "GeneralWhile.stups",
+                            "GeneralIfElse.stups",
+                            "Println.stups",
+                            "CompileAllInOne1.stups",
+                            "Factorial.stups",
+                            "Fibonacci.stups",
+                            "Squares.stups"})
+    void testCorrectPrograms(String prog) throws Exception {
+        recognizeFile(prog);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"FailingSemicolon.stups",
+                            "FailingMissingBrace.stups",
+                            "FailingMissingMain.stups",
+                            "FailingEmptyParExpr.stups",
+                            "FailingWrongStatement.stups"})
+    void testIncorrectPrograms(String prog) {
+        assertThatThrownBy(() -> recognizeFile(prog)).isInstanceOf(ParseException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ExistingSymbol.stups",
+                            "ExistingSymbol2.stups"})
+    void testExistingSymbol(String prog) {
+        assertThatThrownBy(() -> recognizeFile(prog)).isInstanceOf(SymbolAlreadyDefinedException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"int i = -1 + 2 * (3 % 4);",
+                            "boolean b = !false && 1 < 2 || 1 + 1 == 2;",
+                            "String s = \"a\";\nboolean b = s != \"b\";",
+                            "int i = 0; i = i - -i;",
+                            "boolean b = true; while (b) { b = !b; }"})
+    void testExpressionsCorrect(String expr) {
+        recognize(exprToProg(expr));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"int i = false;",
+                            "boolean b = 1 + 1;",
+                            "String s = 1 < 2;",
+                            "int i = 0; i = true;"})
+    void testAssignmentMismatch(String expr) {
+        assertThatThrownBy(() -> recognize(exprToProg(expr))).isInstanceOf(AssignmentTypeMismatchException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"int i = 1 * \"Hello\";",
+                            "boolean b = 1 == false;",
+                            "int i = -\"String\";",
+                            "boolean b = !1;",
+                            "boolean b = 1 < 2 < 3;"})
+    void testOperatorTypeMismatch(String expr) {
+        assertThatThrownBy(() -> recognize(exprToProg(expr))).isInstanceOf(OperatorTypeMismatchException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"boolean b = true !false;"})
+    void testOperatorUsage(String expr) {
+        assertThatThrownBy(() -> recognize(exprToProg(expr))).isInstanceOf(OperatorUsageException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"int i = 1 + x;",
+                            "int i = x;",
+                            "System.out.println(1 + x);"})
+    void testSymbolNotDefined(String expr) {
+        assertThatThrownBy(() -> recognize(exprToProg(expr))).isInstanceOf(SymbolNotDefinedException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"if (true) { int i = 1; i = i + 1; } else { int i = 2; }",
+                            "while (false) { String s = \"Hi\"; } while (false) { boolean s = true; }",
+                            "if (true) int i = 1; else int i = 2;",
+                            "if (true) { if (false) int i = 1; } else { boolean i = true; }"})
+    void testBlockScope(String expr) {
+        recognize(exprToProg(expr));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"if (true) { int i = 1; } int j = i;",
+                            "if (true) int i = 1; int j = i + 1;",
+                            "while (false) { int i = 1; } while (false) { int j = i; }"})
+    void testBlockScopeNotDefined(String expr) {
+        assertThatThrownBy(() -> recognize(exprToProg(expr))).isInstanceOf(SymbolNotDefinedException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"int i = 0; if (true) { int i = 1; }",
+                            "if (true) { int i = 1; } int i = 0;",
+                            "while (true) { int i = 0; if (true) { int i = 1; } }"})
+    void testBlockScopeShadowing(String expr) {
+        assertThatThrownBy(() -> recognize(exprToProg(expr))).isInstanceOf(SymbolAlreadyDefinedException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"int i = false",
+                            "int i = 1; int i = true"})
+    void testSyntaxErrorFirst(String expr) {
+        // Syntaxfehler haben Vorrang vor Typfehlern, auch wenn der Typfehler vorher steht
+        assertThatThrownBy(() -> recognize(exprToProg(expr))).isInstanceOf(ParseException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"System.out.println(-b != true * 1);",
+                            "int i = 0; i = x + (1 + \"s\");"})
+    void testCommutativeOrderMismatch(String expr) {
+        // Im Syntaxbaum steht der größere Operand links und wird zuerst geprüft, wie beim Kompilieren
+        assertThatThrownBy(() -> recognize(exprToProg(expr))).isInstanceOf(OperatorTypeMismatchException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"boolean y = false; b = 6 > y && (a) == (b);"})
+    void testCommutativeOrderNotDefined(String expr) {
+        assertThatThrownBy(() -> recognize(exprToProg(expr))).isInstanceOf(SymbolNotDefinedException.class);
+    }
+}
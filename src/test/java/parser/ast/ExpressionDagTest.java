@@ -0,0 +1,125 @@
+package parser.ast;
+
+import codegen.analysis.SemanticAnalyzer;
+import lexer.StupsLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import parser.StupsParser;
+import parser.grammar.Grammar;
+import typechecker.OperatorTypeMismatchException;
+import typechecker.Type;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpressionDagTest {
+
+    private static Grammar grammar;
+    private static StupsParser parser;
+
+    @BeforeAll
+    static void init() throws IOException {
+        final Path path = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
+        grammar = Grammar.fromFile(path);
+        parser = StupsParser.fromGrammar(grammar);
+    }
+
+    private static SyntaxTreeArena getTree(String statements) {
+        final String program = "class MyClass {\n"
+                               + "public static void main(String[] args) {\n"
+                               + statements
+                               + "}}";
+        final Lexer lex = new StupsLexer(CharStreams.fromString(program));
+
+        return SyntaxTreeArena.toAbstractSyntaxTree(parser.parse(lex.getAllTokens(), lex.getVocabulary()), grammar);
+    }
+
+    private static int findExpression(SyntaxTreeArena tree, int root, int skip) {
+        final SyntaxTreeCursor cursor = tree.cursor();
+        int remaining = skip;
+
+        do {
+            if (cursor.getNode() != root && tree.getKind(cursor.getNode()) == NodeKind.EXPR
+                && tree.getOperator(cursor.getNode()) == Operator.ADD && remaining-- == 0) {
+                return cursor.getNode();
+            }
+        } while (cursor.toNextInSubtree(root));
+
+        return SyntaxTreeArena.NONE;
+    }
+
+    @Test
+    void testRepeatedExpressionShared() {
+        final SyntaxTreeArena tree = getTree("int a = 1;\n"
+                                             + "int b = a * 2 + 3;\n"
+                                             + "int c = a * 2 + 3;\n");
+
+        final ExpressionDag dag = ExpressionDag.fromArena(tree);
+        final int first = findExpression(tree, tree.getRoot(), 0);
+        final int second = findExpression(tree, tree.getRoot(), 1);
+
+        assertThat(dag.getDagNode(first)).isEqualTo(dag.getDagNode(second));
+        assertThat(dag.isRepeated(first)).isFalse();
+        assertThat(dag.isRepeated(second)).isTrue();
+        assertThat(dag.getFirstOccurrence(second)).isEqualTo(first);
+        assertThat(dag.size()).isLessThan(dag.getOccurrences());
+    }
+
+    @Test
+    void testDifferentExpressionsNotShared() {
+        final SyntaxTreeArena tree = getTree("int a = 1;\n"
+                                             + "int b = a * 2 + 3;\n"
+                                             + "int c = a * 3 + 2;\n");
+
+        final ExpressionDag dag = ExpressionDag.fromArena(tree);
+        final int first = findExpression(tree, tree.getRoot(), 0);
+        final int second = findExpression(tree, tree.getRoot(), 1);
+
+        assertThat(dag.getDagNode(first)).isNotEqualTo(dag.getDagNode(second));
+        assertThat(dag.getChildCount(dag.getDagNode(first))).isEqualTo(2);
+    }
+
+    @Test
+    void testDisjointBlocksNotShared() {
+        final SyntaxTreeArena tree = getTree("if (true) { int x = 1; int y = x + 1; int z = x + 1; }\n"
+                                             + "if (true) { int x = 2; int y = x + 1; }\n");
+
+        final ExpressionDag dag = ExpressionDag.fromArena(tree);
+        final int first = findExpression(tree, tree.getRoot(), 0);
+        final int sameBlock = findExpression(tree, tree.getRoot(), 1);
+        final int otherBlock = findExpression(tree, tree.getRoot(), 2);
+
+        assertThat(dag.getDagNode(sameBlock)).isEqualTo(dag.getDagNode(first));
+        assertThat(dag.getDagNode(otherBlock)).isNotEqualTo(dag.getDagNode(first));
+    }
+
+    @Test
+    void testSharedTypes() {
+        final SyntaxTreeArena tree = getTree("int a = 1;\n"
+                                             + "int b = a * 2 + 3;\n"
+                                             + "while (b > a * 2 + 3) {\n"
+                                             + "b = a * 2 + 3;\n"
+                                             + "}\n");
+
+        final Type[] nodeTypes = SemanticAnalyzer.fromArena(tree).getNodeTypes();
+
+        assertThat(nodeTypes[findExpression(tree, tree.getRoot(), 0)]).isEqualTo(Type.INTEGER_TYPE);
+        assertThat(nodeTypes[findExpression(tree, tree.getRoot(), 1)]).isEqualTo(Type.INTEGER_TYPE);
+        assertThat(nodeTypes[findExpression(tree, tree.getRoot(), 2)]).isEqualTo(Type.INTEGER_TYPE);
+    }
+
+    @Test
+    void testSharedExpressionErrorStillThrown() {
+        final SyntaxTreeArena tree = getTree("boolean a = true;\n"
+                                             + "int b = a + 1;\n"
+                                             + "int c = a + 1;\n");
+
+        assertThatThrownBy(() -> SemanticAnalyzer.fromArena(tree)).isInstanceOf(OperatorTypeMismatchException.class);
+    }
+}
@@ -0,0 +1,161 @@
+package parser.ast;
+
+import lexer.StupsLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import parser.StupsParser;
+import parser.grammar.Grammar;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntaxTreeArenaTest {
+
+    private static Grammar grammar;
+    private static StupsParser parser;
+
+    @BeforeAll
+    static void init() throws IOException {
+        final Path path = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
+        grammar = Grammar.fromFile(path);
+        parser = StupsParser.fromGrammar(grammar);
+    }
+
+    private static SyntaxTree getTree(String program) throws Exception {
+        final Path path = Paths.get(SyntaxTreeArenaTest.class.getClassLoader().getResource("examplePrograms/" + program).toURI());
+        final String programCode = Files.readString(path, StandardCharsets.US_ASCII);
+        final Lexer lex = new StupsLexer(CharStreams.fromString(programCode));
+        return parser.parse(lex.getAllTokens(), lex.getVocabulary());
+    }
+
+    //Wurzel
+    //├── A: a
+    //│   └── C
+    //└── B
+    private static SyntaxTreeArena arena(SyntaxTreeArena arena) {
+        final int root = arena.addNode("Wurzel", 1);
+        final int childA = arena.addNode("A", 1);
+        final int childB = arena.addNode("B", 2);
+        final int childC = arena.addNode("C", 3);
+
+        arena.setValue(childA, "a");
+        arena.setChildren(root, childA, childB);
+        arena.setChildren(childA, childC);
+        arena.setRoot(root);
+
+        return arena;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"GeneralOperator.stups",
+                            "GeneralWhile.stups",
+                            "GeneralIfElse.stups",
+                            "CompileAllInOne1.stups"})
+    void testRoundTrip(String prog) throws Exception {
+        final SyntaxTree tree = getTree(prog);
+
+        final SyntaxTreeArena arena = SyntaxTreeArena.fromTree(tree);
+
+        assertThat(arena.size()).isEqualTo(tree.size());
+        assertThat(arena.toTree()).isEqualTo(tree);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"GeneralOperator.stups",
+                            "GeneralWhile.stups",
+                            "CompileAllInOne1.stups"})
+    void testAbstractSyntaxTreeIsCompact(String prog) throws Exception {
+        final SyntaxTree tree = getTree(prog);
+
+        final SyntaxTreeArena arena = SyntaxTreeArena.toAbstractSyntaxTree(tree, grammar);
+
+        // Gelöschte Knoten der Umformungen sind nicht mehr enthalten
+        assertThat(arena.size()).isEqualTo(arena.subtreeSize(arena.getRoot()));
+        assertThat(arena.toTree().size()).isEqualTo(arena.size());
+    }
+
+    @Test
+    void testDirectGrows() {
+        final SyntaxTreeArena arena = arena(SyntaxTreeArena.allocateDirect(1));
+
+        assertThat(arena.isDirect()).isTrue();
+        assertThat(arena.toTree()).hasToString("Wurzel\n├── A: a\n│   └── C\n└── B\n");
+        assertThat(arena.toTree()).isEqualTo(arena(SyntaxTreeArena.allocate(1)).toTree());
+    }
+
+    @Test
+    void testCursor() {
+        final SyntaxTreeArena arena = arena(SyntaxTreeArena.allocate(4));
+        final SyntaxTreeCursor cursor = arena.cursor();
+
+        assertThat(cursor.getChildCount()).isEqualTo(2);
+        assertThat(cursor.toParent()).isFalse();
+
+        assertThat(cursor.toFirstChild()).isTrue();
+        assertThat(cursor.getValue()).isEqualTo("a");
+        assertThat(cursor.toNextSibling()).isTrue();
+        assertThat(cursor.getName()).isEqualTo("B");
+        assertThat(cursor.getLine()).isEqualTo(2);
+        assertThat(cursor.toNextSibling()).isFalse();
+        assertThat(cursor.getName()).isEqualTo("B");
+
+        assertThat(cursor.toParent()).isTrue();
+        assertThat(cursor.toChild(0).toFirstChild()).isTrue();
+        assertThat(cursor.getName()).isEqualTo("C");
+        assertThat(cursor.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testCursorPreorder() {
+        final SyntaxTreeArena arena = arena(SyntaxTreeArena.allocate(4));
+        final SyntaxTreeCursor cursor = arena.cursor();
+        final StringBuilder names = new StringBuilder(cursor.getName());
+
+        while (cursor.toNextInSubtree(arena.getRoot())) {
+            names.append(' ').append(cursor.getName());
+        }
+
+        assertThat(names).hasToString("Wurzel A C B");
+    }
+
+    @Test
+    void testKindAndOperator() {
+        final SyntaxTreeArena arena = arena(SyntaxTreeArena.allocate(4));
+        final int childA = arena.getChild(arena.getRoot(), 0);
+
+        assertThat(arena.getKind(childA)).isEqualTo(NodeKind.OTHER);
+        assertThat(arena.getOperator(childA)).isNull();
+
+        arena.setName(childA, "expr");
+        arena.setValue(childA, "LESS_EQUAL");
+
+        assertThat(arena.getKind(childA)).isEqualTo(NodeKind.EXPR);
+        assertThat(arena.getOperator(childA)).isEqualTo(Operator.LESS_EQUAL);
+        assertThat(arena.getKind(arena.getRoot())).isEqualTo(NodeKind.OTHER);
+    }
+
+    @Test
+    void testDetach() {
+        final SyntaxTreeArena arena = arena(SyntaxTreeArena.allocate(4));
+        final int childA = arena.getChild(arena.getRoot(), 0);
+
+        arena.detach(childA);
+
+        // Bis zum Entfernen bleibt die Kette für laufende Iterationen erhalten
+        assertThat(arena.getChildCount(arena.getRoot())).isEqualTo(2);
+
+        arena.removeDetached(arena.getRoot());
+
+        assertThat(arena.toTree()).hasToString("Wurzel\n└── B\n");
+        assertThat(arena.compact().size()).isEqualTo(2);
+    }
+}
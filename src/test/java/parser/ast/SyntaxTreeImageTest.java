@@ -0,0 +1,83 @@
+package parser.ast;
+
+import codegen.analysis.SemanticAnalyzer;
+import lexer.StupsLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import parser.StupsParser;
+import parser.grammar.Grammar;
+import typechecker.Type;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SyntaxTreeImageTest {
+
+    private static Grammar grammar;
+    private static StupsParser parser;
+
+    @BeforeAll
+    static void init() throws IOException {
+        final Path path = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
+        grammar = Grammar.fromFile(path);
+        parser = StupsParser.fromGrammar(grammar);
+    }
+
+    private static SyntaxTreeArena getTree(String program) throws Exception {
+        final Path path = Paths.get(SyntaxTreeImageTest.class.getClassLoader().getResource("examplePrograms/" + program).toURI());
+        final String programCode = Files.readString(path, StandardCharsets.US_ASCII);
+        final Lexer lex = new StupsLexer(CharStreams.fromString(programCode));
+
+        return SyntaxTreeArena.toAbstractSyntaxTree(parser.parse(lex.getAllTokens(), lex.getVocabulary()), grammar);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"CompileAllInOne1.stups",
+                            "Fibonacci.stups",
+                            "GeneralIfElse.stups",
+                            "EmptyMain.stups"})
+    void testRoundTrip(String program) throws Exception {
+        final SyntaxTreeArena tree = getTree(program);
+        final Type[] nodeTypes = SemanticAnalyzer.fromArena(tree).getNodeTypes();
+        final Path file = Files.createTempFile("SyntaxTreeImageTest", ".ast");
+
+        try {
+            SyntaxTreeImage.write(file, tree, nodeTypes, program);
+            final SyntaxTreeImage image = SyntaxTreeImage.read(file);
+
+            assertThat(image.getTree().toTree()).isEqualTo(tree.toTree());
+            assertThat(image.getNodeTypes()).containsExactly(nodeTypes);
+            assertThat(image.getSource()).isEqualTo(program);
+
+            for (int node = 0; node < tree.size(); node++) {
+                assertThat(image.getTree().getKind(node)).isEqualTo(tree.getKind(node));
+                assertThat(image.getTree().getOperator(node)).isEqualTo(tree.getOperator(node));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testNoImage() throws IOException {
+        final Path file = Files.createTempFile("SyntaxTreeImageTest", ".ast");
+
+        try {
+            Files.writeString(file, "class MyClass {}");
+
+            assertThatThrownBy(() -> SyntaxTreeImage.read(file)).isInstanceOf(IOException.class);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
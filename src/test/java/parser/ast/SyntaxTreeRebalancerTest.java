@@ -123,53 +123,53 @@ class SyntaxTreeRebalancerTest {
     }
 
     @Test
-    void testTree1LeftPrecedence() {
+    void testTree1Rebalance() {
         final SyntaxTree tree = tree1();
-        SyntaxTreeRebalancer.flip(tree);
 
-        SyntaxTreeRebalancer.leftPrecedence(tree);
+        SyntaxTreeRebalancer.rebalance(tree);
 
         assertThat(tree.size()).isEqualTo(3);
         assertThat(tree.getRoot().getValue()).isEqualTo("SUB");
+        assertThat(tree.getRoot().getChildren().get(0).getValue()).isEqualTo("1");
     }
 
     @Test
     void testTree2LeftPrecedence() {
         final SyntaxTree tree = tree2();
-        SyntaxTreeRebalancer.flip(tree);
 
-        SyntaxTreeRebalancer.leftPrecedence(tree);
+        SyntaxTreeRebalancer.rebalance(tree);
 
+        // (1 - 2) - 3
         assertThat(tree.size()).isEqualTo(5);
         assertThat(tree.getRoot().getValue()).isEqualTo("SUB");
+        assertThat(tree.getRoot().getChildren().get(0).getValue()).isEqualTo("SUB");
+        assertThat(tree.getRoot().getChildren().get(1).getValue()).isEqualTo("3");
     }
 
     @Test
-    void testTree2OperatorPrecedence() {
-        final SyntaxTree tree = tree2();
-        SyntaxTreeRebalancer.flip(tree);
-        SyntaxTreeRebalancer.leftPrecedence(tree);
-
-        final SyntaxTree tree1 = tree2();
-        SyntaxTreeRebalancer.flip(tree1);
-        SyntaxTreeRebalancer.leftPrecedence(tree1);
+    void testTree3OperatorPrecedence() {
+        final SyntaxTree tree = tree3();
 
-        SyntaxTreeRebalancer.operatorPrecedence(tree);
+        SyntaxTreeRebalancer.rebalance(tree);
 
-        assertThat(tree).isEqualTo(tree1);
+        // 1 - (2 * 3)
+        assertThat(tree.size()).isEqualTo(5);
+        assertThat(tree.getRoot().getValue()).isEqualTo("SUB");
+        assertThat(tree.getRoot().getChildren().get(0).getValue()).isEqualTo("1");
+        assertThat(tree.getRoot().getChildren().get(1).getValue()).isEqualTo("MUL");
     }
 
     @Test
-    void testTree3OperatorPrecedence() {
+    void testRebalanceTwice() {
         final SyntaxTree tree = tree3();
-        SyntaxTreeRebalancer.flip(tree);
-        SyntaxTreeRebalancer.leftPrecedence(tree);
+        SyntaxTreeRebalancer.rebalance(tree);
+        final SyntaxTree flipped = tree3();
+        SyntaxTreeRebalancer.rebalance(flipped);
 
-        assertThat(tree.getRoot().getValue()).isEqualTo("MUL");
+        SyntaxTreeRebalancer.flip(flipped);
+        SyntaxTreeRebalancer.rebalance(flipped);
 
-        SyntaxTreeRebalancer.operatorPrecedence(tree);
-
-        assertThat(tree.size()).isEqualTo(5);
-        assertThat(tree.getRoot().getValue()).isEqualTo("SUB");
+        // Fertige Ausdrücke sind keine Operatorketten mehr
+        assertThat(flipped).isEqualTo(tree);
     }
 }
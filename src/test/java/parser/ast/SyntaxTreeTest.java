@@ -42,4 +42,84 @@ class SyntaxTreeTest {
 
         assertThat(tree).hasToString("Wurzel\n└── A\n    └── B\n");
     }
+
+    @Test
+    void testSizeHeightAfterAddChild() {
+        final SyntaxTreeNode root = new SyntaxTreeNode("Wurzel", 1);
+        final SyntaxTreeNode childA = new SyntaxTreeNode("A", 1);
+        final SyntaxTreeNode childB = new SyntaxTreeNode("B", 1);
+        root.addChild(childA);
+
+        assertThat(root.size()).isEqualTo(2);
+        assertThat(root.height()).isEqualTo(2);
+
+        // Änderung unterhalb eines schon berechneten Knotens
+        childA.addChild(childB);
+
+        assertThat(root.size()).isEqualTo(3);
+        assertThat(root.height()).isEqualTo(3);
+        assertThat(childB.height()).isEqualTo(1);
+    }
+
+    @Test
+    void testHashAfterChange() {
+        final SyntaxTreeNode root = new SyntaxTreeNode("Wurzel", 1);
+        final SyntaxTreeNode childA = new SyntaxTreeNode("A", 1);
+        root.addChild(childA);
+
+        final SyntaxTree copy = new SyntaxTree(root).deepCopy();
+        assertThat(copy.getRoot()).isEqualTo(root);
+        assertThat(copy.getRoot().hashCode()).isEqualTo(root.hashCode());
+
+        childA.setValue("a");
+
+        assertThat(copy.getRoot()).isNotEqualTo(root);
+
+        copy.getRoot().getChildren().get(0).setValue("a");
+
+        assertThat(copy.getRoot()).isEqualTo(root);
+        assertThat(copy.getRoot().hashCode()).isEqualTo(root.hashCode());
+    }
+
+    @Test
+    void testSizeHeightAfterMove() {
+        final SyntaxTreeNode first = new SyntaxTreeNode("A", 1);
+        final SyntaxTreeNode second = new SyntaxTreeNode("B", 1);
+        final SyntaxTreeNode leaf = new SyntaxTreeNode("C", 1);
+        first.addChild(leaf);
+
+        assertThat(first.size()).isEqualTo(2);
+
+        // Wie beim Zurückschreiben aus der Arena übernimmt ein anderer Knoten die Kinder
+        second.setChildren(first.getChildren());
+
+        assertThat(second.size()).isEqualTo(2);
+
+        leaf.addChild(new SyntaxTreeNode("D", 1));
+
+        assertThat(second.size()).isEqualTo(3);
+        assertThat(second.height()).isEqualTo(3);
+    }
+
+    @Test
+    void testDeepTree() {
+        final int depth = 100_000;
+        final SyntaxTreeNode root = new SyntaxTreeNode("Wurzel", 1);
+
+        SyntaxTreeNode leaf = root;
+        for (int i = 1; i < depth; i++) {
+            final SyntaxTreeNode next = new SyntaxTreeNode("N", i);
+            leaf.addChild(next);
+            leaf = next;
+        }
+
+        assertThat(root.size()).isEqualTo(depth);
+        assertThat(root.height()).isEqualTo(depth);
+
+        final int hash = root.hashCode();
+        leaf.setValue("x");
+
+        assertThat(root.hashCode()).isNotEqualTo(hash);
+        assertThat(root.size()).isEqualTo(depth);
+    }
 }
@@ -0,0 +1,83 @@
+package parser.ast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntaxTreeWalkerTest {
+
+    //Wurzel
+    //├── A: a
+    //│   └── C
+    //└── B
+    private static SyntaxTreeArena arena() {
+        final SyntaxTreeArena arena = SyntaxTreeArena.allocate(4);
+        final int root = arena.addNode("Wurzel", 1);
+        final int childA = arena.addNode("A", 1);
+        final int childB = arena.addNode("B", 2);
+        final int childC = arena.addNode("C", 3);
+
+        arena.setValue(childA, "a");
+        arena.setChildren(root, childA, childB);
+        arena.setChildren(childA, childC);
+        arena.setRoot(root);
+
+        return arena;
+    }
+
+    private static final class Recorder implements SyntaxTreeVisitor {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void enter(SyntaxTreeArena tree, int node) {
+            this.events.add("enter " + tree.getName(node));
+        }
+
+        @Override
+        public void exit(SyntaxTreeArena tree, int node) {
+            this.events.add("exit " + tree.getName(node));
+        }
+    }
+
+    @Test
+    void testEnterExitOrder() {
+        final Recorder recorder = new Recorder();
+
+        SyntaxTreeWalker.walk(arena(), recorder);
+
+        assertThat(recorder.events).containsExactly("enter Wurzel",
+                                                    "enter A",
+                                                    "enter C",
+                                                    "exit C",
+                                                    "exit A",
+                                                    "enter B",
+                                                    "exit B",
+                                                    "exit Wurzel");
+    }
+
+    @Test
+    void testVisitorsRunInOrder() {
+        final List<String> events = new ArrayList<>();
+        final SyntaxTreeVisitor first = new SyntaxTreeVisitor() {
+            @Override
+            public void exit(SyntaxTreeArena tree, int node) {
+                events.add("first " + tree.getName(node));
+            }
+        };
+        final SyntaxTreeVisitor second = new SyntaxTreeVisitor() {
+            @Override
+            public void exit(SyntaxTreeArena tree, int node) {
+                events.add("second " + tree.getName(node));
+            }
+        };
+
+        final SyntaxTreeArena arena = arena();
+        SyntaxTreeWalker.walk(arena, arena.getFirstChild(arena.getRoot()), first, second);
+
+        assertThat(events).containsExactly("first C", "second C", "first A", "second A");
+    }
+}
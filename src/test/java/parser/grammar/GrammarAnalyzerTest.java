@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import parser.ParsingTable;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -179,4 +181,107 @@ class GrammarAnalyzerTest {
         assertThat(table.get("F", "id")).isEqualTo("id");
         assertThat(table.get("F", "(")).isEqualTo("( S )");
     }
+
+    @Test
+    void testLazyTableGrammar1() {
+        final ParsingTable eager = GrammarAnalyzer.fromGrammar(grammar1).getTable();
+        final ParsingTable lazy = GrammarAnalyzer.fromGrammarLazy(grammar1).getTable();
+
+        assertThat(lazy.isLazy()).isTrue();
+        assertThat(lazy.get("T2", "*")).isEqualTo("* F T2");
+        assertThat(lazy.get("F", "+")).isNull();
+
+        for (String nterm : grammar1.getNonterminals()) {
+            for (String term : grammar1.getTerminals()) {
+                assertThat(lazy.get(nterm, term)).isEqualTo(eager.get(nterm, term));
+            }
+            assertThat(lazy.get(nterm, "$")).isEqualTo(eager.get(nterm, "$"));
+        }
+
+        assertThat(lazy.toByteArray()).containsExactly(eager.toByteArray());
+    }
+
+    @Test
+    void testReanalyzeGrammar1() {
+        final GrammarAnalyzer previous = GrammarAnalyzer.fromGrammar(grammar1);
+
+        // F -> id wird durch F -> id T2 ersetzt, die Terminale bleiben gleich
+        final Set<GrammarRule> changedRules = new HashSet<>(grammar1.getRules());
+        changedRules.remove(new GrammarRule("F", "id"));
+        changedRules.add(new GrammarRule("F", "id", "T2"));
+        final Grammar changed = new Grammar(grammar1.getTerminals(), grammar1.getNonterminals(),
+                                            Collections.emptyMap(), Collections.emptyMap(),
+                                            Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(),
+                                            changedRules);
+
+        // E2 -> - T E2 mit neuem Terminal
+        final Set<String> extendedTerminals = new HashSet<>(grammar1.getTerminals());
+        extendedTerminals.add("-");
+        final Set<GrammarRule> extendedRules = new HashSet<>(grammar1.getRules());
+        extendedRules.add(new GrammarRule("E2", "-", "T", "E2"));
+        final Grammar extended = new Grammar(extendedTerminals, grammar1.getNonterminals(),
+                                             Collections.emptyMap(), Collections.emptyMap(),
+                                             Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(),
+                                             extendedRules);
+
+        for (Grammar grammar : new Grammar[]{changed, extended}) {
+            final GrammarAnalyzer full = GrammarAnalyzer.fromGrammar(grammar);
+            final GrammarAnalyzer incremental = previous.reanalyze(grammar);
+
+            assertThat(incremental.getFirst()).isEqualTo(full.getFirst());
+            assertThat(incremental.getFollow()).isEqualTo(full.getFollow());
+
+            for (String nterm : grammar.getNonterminals()) {
+                for (String term : grammar.getTerminals()) {
+                    assertThat(incremental.getTable().get(nterm, term)).isEqualTo(full.getTable().get(nterm, term));
+                }
+                assertThat(incremental.getTable().get(nterm, "$")).isEqualTo(full.getTable().get(nterm, "$"));
+            }
+        }
+
+        assertThat(previous.reanalyze(extended).getTable().get("E2", "-")).isEqualTo("- T E2");
+        assertThat(previous.reanalyze(changed).getFollow().get("T2")).contains("*");
+    }
+
+    /**
+     * predicts und suffixNullable müssen für jede Produktion und jedes Suffix dasselbe liefern
+     * wie die Berechnung über stringFirst, allNullable und follow.
+     */
+    @Test
+    void testPredictsAndSuffixNullable() throws IOException {
+        final Grammar stups = Grammar.fromFile(Paths.get(System.getProperty("user.dir") + "/stups.grammar"));
+
+        for (Grammar grammar : new Grammar[]{grammar0, grammar1, grammar2, stups}) {
+            final GrammarAnalyzer analyzer = GrammarAnalyzer.fromGrammar(grammar);
+            final Set<String> terminals = new HashSet<>(grammar.getTerminals());
+            terminals.add("$");
+
+            for (GrammarRule rule : grammar.getProductions()) {
+                final String[] split = rule.getRightside().split(" ");
+
+                for (int from = 0; from <= split.length; from++) {
+                    assertThat(analyzer.suffixNullable(rule, from))
+                            .isEqualTo(analyzer.allNullable(Arrays.copyOfRange(split, from, split.length)));
+                }
+
+                for (String term : terminals) {
+                    final boolean expected = analyzer.stringFirst(split).contains(term)
+                                             || (analyzer.allNullable(split)
+                                                 && analyzer.follow(rule.getLeftside()).contains(term));
+
+                    assertThat(analyzer.predicts(rule, term)).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testForeignRule() {
+        final GrammarAnalyzer analyzer = GrammarAnalyzer.fromGrammar(grammar1);
+        final GrammarRule foreign = new GrammarRule("F", "(", "id", ")");
+
+        assertThat(analyzer.predicts(foreign, "(")).isFalse();
+        assertThat(analyzer.suffixNullable(foreign, 0)).isFalse();
+        assertThat(analyzer.predicts(new GrammarRule("F", "id"), "unknown")).isFalse();
+    }
 }
@@ -46,4 +46,62 @@ class GrammarTest {
                                                 new GrammarRule("E2", "+", "T", "E2"),
                                                 new GrammarRule("E2", Grammar.EPSILON_SYMBOL));
     }
+
+    @Test
+    void testActionTableMatchesActions() throws IOException {
+        final Grammar grammar = Grammar.fromFile(Paths.get(System.getProperty("user.dir") + "/stups.grammar"));
+        final GrammarActionTable table = grammar.getActionTable();
+
+        for (int parent = 0; parent < table.getSymbolCount(); parent++) {
+            final String parentName = table.getName(parent);
+
+            assertThat(table.canPromoteChild(parent)).isEqualTo(grammar.canPromoteChild(parentName));
+            assertThat(table.canDeleteIfEmpty(parent)).isEqualTo(grammar.canDeleteIfEmpty(parentName));
+            assertThat(table.getNewName(parent) == GrammarActionTable.UNKNOWN).isEqualTo(!grammar.canBeRenamed(parentName));
+
+            for (int child = 0; child < table.getSymbolCount(); child++) {
+                final String childName = table.getName(child);
+
+                assertThat(table.canDeleteChild(parent, child)).isEqualTo(grammar.canDeleteChild(parentName, childName));
+                assertThat(table.canMoveNameToVal(parent, child)).isEqualTo(grammar.canMoveNameToVal(parentName, childName));
+                assertThat(table.hasValToVal(parent, child)).isEqualTo(grammar.hasValToVal(parentName, childName));
+            }
+        }
+
+        assertThat(table.getName(table.getNewName(table.getSymbol("expr_2")))).isEqualTo("expr");
+        assertThat(table.getSymbol("unknown")).isEqualTo(GrammarActionTable.UNKNOWN);
+        assertThat(table.canDeleteChild(GrammarActionTable.UNKNOWN, table.getSymbol(Grammar.EPSILON_SYMBOL))).isTrue();
+    }
+
+    @Test
+    void testProductionsByLeftside() throws IOException {
+        final Path path = getPath("SimpleGrammar1.grammar");
+
+        final Grammar grammar = Grammar.fromFile(path);
+
+        // Wie in der Datei, die Alternativen einer Zeile von links nach rechts
+        assertThat(grammar.getProductions("T2")).containsExactly(new GrammarRule("T2", "*", "F", "T2"),
+                                                                 new GrammarRule("T2", Grammar.EPSILON_SYMBOL));
+        assertThat(grammar.getProductions("F")).containsExactly(new GrammarRule("F", "(", "S", ")"),
+                                                                new GrammarRule("F", "id"));
+        assertThat(grammar.getProductions("unknown")).isEmpty();
+
+        for (String leftside : grammar.getNonterminals()) {
+            for (GrammarRule rule : grammar.getProductions(leftside)) {
+                assertThat(rule.getLeftside()).isEqualTo(leftside);
+            }
+        }
+        assertThat(grammar.getProductions()).hasSize(grammar.getRules().size());
+
+        final GrammarRule epsilon = grammar.getProductions("E2").get(1);
+        assertThat(epsilon.isEpsilon()).isTrue();
+        assertThat(epsilon.getSymbols()).isEmpty();
+        assertThat(epsilon.getRightside()).isEqualTo(Grammar.EPSILON_SYMBOL);
+        assertThat(new GrammarRule("E2").isEpsilon()).isTrue();
+        assertThat(new GrammarRule("E2").getSymbols()).isEmpty();
+
+        final GrammarRule plus = grammar.getProductions("E2").get(0);
+        assertThat(plus.isEpsilon()).isFalse();
+        assertThat(plus.getSymbols()).containsExactly("+", "T", "E2");
+    }
 }
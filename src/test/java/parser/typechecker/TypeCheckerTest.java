@@ -1,24 +1,32 @@
 package parser.typechecker;
 
+import codegen.analysis.SemanticAnalyzer;
 import lexer.StupsLexer;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.Lexer;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import parser.ParseException;
 import parser.StupsParser;
 import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeArena;
 import parser.grammar.Grammar;
 import typechecker.AssignmentTypeMismatchException;
 import typechecker.OperatorTypeMismatchException;
 import typechecker.OperatorUsageException;
+import typechecker.SymbolAlreadyDefinedException;
+import typechecker.SymbolNotDefinedException;
 import typechecker.TypeChecker;
+import typechecker.TypeTable;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 class TypeCheckerTest {
@@ -132,4 +140,95 @@ class TypeCheckerTest {
         assertThatThrownBy(() -> TypeChecker.validate(this.getTree(expr))).isInstanceOfAny(OperatorTypeMismatchException.class,
                                                                                            ParseException.class);
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"if (true) { int i = 1; i = i + 1; } else { int i = 2; }",
+                            "while (false) { String s = \"Hi\"; } while (false) { boolean s = true; }",
+                            "if (true) int i = 1; else int i = 2;",
+                            "int j = 0; if (j < 1) { j = i; int i = 2; }"})
+    void testBlockScope(String expr) {
+        TypeChecker.validate(this.getTree(expr));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"if (true) { int i = 1; } int j = i;",
+                            "if (true) int i = 1; int j = i + 1;",
+                            "while (false) { int i = 1; } while (false) { int j = i; }"})
+    void testBlockScopeNotDefined(String expr) {
+        assertThatThrownBy(() -> TypeChecker.validate(this.getTree(expr))).isInstanceOf(SymbolNotDefinedException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"int i = 0; if (true) { int i = 1; }",
+                            "if (true) { int i = 1; } int i = 0;",
+                            "while (true) { int i = 0; if (true) { int i = 1; } }"})
+    void testBlockScopeShadowing(String expr) {
+        assertThatThrownBy(() -> TypeChecker.validate(this.getTree(expr))).isInstanceOf(SymbolAlreadyDefinedException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"if (true) { int x = 1; System.out.println(x + 1); } if (true) { String x = \"a\"; System.out.println(x + 1); }",
+                            "if (true) { int x = 1; System.out.println(x + 1); } if (true) { boolean x = true; System.out.println(x + 1); }"})
+    void testBlockScopeSharedExpression(String expr) {
+        final SyntaxTreeArena tree = SyntaxTreeArena.fromTree(this.getTree(expr));
+
+        assertThatThrownBy(() -> TypeChecker.validate(tree)).isInstanceOf(OperatorTypeMismatchException.class);
+        assertThatThrownBy(() -> SemanticAnalyzer.fromArena(tree)).isInstanceOf(OperatorTypeMismatchException.class);
+    }
+
+    private static String manyStatements(int count, int mismatch, int misuse) {
+        final StringBuilder statements = new StringBuilder("int i = 0;\nboolean b = true;\n");
+        for (int statement = 0; statement < count; statement++) {
+            if (statement == mismatch) {
+                statements.append("i = b;\n");
+            } else if (statement == misuse) {
+                statements.append("i = i + b;\n");
+            } else if (statement % 2 == 0) {
+                statements.append("i = (i + ").append(statement).append(") % 7;\n");
+            } else {
+                statements.append("if (i < ").append(statement).append(") { b = !b; }\n");
+            }
+        }
+
+        return statements.toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"int i = 0; i = (i + 1) * 2;",
+                            "boolean b = 1 < 2; while (b) { b = false; }",
+                            "String s = \"Hi\"; System.out.println(s);"})
+    void testParallelEqualsSequential(String expr) {
+        final SyntaxTreeArena tree = SyntaxTreeArena.fromTree(this.getTree(expr));
+
+        assertThat(TypeChecker.validateParallel(tree, TypeTable.fromArena(tree))).containsExactly(TypeChecker.validate(tree));
+    }
+
+    @Test
+    void testParallelManyStatements() {
+        final SyntaxTreeArena tree = SyntaxTreeArena.fromTree(this.getTree(manyStatements(1500, -1, -1)));
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            assertThat(TypeChecker.validateParallel(tree, TypeTable.fromArena(tree), pool)).containsExactly(TypeChecker.validate(tree));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParallelReportsFirstError() {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            final SyntaxTreeArena mismatchFirst = SyntaxTreeArena.fromTree(this.getTree(manyStatements(1500, 900, 1200)));
+            assertThatThrownBy(() -> TypeChecker.validateParallel(mismatchFirst, TypeTable.fromArena(mismatchFirst), pool))
+                    .isInstanceOf(AssignmentTypeMismatchException.class);
+
+            final SyntaxTreeArena misuseFirst = SyntaxTreeArena.fromTree(this.getTree(manyStatements(1500, 1200, 900)));
+            assertThatThrownBy(() -> TypeChecker.validateParallel(misuseFirst, TypeTable.fromArena(misuseFirst), pool))
+                    .isInstanceOf(OperatorTypeMismatchException.class);
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
@@ -6,9 +6,11 @@ import org.antlr.v4.runtime.Lexer;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import parser.StupsParser;
+import parser.ast.Operator;
 import parser.ast.SyntaxTree;
 import parser.grammar.Grammar;
 import typechecker.SymbolAlreadyDefinedException;
+import typechecker.Type;
 import typechecker.TypeTable;
 
 import java.io.IOException;
@@ -17,6 +19,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -54,7 +57,7 @@ class TypeTableTest {
 
         final TypeTable table = TypeTable.fromAST(tree);
 
-        assertThat(table.getSymbolType("i")).isEqualTo("INTEGER_TYPE");
+        assertThat(table.getSymbolType("i")).isEqualTo(Type.INTEGER_TYPE);
         assertThat(table.getSymbolCount()).isEqualTo(1);
     }
 
@@ -64,12 +67,12 @@ class TypeTableTest {
 
         final TypeTable table = TypeTable.fromAST(tree);
 
-        assertThat(table.getSymbolType("i")).isEqualTo("INTEGER_TYPE");
-        assertThat(table.getSymbolType("ii")).isEqualTo("INTEGER_TYPE");
-        assertThat(table.getSymbolType("b")).isEqualTo("BOOLEAN_TYPE");
-        assertThat(table.getSymbolType("bb")).isEqualTo("BOOLEAN_TYPE");
-        assertThat(table.getSymbolType("s")).isEqualTo("STRING_TYPE");
-        assertThat(table.getSymbolType("ss")).isEqualTo("STRING_TYPE");
+        assertThat(table.getSymbolType("i")).isEqualTo(Type.INTEGER_TYPE);
+        assertThat(table.getSymbolType("ii")).isEqualTo(Type.INTEGER_TYPE);
+        assertThat(table.getSymbolType("b")).isEqualTo(Type.BOOLEAN_TYPE);
+        assertThat(table.getSymbolType("bb")).isEqualTo(Type.BOOLEAN_TYPE);
+        assertThat(table.getSymbolType("s")).isEqualTo(Type.STRING_TYPE);
+        assertThat(table.getSymbolType("ss")).isEqualTo(Type.STRING_TYPE);
         assertThat(table.getSymbolCount()).isEqualTo(6);
     }
 
@@ -86,4 +89,23 @@ class TypeTableTest {
 
         assertThatThrownBy(() -> TypeTable.fromAST(tree)).isInstanceOf(SymbolAlreadyDefinedException.class);
     }
+
+    @Test
+    void testMethodSignatures() {
+        final TypeTable table = TypeTable.fromSymbols(Collections.emptyMap());
+
+        assertThat(table.getMethodReturnType(Operator.ADD)).isEqualTo(Type.INTEGER_TYPE);
+        assertThat(table.getMethodReturnType(Operator.LESS)).isEqualTo(Type.BOOLEAN_TYPE);
+
+        assertThat(table.getMethodReturnType(Operator.ADD, Type.INTEGER_TYPE)).isEqualTo(Type.INTEGER_TYPE);
+        assertThat(table.getMethodReturnType(Operator.ADD, Type.STRING_TYPE)).isNull();
+        assertThat(table.getMethodReturnType(Operator.LESS, Type.INTEGER_TYPE)).isEqualTo(Type.BOOLEAN_TYPE);
+        assertThat(table.getMethodReturnType(Operator.LESS, Type.BOOLEAN_TYPE)).isNull();
+        assertThat(table.getMethodReturnType(Operator.NOT, Type.BOOLEAN_TYPE)).isEqualTo(Type.BOOLEAN_TYPE);
+
+        for (Type type : Type.values()) {
+            assertThat(table.getMethodReturnType(Operator.EQUAL, type)).isEqualTo(Type.BOOLEAN_TYPE);
+            assertThat(table.getMethodReturnType(Operator.NOT_EQUAL, type)).isEqualTo(Type.BOOLEAN_TYPE);
+        }
+    }
 }